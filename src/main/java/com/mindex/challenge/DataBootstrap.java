@@ -4,6 +4,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mindex.challenge.dao.EmployeeRepository;
 import com.mindex.challenge.data.Employee;
 import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -12,6 +14,8 @@ import java.io.InputStream;
 
 @Component
 public class DataBootstrap {
+    private static final Logger LOG = LoggerFactory.getLogger(DataBootstrap.class);
+
     private static final String DATASTORE_LOCATION = "/static/employee_database.json";
 
     @Autowired
@@ -22,6 +26,14 @@ public class DataBootstrap {
 
     @PostConstruct
     public void init() {
+        // A durable backend keeps the imported employees, and any changes since, between runs.
+        long existingEmployees = employeeRepository.count();
+        if (existingEmployees > 0) {
+            LOG.info("Skipping employee import, [{}] employees already exist", existingEmployees);
+            return;
+        }
+
+        long start = System.nanoTime();
         InputStream inputStream = this.getClass().getResourceAsStream(DATASTORE_LOCATION);
 
         Employee[] employees = null;
@@ -35,5 +47,7 @@ public class DataBootstrap {
         for (Employee employee : employees) {
             employeeRepository.insert(employee);
         }
+
+        LOG.info("Imported [{}] employees in [{}] ms", employees.length, (System.nanoTime() - start) / 1_000_000);
     }
 }
@@ -0,0 +1,107 @@
+package com.mindex.challenge;
+
+import com.mindex.challenge.data.Employee;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * One-time migration of employee documents which still store direct reports as nested employee sub-documents,
+ * possibly whole expanded subtrees, to the array of direct report IDs the {@link Employee} mapping now uses.
+ * Migrated documents no longer match, so running it again on every startup is a single empty query.
+ *
+ * @author Robert Heinbokel
+ */
+@Component
+public class DirectReportsMigration {
+    private static final Logger LOG = LoggerFactory.getLogger(DirectReportsMigration.class);
+
+    private static final String LEGACY_DIRECT_REPORTS = "directReports";
+    private static final String DIRECT_REPORT_IDS = "directReportIds";
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructor for dependency injection.
+     * @param mongoTemplate the {@link MongoTemplate} to use.
+     */
+    public DirectReportsMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        migrate();
+    }
+
+    /**
+     * Rewrites every employee document with legacy nested direct reports, in unordered bulk updates.
+     * @return the number of employee documents migrated.
+     */
+    public int migrate() {
+        final String collection = mongoTemplate.getCollectionName(Employee.class);
+        final Query legacyDocuments = query(where(LEGACY_DIRECT_REPORTS).exists(true));
+        legacyDocuments.fields().include(LEGACY_DIRECT_REPORTS).include(DIRECT_REPORT_IDS);
+
+        int migrated = 0;
+        BulkOperations batch = null;
+
+        try (Stream<Document> documents = mongoTemplate.stream(legacyDocuments, Document.class, collection)) {
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                if (batch == null) {
+                    batch = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+                }
+                batch.updateOne(query(where("_id").is(document.get("_id"))),
+                        new Update().set(DIRECT_REPORT_IDS, directReportIds(document)).unset(LEGACY_DIRECT_REPORTS));
+
+                if (++migrated % BATCH_SIZE == 0) {
+                    batch.execute();
+                    batch = null;
+                }
+            }
+        }
+
+        if (batch != null) {
+            batch.execute();
+        }
+        if (migrated > 0) {
+            LOG.info("Migrated [{}] employees to direct report IDs", migrated);
+        }
+        return migrated;
+    }
+
+    private static List<String> directReportIds(Document document) {
+        // Keeps any IDs already stored, in case a document was partially written by both formats.
+        final Set<String> directReportIds = new LinkedHashSet<>();
+        final List<String> existing = document.getList(DIRECT_REPORT_IDS, String.class);
+        if (existing != null) {
+            directReportIds.addAll(existing);
+        }
+
+        final List<Document> legacy = document.getList(LEGACY_DIRECT_REPORTS, Document.class);
+        if (legacy != null) {
+            for (Document report : legacy) {
+                final Object reportId = report.get("_id");
+                if (reportId != null) {
+                    directReportIds.add(reportId.toString());
+                }
+            }
+        }
+        return List.copyOf(directReportIds);
+    }
+}
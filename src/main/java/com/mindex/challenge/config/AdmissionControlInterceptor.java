@@ -0,0 +1,248 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.exceptions.RateLimitExceededException;
+import com.mindex.challenge.exceptions.ServerOverloadedException;
+import com.mindex.challenge.service.impl.OrgSizeIndex;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for the API, shedding excess requests up front with a 429 or 503 rather than letting them queue
+ * up behind each other, so a few expensive requests can't starve the cheap ones.
+ * <ul>
+ *     <li>Each client, identified by its remote address, has a token bucket. Requests cost one token, plus one per
+ *     {@code admission.client.reports-per-token} reports they are estimated to traverse. Exceeding it is a 429.</li>
+ *     <li>Each endpoint has a limit of concurrent requests, which is much lower for endpoints annotated with
+ *     {@link TraversesReportingStructure}. Exceeding it is a 503.</li>
+ *     <li>Requests traversing a reporting structure are estimated to cost its size according to the
+ *     {@link OrgSizeIndex}, and the total estimated size of those in flight is capped. Exceeding it is a 503, unless
+ *     nothing else is in flight so a structure larger than the cap is still served. A structure whose size is not
+ *     known yet is estimated as its root alone, leaving it to the concurrency limit until the size is recorded.</li>
+ *     <li>Identical requests to an endpoint whose traversals are {@link TraversesReportingStructure#coalesced()} share
+ *     the traversal, so they share its reservation of reports in flight too, until the last of them completes. They
+ *     still pay their tokens and take a concurrency permit each, as each serializes the response on its own thread.
+ *     The hierarchy generation is part of what makes requests identical, as a request arriving after a change starts
+ *     a traversal of its own.</li>
+ * </ul>
+ * Async requests only hold their admission until the handler returns, so long-lived streams are not limited.
+ *
+ * @author Robert Heinbokel
+ */
+@Component
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ADMISSION_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".admission";
+
+    private final Map<String, Semaphore> endpointPermits = new ConcurrentHashMap<>();
+
+    private final AtomicLong reportsInFlight = new AtomicLong();
+
+    private final Map<String, SharedReservation> sharedReservations = new HashMap<>(); // Guarded by itself
+
+    private final int maxConcurrentPerEndpoint;
+
+    private final int maxConcurrentTraversalsPerEndpoint;
+
+    private final long maxReportsInFlight;
+
+    private final int reportsPerToken;
+
+    private final ClientRateLimiter clientRateLimiter;
+
+    private final OrgSizeIndex orgSizeIndex;
+
+    /**
+     * Constructor for dependency injection.
+     * @param maxConcurrentPerEndpoint the number of requests each endpoint may serve concurrently.
+     * @param maxConcurrentTraversalsPerEndpoint the same for endpoints traversing a reporting structure.
+     * @param maxReportsInFlight the estimated number of reports all reporting structures in flight may traverse.
+     * @param clientBurst the number of tokens a client may spend at once.
+     * @param clientTokensPerSecond the number of tokens a client regains per second.
+     * @param reportsPerToken the number of reports a request may traverse per token it costs, beyond the first.
+     * @param maxClients the number of clients above which idle clients' token buckets are dropped.
+     * @param orgSizeIndex the {@link OrgSizeIndex} to estimate the size of reporting structures with.
+     */
+    @Autowired
+    public AdmissionControlInterceptor(@Value("${admission.max-concurrent-per-endpoint:200}") int maxConcurrentPerEndpoint,
+                                       @Value("${admission.traversal.max-concurrent-per-endpoint:8}") int maxConcurrentTraversalsPerEndpoint,
+                                       @Value("${admission.traversal.max-reports-in-flight:100000}") long maxReportsInFlight,
+                                       @Value("${admission.client.burst:500}") long clientBurst,
+                                       @Value("${admission.client.tokens-per-second:250}") double clientTokensPerSecond,
+                                       @Value("${admission.client.reports-per-token:1000}") int reportsPerToken,
+                                       @Value("${admission.client.max-clients:10000}") int maxClients,
+                                       OrgSizeIndex orgSizeIndex) {
+        this(maxConcurrentPerEndpoint, maxConcurrentTraversalsPerEndpoint, maxReportsInFlight, reportsPerToken,
+                new ClientRateLimiter(clientBurst, clientTokensPerSecond, maxClients, Clock.systemUTC()), orgSizeIndex);
+    }
+
+    /**
+     * Constructor allowing the {@link ClientRateLimiter} to be provided.
+     * @param maxConcurrentPerEndpoint the number of requests each endpoint may serve concurrently.
+     * @param maxConcurrentTraversalsPerEndpoint the same for endpoints traversing a reporting structure.
+     * @param maxReportsInFlight the estimated number of reports all reporting structures in flight may traverse.
+     * @param reportsPerToken the number of reports a request may traverse per token it costs, beyond the first.
+     * @param clientRateLimiter the {@link ClientRateLimiter} holding each client's tokens.
+     * @param orgSizeIndex the {@link OrgSizeIndex} to estimate the size of reporting structures with.
+     */
+    public AdmissionControlInterceptor(int maxConcurrentPerEndpoint, int maxConcurrentTraversalsPerEndpoint,
+                                       long maxReportsInFlight, int reportsPerToken,
+                                       ClientRateLimiter clientRateLimiter, OrgSizeIndex orgSizeIndex) {
+        this.maxConcurrentPerEndpoint = maxConcurrentPerEndpoint;
+        this.maxConcurrentTraversalsPerEndpoint = maxConcurrentTraversalsPerEndpoint;
+        this.maxReportsInFlight = maxReportsInFlight;
+        this.reportsPerToken = reportsPerToken;
+        this.clientRateLimiter = clientRateLimiter;
+        this.orgSizeIndex = orgSizeIndex;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod) || request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+
+        final TraversesReportingStructure traversal = handlerMethod.getMethodAnnotation(TraversesReportingStructure.class);
+        final long generation = orgSizeIndex.generation();
+        final long estimatedReports = traversal == null ? 0 : estimateReports(request, traversal);
+        final String client = request.getRemoteAddr();
+        final String endpoint = request.getMethod() + " " + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+
+        String sharedKey = null;
+        if (traversal != null && traversal.coalesced()) {
+            final String query = request.getQueryString();
+            sharedKey = endpoint + " " + request.getRequestURI() + (query == null ? "" : "?" + query)
+                    + " @" + generation;
+        }
+        request.setAttribute(ADMISSION_ATTRIBUTE, admit(client, endpoint, traversal, estimatedReports, sharedKey));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    private Admission admit(String client, String endpoint, TraversesReportingStructure traversal, long estimatedReports,
+                            String sharedKey) {
+        if (!clientRateLimiter.tryAcquire(client, 1 + estimatedReports / reportsPerToken)) {
+            throw new RateLimitExceededException("Rate limit exceeded for client: " + client);
+        }
+
+        final Semaphore permits = endpointPermits.computeIfAbsent(endpoint,
+                key -> new Semaphore(traversal == null ? maxConcurrentPerEndpoint : maxConcurrentTraversalsPerEndpoint));
+        if (!permits.tryAcquire()) {
+            throw new ServerOverloadedException("Too many concurrent requests to: " + endpoint);
+        }
+
+        final long reservedReports = traversal == null ? 0 : estimatedReports + 1;
+        if (sharedKey != null) {
+            return new Admission(permits, 0, shareReservation(sharedKey, reservedReports, permits, endpoint));
+        }
+        if (reservedReports > 0 && !reserveReports(reservedReports)) {
+            permits.release();
+            throw new ServerOverloadedException("Too many reporting structures in flight to serve: " + endpoint);
+        }
+
+        return new Admission(permits, reservedReports, null);
+    }
+
+    /**
+     * Joins the reservation of reports in flight held by an identical request, or reserves them as the first of its kind.
+     * @param key the key identifying identical requests.
+     * @param reports the estimated number of reports to reserve.
+     * @param permits the endpoint permits to give the request's permit back to if the reports can't be reserved.
+     * @param endpoint the endpoint requested.
+     * @return the {@link SharedReservation} of the request.
+     */
+    private SharedReservation shareReservation(String key, long reports, Semaphore permits, String endpoint) {
+        synchronized (sharedReservations) {
+            final SharedReservation shared = sharedReservations.get(key);
+            if (shared != null) {
+                shared.holders++;
+                return shared;
+            }
+
+            if (!reserveReports(reports)) {
+                permits.release();
+                throw new ServerOverloadedException("Too many reporting structures in flight to serve: " + endpoint);
+            }
+            final SharedReservation reserved = new SharedReservation(key, reports);
+            sharedReservations.put(key, reserved);
+            return reserved;
+        }
+    }
+
+    private long estimateReports(HttpServletRequest request, TraversesReportingStructure traversal) {
+        @SuppressWarnings("unchecked")
+        final Map<String, String> pathVariables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        final String employeeId = pathVariables == null ? null : pathVariables.get(traversal.value());
+        return employeeId == null ? 0 : Math.max(0, orgSizeIndex.estimate(employeeId));
+    }
+
+    private boolean reserveReports(long reports) {
+        while (true) {
+            final long inFlight = reportsInFlight.get();
+            if (inFlight > 0 && inFlight + reports > maxReportsInFlight) {
+                return false;
+            }
+            if (reportsInFlight.compareAndSet(inFlight, inFlight + reports)) {
+                return true;
+            }
+        }
+    }
+
+    private void release(HttpServletRequest request) {
+        final Admission admission = (Admission) request.getAttribute(ADMISSION_ATTRIBUTE);
+        if (admission == null) {
+            return;
+        }
+        request.removeAttribute(ADMISSION_ATTRIBUTE);
+
+        admission.permits().release();
+        reportsInFlight.addAndGet(-admission.reservedReports());
+
+        final SharedReservation shared = admission.sharedReservation();
+        if (shared != null) {
+            synchronized (sharedReservations) {
+                if (--shared.holders > 0) {
+                    return;
+                }
+                sharedReservations.remove(shared.key);
+            }
+            reportsInFlight.addAndGet(-shared.reports);
+        }
+    }
+
+    private record Admission(Semaphore permits, long reservedReports, SharedReservation sharedReservation) {
+    }
+
+    private static final class SharedReservation {
+        private final String key;
+        private final long reports;
+        private int holders = 1; // Guarded by sharedReservations
+
+        private SharedReservation(String key, long reports) {
+            this.key = key;
+            this.reports = reports;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.mindex.challenge.config;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-client token buckets. Each client may spend up to a burst of tokens at once, refilled at a steady rate.
+ * Buckets of clients which stopped sending requests refill completely and are dropped once there are too many clients.
+ *
+ * @author Robert Heinbokel
+ */
+public class ClientRateLimiter {
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private final long burst;
+
+    private final double tokensPerMilli;
+
+    private final int maxClients;
+
+    private final Clock clock;
+
+    /**
+     * Constructs the rate limiter.
+     * @param burst the number of tokens a client may spend at once.
+     * @param tokensPerSecond the number of tokens a client regains per second.
+     * @param maxClients the number of clients above which idle clients' buckets are dropped.
+     * @param clock the {@link Clock} used to refill buckets.
+     */
+    public ClientRateLimiter(long burst, double tokensPerSecond, int maxClients, Clock clock) {
+        this.burst = burst;
+        this.tokensPerMilli = tokensPerSecond / 1000;
+        this.maxClients = maxClients;
+        this.clock = clock;
+    }
+
+    /**
+     * Takes tokens from a client's bucket, if it holds enough.
+     * A cost above the burst is capped to it, so an expensive request is still admitted when the bucket is full.
+     * @param client the key identifying the client.
+     * @param tokens the number of tokens the request costs.
+     * @return true if the tokens were taken, false if the client is over its rate limit.
+     */
+    public boolean tryAcquire(String client, long tokens) {
+        final long now = clock.millis();
+        if (buckets.size() > maxClients) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+        return buckets.computeIfAbsent(client, key -> new TokenBucket(burst, now)).tryTake(Math.min(tokens, burst), now);
+    }
+
+    private final class TokenBucket {
+        private double tokens; // Guarded by this
+        private long refilledAt; // Guarded by this
+
+        private TokenBucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        private synchronized boolean tryTake(long cost, long now) {
+            refill(now);
+            if (tokens < cost) {
+                return false;
+            }
+            tokens -= cost;
+            return true;
+        }
+
+        private synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= burst;
+        }
+
+        private void refill(long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerMilli);
+                refilledAt = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.data.ErrorLogStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate limits the error logging of {@link GlobalControllerExceptionHandler}, so a flood of failing requests doesn't
+ * turn into a flood of log lines. Each type of error may be logged a number of times per window, further occurrences
+ * in the window are only counted, and reported along with the next occurrence which is logged.
+ * Every occurrence is counted regardless, see {@link #snapshot()}.
+ *
+ * @author Robert Heinbokel
+ */
+@Component
+public class ErrorLogLimiter {
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final int maxPerWindow;
+
+    private final long windowMillis;
+
+    private final Clock clock;
+
+    /**
+     * Constructor for dependency injection.
+     * @param maxPerWindow the number of times each type of error may be logged per window.
+     * @param window the {@link Duration} of a window.
+     */
+    @Autowired
+    public ErrorLogLimiter(@Value("${errors.log.max-per-window:10}") int maxPerWindow,
+                           @Value("${errors.log.window:1s}") Duration window) {
+        this(maxPerWindow, window, Clock.systemUTC());
+    }
+
+    /**
+     * Constructor allowing the {@link Clock} to be provided.
+     * @param maxPerWindow the number of times each type of error may be logged per window.
+     * @param window the {@link Duration} of a window.
+     * @param clock the {@link Clock} windows are timed with.
+     */
+    public ErrorLogLimiter(int maxPerWindow, Duration window, Clock clock) {
+        this.maxPerWindow = maxPerWindow;
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Counts an occurrence of an error and decides whether it should be logged.
+     * @param type the type of the error, such as the name of its exception.
+     * @return the number of occurrences which were not logged since the last one which was, or -1 if this occurrence
+     * should not be logged either.
+     */
+    public long acquire(String type) {
+        final Counter counter = counters.computeIfAbsent(type, key -> new Counter());
+        counter.total.increment();
+
+        final long now = clock.millis();
+        synchronized (counter) {
+            if (now - counter.windowStart >= windowMillis) {
+                counter.windowStart = now;
+                counter.loggedInWindow = 0;
+            }
+            if (counter.loggedInWindow >= maxPerWindow) {
+                counter.suppressedSinceLogged++;
+                counter.suppressed.increment();
+                return -1;
+            }
+
+            counter.loggedInWindow++;
+            final long suppressed = counter.suppressedSinceLogged;
+            counter.suppressedSinceLogged = 0;
+            return suppressed;
+        }
+    }
+
+    /**
+     * Returns the occurrences of each type of error since startup.
+     * @return the {@link ErrorLogStats} of each type of error, ordered by type.
+     */
+    public List<ErrorLogStats> snapshot() {
+        return counters.entrySet().stream()
+                .map(entry -> new ErrorLogStats(entry.getKey(), entry.getValue().total.sum(), entry.getValue().suppressed.sum()))
+                .sorted(Comparator.comparing(ErrorLogStats::getType))
+                .toList();
+    }
+
+    private static final class Counter {
+        private final LongAdder total = new LongAdder();
+        private final LongAdder suppressed = new LongAdder();
+        private long windowStart = Long.MIN_VALUE / 2; // Guarded by this, far enough in the past to start a window
+        private int loggedInWindow; // Guarded by this
+        private long suppressedSinceLogged; // Guarded by this
+    }
+}
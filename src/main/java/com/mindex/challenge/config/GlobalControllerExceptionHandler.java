@@ -3,12 +3,20 @@ package com.mindex.challenge.config;
 import com.mindex.challenge.exceptions.CircularReferenceException;
 import com.mindex.challenge.exceptions.DuplicateEntityException;
 import com.mindex.challenge.exceptions.ErrorDetails;
+import com.mindex.challenge.exceptions.IdempotencyKeyReuseException;
+import com.mindex.challenge.exceptions.InvalidReportingRelationshipException;
+import com.mindex.challenge.exceptions.RateLimitExceededException;
 import com.mindex.challenge.exceptions.ResourceNotFoundException;
+import com.mindex.challenge.exceptions.ServerOverloadedException;
+import com.mindex.challenge.exceptions.StreamInterruptedException;
 import com.mindex.challenge.exceptions.UnexpectedDatabaseException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -16,12 +24,15 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.stream.Collectors;
 
 /**
  * GlobalControllerExceptionHandler handles exceptions for all controllers.
  * This ensures all exceptions will be handled before responding to the client.
+ * Client errors are logged at WARN and server errors at ERROR, both rate limited per exception type by the
+ * {@link ErrorLogLimiter} so bursts of failing requests can't flood the logs.
  *
  * @author Robert Heinbokel.
  */
@@ -30,6 +41,18 @@ public class GlobalControllerExceptionHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(GlobalControllerExceptionHandler.class);
 
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final ErrorLogLimiter errorLogLimiter;
+
+    /**
+     * Constructor for dependency injection.
+     * @param errorLogLimiter the {@link ErrorLogLimiter} deciding which errors are logged.
+     */
+    public GlobalControllerExceptionHandler(ErrorLogLimiter errorLogLimiter) {
+        this.errorLogLimiter = errorLogLimiter;
+    }
+
     /**
      * Handles MethodArgumentNotValidException
      * @param ex the {@link MethodArgumentNotValidException} to handle.
@@ -47,7 +70,7 @@ public class GlobalControllerExceptionHandler {
                 errors,
                 request.getRequestURI()
         );
-        LOG.error("MethodArgumentNotValidException was thrown: {}", errorDetails.getMessage());
+        log(Level.WARN, ex, null, "MethodArgumentNotValidException was thrown: {}", errorDetails.getMessage());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorDetails);
     }
 
@@ -66,7 +89,7 @@ public class GlobalControllerExceptionHandler {
                 request.getRequestURI()
         );
 
-        LOG.error("HandlerMethodValidationException was thrown: {}", errorDetails.getMessage());
+        log(Level.WARN, ex, null, "HandlerMethodValidationException was thrown: {}", errorDetails.getMessage());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorDetails);
     }
 
@@ -87,7 +110,25 @@ public class GlobalControllerExceptionHandler {
                 errors,
                 request.getRequestURI()
         );
-        LOG.error("ConstraintViolationException was thrown: {}", errorDetails.getMessage());
+        log(Level.WARN, ex, null, "ConstraintViolationException was thrown: {}", errorDetails.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorDetails);
+    }
+
+    /**
+     * Handles MethodArgumentTypeMismatchException, e.g. a date request parameter that isn't in yyyy-MM-dd format.
+     * @param ex the {@link MethodArgumentTypeMismatchException} to handle.
+     * @param request the {@link HttpServletRequest} containing the request/path data.
+     * @return the {@link ResponseEntity<ErrorDetails>} to return.
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorDetails> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException ex, HttpServletRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                HttpStatus.BAD_REQUEST.value(),
+                "Validation error",
+                String.format("%s: Invalid value '%s'", ex.getName(), ex.getValue()),
+                request.getRequestURI()
+        );
+        log(Level.WARN, ex, null, "MethodArgumentTypeMismatchException was thrown: {}", errorDetails.getMessage());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorDetails);
     }
 
@@ -105,7 +146,43 @@ public class GlobalControllerExceptionHandler {
                 ex.getMessage(),
                 request.getRequestURI()
         );
-        LOG.error("DuplicateEntityException was thrown: {}", errorDetails.getMessage());
+        log(Level.WARN, ex, null, "DuplicateEntityException was thrown: {}", errorDetails.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorDetails);
+    }
+
+    /**
+     * Handles IdempotencyKeyReuseException
+     * @param ex the {@link IdempotencyKeyReuseException} to handle.
+     * @param request the {@link HttpServletRequest} containing the request/path data.
+     * @return the {@link ResponseEntity<ErrorDetails>} to return.
+     */
+    @ExceptionHandler(IdempotencyKeyReuseException.class)
+    public ResponseEntity<ErrorDetails> handleIdempotencyKeyReuseException(IdempotencyKeyReuseException ex, HttpServletRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                "Idempotency key reuse",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        log(Level.WARN, ex, null, "IdempotencyKeyReuseException was thrown: {}", errorDetails.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(errorDetails);
+    }
+
+    /**
+     * Handles InvalidReportingRelationshipException
+     * @param ex the {@link InvalidReportingRelationshipException} to handle.
+     * @param request the {@link HttpServletRequest} containing the request/path data.
+     * @return the {@link ResponseEntity<ErrorDetails>} to return.
+     */
+    @ExceptionHandler(InvalidReportingRelationshipException.class)
+    public ResponseEntity<ErrorDetails> handleInvalidReportingRelationshipException(InvalidReportingRelationshipException ex, HttpServletRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                HttpStatus.BAD_REQUEST.value(),
+                "Invalid reporting relationship",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        log(Level.WARN, ex, null, "InvalidReportingRelationshipException was thrown: {}", errorDetails.getMessage());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorDetails);
     }
 
@@ -123,10 +200,50 @@ public class GlobalControllerExceptionHandler {
                 ex.getMessage(),
                 request.getRequestURI()
         );
-        LOG.error("ResourceNotFoundException was thrown: {}", errorDetails.getMessage());
+        log(Level.WARN, ex, null, "ResourceNotFoundException was thrown: {}", errorDetails.getMessage());
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorDetails);
     }
 
+    /**
+     * Handles RateLimitExceededException, asking the client to retry after its tokens are replenished.
+     * @param ex the {@link RateLimitExceededException} to handle.
+     * @param request the {@link HttpServletRequest} containing the request/path data.
+     * @return the {@link ResponseEntity<ErrorDetails>} to return.
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorDetails> handleRateLimitExceededException(RateLimitExceededException ex, HttpServletRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Rate limit exceeded",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        log(Level.WARN, ex, null, "RateLimitExceededException was thrown: {}", errorDetails.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(errorDetails);
+    }
+
+    /**
+     * Handles ServerOverloadedException, asking the client to retry once the requests in flight have completed.
+     * @param ex the {@link ServerOverloadedException} to handle.
+     * @param request the {@link HttpServletRequest} containing the request/path data.
+     * @return the {@link ResponseEntity<ErrorDetails>} to return.
+     */
+    @ExceptionHandler(ServerOverloadedException.class)
+    public ResponseEntity<ErrorDetails> handleServerOverloadedException(ServerOverloadedException ex, HttpServletRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Server overloaded",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        log(Level.WARN, ex, null, "ServerOverloadedException was thrown: {}", errorDetails.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(errorDetails);
+    }
+
     /**
      * Handles UnexpectedDatabaseException
      * @param ex the {@link UnexpectedDatabaseException} to handle.
@@ -141,7 +258,7 @@ public class GlobalControllerExceptionHandler {
                 ex.getMessage(),
                 request.getRequestURI()
         );
-        LOG.error("UnexpectedDatabaseException was thrown: {}", errorDetails.getMessage());
+        log(Level.ERROR, ex, ex.getCause(), "UnexpectedDatabaseException was thrown: {}", errorDetails.getMessage());
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorDetails);
     }
 
@@ -160,10 +277,22 @@ public class GlobalControllerExceptionHandler {
                 request.getRequestURI()
         );
         // Log the error for ourselves to see, but don't let the caller know the specific cause.
-        LOG.error("CircularReferenceException was thrown: {}", ex.getMessage());
+        log(Level.ERROR, ex, null, "CircularReferenceException was thrown: {}", ex.getMessage());
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorDetails);
     }
 
+    /**
+     * Handles StreamInterruptedException, which can't be answered with an error as part of the response was sent.
+     * Rethrowing it leaves it unhandled, so the servlet container aborts the connection and the client sees the
+     * response was cut short, rather than an error body appended to a successful one.
+     * @param ex the {@link StreamInterruptedException} to handle.
+     */
+    @ExceptionHandler(StreamInterruptedException.class)
+    public void handleStreamInterruptedException(StreamInterruptedException ex) {
+        log(Level.ERROR, ex, ex.getCause(), "StreamInterruptedException was thrown: {}", ex.getMessage());
+        throw ex;
+    }
+
     /**
      * Handles all other exceptions not caught elsewhere.
      * @param ex the {@link Exception} to handle.
@@ -178,7 +307,29 @@ public class GlobalControllerExceptionHandler {
                 ex.getMessage(),
                 request.getRequestURI()
         );
-        LOG.error("The following error occurred: {} {}", ex.getMessage(), ex.getStackTrace());
+        log(Level.ERROR, ex, ex, "The following error occurred: {}", ex.getMessage());
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorDetails);
     }
+
+    /**
+     * Logs a handled exception, unless its type was already logged too often in the current window.
+     * @param level the {@link Level} to log at.
+     * @param ex the handled exception, whose type is rate limited.
+     * @param cause the {@link Throwable} whose stack trace to log, or null to log the message only.
+     * @param format the message format.
+     * @param argument the argument of the message format.
+     */
+    private void log(Level level, Exception ex, Throwable cause, String format, Object argument) {
+        final long suppressed = errorLogLimiter.acquire(ex.getClass().getSimpleName());
+        if (suppressed < 0) {
+            return;
+        }
+
+        final LoggingEventBuilder event = LOG.atLevel(level).setCause(cause).addArgument(argument);
+        if (suppressed > 0) {
+            event.addArgument(suppressed).log(format + " ({} more not logged due to rate limiting)");
+        } else {
+            event.log(format);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.mindex.challenge.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Customizes the {@code ObjectMapper} Spring Boot configures for the API.
+ * Employees, reporting structures and compensations have hand-written serializers (see the json package), the
+ * remaining types are serialized through the Blackbird module, which replaces reflective getter and constructor calls
+ * with generated lambdas.
+ * Besides JSON, requests and responses can be exchanged as CBOR ({@code application/cbor}) or Smile
+ * ({@code application/x-jackson-smile}), negotiated through the Accept and Content-Type headers.
+ *
+ * @author Robert Heinbokel
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Registers the Blackbird module, as Spring Boot registers every {@code Module} bean with its ObjectMapper.
+     * @return the {@link BlackbirdModule}.
+     */
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    /**
+     * Reads and writes CBOR with the same modules, serializers and features as the JSON ObjectMapper.
+     * Registering it as a bean replaces the converter Spring MVC would otherwise add with Jackson's defaults.
+     * @param builder Spring Boot's configured {@link Jackson2ObjectMapperBuilder}.
+     * @return the {@link MappingJackson2CborHttpMessageConverter}.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Reads and writes Smile with the same modules, serializers and features as the JSON ObjectMapper.
+     * @param builder Spring Boot's configured {@link Jackson2ObjectMapperBuilder}.
+     * @return the {@link MappingJackson2SmileHttpMessageConverter}.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -1,35 +1,189 @@
 package com.mindex.challenge.config;
 
 import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.dao.converters.CompensationReadConverter;
+import com.mindex.challenge.dao.converters.CompensationWriteConverter;
+import com.mindex.challenge.dao.converters.EmployeeReadConverter;
+import com.mindex.challenge.dao.converters.EmployeeWriteConverter;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.ReadPreference;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoBackend;
 import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.h2.H2Backend;
 import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 import org.springframework.lang.NonNull;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @EnableMongoRepositories(basePackageClasses = EmployeeRepository.class)
 @Configuration
 public class MongoConfig extends AbstractMongoClientConfiguration {
+    private static final Logger LOG = LoggerFactory.getLogger(MongoConfig.class);
+
+    private final String uri;
+
+    private final String databaseName;
+
+    private final String backend;
+
+    private final String h2File;
+
+    private final int poolMaxSize;
+
+    private final int poolMinSize;
+
+    private final Duration poolMaxWaitTime;
+
+    private final Duration connectTimeout;
+
+    private final Duration readTimeout;
+
+    private final ReadPreference readPreference;
+
+    private final MongoConnectionPoolMetrics connectionPoolMetrics;
+
+    /**
+     * Constructor for dependency injection.
+     * @param uri the connection string of the Mongo deployment, or blank to start the embedded server.
+     * @param databaseName the database to use.
+     * @param backend the storage backend of the embedded server, either memory or h2.
+     * @param h2File the MVStore file the h2 backend persists to.
+     * @param poolMaxSize the maximum number of connections per server.
+     * @param poolMinSize the number of connections per server kept open even when idle.
+     * @param poolMaxWaitTime how long an operation waits for a free connection before failing.
+     * @param connectTimeout how long opening a connection may take.
+     * @param readTimeout how long a socket read may take, zero for no limit.
+     * @param readPreference the read preference name, such as primary or secondaryPreferred.
+     * @param connectionPoolMetrics the {@link MongoConnectionPoolMetrics} to register on the connection pools.
+     */
+    public MongoConfig(@Value("${mongo.uri:}") String uri,
+                       @Value("${mongo.database:test}") String databaseName,
+                       @Value("${mongo.backend:memory}") String backend,
+                       @Value("${mongo.h2.file:data/challenge.mv}") String h2File,
+                       @Value("${mongo.pool.max-size:100}") int poolMaxSize,
+                       @Value("${mongo.pool.min-size:0}") int poolMinSize,
+                       @Value("${mongo.pool.max-wait-time:2m}") Duration poolMaxWaitTime,
+                       @Value("${mongo.socket.connect-timeout:10s}") Duration connectTimeout,
+                       @Value("${mongo.socket.read-timeout:0s}") Duration readTimeout,
+                       @Value("${mongo.read-preference:primary}") String readPreference,
+                       MongoConnectionPoolMetrics connectionPoolMetrics) {
+        this.uri = uri;
+        this.databaseName = databaseName;
+        this.backend = backend;
+        this.h2File = h2File;
+        this.poolMaxSize = poolMaxSize;
+        this.poolMinSize = poolMinSize;
+        this.poolMaxWaitTime = poolMaxWaitTime;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.readPreference = ReadPreference.valueOf(readPreference);
+        this.connectionPoolMetrics = connectionPoolMetrics;
+    }
 
     @Override
     @NonNull
     protected String getDatabaseName() {
-        return "test";
+        return databaseName;
+    }
+
+    /**
+     * Creates the indexes declared on mapped documents at startup, such as the unique
+     * (employeeId, effectiveDate) index on compensation which create relies on to reject duplicates.
+     */
+    @Override
+    protected boolean autoIndexCreation() {
+        return true;
+    }
+
+    /**
+     * Registers hand-written converters for the hottest documents, so reading and writing them skips reflective mapping.
+     * They produce the same documents as the default mapping, so existing data and queries are unaffected.
+     */
+    @Override
+    protected void configureConverters(@NonNull MongoCustomConversions.MongoConverterConfigurationAdapter converterConfigurationAdapter) {
+        converterConfigurationAdapter.registerConverters(List.of(
+                new EmployeeReadConverter(), new EmployeeWriteConverter(),
+                new CompensationReadConverter(), new CompensationWriteConverter()));
+    }
+
+    /**
+     * Starts the embedded Mongo server on a free local port, unless a mongo.uri is configured.
+     * Shutting it down on context close also closes the backend, which flushes the h2 backend to disk.
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnExpression("'${mongo.uri:}'.isBlank()")
+    public MongoServer mongoServer() {
+        MongoServer server = new MongoServer(mongoBackend());
+        server.bind();
+        return server;
     }
 
     @Override
     @NonNull
     public MongoClient mongoClient() {
-        MongoServer server = new MongoServer(new MemoryBackend());
-        InetSocketAddress serverAddress = server.bind();
-        String mongoConnectionString = String.format("mongodb://%s:%d", serverAddress.getHostName(), serverAddress.getPort());
-        return MongoClients.create(mongoConnectionString);
+        return MongoClients.create(mongoClientSettings());
     }
-}
 
+    @Override
+    protected void configureClientSettings(@NonNull MongoClientSettings.Builder builder) {
+        builder.applyConnectionString(new ConnectionString(connectionString()))
+                .readPreference(readPreference)
+                .applyToConnectionPoolSettings(pool -> pool
+                        .maxSize(poolMaxSize)
+                        .minSize(poolMinSize)
+                        .maxWaitTime(poolMaxWaitTime.toMillis(), TimeUnit.MILLISECONDS)
+                        .addConnectionPoolListener(connectionPoolMetrics))
+                .applyToSocketSettings(socket -> socket
+                        .connectTimeout((int) connectTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                        .readTimeout((int) readTimeout.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    private String connectionString() {
+        if (!uri.isBlank()) {
+            return uri;
+        }
+        InetSocketAddress serverAddress = mongoServer().getLocalAddress();
+        return String.format("mongodb://%s:%d", serverAddress.getHostName(), serverAddress.getPort());
+    }
 
+    private MongoBackend mongoBackend() {
+        switch (backend) {
+            case "memory":
+                return new MemoryBackend();
+            case "h2":
+                LOG.info("Persisting embedded Mongo data to [{}]", h2File);
+                createParentDirectories(Path.of(h2File));
+                return new H2Backend(h2File);
+            default:
+                throw new IllegalStateException("Unknown mongo.backend: " + backend + ", expected memory or h2");
+        }
+    }
+
+    private static void createParentDirectories(Path file) {
+        Path parent = file.toAbsolutePath().getParent();
+        try {
+            Files.createDirectories(parent);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to create the directory for the h2 backend: " + parent, ex);
+        }
+    }
+}
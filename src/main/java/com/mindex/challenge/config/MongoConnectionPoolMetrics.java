@@ -0,0 +1,109 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.data.ConnectionPoolStats;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects connection pool metrics from the Mongo driver, for sizing the pool against real load.
+ * Registered on the client by {@link MongoConfig}. Events arrive on driver threads, so every counter is lock free.
+ *
+ * @author Robert Heinbokel
+ */
+@Component
+public class MongoConnectionPoolMetrics implements ConnectionPoolListener {
+    private static final Logger LOG = LoggerFactory.getLogger(MongoConnectionPoolMetrics.class);
+
+    private final AtomicInteger maxSize = new AtomicInteger();
+    private final LongAdder size = new LongAdder();
+    private final LongAdder checkedOut = new LongAdder();
+    private final LongAdder checkoutsStarted = new LongAdder();
+    private final LongAdder checkouts = new LongAdder();
+    private final LongAdder checkoutFailures = new LongAdder();
+    private final LongAdder checkoutTimeouts = new LongAdder();
+    private final LongAdder checkoutWaitNanos = new LongAdder();
+    private final AtomicLong maxCheckoutWaitNanos = new AtomicLong();
+
+    @Override
+    public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+        maxSize.addAndGet(event.getSettings().getMaxSize());
+    }
+
+    @Override
+    public void connectionPoolClosed(ConnectionPoolClosedEvent event) {
+        LOG.debug("Connection pool for [{}] closed", event.getServerId());
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        size.increment();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        size.decrement();
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        checkoutsStarted.increment();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        final long waitNanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        checkouts.increment();
+        checkedOut.increment();
+        checkoutWaitNanos.add(waitNanos);
+        maxCheckoutWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        checkoutFailures.increment();
+        if (event.getReason() == ConnectionCheckOutFailedEvent.Reason.TIMEOUT) {
+            checkoutTimeouts.increment();
+        }
+        LOG.warn("Connection check out from [{}] failed after [{}] ms: {}",
+                event.getServerId(), event.getElapsedTime(TimeUnit.MILLISECONDS), event.getReason());
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        checkedOut.decrement();
+    }
+
+    /**
+     * Takes a snapshot of the connection pool metrics.
+     * Counters are read one at a time, so values may be off by in-flight events relative to each other.
+     * @return the {@link ConnectionPoolStats}.
+     */
+    public ConnectionPoolStats snapshot() {
+        final long totalCheckouts = checkouts.sum();
+        final long totalCheckoutFailures = checkoutFailures.sum();
+        final long waitQueueSize = Math.max(0, checkoutsStarted.sum() - totalCheckouts - totalCheckoutFailures);
+        final double averageCheckoutWaitMillis = totalCheckouts == 0 ? 0 : toMillis(checkoutWaitNanos.sum()) / totalCheckouts;
+
+        return new ConnectionPoolStats(maxSize.get(), size.sum(), checkedOut.sum(), waitQueueSize, totalCheckouts,
+                totalCheckoutFailures, checkoutTimeouts.sum(), averageCheckoutWaitMillis, toMillis(maxCheckoutWaitNanos.get()));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,27 @@
+package com.mindex.challenge.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a handler method whose cost grows with the reporting structure of the employee in its path, so the
+ * {@link AdmissionControlInterceptor} admits it against the stricter limits for such requests.
+ *
+ * @author Robert Heinbokel
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface TraversesReportingStructure {
+
+    /**
+     * The name of the path variable holding the employeeId at the top of the traversed structure.
+     */
+    String value() default "employeeId";
+
+    /**
+     * Whether concurrent identical requests share a single traversal, so they share its reservation of reports in flight.
+     */
+    boolean coalesced() default false;
+}
@@ -0,0 +1,84 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.data.ChangeEvent;
+import com.mindex.challenge.service.IChangeFeedService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * Controller exposing the employee change feed, allowing downstream consumers to sync incrementally.
+ *
+ * @author Robert Heinbokel
+ */
+@RestController
+@RequestMapping("/changes")
+@Validated
+public class ChangeFeedController {
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeFeedController.class);
+
+    private final IChangeFeedService changeFeedService;
+
+    /**
+     * Constructor for dependency injection.
+     * @param changeFeedService The {@link IChangeFeedService} to use.
+     */
+    public ChangeFeedController(IChangeFeedService changeFeedService) {
+        this.changeFeedService = changeFeedService;
+    }
+
+    /**
+     * Retrieves the change events recorded after the given sequence, oldest first.
+     * Consumers resume by passing the sequence of the last change event they processed.
+     * @param since the exclusive sequence to start reading after, 0 to read from the beginning.
+     * @param limit the maximum number of change events to return.
+     * @return the {@link List<ChangeEvent>} to return.
+     */
+    @GetMapping
+    public List<ChangeEvent> readSince(
+            @RequestParam(required = false, defaultValue = "0")
+            @Min(value = 0, message = "Sequence must be zero or a positive value")
+            long since,
+            @RequestParam(required = false, defaultValue = "100")
+            @Min(value = 1, message = "Limit must be at least 1")
+            @Max(value = 1000, message = "Limit must be at most 1000")
+            int limit) {
+        LOG.debug("Received request to read up to [{}] change events after sequence [{}]", limit, since);
+        return changeFeedService.readSince(since, limit);
+    }
+
+    /**
+     * Streams change events as Server-Sent Events.
+     * Reconnecting clients resume automatically through the Last-Event-ID header, otherwise only new events are streamed
+     * unless an explicit starting sequence is given.
+     * @param lastEventId the sequence of the last event received by a reconnecting client.
+     * @param since the exclusive sequence to start streaming after.
+     * @return the {@link SseEmitter} streaming change events.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestHeader(value = "Last-Event-ID", required = false)
+            Long lastEventId,
+            @RequestParam(required = false)
+            @Min(value = 0, message = "Sequence must be zero or a positive value")
+            Long since) {
+        LOG.debug("Received request to stream change events, Last-Event-ID [{}], since [{}]", lastEventId, since);
+
+        final long sequence = lastEventId != null ? lastEventId
+                : since != null ? since
+                : changeFeedService.latestSequence();
+
+        return changeFeedService.subscribe(sequence);
+    }
+}
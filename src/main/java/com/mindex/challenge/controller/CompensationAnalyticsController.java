@@ -0,0 +1,134 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.config.TraversesReportingStructure;
+import com.mindex.challenge.data.PayrollRollup;
+import com.mindex.challenge.data.SalaryDistribution;
+import com.mindex.challenge.data.TopEarner;
+import com.mindex.challenge.service.ICompensationAnalyticsService;
+import com.mindex.challenge.validators.ValidLocalDate;
+import com.mindex.challenge.validators.ValidUUID;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Controller handling compensation analytics across a manager's organization.
+ *
+ * @author Robert Heinbokel
+ */
+@RestController
+@Validated
+public class CompensationAnalyticsController {
+    private static final Logger LOG = LoggerFactory.getLogger(CompensationAnalyticsController.class);
+
+    private final ICompensationAnalyticsService compensationAnalyticsService;
+
+    /**
+     * Constructor for dependency injection.
+     * @param compensationAnalyticsService The {@link ICompensationAnalyticsService} to use.
+     */
+    public CompensationAnalyticsController(ICompensationAnalyticsService compensationAnalyticsService) {
+        this.compensationAnalyticsService = compensationAnalyticsService;
+    }
+
+    /**
+     * Retrieves the total and average current salary across a manager and all of their direct and indirect reports.
+     * @param employeeId the ID of the manager at the top of the organization.
+     * @return the {@link PayrollRollup} to return.
+     */
+    @GetMapping("/employee/{employeeId}/payroll-rollup")
+    @TraversesReportingStructure
+    public PayrollRollup getPayrollRollup(
+            @PathVariable
+            @ValidUUID(message = "Employee ID must be a valid UUID")
+            String employeeId) {
+        LOG.debug("Received request to roll up current payroll for employeeId [{}]", employeeId);
+        return compensationAnalyticsService.getPayrollRollup(employeeId, LocalDate.now());
+    }
+
+    /**
+     * Retrieves the total and average salary in effect on a given date across a manager and all of their direct and indirect reports.
+     * @param employeeId the ID of the manager at the top of the organization.
+     * @param date the date the salaries must be in effect on.
+     * @return the {@link PayrollRollup} to return.
+     */
+    @GetMapping("/employee/{employeeId}/payroll-rollup/as-of/{date}")
+    @TraversesReportingStructure
+    public PayrollRollup getPayrollRollupAsOf(
+            @PathVariable
+            @ValidUUID(message = "Employee ID must be a valid UUID")
+            String employeeId,
+            @PathVariable
+            @ValidLocalDate(message = "Date must be in yyyy-MM-dd format")
+            String date) {
+        LOG.debug("Received request to roll up payroll for employeeId [{}] as of [{}]", employeeId, date);
+        return compensationAnalyticsService.getPayrollRollup(employeeId, LocalDate.parse(date));
+    }
+
+    /**
+     * Retrieves the percentiles and histogram of current salaries within a department.
+     * @param department the department.
+     * @param bins the number of histogram bins.
+     * @return the {@link SalaryDistribution} to return.
+     */
+    @GetMapping("/department/{department}/salary-distribution")
+    public SalaryDistribution getDepartmentSalaryDistribution(
+            @PathVariable
+            String department,
+            @RequestParam(required = false, defaultValue = "10")
+            @Min(value = 1, message = "Bins must be at least 1")
+            @Max(value = 100, message = "Bins must be at most 100")
+            int bins) {
+        LOG.debug("Received request to read salary distribution for department [{}]", department);
+        return compensationAnalyticsService.getDepartmentSalaryDistribution(department, bins);
+    }
+
+    /**
+     * Retrieves the percentiles and histogram of current salaries across a manager and all of their direct and indirect reports.
+     * @param employeeId the ID of the manager at the top of the organization.
+     * @param bins the number of histogram bins.
+     * @return the {@link SalaryDistribution} to return.
+     */
+    @GetMapping("/employee/{employeeId}/salary-distribution")
+    @TraversesReportingStructure
+    public SalaryDistribution getSubtreeSalaryDistribution(
+            @PathVariable
+            @ValidUUID(message = "Employee ID must be a valid UUID")
+            String employeeId,
+            @RequestParam(required = false, defaultValue = "10")
+            @Min(value = 1, message = "Bins must be at least 1")
+            @Max(value = 100, message = "Bins must be at most 100")
+            int bins) {
+        LOG.debug("Received request to read salary distribution for the organization of employeeId [{}]", employeeId);
+        return compensationAnalyticsService.getSubtreeSalaryDistribution(employeeId, bins);
+    }
+
+    /**
+     * Retrieves the highest current salaries among a manager's direct and indirect reports.
+     * @param employeeId the ID of the manager at the top of the organization.
+     * @param n the maximum number of earners to return.
+     * @return the {@link TopEarner}s to return, highest salary first.
+     */
+    @GetMapping("/employee/{employeeId}/reporting-structure/top-earners")
+    @TraversesReportingStructure
+    public List<TopEarner> getTopEarners(
+            @PathVariable
+            @ValidUUID(message = "Employee ID must be a valid UUID")
+            String employeeId,
+            @RequestParam(required = false, defaultValue = "10")
+            @Min(value = 1, message = "N must be at least 1")
+            @Max(value = 1000, message = "N must be at most 1000")
+            int n) {
+        LOG.debug("Received request to read top [{}] earners under employeeId [{}]", n, employeeId);
+        return compensationAnalyticsService.getTopEarners(employeeId, n, LocalDate.now());
+    }
+}
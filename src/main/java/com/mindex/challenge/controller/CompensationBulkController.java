@@ -0,0 +1,84 @@
+package com.mindex.challenge.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.service.ICompensationBulkService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Controller handling bulk compensation ingestion, e.g. for payroll runs.
+ *
+ * @author Robert Heinbokel
+ */
+@RestController
+@RequestMapping("/compensation")
+public class CompensationBulkController {
+    private static final Logger LOG = LoggerFactory.getLogger(CompensationBulkController.class);
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private final ICompensationBulkService compensationBulkService;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor for dependency injection.
+     * @param compensationBulkService The {@link ICompensationBulkService} to use.
+     * @param objectMapper The {@link ObjectMapper} to write row results with.
+     */
+    public CompensationBulkController(ICompensationBulkService compensationBulkService, ObjectMapper objectMapper) {
+        this.compensationBulkService = compensationBulkService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Creates compensation entries from a CSV or NDJSON upload.
+     * The upload is read and written as it arrives, and the result of each row is streamed back as NDJSON,
+     * so neither side needs to hold the whole payroll run in memory.
+     * Rows that are invalid or duplicated don't fail the upload, they are reported in their row result instead.
+     * @param request the {@link HttpServletRequest} carrying the upload.
+     * @param response the {@link HttpServletResponse} to stream the row results to.
+     * @throws IOException if the upload can't be read or the results can't be written.
+     */
+    @PostMapping(value = "/bulk", consumes = {TEXT_CSV, MediaType.APPLICATION_NDJSON_VALUE}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void ingest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        final MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        final ICompensationBulkService.Format format = contentType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV))
+                ? ICompensationBulkService.Format.CSV
+                : ICompensationBulkService.Format.NDJSON;
+        final Charset charset = contentType.getCharset() == null ? StandardCharsets.UTF_8 : contentType.getCharset();
+
+        LOG.debug("Received request to ingest compensations from {} upload", format);
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        final OutputStream out = response.getOutputStream();
+        try (Reader reader = new InputStreamReader(request.getInputStream(), charset)) {
+            compensationBulkService.ingest(reader, format, result -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(result));
+                    out.write('\n');
+                } catch (IOException ex) {
+                    // Most likely the client went away, which stops the ingestion at the current row.
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+        out.flush();
+    }
+}
@@ -1,23 +1,54 @@
 package com.mindex.challenge.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.requests.CompensationCreateRequest;
+import com.mindex.challenge.data.requests.CompensationHistoryQuery;
+import com.mindex.challenge.exceptions.StreamInterruptedException;
 import com.mindex.challenge.service.ICompensationService;
+import com.mindex.challenge.service.IIdempotencyService;
 import com.mindex.challenge.validators.ValidLocalDate;
 import com.mindex.challenge.validators.ValidUUID;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Controller handling requests related to employee compensation.
@@ -32,26 +63,132 @@ public class CompensationController {
 
     private final ICompensationService compensationService;
 
+    private final IIdempotencyService idempotencyService;
+
+    private final ContentNegotiationManager contentNegotiationManager;
+
+    // Writers for every media type a streamed history can be negotiated to, JSON first so it is preferred for */*.
+    // They leave flushing to the output buffer rather than flushing after every compensation.
+    private final Map<MediaType, ObjectWriter> compensationWriters = new LinkedHashMap<>();
+
     /**
      * Constructor for dependency injection.
      * @param compensationService The {@link ICompensationService} to use.
+     * @param idempotencyService The {@link IIdempotencyService} to use.
+     * @param messageConverters The {@link HttpMessageConverters} whose Jackson converters streamed histories are written with.
+     * @param contentNegotiationManager The {@link ContentNegotiationManager} to negotiate streamed histories with,
+     *                                  only negotiating through the Accept header outside a web application.
      */
-    public CompensationController(ICompensationService compensationService) {
+    public CompensationController(ICompensationService compensationService, IIdempotencyService idempotencyService,
+                                  HttpMessageConverters messageConverters, ObjectProvider<ContentNegotiationManager> contentNegotiationManager) {
         this.compensationService = compensationService;
+        this.idempotencyService = idempotencyService;
+        this.contentNegotiationManager = contentNegotiationManager.getIfAvailable(ContentNegotiationManager::new);
+
+        final List<AbstractJackson2HttpMessageConverter> converters = new ArrayList<>();
+        for (Object converter : messageConverters.getConverters()) {
+            if (converter instanceof AbstractJackson2HttpMessageConverter jacksonConverter) {
+                converters.add(jacksonConverter);
+            }
+        }
+        converters.sort(Comparator.comparing(converter -> !(converter instanceof MappingJackson2HttpMessageConverter)));
+        for (AbstractJackson2HttpMessageConverter converter : converters) {
+            for (MediaType mediaType : converter.getSupportedMediaTypes(Compensation.class)) {
+                if (mediaType.isConcrete()) {
+                    compensationWriters.putIfAbsent(mediaType, converter.getObjectMapper().writerFor(Compensation.class)
+                            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE));
+                }
+            }
+        }
     }
 
     /**
-     * Retrieves all compensation entries for a given employee ID.
+     * Retrieves the compensation entries for a given employee ID, ordered by effective date.
+     * Without any parameters the whole history is returned. To page through it, pass a limit and then the
+     * effective date of the last compensation of each page as the after parameter of the next request.
+     * Compensations are written to the response as they are read, so long histories are never held in memory. They are
+     * written as JSON, CBOR or Smile like every other response, negotiated through the Accept header. If reading fails
+     * after the response was committed, the response is left incomplete instead of closing the array, so the failure
+     * can't be mistaken for a complete history.
      * @param employeeId the ID of the employee to retrieve compensations for.
-     * @return the {@link List<Compensation>} to return.
+     * @param from the earliest effective date to include.
+     * @param to the latest effective date to include.
+     * @param after the effective date of the last compensation of the previous page.
+     * @param order the order of the effective dates, asc or desc.
+     * @param limit the maximum number of compensations to return.
+     * @param request the {@link HttpServletRequest} to negotiate the response format with.
+     * @param response the {@link HttpServletResponse} to write the array of compensations to.
+     * @throws IOException if the response can't be written.
+     * @throws HttpMediaTypeNotAcceptableException if none of the acceptable media types can be written.
      */
     @GetMapping("/{employeeId}/compensation")
-    public List<Compensation> readAll(
+    public void readAll(
             @PathVariable
             @ValidUUID(message = "Employee ID must be a valid UUID")
-            String employeeId) {
-        LOG.debug("Received request to read all compensations for employeeId [{}]", employeeId);
-        return compensationService.readAll(employeeId);
+            String employeeId,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate from,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate to,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate after,
+            @RequestParam(required = false, defaultValue = "asc")
+            @Pattern(regexp = "(?i)asc|desc", message = "Order must be asc or desc")
+            String order,
+            @RequestParam(required = false)
+            @Min(value = 1, message = "Limit must be at least 1")
+            @Max(value = 1000, message = "Limit must be at most 1000")
+            Integer limit,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException, HttpMediaTypeNotAcceptableException {
+        LOG.debug("Received request to read compensations for employeeId [{}]", employeeId);
+
+        final CompensationHistoryQuery query = new CompensationHistoryQuery(from, to, after, Sort.Direction.fromString(order), limit);
+        final Map.Entry<MediaType, ObjectWriter> format = negotiate(request);
+
+        try (Stream<Compensation> compensations = compensationService.readHistory(employeeId, query)) {
+            response.setContentType(format.getKey().toString());
+
+            final ObjectWriter writer = format.getValue();
+            final JsonGenerator generator = writer.getFactory().createGenerator(response.getOutputStream());
+            // The array is only ever completed explicitly, so a truncated history can't look whole.
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            try {
+                generator.writeStartArray();
+                for (Iterator<Compensation> iterator = compensations.iterator(); iterator.hasNext(); ) {
+                    writer.writeValue(generator, iterator.next());
+                }
+                generator.writeEndArray();
+            } catch (RuntimeException ex) {
+                if (!response.isCommitted()) {
+                    // Nothing was sent yet, so discard the partial history and respond with the error instead.
+                    response.reset();
+                    throw ex;
+                }
+                throw new StreamInterruptedException("Reading compensations failed while streaming them for employeeId: " + employeeId, ex);
+            }
+            generator.close();
+        }
+    }
+
+    /**
+     * Picks the media type and writer of a streamed history from the media types the request accepts.
+     * @param request the {@link HttpServletRequest} to negotiate with.
+     * @return the negotiated media type and the {@link ObjectWriter} writing it.
+     * @throws HttpMediaTypeNotAcceptableException if none of the acceptable media types can be written.
+     */
+    private Map.Entry<MediaType, ObjectWriter> negotiate(HttpServletRequest request) throws HttpMediaTypeNotAcceptableException {
+        for (MediaType acceptable : contentNegotiationManager.resolveMediaTypes(new ServletWebRequest(request))) {
+            for (Map.Entry<MediaType, ObjectWriter> format : compensationWriters.entrySet()) {
+                if (acceptable.includes(format.getKey())) {
+                    return format;
+                }
+            }
+        }
+        throw new HttpMediaTypeNotAcceptableException(new ArrayList<>(compensationWriters.keySet()));
     }
 
     /**
@@ -74,10 +211,31 @@ public class CompensationController {
         return compensationService.readByEffectiveDate(employeeId, LocalDate.parse(effectiveDate));
     }
 
+    /**
+     * Retrieves the compensation in effect for a given employee ID on a given date.
+     * This is the compensation with the latest effective date on or before that date.
+     * @param employeeId the ID of the employee to retrieve the compensation for.
+     * @param date the date the compensation must be in effect on.
+     * @return the {@link Compensation} to return.
+     */
+    @GetMapping("/{employeeId}/compensation/as-of/{date}")
+    public Compensation readAsOf(
+            @PathVariable
+            @ValidUUID(message = "Employee ID must be a valid UUID")
+            String employeeId,
+            @PathVariable
+            @ValidLocalDate(message = "Date must be in yyyy-MM-dd format")
+            String date) {
+        LOG.debug("Received request to read compensation for employeeId [{}] as of [{}]", employeeId, date);
+        return compensationService.readAsOf(employeeId, LocalDate.parse(date));
+    }
+
     /**
      * Creates a new entry for an employee's compensation.
+     * Retried requests carrying the same Idempotency-Key replay the originally created compensation.
      * @param request the {@link CompensationCreateRequest} holding the compensation details.
      * @param employeeId the ID of the employee this compensation belongs to.
+     * @param idempotencyKey the optional client provided key identifying retries of the same request.
      * @return the created {@link Compensation}.
      */
     @PostMapping("/{employeeId}/compensation")
@@ -87,8 +245,12 @@ public class CompensationController {
             CompensationCreateRequest request,
             @PathVariable
             @ValidUUID(message = "Employee ID must be a valid UUID")
-            String employeeId) {
+            String employeeId,
+            @RequestHeader(value = "Idempotency-Key", required = false)
+            @Size(min = 1, max = 255, message = "Idempotency-Key must be between 1 and 255 characters")
+            String idempotencyKey) {
         LOG.debug("Received request to create compensation [{}] for employeeId [{}]", request, employeeId);
-        return compensationService.create(request, employeeId);
+        return idempotencyService.execute(idempotencyKey, "compensation.create:" + employeeId, request, Compensation.class,
+                () -> compensationService.create(request, employeeId));
     }
 }
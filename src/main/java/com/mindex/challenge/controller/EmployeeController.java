@@ -1,39 +1,62 @@
 package com.mindex.challenge.controller;
 
+import com.mindex.challenge.config.TraversesReportingStructure;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeeBatchReadResult;
 import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.data.requests.EmployeeBatchReadRequest;
 import com.mindex.challenge.service.EmployeeService;
+import com.mindex.challenge.service.IIdempotencyService;
 import com.mindex.challenge.validators.ValidUUID;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
+@Validated
 public class EmployeeController {
     private static final Logger LOG = LoggerFactory.getLogger(EmployeeController.class);
 
     private final EmployeeService employeeService;
 
+    private final IIdempotencyService idempotencyService;
+
     /**
      * Constructor for dependency injection.
      * @param employeeService the {@link EmployeeService} to use.
+     * @param idempotencyService the {@link IIdempotencyService} to use.
      */
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, IIdempotencyService idempotencyService) {
         this.employeeService = employeeService;
+        this.idempotencyService = idempotencyService;
     }
 
     // Note to reviewers - I would utilize DTO pattern here and for the PUT method as I have done for Compensation.
+    // Retried requests carrying the same Idempotency-Key replay the originally created employee instead of creating another.
     @PostMapping("/employee")
-    public Employee create(@RequestBody Employee employee) {
+    public Employee create(
+            @RequestBody Employee employee,
+            @RequestHeader(value = "Idempotency-Key", required = false)
+            @Size(min = 1, max = 255, message = "Idempotency-Key must be between 1 and 255 characters")
+            String idempotencyKey) {
         LOG.debug("Received employee create request for [{}]", employee);
 
-        return employeeService.create(employee);
+        return idempotencyService.execute(idempotencyKey, "employee.create", employee, Employee.class,
+                () -> employeeService.create(employee));
     }
 
     /* Note to reviewers - README mentions flexibility in returned direct reports as they can be a String or Employee collection.
@@ -50,6 +73,37 @@ public class EmployeeController {
         return employeeService.read(id);
     }
 
+    /**
+     * Retrieves several employees at once, e.g. for rendering an org chart without a request per employee.
+     * @param ids the employeeIds of the employees to retrieve, as a comma separated list or repeated parameter.
+     * @return The {@link EmployeeBatchReadResult} holding the found employees in request order and any missing IDs.
+     */
+    @GetMapping(value = "/employee", params = "ids")
+    public EmployeeBatchReadResult readMany(
+            @RequestParam
+            @NotEmpty(message = "Employee IDs must not be empty.")
+            @Size(max = EmployeeBatchReadRequest.MAX_BATCH_SIZE, message = "No more than " + EmployeeBatchReadRequest.MAX_BATCH_SIZE + " employee IDs may be requested at once.")
+            List<@ValidUUID(message = "Employee ID must be a valid UUID") String> ids) {
+        LOG.debug("Received employee batch read request for ids [{}]", ids);
+
+        return employeeService.readMany(ids);
+    }
+
+    /**
+     * Retrieves several employees at once, for callers whose ID lists are too long to comfortably fit in a URL.
+     * @param request the {@link EmployeeBatchReadRequest} holding the employeeIds to retrieve.
+     * @return The {@link EmployeeBatchReadResult} holding the found employees in request order and any missing IDs.
+     */
+    @PostMapping("/employee/batch-read")
+    public EmployeeBatchReadResult readMany(
+            @RequestBody
+            @Valid
+            EmployeeBatchReadRequest request) {
+        LOG.debug("Received employee batch read request for ids [{}]", request.getEmployeeIds());
+
+        return employeeService.readMany(request.getEmployeeIds());
+    }
+
     @PutMapping("/employee/{id}")
     public Employee update(@PathVariable String id, @RequestBody Employee employee) {
         LOG.debug("Received employee create request for id [{}] and employee [{}]", id, employee);
@@ -58,6 +112,44 @@ public class EmployeeController {
         return employeeService.update(employee);
     }
 
+    /**
+     * Adds an employee as a direct report of a manager, without rewriting the manager's other direct reports.
+     * @param id the employeeId of the manager.
+     * @param reportId the employeeId of the employee to add as a direct report.
+     * @return The updated manager {@link Employee}.
+     */
+    @PostMapping("/employee/{id}/direct-reports/{reportId}")
+    public Employee addDirectReport(
+            @PathVariable
+            @ValidUUID(message = "Employee ID must be a valid UUID")
+            String id,
+            @PathVariable
+            @ValidUUID(message = "Report ID must be a valid UUID")
+            String reportId) {
+        LOG.debug("Received request to add direct report [{}] to employee [{}]", reportId, id);
+
+        return employeeService.addDirectReport(id, reportId);
+    }
+
+    /**
+     * Removes an employee from a manager's direct reports, without rewriting the manager's other direct reports.
+     * @param id the employeeId of the manager.
+     * @param reportId the employeeId of the employee to remove as a direct report.
+     * @return The updated manager {@link Employee}.
+     */
+    @DeleteMapping("/employee/{id}/direct-reports/{reportId}")
+    public Employee removeDirectReport(
+            @PathVariable
+            @ValidUUID(message = "Employee ID must be a valid UUID")
+            String id,
+            @PathVariable
+            @ValidUUID(message = "Report ID must be a valid UUID")
+            String reportId) {
+        LOG.debug("Received request to remove direct report [{}] from employee [{}]", reportId, id);
+
+        return employeeService.removeDirectReport(id, reportId);
+    }
+
     /**
      * Generates the reporting structure for a given employee, optionally generating the entire employee hierarchy as well.
      * @param id the employeeId of the employee.
@@ -65,6 +157,7 @@ public class EmployeeController {
      * @return The {@link ReportingStructure} of the employee.
      */
     @GetMapping("/employee/{id}/reporting-structure")
+    @TraversesReportingStructure(value = "id", coalesced = true)
     public ReportingStructure getReportingStructure(
             @PathVariable
             @ValidUUID(message = "Employee ID must be a valid UUID")
@@ -0,0 +1,58 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.config.ErrorLogLimiter;
+import com.mindex.challenge.config.MongoConnectionPoolMetrics;
+import com.mindex.challenge.data.ConnectionPoolStats;
+import com.mindex.challenge.data.ErrorLogStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controller exposing operational metrics of the application.
+ *
+ * @author Robert Heinbokel
+ */
+@RestController
+@RequestMapping("/metrics")
+public class MetricsController {
+    private static final Logger LOG = LoggerFactory.getLogger(MetricsController.class);
+
+    private final MongoConnectionPoolMetrics mongoConnectionPoolMetrics;
+
+    private final ErrorLogLimiter errorLogLimiter;
+
+    /**
+     * Constructor for dependency injection.
+     * @param mongoConnectionPoolMetrics The {@link MongoConnectionPoolMetrics} to use.
+     * @param errorLogLimiter The {@link ErrorLogLimiter} counting handled errors.
+     */
+    public MetricsController(MongoConnectionPoolMetrics mongoConnectionPoolMetrics, ErrorLogLimiter errorLogLimiter) {
+        this.mongoConnectionPoolMetrics = mongoConnectionPoolMetrics;
+        this.errorLogLimiter = errorLogLimiter;
+    }
+
+    /**
+     * Retrieves the current usage of the Mongo connection pools.
+     * @return the {@link ConnectionPoolStats} to return.
+     */
+    @GetMapping("/mongo-connection-pool")
+    public ConnectionPoolStats readMongoConnectionPool() {
+        LOG.debug("Received request to read Mongo connection pool metrics");
+        return mongoConnectionPoolMetrics.snapshot();
+    }
+
+    /**
+     * Retrieves the number of errors handled per type, and how many of them were not logged due to rate limiting.
+     * @return the {@link ErrorLogStats} of each type of error.
+     */
+    @GetMapping("/errors")
+    public List<ErrorLogStats> readErrors() {
+        LOG.debug("Received request to read error metrics");
+        return errorLogLimiter.snapshot();
+    }
+}
@@ -0,0 +1,51 @@
+package com.mindex.challenge.dao;
+
+import org.springframework.data.annotation.Id;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Interface defining compensation queries spanning many employees at once.
+ *
+ * @author Robert Heinbokel
+ */
+public interface CompensationAnalyticsRepository {
+    /**
+     * Retrieves the salary in effect on a given date for each of the given employees.
+     * This is the salary of the compensation with the latest effective date on or before that date.
+     * @param employeeIds the IDs of the employees to retrieve salaries for.
+     * @param asOf the date the salaries must be in effect on.
+     * @return the salaries in effect in minor units, one per employee with a compensation in effect, in no particular order.
+     */
+    long[] findSalariesAsOf(Collection<String> employeeIds, LocalDate asOf);
+
+    /**
+     * Passes the compensation in effect on a given date for each of the given employees to a consumer, one batch at a time.
+     * Only one batch of results is held at once, however many employees are given.
+     * @param employeeIds the IDs of the employees to retrieve compensations for.
+     * @param asOf the date the compensations must be in effect on.
+     * @param salaries receives the {@link SalaryInEffect} of each employee with a compensation in effect.
+     */
+    void forEachSalaryAsOf(Collection<String> employeeIds, LocalDate asOf, Consumer<SalaryInEffect> salaries);
+
+    /**
+     * Streams the compensation in effect on a given date for every employee that has one.
+     * The stream holds an open database cursor, so it must be closed once consumed.
+     * @param asOf the date the compensations must be in effect on.
+     * @return the {@link Stream<SalaryInEffect>} to return.
+     */
+    Stream<SalaryInEffect> streamSalariesAsOf(LocalDate asOf);
+
+    /**
+     * The compensation in effect for a single employee.
+     *
+     * @param employeeId the ID of the employee.
+     * @param effectiveDate the effective date of the compensation in effect.
+     * @param salaryMinorUnits the salary of the compensation in effect, in minor units.
+     */
+    record SalaryInEffect(@Id String employeeId, LocalDate effectiveDate, long salaryMinorUnits) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Compensation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Implementation of {@link CompensationAnalyticsRepository} using Mongo aggregations.
+ *
+ * @author Robert Heinbokel
+ */
+public class CompensationAnalyticsRepositoryImpl implements CompensationAnalyticsRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    private final int batchSize;
+
+    /**
+     * Constructor for dependency injection.
+     * @param mongoTemplate the {@link MongoTemplate} to use.
+     * @param batchSize the maximum number of employee IDs sent in a single query.
+     */
+    public CompensationAnalyticsRepositoryImpl(MongoTemplate mongoTemplate, @Value("${compensation.analytics.batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public long[] findSalariesAsOf(Collection<String> employeeIds, LocalDate asOf) {
+        final LongStream.Builder salaries = LongStream.builder();
+        forEachSalaryAsOf(employeeIds, asOf, salary -> salaries.add(salary.salaryMinorUnits()));
+        return salaries.build().toArray();
+    }
+
+    @Override
+    public void forEachSalaryAsOf(Collection<String> employeeIds, LocalDate asOf, Consumer<SalaryInEffect> salaries) {
+        final List<String> batch = new ArrayList<>(Math.min(batchSize, employeeIds.size()));
+
+        for (String employeeId : employeeIds) {
+            batch.add(employeeId);
+            if (batch.size() >= batchSize) {
+                findSalariesAsOf(batch, asOf, salaries);
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            findSalariesAsOf(batch, asOf, salaries);
+        }
+    }
+
+    @Override
+    public Stream<SalaryInEffect> streamSalariesAsOf(LocalDate asOf) {
+        return mongoTemplate.aggregateStream(salariesAsOf(where("effectiveDate").lte(asOf)), Compensation.class, SalaryInEffect.class);
+    }
+
+    private void findSalariesAsOf(List<String> employeeIds, LocalDate asOf, Consumer<SalaryInEffect> salaries) {
+        final Aggregation aggregation = salariesAsOf(where("employeeId").in(employeeIds).and("effectiveDate").lte(asOf));
+
+        for (SalaryInEffect salary : mongoTemplate.aggregate(aggregation, Compensation.class, SalaryInEffect.class)) {
+            salaries.accept(salary);
+        }
+    }
+
+    /**
+     * Builds the aggregation keeping only the latest matching compensation per employee.
+     * Served by the (employeeId, effectiveDate) index, so only one compensation per employee leaves the database.
+     */
+    private static Aggregation salariesAsOf(Criteria criteria) {
+        return Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.sort(Sort.by(Sort.Direction.ASC, "employeeId").and(Sort.by(Sort.Direction.DESC, "effectiveDate"))),
+                Aggregation.group("employeeId")
+                        .first("effectiveDate").as("effectiveDate")
+                        .first("salaryMinorUnits").as("salaryMinorUnits"));
+    }
+}
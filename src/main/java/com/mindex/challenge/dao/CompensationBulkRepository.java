@@ -0,0 +1,29 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Compensation;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interface defining bulk compensation writes.
+ *
+ * @author Robert Heinbokel
+ */
+public interface CompensationBulkRepository {
+    /**
+     * Inserts all compensations with a single unordered bulk write, so one failing document doesn't stop the rest.
+     * @param compensations the compensations to insert, which should already have their IDs assigned.
+     * @return the failed inserts keyed by their index in the given list, empty if all were inserted.
+     */
+    Map<Integer, BulkInsertFailure> insertUnordered(List<Compensation> compensations);
+
+    /**
+     * Describes why a single document of a bulk insert failed.
+     *
+     * @param duplicate whether the document violated a unique index.
+     * @param message the error reported by the database.
+     */
+    record BulkInsertFailure(boolean duplicate, String message) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Compensation;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of {@link CompensationBulkRepository} using unordered Mongo bulk writes.
+ *
+ * @author Robert Heinbokel
+ */
+public class CompensationBulkRepositoryImpl implements CompensationBulkRepository {
+
+    private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructor for dependency injection.
+     * @param mongoTemplate the {@link MongoTemplate} to use.
+     */
+    public CompensationBulkRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Map<Integer, BulkInsertFailure> insertUnordered(List<Compensation> compensations) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Compensation.class)
+                    .insert(compensations)
+                    .execute();
+            return Map.of();
+        } catch (BulkOperationException ex) {
+            // Unordered, so every document without an error here was written.
+            final Map<Integer, BulkInsertFailure> failures = new HashMap<>();
+            for (BulkWriteError error : ex.getErrors()) {
+                failures.put(error.getIndex(), new BulkInsertFailure(error.getCode() == DUPLICATE_KEY_ERROR_CODE, error.getMessage()));
+            }
+            return failures;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.requests.CompensationHistoryQuery;
+
+import java.util.stream.Stream;
+
+/**
+ * Interface defining filtered and paginated reads of an employee's compensation history.
+ *
+ * @author Robert Heinbokel
+ */
+public interface CompensationHistoryRepository {
+    /**
+     * Streams an employee's compensations ordered by effective date, backed by the (employeeId, effectiveDate) index.
+     * The stream holds an open database cursor, so it must be closed once consumed.
+     * @param employeeId the ID of the employee to retrieve compensations for.
+     * @param query the {@link CompensationHistoryQuery} holding the filters, order and page.
+     * @return the {@link Stream<Compensation>} to return.
+     */
+    Stream<Compensation> streamHistory(String employeeId, CompensationHistoryQuery query);
+}
@@ -0,0 +1,61 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.requests.CompensationHistoryQuery;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Implementation of {@link CompensationHistoryRepository} using a Mongo cursor.
+ *
+ * @author Robert Heinbokel
+ */
+public class CompensationHistoryRepositoryImpl implements CompensationHistoryRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructor for dependency injection.
+     * @param mongoTemplate the {@link MongoTemplate} to use.
+     */
+    public CompensationHistoryRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Stream<Compensation> streamHistory(String employeeId, CompensationHistoryQuery query) {
+        final Criteria criteria = where("employeeId").is(employeeId);
+
+        if (query.getFrom() != null || query.getTo() != null || query.getAfter() != null) {
+            final Criteria effectiveDate = criteria.and("effectiveDate");
+
+            if (query.getFrom() != null) {
+                effectiveDate.gte(query.getFrom());
+            }
+            if (query.getTo() != null) {
+                effectiveDate.lte(query.getTo());
+            }
+            if (query.getAfter() != null) {
+                // Effective dates are unique per employee, so the date alone is enough to resume from.
+                if (query.getDirection() == Sort.Direction.ASC) {
+                    effectiveDate.gt(query.getAfter());
+                } else {
+                    effectiveDate.lt(query.getAfter());
+                }
+            }
+        }
+
+        final Query mongoQuery = new Query(criteria).with(Sort.by(query.getDirection(), "effectiveDate"));
+        if (query.getLimit() != null) {
+            mongoQuery.limit(query.getLimit());
+        }
+
+        return mongoTemplate.stream(mongoQuery, Compensation.class);
+    }
+}
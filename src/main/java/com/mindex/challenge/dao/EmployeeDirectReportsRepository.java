@@ -0,0 +1,27 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+
+/**
+ * Interface defining atomic direct report updates, implemented with in-place array updates
+ * rather than rewriting the whole employee document.
+ *
+ * @author Robert Heinbokel
+ */
+public interface EmployeeDirectReportsRepository {
+    /**
+     * Atomically adds a direct report to a manager, doing nothing if it is already present.
+     * @param managerId the ID of the manager to add the direct report to.
+     * @param reportId the ID of the employee to add as a direct report.
+     * @return the updated manager {@link Employee}, or null if the manager doesn't exist.
+     */
+    Employee addDirectReport(String managerId, String reportId);
+
+    /**
+     * Atomically removes a direct report from a manager.
+     * @param managerId the ID of the manager to remove the direct report from.
+     * @param reportId the ID of the employee to remove as a direct report.
+     * @return the updated manager {@link Employee}, or null if the manager doesn't exist or doesn't have the report.
+     */
+    Employee removeDirectReport(String managerId, String reportId);
+}
@@ -0,0 +1,48 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Implementation of {@link EmployeeDirectReportsRepository} using findAndModify with array update operators
+ * on the stored array of direct report IDs, so each change is a single atomic round trip that only touches the affected element.
+ *
+ * @author Robert Heinbokel
+ */
+public class EmployeeDirectReportsRepositoryImpl implements EmployeeDirectReportsRepository {
+
+    private static final String DIRECT_REPORT_IDS = "directReportIds";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructor for dependency injection.
+     * @param mongoTemplate the {@link MongoTemplate} to use.
+     */
+    public EmployeeDirectReportsRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Employee addDirectReport(String managerId, String reportId) {
+        return mongoTemplate.findAndModify(
+                query(where("_id").is(managerId)),
+                new Update().addToSet(DIRECT_REPORT_IDS, reportId),
+                FindAndModifyOptions.options().returnNew(true),
+                Employee.class);
+    }
+
+    @Override
+    public Employee removeDirectReport(String managerId, String reportId) {
+        return mongoTemplate.findAndModify(
+                query(where("_id").is(managerId).and(DIRECT_REPORT_IDS).is(reportId)),
+                new Update().pull(DIRECT_REPORT_IDS, reportId),
+                FindAndModifyOptions.options().returnNew(true),
+                Employee.class);
+    }
+}
@@ -4,7 +4,18 @@ import com.mindex.challenge.data.Employee;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface EmployeeRepository extends MongoRepository<Employee, String> {
+public interface EmployeeRepository extends MongoRepository<Employee, String>, EmployeeDirectReportsRepository {
     Employee findByEmployeeId(String employeeId);
+
+    /**
+     * Retrieves all employees matching the given IDs in a single {@code $in} query.
+     * No ordering is guaranteed and IDs without a matching employee are simply absent from the result.
+     * @param employeeIds the IDs of the employees to retrieve.
+     * @return the {@link List<Employee>} of employees found.
+     */
+    List<Employee> findByEmployeeIdIn(Collection<String> employeeIds);
 }
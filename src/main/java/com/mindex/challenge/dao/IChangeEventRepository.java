@@ -0,0 +1,29 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.ChangeEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+/**
+ * Interface defining contract required for change event repositories.
+ * Change event repositories persist the change log so it can be resumed beyond the in-memory buffer and across restarts.
+ *
+ * @author Robert Heinbokel
+ */
+public interface IChangeEventRepository extends MongoRepository<ChangeEvent, Long> {
+    /**
+     * Retrieves the change events recorded after the given sequence, oldest first.
+     * @param sequence the exclusive sequence to start reading after.
+     * @param limit the maximum number of change events to return.
+     * @return the {@link List<ChangeEvent>} to return.
+     */
+    List<ChangeEvent> findBySequenceGreaterThanOrderBySequenceAsc(long sequence, Limit limit);
+
+    /**
+     * Retrieves the most recently recorded change event.
+     * @return the latest {@link ChangeEvent}, or null if the change log is empty.
+     */
+    ChangeEvent findFirstByOrderBySequenceDesc();
+}
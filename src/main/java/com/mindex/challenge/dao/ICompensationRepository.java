@@ -12,7 +12,8 @@ import java.util.List;
  *
  * @author Robert Heinbokel
  */
-public interface ICompensationRepository extends MongoRepository<Compensation, String> {
+public interface ICompensationRepository extends MongoRepository<Compensation, String>, CompensationBulkRepository,
+        CompensationAnalyticsRepository, CompensationHistoryRepository {
     /**
      * Retrieves all compensation entries for a given employee.
      * @param employeeId the ID of the employee to retrieve compensation for.
@@ -27,4 +28,13 @@ public interface ICompensationRepository extends MongoRepository<Compensation, S
      * @return the {@link Compensation} to return.
      */
     Compensation findByEmployeeIdAndEffectiveDate(String employeeId, LocalDate effectiveDate);
+
+    /**
+     * Retrieves the compensation with the latest effective date on or before the given date.
+     * Served by the (employeeId, effectiveDate) index as a single floor lookup.
+     * @param employeeId the ID of the employee to retrieve compensation for.
+     * @param date the date the compensation must be in effect on.
+     * @return the {@link Compensation} to return, or null if none was in effect yet.
+     */
+    Compensation findFirstByEmployeeIdAndEffectiveDateLessThanEqualOrderByEffectiveDateDesc(String employeeId, LocalDate date);
 }
@@ -0,0 +1,19 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.IdempotencyRecord;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.time.Instant;
+
+/**
+ * Interface defining contract required for idempotency record repositories.
+ *
+ * @author Robert Heinbokel
+ */
+public interface IIdempotencyRecordRepository extends MongoRepository<IdempotencyRecord, String> {
+    /**
+     * Removes all records created before the given instant.
+     * @param cutoff the {@link Instant} before which records are removed.
+     */
+    void deleteByCreatedAtBefore(Instant cutoff);
+}
@@ -0,0 +1,24 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.IdempotencyRecord;
+
+/**
+ * Interface defining contract required for idempotency stores.
+ * Idempotency stores hold the outcome of completed requests for a limited time so retries can be replayed.
+ *
+ * @author Robert Heinbokel
+ */
+public interface IIdempotencyStore {
+    /**
+     * Retrieves the record stored for the given key.
+     * @param key the scoped idempotency key.
+     * @return the {@link IdempotencyRecord}, or null if there is none or it has expired.
+     */
+    IdempotencyRecord find(String key);
+
+    /**
+     * Stores the record of a completed request, replacing any record with the same key.
+     * @param record the {@link IdempotencyRecord} to store.
+     */
+    void save(IdempotencyRecord record);
+}
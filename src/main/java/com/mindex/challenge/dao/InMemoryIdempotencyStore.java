@@ -0,0 +1,103 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.IdempotencyRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Bounded, TTL-evicted idempotency store held in memory. This is the default store.
+ * Records are evicted oldest first once they expire or the store grows beyond its maximum size.
+ *
+ * @author Robert Heinbokel
+ */
+@Repository
+@ConditionalOnProperty(name = "idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IIdempotencyStore {
+
+    private final Map<String, IdempotencyRecord> records = new ConcurrentHashMap<>();
+
+    // Records in the order they were saved, used to find eviction candidates without scanning the map.
+    private final Queue<IdempotencyRecord> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    private final int maxEntries;
+
+    private final Duration ttl;
+
+    private final Clock clock;
+
+    /**
+     * Constructor for dependency injection.
+     * @param maxEntries the maximum number of records to keep.
+     * @param ttl the {@link Duration} records are kept for.
+     */
+    @Autowired
+    public InMemoryIdempotencyStore(
+            @Value("${idempotency.max-entries:100000}") int maxEntries,
+            @Value("${idempotency.ttl:24h}") Duration ttl) {
+        this(maxEntries, ttl, Clock.systemUTC());
+    }
+
+    /**
+     * Constructor allowing the {@link Clock} to be provided.
+     * @param maxEntries the maximum number of records to keep.
+     * @param ttl the {@link Duration} records are kept for.
+     * @param clock the {@link Clock} used to expire records.
+     */
+    public InMemoryIdempotencyStore(int maxEntries, Duration ttl, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    @Override
+    public IdempotencyRecord find(String key) {
+        final IdempotencyRecord record = records.get(key);
+
+        if (record == null) {
+            return null;
+        }
+
+        if (isExpired(record)) {
+            records.remove(key, record);
+            return null;
+        }
+
+        return record;
+    }
+
+    @Override
+    public void save(IdempotencyRecord record) {
+        records.put(record.getKey(), record);
+        insertionOrder.add(record);
+        evict();
+    }
+
+    /**
+     * Removes the oldest records while the store is over capacity or the oldest record has expired.
+     */
+    private void evict() {
+        IdempotencyRecord oldest = insertionOrder.peek();
+
+        while (oldest != null && (records.size() > maxEntries || isExpired(oldest))) {
+            oldest = insertionOrder.poll();
+            if (oldest != null) {
+                // Only removes the record if it hasn't since been replaced under the same key.
+                records.remove(oldest.getKey(), oldest);
+            }
+            oldest = insertionOrder.peek();
+        }
+    }
+
+    private boolean isExpired(IdempotencyRecord record) {
+        return record.getCreatedAt().plus(ttl).isBefore(clock.instant());
+    }
+}
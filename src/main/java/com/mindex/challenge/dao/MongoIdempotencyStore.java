@@ -0,0 +1,58 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.IdempotencyRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Idempotency store backed by Mongo, allowing replays to survive restarts and be shared between instances.
+ * Enabled with {@code idempotency.store=mongo}.
+ *
+ * @author Robert Heinbokel
+ */
+@Repository
+@ConditionalOnProperty(name = "idempotency.store", havingValue = "mongo")
+public class MongoIdempotencyStore implements IIdempotencyStore {
+
+    // Expired records are purged in bulk every so many saves rather than paying for a delete on every write.
+    private static final long PURGE_INTERVAL = 100;
+
+    private final IIdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final Duration ttl;
+
+    private final AtomicLong saves = new AtomicLong();
+
+    /**
+     * Constructor for dependency injection.
+     * @param idempotencyRecordRepository the {@link IIdempotencyRecordRepository} to use.
+     * @param ttl the {@link Duration} records are kept for.
+     */
+    public MongoIdempotencyStore(
+            IIdempotencyRecordRepository idempotencyRecordRepository,
+            @Value("${idempotency.ttl:24h}") Duration ttl) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public IdempotencyRecord find(String key) {
+        return idempotencyRecordRepository.findById(key)
+                .filter(record -> !record.getCreatedAt().plus(ttl).isBefore(Instant.now()))
+                .orElse(null);
+    }
+
+    @Override
+    public void save(IdempotencyRecord record) {
+        idempotencyRecordRepository.save(record);
+
+        if (saves.incrementAndGet() % PURGE_INTERVAL == 0) {
+            idempotencyRecordRepository.deleteByCreatedAtBefore(Instant.now().minus(ttl));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.mindex.challenge.dao.converters;
+
+import com.mindex.challenge.data.Compensation;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+
+/**
+ * Reads a {@link Compensation} from its stored document without reflective mapping.
+ *
+ * @author Robert Heinbokel
+ */
+@ReadingConverter
+public class CompensationReadConverter implements Converter<Document, Compensation> {
+
+    @Override
+    public Compensation convert(Document document) {
+        final Number salary = document.get("salary", Number.class);
+        return new Compensation(
+                MappedFields.getId(document),
+                document.getString("employeeId"),
+                salary == null ? 0 : salary.longValue(),
+                MappedFields.toLocalDate(document.getDate("effectiveDate")));
+    }
+}
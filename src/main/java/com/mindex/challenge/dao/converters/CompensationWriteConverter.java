@@ -0,0 +1,29 @@
+package com.mindex.challenge.dao.converters;
+
+import com.mindex.challenge.data.Compensation;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.WritingConverter;
+
+/**
+ * Writes a {@link Compensation} to its stored document without reflective mapping.
+ * Produces the same document as the default mapping, including the _class type hint and the salary field name.
+ *
+ * @author Robert Heinbokel
+ */
+@WritingConverter
+public class CompensationWriteConverter implements Converter<Compensation, Document> {
+
+    static final String TYPE_HINT = Compensation.class.getName();
+
+    @Override
+    public Document convert(Compensation compensation) {
+        final Document document = new Document();
+        MappedFields.putId(document, compensation.getCompensationId());
+        MappedFields.putIfNotNull(document, "employeeId", compensation.getEmployeeId());
+        MappedFields.putIfNotNull(document, "effectiveDate", MappedFields.toDate(compensation.getEffectiveDate()));
+        document.put("salary", compensation.getSalaryMinorUnits());
+        document.put(MappedFields.TYPE_KEY, TYPE_HINT);
+        return document;
+    }
+}
@@ -0,0 +1,27 @@
+package com.mindex.challenge.dao.converters;
+
+import com.mindex.challenge.data.Employee;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+
+/**
+ * Reads an {@link Employee} from its stored document without reflective mapping.
+ *
+ * @author Robert Heinbokel
+ */
+@ReadingConverter
+public class EmployeeReadConverter implements Converter<Document, Employee> {
+
+    @Override
+    public Employee convert(Document document) {
+        final Employee employee = new Employee();
+        employee.setEmployeeId(MappedFields.getId(document));
+        employee.setFirstName(document.getString("firstName"));
+        employee.setLastName(document.getString("lastName"));
+        employee.setPosition(document.getString("position"));
+        employee.setDepartment(document.getString("department"));
+        employee.setDirectReportIds(document.getList("directReportIds", String.class));
+        return employee;
+    }
+}
@@ -0,0 +1,52 @@
+package com.mindex.challenge.dao.converters;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.convert.Jsr310Converters;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * Field conventions of the default mapping, shared by the hand-written converters so their documents stay identical to it.
+ *
+ * @author Robert Heinbokel
+ */
+final class MappedFields {
+
+    static final String ID_KEY = "_id";
+    static final String TYPE_KEY = "_class";
+
+    private MappedFields() {
+    }
+
+    /**
+     * Puts a String ID the way the default mapping does, as an ObjectId when it is a valid one and as a String otherwise.
+     * A null ID is left out so the database generates one.
+     */
+    static void putId(Document document, String id) {
+        if (id != null) {
+            document.put(ID_KEY, ObjectId.isValid(id) ? new ObjectId(id) : id);
+        }
+    }
+
+    static String getId(Document document) {
+        final Object id = document.get(ID_KEY);
+        return id == null ? null : id.toString();
+    }
+
+    static void putIfNotNull(Document document, String key, Object value) {
+        if (value != null) {
+            document.put(key, value);
+        }
+    }
+
+    // Dates use the same converters as the default mapping, so stored values and query parameters keep matching.
+    static Date toDate(LocalDate date) {
+        return date == null ? null : Jsr310Converters.LocalDateToDateConverter.INSTANCE.convert(date);
+    }
+
+    static LocalDate toLocalDate(Date date) {
+        return date == null ? null : Jsr310Converters.DateToLocalDateConverter.INSTANCE.convert(date);
+    }
+}
@@ -0,0 +1,234 @@
+package com.mindex.challenge.dao.inprocess;
+
+import com.mindex.challenge.dao.ICompensationRepository;
+import com.mindex.challenge.dao.converters.CompensationReadConverter;
+import com.mindex.challenge.dao.converters.CompensationWriteConverter;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.requests.CompensationHistoryQuery;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * {@link ICompensationRepository} held in process, replacing the Mongo backed repository under the in-process profile.
+ * Besides the map by compensationId, each employee's compensations are indexed in a sorted map by effective date,
+ * which enforces the unique (employeeId, effectiveDate) constraint and serves as-of lookups as a floor entry
+ * and history queries as sub-map views. Compensations are partitioned by employeeId, so each timeline lives in one
+ * partition and only its write lock guards it.
+ *
+ * @author Robert Heinbokel
+ */
+@Repository
+@Primary
+@Profile(InProcessProfile.NAME)
+public class InProcessCompensationRepository extends InProcessRepository<Compensation> implements ICompensationRepository {
+
+    private static final CompensationWriteConverter WRITE_CONVERTER = new CompensationWriteConverter();
+    private static final CompensationReadConverter READ_CONVERTER = new CompensationReadConverter();
+
+    private final Map<String, ConcurrentSkipListMap<LocalDate, Compensation>> timelinesByEmployeeId = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a repository held in memory only, in a single partition.
+     */
+    public InProcessCompensationRepository() {
+        this(1);
+    }
+
+    /**
+     * Constructs a repository held in memory only.
+     * @param partitions the number of partitions to split the store into.
+     */
+    public InProcessCompensationRepository(int partitions) {
+        this(Collections.nCopies(partitions, null));
+    }
+
+    /**
+     * Constructor for dependency injection.
+     * @param journals the {@link InProcessJournals} to open this repository's journals with.
+     * @param partitions the number of partitions to split the store into.
+     */
+    @Autowired
+    public InProcessCompensationRepository(InProcessJournals journals, @Value("${inprocess.partitions:1}") int partitions) {
+        this(journals.open("compensation", partitions));
+    }
+
+    InProcessCompensationRepository(InProcessJournal journal) {
+        this(Collections.singletonList(journal));
+    }
+
+    InProcessCompensationRepository(List<InProcessJournal> journals) {
+        super(journals);
+        replayJournal();
+    }
+
+    @Override
+    public List<Compensation> findByEmployeeId(String employeeId) {
+        return timeline(employeeId).values().stream().map(this::copy).toList();
+    }
+
+    @Override
+    public Compensation findByEmployeeIdAndEffectiveDate(String employeeId, LocalDate effectiveDate) {
+        final Compensation compensation = timeline(employeeId).get(effectiveDate);
+        return compensation == null ? null : copy(compensation);
+    }
+
+    @Override
+    public Compensation findFirstByEmployeeIdAndEffectiveDateLessThanEqualOrderByEffectiveDateDesc(String employeeId, LocalDate date) {
+        final Map.Entry<LocalDate, Compensation> inEffect = timeline(employeeId).floorEntry(date);
+        return inEffect == null ? null : copy(inEffect.getValue());
+    }
+
+    @Override
+    public Map<Integer, BulkInsertFailure> insertUnordered(List<Compensation> compensations) {
+        final Map<Integer, BulkInsertFailure> failures = new HashMap<>();
+        for (int i = 0; i < compensations.size(); i++) {
+            try {
+                insert(compensations.get(i));
+            } catch (DuplicateKeyException ex) {
+                failures.put(i, new BulkInsertFailure(true, ex.getMessage()));
+            } catch (RuntimeException ex) {
+                // Like an unordered bulk write, one failing document doesn't stop the rest.
+                failures.put(i, new BulkInsertFailure(false, ex.getMessage()));
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public long[] findSalariesAsOf(Collection<String> employeeIds, LocalDate asOf) {
+        final LongStream.Builder salaries = LongStream.builder();
+        forEachSalaryAsOf(employeeIds, asOf, salary -> salaries.add(salary.salaryMinorUnits()));
+        return salaries.build().toArray();
+    }
+
+    @Override
+    public void forEachSalaryAsOf(Collection<String> employeeIds, LocalDate asOf, Consumer<SalaryInEffect> salaries) {
+        for (String employeeId : employeeIds) {
+            final Map.Entry<LocalDate, Compensation> inEffect = timeline(employeeId).floorEntry(asOf);
+            if (inEffect != null) {
+                salaries.accept(toSalaryInEffect(inEffect.getValue()));
+            }
+        }
+    }
+
+    @Override
+    public Stream<SalaryInEffect> streamSalariesAsOf(LocalDate asOf) {
+        return timelinesByEmployeeId.values().stream()
+                .map(timeline -> timeline.floorEntry(asOf))
+                .filter(Objects::nonNull)
+                .map(inEffect -> toSalaryInEffect(inEffect.getValue()));
+    }
+
+    @Override
+    public Stream<Compensation> streamHistory(String employeeId, CompensationHistoryQuery query) {
+        NavigableMap<LocalDate, Compensation> history = timeline(employeeId);
+
+        if (query.getFrom() != null) {
+            history = history.tailMap(query.getFrom(), true);
+        }
+        if (query.getTo() != null) {
+            history = history.headMap(query.getTo(), true);
+        }
+        if (query.getAfter() != null) {
+            // Effective dates are unique per employee, so the date alone is enough to resume from.
+            history = query.getDirection() == Sort.Direction.ASC
+                    ? history.tailMap(query.getAfter(), false)
+                    : history.headMap(query.getAfter(), false);
+        }
+        if (query.getDirection() == Sort.Direction.DESC) {
+            history = history.descendingMap();
+        }
+
+        final Stream<Compensation> compensations = history.values().stream().map(this::copy);
+        return query.getLimit() == null ? compensations : compensations.limit(query.getLimit());
+    }
+
+    @Override
+    protected String getId(Compensation compensation) {
+        return compensation.getCompensationId();
+    }
+
+    @Override
+    protected void setId(Compensation compensation, String id) {
+        compensation.setCompensationId(id);
+    }
+
+    @Override
+    protected String getRoutingKey(Compensation compensation) {
+        return compensation.getEmployeeId();
+    }
+
+    @Override
+    protected boolean isRoutedById() {
+        return false;
+    }
+
+    @Override
+    protected Document toDocument(Compensation compensation) {
+        return WRITE_CONVERTER.convert(compensation);
+    }
+
+    @Override
+    protected Compensation fromDocument(Document document) {
+        return READ_CONVERTER.convert(document);
+    }
+
+    @Override
+    protected Compensation copy(Compensation compensation) {
+        return new Compensation(compensation.getCompensationId(), compensation.getEmployeeId(),
+                compensation.getSalaryMinorUnits(), compensation.getEffectiveDate());
+    }
+
+    @Override
+    protected void checkUnique(Compensation previous, Compensation compensation) {
+        if (compensation.getEmployeeId() == null || compensation.getEffectiveDate() == null) {
+            throw new IllegalArgumentException("A compensation requires an employeeId and an effectiveDate");
+        }
+
+        final Compensation existing = timeline(compensation.getEmployeeId()).get(compensation.getEffectiveDate());
+        if (existing != null && existing != previous) {
+            throw new DuplicateKeyException(String.format("Duplicate key for employeeId: %s and effectiveDate: %s",
+                    compensation.getEmployeeId(), compensation.getEffectiveDate()));
+        }
+    }
+
+    @Override
+    protected void reindex(Compensation previous, Compensation current) {
+        if (previous != null) {
+            timeline(previous.getEmployeeId()).remove(previous.getEffectiveDate(), previous);
+        }
+        if (current != null) {
+            timelinesByEmployeeId.computeIfAbsent(current.getEmployeeId(), employeeId -> new ConcurrentSkipListMap<>())
+                    .put(current.getEffectiveDate(), current);
+        }
+    }
+
+    private NavigableMap<LocalDate, Compensation> timeline(String employeeId) {
+        final NavigableMap<LocalDate, Compensation> timeline = timelinesByEmployeeId.get(employeeId);
+        return timeline == null ? new ConcurrentSkipListMap<>() : timeline;
+    }
+
+    private static SalaryInEffect toSalaryInEffect(Compensation compensation) {
+        return new SalaryInEffect(compensation.getEmployeeId(), compensation.getEffectiveDate(), compensation.getSalaryMinorUnits());
+    }
+}
@@ -0,0 +1,151 @@
+package com.mindex.challenge.dao.inprocess;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.dao.converters.EmployeeReadConverter;
+import com.mindex.challenge.dao.converters.EmployeeWriteConverter;
+import com.mindex.challenge.data.Employee;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link EmployeeRepository} held in process, replacing the Mongo backed repository under the in-process profile.
+ * Employees are stored as immutable snapshots, so direct report updates swap in a new copy rather than mutating one
+ * a concurrent reader may be copying.
+ *
+ * @author Robert Heinbokel
+ */
+@Repository
+@Primary
+@Profile(InProcessProfile.NAME)
+public class InProcessEmployeeRepository extends InProcessRepository<Employee> implements EmployeeRepository {
+
+    private static final EmployeeWriteConverter WRITE_CONVERTER = new EmployeeWriteConverter();
+    private static final EmployeeReadConverter READ_CONVERTER = new EmployeeReadConverter();
+
+    /**
+     * Constructs a repository held in memory only, in a single partition.
+     */
+    public InProcessEmployeeRepository() {
+        this(1);
+    }
+
+    /**
+     * Constructs a repository held in memory only.
+     * @param partitions the number of partitions to split the store into.
+     */
+    public InProcessEmployeeRepository(int partitions) {
+        this(Collections.nCopies(partitions, null));
+    }
+
+    /**
+     * Constructor for dependency injection.
+     * @param journals the {@link InProcessJournals} to open this repository's journals with.
+     * @param partitions the number of partitions to split the store into.
+     */
+    @Autowired
+    public InProcessEmployeeRepository(InProcessJournals journals, @Value("${inprocess.partitions:1}") int partitions) {
+        this(journals.open("employee", partitions));
+    }
+
+    InProcessEmployeeRepository(InProcessJournal journal) {
+        this(Collections.singletonList(journal));
+    }
+
+    InProcessEmployeeRepository(List<InProcessJournal> journals) {
+        super(journals);
+        replayJournal();
+    }
+
+    @Override
+    public Employee findByEmployeeId(String employeeId) {
+        return findById(employeeId).orElse(null);
+    }
+
+    @Override
+    public List<Employee> findByEmployeeIdIn(Collection<String> employeeIds) {
+        return findAllById(employeeIds);
+    }
+
+    @Override
+    public Employee addDirectReport(String managerId, String reportId) {
+        final Partition<Employee> partition = partitionFor(managerId);
+        long position = 0;
+        synchronized (partition) {
+            final Employee manager = partition.get(managerId);
+            if (manager == null) {
+                return null;
+            }
+
+            final List<String> directReportIds = manager.getDirectReportIds() == null
+                    ? new ArrayList<>()
+                    : new ArrayList<>(manager.getDirectReportIds());
+            if (!directReportIds.contains(reportId)) {
+                directReportIds.add(reportId);
+                final Employee updated = copy(manager);
+                updated.setDirectReportIds(directReportIds);
+                position = write(partition, manager, updated);
+            }
+        }
+        awaitDurable(partition, position);
+        return findByEmployeeId(managerId);
+    }
+
+    @Override
+    public Employee removeDirectReport(String managerId, String reportId) {
+        final Partition<Employee> partition = partitionFor(managerId);
+        final long position;
+        synchronized (partition) {
+            final Employee manager = partition.get(managerId);
+            if (manager == null || manager.getDirectReportIds() == null || !manager.getDirectReportIds().contains(reportId)) {
+                return null;
+            }
+
+            final Employee updated = copy(manager);
+            updated.setDirectReportIds(manager.getDirectReportIds().stream().filter(id -> !id.equals(reportId)).toList());
+            position = write(partition, manager, updated);
+        }
+        awaitDurable(partition, position);
+        return findByEmployeeId(managerId);
+    }
+
+    @Override
+    protected String getId(Employee employee) {
+        return employee.getEmployeeId();
+    }
+
+    @Override
+    protected void setId(Employee employee, String id) {
+        employee.setEmployeeId(id);
+    }
+
+    @Override
+    protected Document toDocument(Employee employee) {
+        return WRITE_CONVERTER.convert(employee);
+    }
+
+    @Override
+    protected Employee fromDocument(Document document) {
+        return READ_CONVERTER.convert(document);
+    }
+
+    @Override
+    protected Employee copy(Employee employee) {
+        final Employee copy = new Employee();
+        copy.setEmployeeId(employee.getEmployeeId());
+        copy.setFirstName(employee.getFirstName());
+        copy.setLastName(employee.getLastName());
+        copy.setPosition(employee.getPosition());
+        copy.setDepartment(employee.getDepartment());
+        copy.setDirectReportIds(employee.getDirectReportIds() == null ? null : new ArrayList<>(employee.getDirectReportIds()));
+        return copy;
+    }
+}
@@ -0,0 +1,277 @@
+package com.mindex.challenge.dao.inprocess;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Durability for an in-process repository: an append-only write-ahead log of its mutations plus a compacted snapshot.
+ * <p>
+ * Each mutation is appended as one line of JSON while the repository holds its write lock, so the log order matches
+ * the order the mutations were applied in. Callers then wait for the log to be fsynced outside the lock. Concurrent
+ * writers share fsyncs (group commit): whichever thread syncs covers every record appended before it, and the others
+ * find their record already durable. Snapshots write every entity to a temporary file, atomically replace the previous
+ * snapshot, then truncate the log, so a restart replays at most one snapshot plus the records since.
+ * A record torn by a crash mid-append is the last line of the log and is dropped on open.
+ *
+ * @author Robert Heinbokel
+ */
+class InProcessJournal implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(InProcessJournal.class);
+
+    private static final String OPERATION = "op";
+    private static final String PUT = "put";
+    private static final String MOVE = "move";
+    private static final String DELETE = "delete";
+    private static final String CLEAR = "clear";
+    private static final String DOCUMENT = "doc";
+    private static final String ID = "_id";
+    private static final String SEQUENCE = "seq";
+
+    private final Path logFile;
+    private final Path snapshotFile;
+    private final int snapshotAfterRecords;
+    private final FileChannel log;
+
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+    private long appended; // Guarded by appendLock
+    private long synced; // Guarded by syncLock
+    private int recordsSinceSnapshot; // Guarded by appendLock
+    private int snapshotDueAt; // Guarded by appendLock
+
+    /**
+     * Opens the journal of the given name in a directory, creating its files if they don't exist yet.
+     * @param directory the directory holding the log and snapshot files.
+     * @param name the name of the journal, used as the file name prefix.
+     * @param snapshotAfterRecords the number of logged records after which a snapshot is due.
+     */
+    InProcessJournal(Path directory, String name, int snapshotAfterRecords) {
+        this.logFile = directory.resolve(name + ".wal");
+        this.snapshotFile = directory.resolve(name + ".snapshot");
+        this.snapshotAfterRecords = snapshotAfterRecords;
+        this.snapshotDueAt = snapshotAfterRecords;
+        try {
+            Files.createDirectories(directory);
+            this.log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            dropTornRecord();
+            this.log.position(log.size());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to open the journal at " + logFile, ex);
+        }
+    }
+
+    /**
+     * Replays the snapshot then the log, oldest first.
+     * @param puts receives each stored document.
+     * @param moves receives each document moved in from another journal, with the sequence it was moved under.
+     * @param deletes receives the ID of each deleted document.
+     * @param clears called when every document was deleted.
+     */
+    void replay(Consumer<Document> puts, ObjLongConsumer<Document> moves, Consumer<String> deletes, Runnable clears) {
+        int snapshotted = 0;
+        int logged = 0;
+
+        try {
+            if (Files.exists(snapshotFile)) {
+                try (BufferedReader reader = Files.newBufferedReader(snapshotFile, StandardCharsets.UTF_8)) {
+                    for (Iterator<String> lines = reader.lines().iterator(); lines.hasNext(); snapshotted++) {
+                        puts.accept(Document.parse(lines.next()));
+                    }
+                }
+            }
+
+            try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+                for (Iterator<String> lines = reader.lines().iterator(); lines.hasNext(); logged++) {
+                    final Document record = Document.parse(lines.next());
+                    switch (record.getString(OPERATION)) {
+                        case PUT -> puts.accept(record.get(DOCUMENT, Document.class));
+                        case MOVE -> moves.accept(record.get(DOCUMENT, Document.class), record.get(SEQUENCE, Number.class).longValue());
+                        case DELETE -> deletes.accept(record.getString(ID));
+                        case CLEAR -> clears.run();
+                        default -> throw new IllegalStateException("Unknown journal operation in " + logFile + ": " + record.toJson());
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to replay the journal at " + logFile, ex);
+        }
+
+        synchronized (appendLock) {
+            recordsSinceSnapshot = logged;
+        }
+        LOG.info("Replayed [{}] snapshotted and [{}] logged records from [{}]", snapshotted, logged, logFile);
+    }
+
+    /**
+     * Appends a stored document. Must be called while holding the repository's write lock.
+     * @param document the document as stored.
+     * @return the position to pass to {@link #awaitDurable(long)}.
+     */
+    long logPut(Document document) {
+        return append(new Document(OPERATION, PUT).append(DOCUMENT, document));
+    }
+
+    /**
+     * Appends a document moved in from another journal, which the other journal deletes once this record is durable.
+     * Must be called while holding the repository's write lock.
+     * @param document the document as stored.
+     * @param sequence the sequence of the move, increasing across journals, telling which copy is the latest should
+     *                 a crash leave the document in both.
+     * @return the position to pass to {@link #awaitDurable(long)}.
+     */
+    long logMove(Document document, long sequence) {
+        return append(new Document(OPERATION, MOVE).append(DOCUMENT, document).append(SEQUENCE, sequence));
+    }
+
+    /**
+     * Appends a deletion. Must be called while holding the repository's write lock.
+     * @param id the ID of the deleted document.
+     * @return the position to pass to {@link #awaitDurable(long)}.
+     */
+    long logDelete(String id) {
+        return append(new Document(OPERATION, DELETE).append(ID, id));
+    }
+
+    /**
+     * Appends the deletion of every document. Must be called while holding the repository's write lock.
+     * @return the position to pass to {@link #awaitDurable(long)}.
+     */
+    long logClear() {
+        return append(new Document(OPERATION, CLEAR));
+    }
+
+    /**
+     * Blocks until every record up to the given position has been fsynced, syncing itself if no other writer has.
+     * @param position the position returned when the record was appended.
+     */
+    void awaitDurable(long position) {
+        synchronized (syncLock) {
+            if (synced >= position) {
+                return; // Covered by another writer's fsync while this one waited for the lock.
+            }
+
+            final long target;
+            synchronized (appendLock) {
+                target = appended;
+            }
+            try {
+                log.force(false);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Unable to sync the journal at " + logFile, ex);
+            }
+            synced = target;
+        }
+    }
+
+    /**
+     * @return whether enough records have been logged since the last snapshot for another to be due.
+     */
+    boolean isSnapshotDue() {
+        synchronized (appendLock) {
+            return recordsSinceSnapshot >= snapshotDueAt;
+        }
+    }
+
+    /**
+     * Replaces the snapshot with the given documents and truncates the log.
+     * Must be called while holding the repository's write lock, so the documents and the log agree.
+     * If it fails, the log is left as it is and the next snapshot is due after as many records again.
+     * @param documents every document currently stored.
+     */
+    void snapshot(Iterable<Document> documents) {
+        final Path temporaryFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        int count = 0;
+
+        try (FileChannel snapshot = FileChannel.open(temporaryFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Document document : documents) {
+                writeLine(snapshot, document);
+                count++;
+            }
+            snapshot.force(true);
+            Files.move(temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            // The rename itself must be durable before the log is truncated, or a crash could lose both.
+            try (FileChannel parent = FileChannel.open(snapshotFile.getParent(), StandardOpenOption.READ)) {
+                parent.force(true);
+            }
+
+            // Replaying a record already in the snapshot is harmless, so a crash before this truncate loses nothing.
+            synchronized (appendLock) {
+                log.truncate(0);
+                log.force(true);
+                recordsSinceSnapshot = 0;
+                snapshotDueAt = snapshotAfterRecords;
+            }
+        } catch (IOException ex) {
+            synchronized (appendLock) {
+                snapshotDueAt = recordsSinceSnapshot + snapshotAfterRecords;
+            }
+            throw new UncheckedIOException("Unable to snapshot the journal at " + snapshotFile, ex);
+        }
+        LOG.info("Snapshotted [{}] records to [{}]", count, snapshotFile);
+    }
+
+    @Override
+    public void close() {
+        try {
+            log.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to close the journal at " + logFile, ex);
+        }
+    }
+
+    private long append(Document record) {
+        synchronized (appendLock) {
+            try {
+                writeLine(log, record);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Unable to append to the journal at " + logFile, ex);
+            }
+            recordsSinceSnapshot++;
+            return ++appended;
+        }
+    }
+
+    private static void writeLine(FileChannel channel, Document document) throws IOException {
+        final ByteBuffer line = StandardCharsets.UTF_8.encode(document.toJson() + "\n");
+        while (line.hasRemaining()) {
+            channel.write(line);
+        }
+    }
+
+    // Every complete record ends with a newline, so anything after the last one was cut short by a crash.
+    private void dropTornRecord() throws IOException {
+        long end = log.size();
+        final ByteBuffer last = ByteBuffer.allocate(1);
+
+        while (end > 0) {
+            last.clear();
+            log.read(last, end - 1);
+            if (last.get(0) == '\n') {
+                break;
+            }
+            end--;
+        }
+
+        if (end < log.size()) {
+            LOG.warn("Dropping [{}] bytes of a torn record at the end of [{}]", log.size() - end, logFile);
+            log.truncate(end);
+            log.force(true);
+        }
+    }
+}
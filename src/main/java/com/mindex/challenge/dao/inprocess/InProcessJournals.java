@@ -0,0 +1,83 @@
+package com.mindex.challenge.dao.inprocess;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Opens the journals of the in-process repositories, when a journal directory is configured.
+ * Without one the repositories are volatile and start empty, as the embedded memory backend does.
+ *
+ * @author Robert Heinbokel
+ */
+@Component
+@Profile(InProcessProfile.NAME)
+public class InProcessJournals {
+
+    private final String directory;
+
+    private final int snapshotAfterRecords;
+
+    /**
+     * Constructor for dependency injection.
+     * @param directory the directory holding the journals, or blank to keep the repositories in memory only.
+     * @param snapshotAfterRecords the number of logged records after which a repository is snapshotted and its log truncated.
+     */
+    public InProcessJournals(@Value("${inprocess.journal.directory:}") String directory,
+                             @Value("${inprocess.journal.snapshot-after-records:100000}") int snapshotAfterRecords) {
+        this.directory = directory;
+        this.snapshotAfterRecords = snapshotAfterRecords;
+    }
+
+    /**
+     * Opens the journals of a repository's partitions. A single partition is journaled under the repository's name,
+     * and partition i of n under {@code <name>-<i>-of-<n>}.
+     * @param name the name of the repository's journal.
+     * @param partitions the number of partitions of the repository.
+     * @return the {@link InProcessJournal} of each partition, or nulls if no journal directory is configured.
+     * @throws IllegalStateException if the directory holds journals of the repository with another number of
+     * partitions, since entities would no longer be routed to the partitions they were journaled in.
+     */
+    List<InProcessJournal> open(String name, int partitions) {
+        if (directory.isBlank()) {
+            return Collections.nCopies(partitions, null);
+        }
+
+        final Path path = Path.of(directory);
+        final List<String> names = IntStream.range(0, partitions)
+                .mapToObj(partition -> partitions == 1 ? name : name + "-" + partition + "-of-" + partitions)
+                .toList();
+        checkLayout(path, name, names);
+        return names.stream().map(journal -> new InProcessJournal(path, journal, snapshotAfterRecords)).toList();
+    }
+
+    private static void checkLayout(Path directory, String name, List<String> names) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(file -> file.endsWith(".wal") || file.endsWith(".snapshot"))
+                    .map(file -> file.substring(0, file.lastIndexOf('.')))
+                    .filter(journal -> journal.equals(name) || journal.startsWith(name + "-"))
+                    .filter(journal -> !names.contains(journal))
+                    .findAny()
+                    .ifPresent(journal -> {
+                        throw new IllegalStateException(String.format(
+                                "%s holds the journal %s, which does not match the configured %d partition(s) of %s",
+                                directory, journal, names.size(), name));
+                    });
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to list the journals in " + directory, ex);
+        }
+    }
+}
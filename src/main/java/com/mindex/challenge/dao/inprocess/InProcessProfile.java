@@ -0,0 +1,16 @@
+package com.mindex.challenge.dao.inprocess;
+
+/**
+ * The Spring profile which swaps the Mongo backed employee and compensation repositories for in-process ones.
+ * Activate with {@code spring.profiles.active=in-process}. Data held in process is lost on restart unless journaled
+ * to {@code inprocess.journal.directory}.
+ *
+ * @author Robert Heinbokel
+ */
+public final class InProcessProfile {
+
+    public static final String NAME = "in-process";
+
+    private InProcessProfile() {
+    }
+}
@@ -0,0 +1,685 @@
+package com.mindex.challenge.dao.inprocess;
+
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.NullValueInNestedPathException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Base of the in-process repositories, holding entities in concurrent maps keyed by ID.
+ * Implements the generic part of {@code MongoRepository} with the same semantics as the Mongo backed repositories:
+ * entities are copied on the way in and out so callers never share state with the store, inserts generate ObjectId
+ * style IDs and reject existing IDs, and unique constraints surface as {@link DuplicateKeyException}.
+ * <p>
+ * The store is split into one or more {@link Partition}s, each with its own map, write lock and journal, and entities
+ * are routed to a partition by the hash of their {@link #getRoutingKey(Object) routing key}. Reads are lock free.
+ * Writes are serialized per partition, so writers to different partitions don't contend, and subclasses can keep
+ * secondary indexes consistent as long as those only relate entities sharing a routing key. Reads spanning routing
+ * keys, such as a hierarchy traversal, gather from every partition and are not a point-in-time view across them.
+ * <p>
+ * Entities routed by another key than their ID are located through a map of ID to partition, which inserts reserve the
+ * ID in first so the same ID can't be inserted into two partitions. Saving one with a changed routing key moves it while
+ * holding both partitions' write locks, taken in partition order, so readers see it in one partition or the other.
+ * <p>
+ * With {@link InProcessJournal}s, each partition is replayed from its journal on construction and every write is
+ * logged to it, returning once durable. Snapshots are taken once enough records were logged, and on shutdown.
+ * A move is durable in the target partition's journal before it is deleted from the source's, so a crash mid-move can
+ * leave the entity in both but never in neither; replay then keeps the copy with the latest move sequence.
+ * Sorting and paging compare the stored entities by their bean properties, nested paths included, in memory; only the
+ * returned page is copied. Query by example is not used by this application and is not supported.
+ *
+ * @param <T> the type of entity stored.
+ *
+ * @author Robert Heinbokel
+ */
+abstract class InProcessRepository<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InProcessRepository.class);
+
+    private final List<Partition<T>> partitions;
+
+    // The partition each ID is stored in, or reserved by an insert in progress. Only kept when not routed by ID.
+    private final Map<String, Partition<T>> locations = new ConcurrentHashMap<>();
+
+    private final AtomicLong moves = new AtomicLong();
+
+    /**
+     * Constructs the repository. Subclasses call {@link #replayJournal()} once their own indexes are initialized.
+     * @param journals the {@link InProcessJournal} of each partition, or nulls to keep them in memory only.
+     *                 The number of partitions is the size of the list.
+     */
+    protected InProcessRepository(List<InProcessJournal> journals) {
+        if (journals.isEmpty()) {
+            throw new IllegalArgumentException("An in-process repository requires at least one partition");
+        }
+        this.partitions = IntStream.range(0, journals.size()).mapToObj(index -> new Partition<T>(index, journals.get(index))).toList();
+    }
+
+    /**
+     * Returns the ID of an entity.
+     * @param entity the entity.
+     * @return the ID, or null if it has not been assigned yet.
+     */
+    protected abstract String getId(T entity);
+
+    /**
+     * Assigns a generated ID to an entity on insert.
+     * @param entity the entity.
+     * @param id the ID to assign.
+     */
+    protected abstract void setId(T entity, String id);
+
+    /**
+     * Copies an entity, so neither the caller nor the store can change the other's instance.
+     * @param entity the entity to copy.
+     * @return the copy.
+     */
+    protected abstract T copy(T entity);
+
+    /**
+     * Converts an entity to the document stored in the journal.
+     * @param entity the entity.
+     * @return the document.
+     */
+    protected abstract Document toDocument(T entity);
+
+    /**
+     * Converts a document read from the journal back to an entity.
+     * @param document the document.
+     * @return the entity.
+     */
+    protected abstract T fromDocument(Document document);
+
+    /**
+     * Returns the key an entity is routed to a partition by. Defaults to its ID.
+     * Subclasses routing by another key must also return false from {@link #isRoutedById()}.
+     * @param entity the entity, with its ID assigned.
+     * @return the routing key.
+     */
+    protected String getRoutingKey(T entity) {
+        return getId(entity);
+    }
+
+    /**
+     * Whether the routing key is the ID, so lookups by ID only need to consult one partition rather than all of them.
+     * @return true if entities are routed by their ID.
+     */
+    protected boolean isRoutedById() {
+        return true;
+    }
+
+    /**
+     * Checks the unique constraints of an entity about to be written. Called while holding the partition's write lock.
+     * @param previous the currently stored entity with the same ID, or null if there is none.
+     * @param entity the entity about to be written.
+     * @throws DuplicateKeyException if the entity violates a unique constraint.
+     */
+    protected void checkUnique(T previous, T entity) {
+    }
+
+    /**
+     * Updates secondary indexes after a write. Called while holding the partition's write lock.
+     * @param previous the entity previously stored under the ID, or null if there was none.
+     * @param current the entity now stored under the ID, or null if it was deleted.
+     */
+    protected void reindex(T previous, T current) {
+    }
+
+    public <S extends T> S insert(S entity) {
+        if (getId(entity) == null) {
+            setId(entity, new ObjectId().toHexString());
+        }
+        final String id = getId(entity);
+        final Partition<T> partition = partitionOf(entity);
+        if (!isRoutedById() && locations.putIfAbsent(id, partition) != null) {
+            throw duplicateId(id);
+        }
+        final long position;
+        synchronized (partition) {
+            try {
+                if (partition.get(id) != null || (!isRoutedById() && locations.get(id) != partition)) {
+                    throw duplicateId(id);
+                }
+                position = write(partition, null, entity);
+            } catch (RuntimeException ex) {
+                release(partition, id);
+                throw ex;
+            }
+        }
+        awaitDurable(partition, position);
+        return entity;
+    }
+
+    public <S extends T> List<S> insert(Iterable<S> entities) {
+        final List<S> inserted = new ArrayList<>();
+        entities.forEach(entity -> inserted.add(insert(entity)));
+        return inserted;
+    }
+
+    public <S extends T> S save(S entity) {
+        if (getId(entity) == null) {
+            return insert(entity);
+        }
+        final String id = getId(entity);
+        final Partition<T> partition = partitionOf(entity);
+        if (isRoutedById()) {
+            final long position;
+            synchronized (partition) {
+                position = write(partition, partition.get(id), entity);
+            }
+            awaitDurable(partition, position);
+            return entity;
+        }
+
+        // Retries should a concurrent write move or delete the entity between looking up its partition and locking it.
+        while (true) {
+            final Partition<T> source = locations.putIfAbsent(id, partition);
+            if (source != null && source != partition) {
+                if (move(source, partition, entity)) {
+                    return entity;
+                }
+                continue;
+            }
+            final long position;
+            synchronized (partition) {
+                if (locations.get(id) != partition) {
+                    continue;
+                }
+                try {
+                    position = write(partition, partition.get(id), entity);
+                } catch (RuntimeException ex) {
+                    release(partition, id);
+                    throw ex;
+                }
+            }
+            awaitDurable(partition, position);
+            return entity;
+        }
+    }
+
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        final List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    public Optional<T> findById(String id) {
+        return Optional.ofNullable(stored(id)).map(this::copy);
+    }
+
+    public boolean existsById(String id) {
+        return stored(id) != null;
+    }
+
+    public List<T> findAll() {
+        return storedEntities().map(this::copy).toList();
+    }
+
+    public List<T> findAllById(Iterable<String> ids) {
+        final List<T> found = new ArrayList<>();
+        for (String id : ids) {
+            findById(id).ifPresent(found::add);
+        }
+        return found;
+    }
+
+    public long count() {
+        return partitions.stream().mapToLong(partition -> partition.entities.size()).sum();
+    }
+
+    public void deleteById(String id) {
+        if (isRoutedById()) {
+            delete(partitionFor(id), id);
+            return;
+        }
+        // Retries should a concurrent save move the entity between looking up its partition and locking it.
+        Partition<T> partition = locations.get(id);
+        while (partition != null && !delete(partition, id)) {
+            partition = locations.get(id);
+        }
+    }
+
+    public void delete(T entity) {
+        deleteById(getId(entity));
+    }
+
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    public void deleteAll(Iterable<? extends T> entities) {
+        entities.forEach(this::delete);
+    }
+
+    public void deleteAll() {
+        for (Partition<T> partition : partitions) {
+            long position = 0;
+            synchronized (partition) {
+                partition.entities.forEach((id, previous) -> {
+                    if (!isRoutedById()) {
+                        locations.remove(id, partition);
+                    }
+                    reindex(previous, null);
+                });
+                partition.entities.clear();
+                if (partition.journal != null) {
+                    position = partition.journal.logClear();
+                }
+            }
+            awaitDurable(partition, position);
+        }
+    }
+
+    public List<T> findAll(Sort sort) {
+        return sorted(sort).stream().map(this::copy).toList();
+    }
+
+    public Page<T> findAll(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll(pageable.getSort()));
+        }
+        final List<T> sorted = sorted(pageable.getSort());
+        final int from = (int) Math.min(pageable.getOffset(), sorted.size());
+        final int to = (int) Math.min((long) from + pageable.getPageSize(), sorted.size());
+        return new PageImpl<>(sorted.subList(from, to).stream().map(this::copy).toList(), pageable, sorted.size());
+    }
+
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        throw unsupported("query by example");
+    }
+
+    public <S extends T> List<S> findAll(Example<S> example) {
+        throw unsupported("query by example");
+    }
+
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        throw unsupported("query by example");
+    }
+
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw unsupported("query by example");
+    }
+
+    public <S extends T> long count(Example<S> example) {
+        throw unsupported("query by example");
+    }
+
+    public <S extends T> boolean exists(Example<S> example) {
+        throw unsupported("query by example");
+    }
+
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw unsupported("query by example");
+    }
+
+    /**
+     * Returns the partition entities with the given routing key are stored in.
+     * @param routingKey the routing key.
+     * @return the {@link Partition}.
+     */
+    protected Partition<T> partitionFor(String routingKey) {
+        final int hash = Objects.hashCode(routingKey);
+        return partitions.get(Math.floorMod(hash ^ (hash >>> 16), partitions.size()));
+    }
+
+    /**
+     * Replaces a stored entity with a copy of the given one, and logs it. Must be called while holding the partition's
+     * write lock.
+     * @param partition the {@link Partition} the entity is routed to.
+     * @param previous the currently stored entity with the same ID, or null if there is none.
+     * @param entity the entity to store.
+     * @return the journal position to pass to {@link #awaitDurable(Partition, long)} once the write lock is released.
+     */
+    protected long write(Partition<T> partition, T previous, T entity) {
+        final T stored = store(partition, previous, entity);
+        return partition.journal == null ? 0 : partition.journal.logPut(toDocument(stored));
+    }
+
+    /**
+     * Waits until a logged write is durable, then takes a snapshot of the partition if one is due.
+     * The write is durable in the log either way, so a failed snapshot is only logged, to be retried by a later write.
+     * Must be called without holding the write lock, so concurrent writers can share the same fsync.
+     * @param partition the {@link Partition} written to.
+     * @param position the journal position returned by {@link #write(Partition, Object, Object)}.
+     */
+    protected void awaitDurable(Partition<T> partition, long position) {
+        final InProcessJournal journal = partition.journal;
+        if (journal == null || position == 0) {
+            return;
+        }
+        journal.awaitDurable(position);
+
+        if (journal.isSnapshotDue()) {
+            synchronized (partition) {
+                if (journal.isSnapshotDue()) {
+                    try {
+                        journal.snapshot(partition.entities.values().stream().map(this::toDocument)::iterator);
+                    } catch (UncheckedIOException ex) {
+                        LOG.error("Unable to snapshot partition [{}], retrying after further writes", partition.index, ex);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads each partition from its journal. Called by subclasses at the end of their constructor, once their indexes exist.
+     */
+    protected void replayJournal() {
+        final Map<String, Long> locatedMoves = new HashMap<>();
+        for (Partition<T> partition : partitions) {
+            if (partition.journal == null) {
+                continue;
+            }
+            // The sequence each entity last moved into this partition under, absent if it was put here directly.
+            final Map<String, Long> movedIn = new HashMap<>();
+            synchronized (partition) {
+                partition.journal.replay(
+                        document -> replayPut(partition, document),
+                        (document, sequence) -> {
+                            movedIn.put(getId(replayPut(partition, document)), sequence);
+                            moves.accumulateAndGet(sequence, Math::max);
+                        },
+                        id -> {
+                            movedIn.remove(id);
+                            final T previous = partition.entities.remove(id);
+                            if (previous != null) {
+                                reindex(previous, null);
+                            }
+                        },
+                        () -> {
+                            movedIn.clear();
+                            partition.entities.values().forEach(previous -> reindex(previous, null));
+                            partition.entities.clear();
+                        });
+            }
+            if (isRoutedById()) {
+                continue;
+            }
+
+            for (String id : List.copyOf(partition.entities.keySet())) {
+                final long move = movedIn.getOrDefault(id, 0L);
+                final Partition<T> other = locations.putIfAbsent(id, partition);
+                if (other == null) {
+                    locatedMoves.put(id, move);
+                    continue;
+                }
+                // A crash mid-move left the entity in both partitions, so keep the copy the latest move went to.
+                final boolean movedHere = move > locatedMoves.get(id);
+                final Partition<T> stale = movedHere ? other : partition;
+                LOG.warn("Dropping the copy of [{}] left in partition [{}] by an interrupted move", id, stale.index);
+                final long position;
+                synchronized (stale) {
+                    position = remove(stale, id);
+                }
+                awaitDurable(stale, position);
+                if (movedHere) {
+                    locations.put(id, partition);
+                    locatedMoves.put(id, move);
+                }
+            }
+        }
+    }
+
+    /**
+     * Snapshots each partition on shutdown, so the next startup only has to read the snapshots.
+     */
+    @PreDestroy
+    public void close() {
+        for (Partition<T> partition : partitions) {
+            if (partition.journal == null) {
+                continue;
+            }
+            synchronized (partition) {
+                partition.journal.snapshot(partition.entities.values().stream().map(this::toDocument)::iterator);
+                partition.journal.close();
+            }
+        }
+    }
+
+    private Partition<T> partitionOf(T entity) {
+        return partitionFor(getRoutingKey(entity));
+    }
+
+    private T stored(String id) {
+        if (isRoutedById()) {
+            return partitionFor(id).get(id);
+        }
+        Partition<T> partition = locations.get(id);
+        while (partition != null) {
+            final T entity = partition.get(id);
+            final Partition<T> current = locations.get(id);
+            if (entity != null || current == partition) {
+                return entity;
+            }
+            partition = current; // Moved between looking up its partition and reading it
+        }
+        return null;
+    }
+
+    // Stored entities of every partition, without copying them. Entities not routed by ID are listed through their
+    // locations, whose key stays put while the entity moves, so one being moved is listed exactly once.
+    private Stream<T> storedEntities() {
+        if (isRoutedById()) {
+            return partitions.stream().flatMap(partition -> partition.entities.values().stream());
+        }
+        return locations.keySet().stream().map(this::stored).filter(Objects::nonNull);
+    }
+
+    private T store(Partition<T> partition, T previous, T entity) {
+        checkUnique(previous, entity);
+        final T stored = copy(entity);
+        partition.entities.put(getId(stored), stored);
+        reindex(previous, stored);
+        return stored;
+    }
+
+    /**
+     * Moves an entity whose routing key changed to the partition it is now routed to.
+     * @param source the {@link Partition} the entity was located in when the caller looked it up.
+     * @param target the {@link Partition} the entity is now routed to.
+     * @param entity the entity to store.
+     * @return false if the entity was no longer located in the source once locked, so the caller must look it up again.
+     */
+    private boolean move(Partition<T> source, Partition<T> target, T entity) {
+        final String id = getId(entity);
+        final Partition<T> first = source.index < target.index ? source : target;
+        final Partition<T> second = first == source ? target : source;
+        long targetPosition = 0;
+        long sourcePosition = 0;
+
+        synchronized (first) {
+            synchronized (second) {
+                if (locations.get(id) != source) {
+                    return false;
+                }
+                final T stored = store(target, null, entity);
+                locations.put(id, target);
+                final T previous = source.entities.remove(id);
+                if (previous != null) {
+                    reindex(previous, null);
+                }
+
+                // Both locks are held until the move is durable, so neither partition is written or snapshotted
+                // while the entity could be left in both journals.
+                if (target.journal != null) {
+                    targetPosition = target.journal.logMove(toDocument(stored), moves.incrementAndGet());
+                    target.journal.awaitDurable(targetPosition);
+                }
+                if (previous != null && source.journal != null) {
+                    sourcePosition = source.journal.logDelete(id);
+                    source.journal.awaitDurable(sourcePosition);
+                }
+            }
+        }
+        awaitDurable(target, targetPosition);
+        awaitDurable(source, sourcePosition);
+        return true;
+    }
+
+    /**
+     * Deletes an entity from a partition.
+     * @return false if the entity was no longer located in the partition once locked, so the caller must look it up again.
+     */
+    private boolean delete(Partition<T> partition, String id) {
+        final long position;
+        synchronized (partition) {
+            if (!isRoutedById() && locations.get(id) != partition) {
+                return false;
+            }
+            position = remove(partition, id);
+        }
+        awaitDurable(partition, position);
+        return true;
+    }
+
+    // Must be called while holding the partition's write lock. Returns the journal position of the deletion, if any.
+    private long remove(Partition<T> partition, String id) {
+        final T previous = partition.entities.remove(id);
+        if (previous == null) {
+            return 0;
+        }
+        if (!isRoutedById()) {
+            locations.remove(id, partition);
+        }
+        reindex(previous, null);
+        return partition.journal == null ? 0 : partition.journal.logDelete(id);
+    }
+
+    // Drops the ID reserved by a failed write, unless the entity is stored after all. Must hold the partition's write lock.
+    private void release(Partition<T> partition, String id) {
+        if (!isRoutedById() && partition.get(id) == null) {
+            locations.remove(id, partition);
+        }
+    }
+
+    private T replayPut(Partition<T> partition, Document document) {
+        final T entity = fromDocument(document);
+        final T previous = partition.entities.put(getId(entity), entity);
+        reindex(previous, entity);
+        return entity;
+    }
+
+    private static DuplicateKeyException duplicateId(String id) {
+        return new DuplicateKeyException("Duplicate key for _id: " + id);
+    }
+
+    /**
+     * Gathers the stored entities from every partition, without copying them, in the order of a {@link Sort}.
+     * Each entity's sort properties are read once up front, rather than on every comparison, and ties are broken by ID
+     * so pages of an unsorted or partially sorted listing don't overlap.
+     * @param sort the {@link Sort}, possibly unsorted.
+     * @return the sorted entities.
+     */
+    private List<T> sorted(Sort sort) {
+        final List<Sort.Order> orders = sort.toList();
+        final List<SortKey<T>> keys = new ArrayList<>(storedEntities().map(entity -> {
+            final BeanWrapper properties = new BeanWrapperImpl(entity);
+            final Object[] values = new Object[orders.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = sortValue(properties, orders.get(i));
+            }
+            return new SortKey<>(entity, getId(entity), values);
+        }).toList());
+
+        Comparator<SortKey<T>> comparator = (left, right) -> 0;
+        for (int i = 0; i < orders.size(); i++) {
+            final int index = i;
+            comparator = comparator.thenComparing(key -> key.values()[index], valueComparator(orders.get(i)));
+        }
+        keys.sort(comparator.thenComparing(SortKey::id, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return keys.stream().map(SortKey::entity).toList();
+    }
+
+    private static Object sortValue(BeanWrapper properties, Sort.Order order) {
+        try {
+            final Object value = properties.getPropertyValue(order.getProperty());
+            return order.isIgnoreCase() && value instanceof String string ? string.toLowerCase(Locale.ROOT) : value;
+        } catch (NullValueInNestedPathException ex) {
+            // Like a missing field in Mongo, a null along the path sorts as null.
+            return null;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Object> valueComparator(Sort.Order order) {
+        Comparator<Object> comparator = (left, right) -> {
+            if (!(left instanceof Comparable comparable)) {
+                throw new InvalidDataAccessApiUsageException("Cannot sort by " + order.getProperty()
+                        + " as its values are not comparable");
+            }
+            return comparable.compareTo(right);
+        };
+        if (order.isDescending()) {
+            comparator = comparator.reversed();
+        }
+        // Mongo orders nulls before any value, so they come first ascending and last descending unless asked otherwise.
+        return switch (order.getNullHandling()) {
+            case NULLS_FIRST -> Comparator.nullsFirst(comparator);
+            case NULLS_LAST -> Comparator.nullsLast(comparator);
+            case NATIVE -> order.isAscending() ? Comparator.nullsFirst(comparator) : Comparator.nullsLast(comparator);
+        };
+    }
+
+    private UnsupportedOperationException unsupported(String feature) {
+        return new UnsupportedOperationException("The in-process repositories do not support " + feature);
+    }
+
+    private record SortKey<T>(T entity, String id, Object[] values) {
+    }
+
+    /**
+     * One partition of the store. Its monitor is the write lock for the entities routed to it.
+     *
+     * @param <T> the type of entity stored.
+     */
+    protected static final class Partition<T> {
+
+        private final Map<String, T> entities = new ConcurrentHashMap<>();
+
+        private final int index;
+
+        private final InProcessJournal journal;
+
+        private Partition(int index, InProcessJournal journal) {
+            this.index = index;
+            this.journal = journal;
+        }
+
+        /**
+         * Returns the entity stored under an ID, without copying it.
+         * @param id the ID.
+         * @return the stored entity, or null if this partition holds none.
+         */
+        T get(String id) {
+            return entities.get(id);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.mindex.challenge.data;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Represents a single entry in the append-only change log.
+ * Change events only reference the changed entity, consumers are expected to read the entity itself if they need it.
+ *
+ * @author Robert Heinbokel
+ */
+@Document("changeEvents")
+public class ChangeEvent {
+
+    /**
+     * The type of entity a change event refers to.
+     */
+    public enum EntityType {
+        EMPLOYEE,
+        COMPENSATION
+    }
+
+    /**
+     * The kind of change that was applied to the entity.
+     */
+    public enum Operation {
+        CREATED,
+        UPDATED
+    }
+
+    @Id // Sequence numbers are unique and strictly increasing, which makes them the natural key of the log.
+    private long sequence;
+
+    private EntityType entityType;
+
+    private Operation operation;
+
+    private String entityId;
+
+    private String employeeId; // The employee the entity belongs to, equal to entityId for employees.
+
+    private Instant timestamp;
+
+    /**
+     * Constructs a full ChangeEvent.
+     *
+     * @param sequence the position of this event in the change log.
+     * @param entityType the {@link EntityType} of the changed entity.
+     * @param operation the {@link Operation} applied to the entity.
+     * @param entityId the ID of the changed entity.
+     * @param employeeId the ID of the employee the changed entity belongs to.
+     * @param timestamp the {@link Instant} the change was recorded.
+     */
+    public ChangeEvent(long sequence, EntityType entityType, Operation operation, String entityId, String employeeId, Instant timestamp) {
+        this.sequence = sequence;
+        this.entityType = entityType;
+        this.operation = operation;
+        this.entityId = entityId;
+        this.employeeId = employeeId;
+        this.timestamp = timestamp;
+    }
+
+    // Getters and Setters
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(EntityType entityType) {
+        this.entityType = entityType;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public void setOperation(Operation operation) {
+        this.operation = operation;
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(String entityId) {
+        this.entityId = entityId;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(String employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Instant timestamp) {
+        this.timestamp = timestamp;
+    }
+}
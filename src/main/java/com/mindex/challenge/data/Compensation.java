@@ -1,6 +1,12 @@
 package com.mindex.challenge.data;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.PersistenceCreator;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -10,6 +16,10 @@ import java.time.LocalDate;
  *
  * @author Robert Heinbokel
  */
+// An employee can only have one compensation per effective date, enforced by the database rather than a prior lookup.
+// Also serves lookups of an employee's compensation history ordered by effective date.
+@CompoundIndex(name = "employeeId_effectiveDate", def = "{'employeeId': 1, 'effectiveDate': 1}", unique = true)
+@Document // Required for the index above to be created, the collection name is unchanged.
 public class Compensation {
     @Id // MongoDB's auto-generated unique identifier
     private String compensationId;
@@ -18,18 +28,35 @@ public class Compensation {
 
     private LocalDate effectiveDate;
 
-    private BigDecimal salary;
+    // Held and stored as minor units (see SalaryUnits), the API still exchanges salaries as BigDecimals.
+    @Field("salary")
+    private long salaryMinorUnits;
 
     /**
      * Constructs a new Compensation instance with the specified employee ID, salary, and effective date.
      *
      * @param employeeId the employeeId of this employee.
-     * @param salary the salary of this compensation.
+     * @param salary the salary of this compensation, with at most {@link SalaryUnits#SCALE} decimal places.
      * @param effectiveDate the effective date of this compensation.
      */
+    @JsonCreator
     public Compensation(String employeeId, BigDecimal salary, LocalDate effectiveDate) {
+        this(null, employeeId, SalaryUnits.toMinorUnits(salary), effectiveDate);
+    }
+
+    /**
+     * Constructs a Compensation as read from the database.
+     *
+     * @param compensationId the ID of this compensation.
+     * @param employeeId the employeeId of this employee.
+     * @param salaryMinorUnits the salary of this compensation in minor units.
+     * @param effectiveDate the effective date of this compensation.
+     */
+    @PersistenceCreator
+    public Compensation(String compensationId, String employeeId, long salaryMinorUnits, LocalDate effectiveDate) {
+        this.compensationId = compensationId;
         this.employeeId = employeeId;
-        this.salary = salary;
+        this.salaryMinorUnits = salaryMinorUnits;
         this.effectiveDate = effectiveDate;
     }
 
@@ -52,11 +79,20 @@ public class Compensation {
     }
 
     public BigDecimal getSalary() {
-        return salary;
+        return SalaryUnits.toSalary(salaryMinorUnits);
     }
 
     public void setSalary(BigDecimal salary) {
-        this.salary = salary;
+        this.salaryMinorUnits = SalaryUnits.toMinorUnits(salary);
+    }
+
+    @JsonIgnore
+    public long getSalaryMinorUnits() {
+        return salaryMinorUnits;
+    }
+
+    public void setSalaryMinorUnits(long salaryMinorUnits) {
+        this.salaryMinorUnits = salaryMinorUnits;
     }
 
     public LocalDate getEffectiveDate() {
@@ -0,0 +1,95 @@
+package com.mindex.challenge.data;
+
+/**
+ * Represents the outcome of a single row of a bulk compensation ingestion.
+ *
+ * @author Robert Heinbokel
+ */
+public class CompensationBulkRowResult {
+
+    /**
+     * The outcome of ingesting a row.
+     */
+    public enum Status {
+        CREATED,    // The compensation was stored.
+        DUPLICATE,  // A compensation already exists for the employee and effective date, in the database or earlier in the batch.
+        INVALID,    // The row could not be parsed or failed validation.
+        FAILED      // The row was valid but could not be stored.
+    }
+
+    private long row;
+    private Status status;
+    private String employeeId;
+    private String effectiveDate;
+    private String compensationId;
+    private String message;
+
+    /**
+     * Constructs a full CompensationBulkRowResult.
+     *
+     * @param row the 1-based number of the data row in the uploaded file.
+     * @param status the {@link Status} of the row.
+     * @param employeeId the employee ID of the row, if it could be read.
+     * @param effectiveDate the effective date of the row, if it could be read.
+     * @param compensationId the ID of the created compensation, if it was created.
+     * @param message details of why the row was not created.
+     */
+    public CompensationBulkRowResult(long row, Status status, String employeeId, String effectiveDate, String compensationId, String message) {
+        this.row = row;
+        this.status = status;
+        this.employeeId = employeeId;
+        this.effectiveDate = effectiveDate;
+        this.compensationId = compensationId;
+        this.message = message;
+    }
+
+    // Getters and Setters
+
+    public long getRow() {
+        return row;
+    }
+
+    public void setRow(long row) {
+        this.row = row;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(String employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public String getEffectiveDate() {
+        return effectiveDate;
+    }
+
+    public void setEffectiveDate(String effectiveDate) {
+        this.effectiveDate = effectiveDate;
+    }
+
+    public String getCompensationId() {
+        return compensationId;
+    }
+
+    public void setCompensationId(String compensationId) {
+        this.compensationId = compensationId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,121 @@
+package com.mindex.challenge.data;
+
+/**
+ * Represents a point in time view of the Mongo connection pools, summed across every server the client connects to.
+ * Counts prefixed with total are cumulative since startup, the rest are current values.
+ *
+ * @author Robert Heinbokel
+ */
+public class ConnectionPoolStats {
+
+    private int maxSize;
+    private long size; // Open connections, checked out or idle
+    private long checkedOut;
+    private long waitQueueSize; // Check outs started but not yet completed or failed
+    private long totalCheckouts;
+    private long totalCheckoutFailures;
+    private long totalCheckoutTimeouts; // Failures caused by waiting longer than the max wait time
+    private double averageCheckoutWaitMillis;
+    private double maxCheckoutWaitMillis;
+
+    /**
+     * Constructs a full ConnectionPoolStats.
+     *
+     * @param maxSize the maximum number of connections the pools may open.
+     * @param size the number of open connections.
+     * @param checkedOut the number of connections currently in use.
+     * @param waitQueueSize the number of operations waiting for a connection.
+     * @param totalCheckouts the number of successful connection check outs.
+     * @param totalCheckoutFailures the number of failed connection check outs.
+     * @param totalCheckoutTimeouts the number of connection check outs which timed out waiting.
+     * @param averageCheckoutWaitMillis the average time spent waiting for a successful check out.
+     * @param maxCheckoutWaitMillis the longest time spent waiting for a successful check out.
+     */
+    public ConnectionPoolStats(int maxSize, long size, long checkedOut, long waitQueueSize, long totalCheckouts,
+                               long totalCheckoutFailures, long totalCheckoutTimeouts,
+                               double averageCheckoutWaitMillis, double maxCheckoutWaitMillis) {
+        this.maxSize = maxSize;
+        this.size = size;
+        this.checkedOut = checkedOut;
+        this.waitQueueSize = waitQueueSize;
+        this.totalCheckouts = totalCheckouts;
+        this.totalCheckoutFailures = totalCheckoutFailures;
+        this.totalCheckoutTimeouts = totalCheckoutTimeouts;
+        this.averageCheckoutWaitMillis = averageCheckoutWaitMillis;
+        this.maxCheckoutWaitMillis = maxCheckoutWaitMillis;
+    }
+
+    // Getters and Setters
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getCheckedOut() {
+        return checkedOut;
+    }
+
+    public void setCheckedOut(long checkedOut) {
+        this.checkedOut = checkedOut;
+    }
+
+    public long getWaitQueueSize() {
+        return waitQueueSize;
+    }
+
+    public void setWaitQueueSize(long waitQueueSize) {
+        this.waitQueueSize = waitQueueSize;
+    }
+
+    public long getTotalCheckouts() {
+        return totalCheckouts;
+    }
+
+    public void setTotalCheckouts(long totalCheckouts) {
+        this.totalCheckouts = totalCheckouts;
+    }
+
+    public long getTotalCheckoutFailures() {
+        return totalCheckoutFailures;
+    }
+
+    public void setTotalCheckoutFailures(long totalCheckoutFailures) {
+        this.totalCheckoutFailures = totalCheckoutFailures;
+    }
+
+    public long getTotalCheckoutTimeouts() {
+        return totalCheckoutTimeouts;
+    }
+
+    public void setTotalCheckoutTimeouts(long totalCheckoutTimeouts) {
+        this.totalCheckoutTimeouts = totalCheckoutTimeouts;
+    }
+
+    public double getAverageCheckoutWaitMillis() {
+        return averageCheckoutWaitMillis;
+    }
+
+    public void setAverageCheckoutWaitMillis(double averageCheckoutWaitMillis) {
+        this.averageCheckoutWaitMillis = averageCheckoutWaitMillis;
+    }
+
+    public double getMaxCheckoutWaitMillis() {
+        return maxCheckoutWaitMillis;
+    }
+
+    public void setMaxCheckoutWaitMillis(double maxCheckoutWaitMillis) {
+        this.maxCheckoutWaitMillis = maxCheckoutWaitMillis;
+    }
+}
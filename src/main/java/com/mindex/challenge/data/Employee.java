@@ -1,6 +1,9 @@
 package com.mindex.challenge.data;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.util.List;
 
@@ -11,6 +14,11 @@ public class Employee {
     private String lastName;
     private String position;
     private String department;
+    // Direct reports are stored as IDs only, the directReports list is how the API sees them.
+    @JsonIgnore
+    @Field("directReportIds")
+    private List<String> directReportIds;
+    @Transient // Holds expanded reports for API responses, never persisted so updates can't store whole subtrees.
     private List<Employee> directReports;
 
     public Employee() {
@@ -56,11 +64,38 @@ public class Employee {
         this.department = department;
     }
 
+    /**
+     * Returns the direct reports, either as set (such as expanded employees in a reporting structure)
+     * or as employee stubs holding only the employeeId when read from storage.
+     */
     public List<Employee> getDirectReports() {
+        if (directReports == null && directReportIds != null) {
+            return directReportIds.stream().map(Employee::stub).toList();
+        }
         return directReports;
     }
 
+    /**
+     * Sets the direct reports, of which only the employeeIds are stored.
+     */
     public void setDirectReports(List<Employee> directReports) {
         this.directReports = directReports;
+        this.directReportIds = directReports == null ? null : directReports.stream().map(Employee::getEmployeeId).toList();
+    }
+
+    @JsonIgnore
+    public List<String> getDirectReportIds() {
+        return directReportIds;
+    }
+
+    public void setDirectReportIds(List<String> directReportIds) {
+        this.directReportIds = directReportIds;
+        this.directReports = null;
+    }
+
+    private static Employee stub(String employeeId) {
+        Employee stub = new Employee();
+        stub.setEmployeeId(employeeId);
+        return stub;
     }
 }
@@ -0,0 +1,45 @@
+package com.mindex.challenge.data;
+
+import java.util.List;
+
+/**
+ * Represents the result of reading several employees at once.
+ * Employees are returned in the order they were requested, and any requested IDs that
+ * could not be found are reported back instead of failing the whole batch.
+ *
+ * @author Robert Heinbokel
+ */
+public class EmployeeBatchReadResult {
+
+    private List<Employee> employees;
+    private List<String> missingEmployeeIds;
+
+    /**
+     * Constructs a full EmployeeBatchReadResult.
+     *
+     * @param employees the found {@link Employee} entries, in request order.
+     * @param missingEmployeeIds the requested employee IDs which do not exist, in request order.
+     */
+    public EmployeeBatchReadResult(List<Employee> employees, List<String> missingEmployeeIds) {
+        this.employees = employees;
+        this.missingEmployeeIds = missingEmployeeIds;
+    }
+
+    // Getters/Setters below.
+
+    public List<Employee> getEmployees() {
+        return employees;
+    }
+
+    public void setEmployees(List<Employee> employees) {
+        this.employees = employees;
+    }
+
+    public List<String> getMissingEmployeeIds() {
+        return missingEmployeeIds;
+    }
+
+    public void setMissingEmployeeIds(List<String> missingEmployeeIds) {
+        this.missingEmployeeIds = missingEmployeeIds;
+    }
+}
@@ -0,0 +1,52 @@
+package com.mindex.challenge.data;
+
+/**
+ * Represents the occurrences of one type of error handled by the API since startup.
+ *
+ * @author Robert Heinbokel
+ */
+public class ErrorLogStats {
+
+    private String type;
+    private long total;
+    private long suppressed; // Occurrences which were counted but not logged
+
+    /**
+     * Constructs a full ErrorLogStats.
+     *
+     * @param type the type of error, the simple name of its exception.
+     * @param total the number of times the error occurred.
+     * @param suppressed the number of occurrences not logged due to rate limiting.
+     */
+    public ErrorLogStats(String type, long total, long suppressed) {
+        this.type = type;
+        this.total = total;
+        this.suppressed = suppressed;
+    }
+
+    // Getters/Setters below.
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getSuppressed() {
+        return suppressed;
+    }
+
+    public void setSuppressed(long suppressed) {
+        this.suppressed = suppressed;
+    }
+}
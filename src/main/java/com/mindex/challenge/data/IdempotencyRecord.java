@@ -0,0 +1,73 @@
+package com.mindex.challenge.data;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Represents the stored outcome of a request made with an Idempotency-Key, used to replay the original response.
+ *
+ * @author Robert Heinbokel
+ */
+@Document("idempotencyRecords")
+public class IdempotencyRecord {
+
+    @Id // The idempotency key, already scoped to the operation it was used for.
+    private String key;
+
+    private String requestFingerprint;
+
+    private String responseBody;
+
+    private Instant createdAt;
+
+    /**
+     * Constructs a full IdempotencyRecord.
+     *
+     * @param key the scoped idempotency key.
+     * @param requestFingerprint the fingerprint of the request payload the key was first used with.
+     * @param responseBody the serialized response of the original request.
+     * @param createdAt the {@link Instant} the original request completed.
+     */
+    public IdempotencyRecord(String key, String requestFingerprint, String responseBody, Instant createdAt) {
+        this.key = key;
+        this.requestFingerprint = requestFingerprint;
+        this.responseBody = responseBody;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getRequestFingerprint() {
+        return requestFingerprint;
+    }
+
+    public void setRequestFingerprint(String requestFingerprint) {
+        this.requestFingerprint = requestFingerprint;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public void setResponseBody(String responseBody) {
+        this.responseBody = responseBody;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
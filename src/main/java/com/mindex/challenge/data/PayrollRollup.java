@@ -0,0 +1,89 @@
+package com.mindex.challenge.data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Represents the payroll cost of a manager's whole organization, being the manager and all of their direct and indirect reports.
+ *
+ * @author Robert Heinbokel
+ */
+public class PayrollRollup {
+
+    private String employeeId;
+    private LocalDate asOf;
+    private int numberOfEmployees; // Includes the manager
+    private int numberOfCompensatedEmployees; // Employees with a compensation in effect on the asOf date
+    private BigDecimal totalSalary;
+    private BigDecimal averageSalary; // Over compensated employees only, null if there are none
+
+    /**
+     * Constructs a full PayrollRollup.
+     *
+     * @param employeeId the employeeId of the manager at the top of the organization.
+     * @param asOf the date the salaries were in effect on.
+     * @param numberOfEmployees the number of employees in the organization, including the manager.
+     * @param numberOfCompensatedEmployees the number of employees with a compensation in effect on the asOf date.
+     * @param totalSalary the sum of the salaries in effect.
+     * @param averageSalary the average of the salaries in effect, or null if there are none.
+     */
+    public PayrollRollup(String employeeId, LocalDate asOf, int numberOfEmployees, int numberOfCompensatedEmployees,
+                         BigDecimal totalSalary, BigDecimal averageSalary) {
+        this.employeeId = employeeId;
+        this.asOf = asOf;
+        this.numberOfEmployees = numberOfEmployees;
+        this.numberOfCompensatedEmployees = numberOfCompensatedEmployees;
+        this.totalSalary = totalSalary;
+        this.averageSalary = averageSalary;
+    }
+
+    // Getters and Setters
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(String employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public LocalDate getAsOf() {
+        return asOf;
+    }
+
+    public void setAsOf(LocalDate asOf) {
+        this.asOf = asOf;
+    }
+
+    public int getNumberOfEmployees() {
+        return numberOfEmployees;
+    }
+
+    public void setNumberOfEmployees(int numberOfEmployees) {
+        this.numberOfEmployees = numberOfEmployees;
+    }
+
+    public int getNumberOfCompensatedEmployees() {
+        return numberOfCompensatedEmployees;
+    }
+
+    public void setNumberOfCompensatedEmployees(int numberOfCompensatedEmployees) {
+        this.numberOfCompensatedEmployees = numberOfCompensatedEmployees;
+    }
+
+    public BigDecimal getTotalSalary() {
+        return totalSalary;
+    }
+
+    public void setTotalSalary(BigDecimal totalSalary) {
+        this.totalSalary = totalSalary;
+    }
+
+    public BigDecimal getAverageSalary() {
+        return averageSalary;
+    }
+
+    public void setAverageSalary(BigDecimal averageSalary) {
+        this.averageSalary = averageSalary;
+    }
+}
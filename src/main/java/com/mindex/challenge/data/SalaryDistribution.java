@@ -0,0 +1,117 @@
+package com.mindex.challenge.data;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents the distribution of current salaries within a group of employees, such as a department or a manager's organization.
+ * Percentiles and histogram bin edges are estimates within the stated relative accuracy of the exact values.
+ *
+ * @author Robert Heinbokel
+ */
+public class SalaryDistribution {
+
+    private long count; // Employees with a current salary
+    private double relativeAccuracy;
+    private Map<String, BigDecimal> percentiles; // e.g. p50 -> median salary
+    private List<HistogramBin> histogram;
+
+    /**
+     * Constructs a full SalaryDistribution.
+     *
+     * @param count the number of employees with a current salary.
+     * @param relativeAccuracy the maximum relative error of the percentiles.
+     * @param percentiles the estimated salary at each percentile, keyed by percentile name, e.g. p90.
+     * @param histogram the equal width bins of salaries, from lowest to highest.
+     */
+    public SalaryDistribution(long count, double relativeAccuracy, Map<String, BigDecimal> percentiles, List<HistogramBin> histogram) {
+        this.count = count;
+        this.relativeAccuracy = relativeAccuracy;
+        this.percentiles = percentiles;
+        this.histogram = histogram;
+    }
+
+    // Getters and Setters
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    public void setRelativeAccuracy(double relativeAccuracy) {
+        this.relativeAccuracy = relativeAccuracy;
+    }
+
+    public Map<String, BigDecimal> getPercentiles() {
+        return percentiles;
+    }
+
+    public void setPercentiles(Map<String, BigDecimal> percentiles) {
+        this.percentiles = percentiles;
+    }
+
+    public List<HistogramBin> getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(List<HistogramBin> histogram) {
+        this.histogram = histogram;
+    }
+
+    /**
+     * Represents a single histogram bin, counting the salaries from its lower bound up to its upper bound.
+     */
+    public static class HistogramBin {
+
+        private BigDecimal from;
+        private BigDecimal to;
+        private long count;
+
+        /**
+         * Constructs a full HistogramBin.
+         *
+         * @param from the lower bound of the bin.
+         * @param to the upper bound of the bin.
+         * @param count the number of salaries within the bin.
+         */
+        public HistogramBin(BigDecimal from, BigDecimal to, long count) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        // Getters and Setters
+
+        public BigDecimal getFrom() {
+            return from;
+        }
+
+        public void setFrom(BigDecimal from) {
+            this.from = from;
+        }
+
+        public BigDecimal getTo() {
+            return to;
+        }
+
+        public void setTo(BigDecimal to) {
+            this.to = to;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.mindex.challenge.data;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Converts salaries between their {@link BigDecimal} API representation and the scaled long (minor units, e.g. cents)
+ * they are stored and aggregated as. Working on longs lets sums, averages and percentiles run over primitive arrays
+ * without allocating a {@link BigDecimal} per value.
+ *
+ * @author Robert Heinbokel
+ */
+public final class SalaryUnits {
+
+    /**
+     * The number of decimal places kept, salaries with more decimal places are rejected rather than rounded.
+     */
+    public static final int SCALE = 2;
+
+    private SalaryUnits() {
+    }
+
+    /**
+     * Converts a salary to minor units.
+     * @param salary the salary to convert.
+     * @return the salary in minor units.
+     * @throws ArithmeticException if the salary has more than {@link #SCALE} decimal places or doesn't fit in a long.
+     */
+    public static long toMinorUnits(BigDecimal salary) {
+        return salary.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts minor units back to a salary, always with {@link #SCALE} decimal places, e.g. 50000.00 or 100.50.
+     * @param minorUnits the salary in minor units.
+     * @return the salary.
+     */
+    public static BigDecimal toSalary(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+}
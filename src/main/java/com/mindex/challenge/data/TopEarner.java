@@ -0,0 +1,100 @@
+package com.mindex.challenge.data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Represents one of the highest paid employees within a manager's organization, along with the salary that placed them there.
+ *
+ * @author Robert Heinbokel
+ */
+public class TopEarner {
+
+    private String employeeId;
+    private String firstName;
+    private String lastName;
+    private String position;
+    private String department;
+    private BigDecimal salary;
+    private LocalDate effectiveDate; // The date the salary came into effect
+
+    /**
+     * Constructs a full TopEarner.
+     *
+     * @param employeeId the employeeId of the earner.
+     * @param firstName the first name of the earner.
+     * @param lastName the last name of the earner.
+     * @param position the position of the earner.
+     * @param department the department of the earner.
+     * @param salary the salary in effect.
+     * @param effectiveDate the date the salary came into effect.
+     */
+    public TopEarner(String employeeId, String firstName, String lastName, String position, String department,
+                     BigDecimal salary, LocalDate effectiveDate) {
+        this.employeeId = employeeId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.position = position;
+        this.department = department;
+        this.salary = salary;
+        this.effectiveDate = effectiveDate;
+    }
+
+    // Getters and Setters
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(String employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getPosition() {
+        return position;
+    }
+
+    public void setPosition(String position) {
+        this.position = position;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(String department) {
+        this.department = department;
+    }
+
+    public BigDecimal getSalary() {
+        return salary;
+    }
+
+    public void setSalary(BigDecimal salary) {
+        this.salary = salary;
+    }
+
+    public LocalDate getEffectiveDate() {
+        return effectiveDate;
+    }
+
+    public void setEffectiveDate(LocalDate effectiveDate) {
+        this.effectiveDate = effectiveDate;
+    }
+}
@@ -0,0 +1,25 @@
+package com.mindex.challenge.data.requests;
+
+import com.mindex.challenge.validators.ValidUUID;
+
+/**
+ * Represents a single row of a bulk compensation ingestion, being a compensation entry along with its employee.
+ * Rows are validated with the same rules as {@link CompensationCreateRequest}.
+ *
+ * @author Robert Heinbokel
+ */
+public class CompensationBulkRow extends CompensationCreateRequest {
+
+    @ValidUUID(message = "Employee ID must be a valid UUID")
+    private String employeeId;
+
+    // Getters and Setters
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(String employeeId) {
+        this.employeeId = employeeId;
+    }
+}
@@ -2,6 +2,7 @@ package com.mindex.challenge.data.requests;
 
 import com.mindex.challenge.validators.ValidLocalDate;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 
 import java.math.BigDecimal;
@@ -18,6 +19,7 @@ public class CompensationCreateRequest {
 
     @NotNull(message = "Salary must not be null.")
     @DecimalMin(value = "0.0", message = "Salary must be zero or a positive value.")
+    @Digits(integer = 15, fraction = 2, message = "Salary must have at most 15 integer digits and 2 decimal places.")
     private BigDecimal salary;
 
     // Getters and Setters
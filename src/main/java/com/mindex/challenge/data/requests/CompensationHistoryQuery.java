@@ -0,0 +1,59 @@
+package com.mindex.challenge.data.requests;
+
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+
+/**
+ * Represents the filters, order and page of an employee's compensation history to retrieve.
+ * Pages are keyset based: the next page starts after the effective date of the last compensation of the previous page.
+ *
+ * @author Robert Heinbokel
+ */
+public class CompensationHistoryQuery {
+
+    private final LocalDate from; // Inclusive, null for no lower bound
+    private final LocalDate to; // Inclusive, null for no upper bound
+    private final LocalDate after; // Exclusive in the direction of the sort, null to start at the beginning
+    private final Sort.Direction direction;
+    private final Integer limit; // null for the whole history
+
+    /**
+     * Constructs a full CompensationHistoryQuery.
+     *
+     * @param from the earliest effective date to include, or null.
+     * @param to the latest effective date to include, or null.
+     * @param after the effective date of the last compensation already read, or null.
+     * @param direction the {@link Sort.Direction} of the effective dates.
+     * @param limit the maximum number of compensations to return, or null.
+     */
+    public CompensationHistoryQuery(LocalDate from, LocalDate to, LocalDate after, Sort.Direction direction, Integer limit) {
+        this.from = from;
+        this.to = to;
+        this.after = after;
+        this.direction = direction;
+        this.limit = limit;
+    }
+
+    // Getters
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public LocalDate getAfter() {
+        return after;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,34 @@
+package com.mindex.challenge.data.requests;
+
+import com.mindex.challenge.validators.ValidUUID;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Represents the details required for reading several employees in one request.
+ *
+ * @author Robert Heinbokel
+ */
+public class EmployeeBatchReadRequest {
+
+    /**
+     * The maximum number of employee IDs accepted in a single batch read.
+     */
+    public static final int MAX_BATCH_SIZE = 500;
+
+    @NotEmpty(message = "Employee IDs must not be empty.")
+    @Size(max = MAX_BATCH_SIZE, message = "No more than " + MAX_BATCH_SIZE + " employee IDs may be requested at once.")
+    private List<@ValidUUID(message = "Employee ID must be a valid UUID") String> employeeIds;
+
+    // Getters and Setters
+
+    public List<String> getEmployeeIds() {
+        return employeeIds;
+    }
+
+    public void setEmployeeIds(List<String> employeeIds) {
+        this.employeeIds = employeeIds;
+    }
+}
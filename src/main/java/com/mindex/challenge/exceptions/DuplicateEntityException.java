@@ -5,7 +5,7 @@ package com.mindex.challenge.exceptions;
  *
  * @author Robert Heinbokel.
  */
-public class DuplicateEntityException extends RuntimeException{
+public class DuplicateEntityException extends StacklessException {
 
     /**
      * Constructs a new DuplicateEntityException with the specified message.
@@ -0,0 +1,18 @@
+package com.mindex.challenge.exceptions;
+
+/**
+ * Exception thrown to indicate that an idempotency key was reused with a different request payload.
+ *
+ * @author Robert Heinbokel.
+ */
+public class IdempotencyKeyReuseException extends StacklessException {
+
+    /**
+     * Constructs a new IdempotencyKeyReuseException with the specified message.
+     *
+     * @param message the message providing about the exception.
+     */
+    public IdempotencyKeyReuseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.mindex.challenge.exceptions;
+
+/**
+ * Exception thrown to indicate that a requested reporting relationship is not allowed, such as one creating a cycle.
+ *
+ * @author Robert Heinbokel.
+ */
+public class InvalidReportingRelationshipException extends StacklessException {
+
+    /**
+     * Constructs a new InvalidReportingRelationshipException with the specified message.
+     *
+     * @param message the message providing about the exception.
+     */
+    public InvalidReportingRelationshipException(String message) {
+        super(message);
+    }
+}
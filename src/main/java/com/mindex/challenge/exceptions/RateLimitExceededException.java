@@ -0,0 +1,18 @@
+package com.mindex.challenge.exceptions;
+
+/**
+ * Exception thrown to indicate that a client sent more requests than its rate limit allows.
+ *
+ * @author Robert Heinbokel.
+ */
+public class RateLimitExceededException extends StacklessException {
+
+    /**
+     * Constructs a new RateLimitExceededException with the specified message.
+     *
+     * @param message the message providing about the exception.
+     */
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -5,7 +5,7 @@ package com.mindex.challenge.exceptions;
  *
  * @author Robert Heinbokel.
  */
-public class ResourceNotFoundException extends RuntimeException{
+public class ResourceNotFoundException extends StacklessException {
 
     /**
      * Constructs a new ResourceNotFoundException with the specified message.
@@ -0,0 +1,18 @@
+package com.mindex.challenge.exceptions;
+
+/**
+ * Exception thrown to indicate that a request was shed because the server is at capacity for it.
+ *
+ * @author Robert Heinbokel.
+ */
+public class ServerOverloadedException extends StacklessException {
+
+    /**
+     * Constructs a new ServerOverloadedException with the specified message.
+     *
+     * @param message the message providing about the exception.
+     */
+    public ServerOverloadedException(String message) {
+        super(message);
+    }
+}
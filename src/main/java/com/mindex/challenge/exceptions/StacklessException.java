@@ -0,0 +1,21 @@
+package com.mindex.challenge.exceptions;
+
+/**
+ * Base of the exceptions signalling an expected outcome, such as a missing employee or a duplicate compensation,
+ * which are mapped to a client error response and never investigated through a stack trace.
+ * Filling in the stack trace is the main cost of throwing, and a client repeatedly sending bad IDs would pay it on
+ * every request, so these exceptions don't capture one. They don't record suppressed exceptions either.
+ *
+ * @author Robert Heinbokel.
+ */
+public abstract class StacklessException extends RuntimeException {
+
+    /**
+     * Constructs a new StacklessException with the specified message.
+     *
+     * @param message the message providing about the exception.
+     */
+    protected StacklessException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,20 @@
+package com.mindex.challenge.exceptions;
+
+/**
+ * Exception thrown to indicate that a streamed response failed after part of it was already sent to the client.
+ * The status has been committed by then, so rather than being answered with an error it aborts the connection.
+ *
+ * @author Robert Heinbokel.
+ */
+public class StreamInterruptedException extends RuntimeException {
+
+    /**
+     * Constructs a new StreamInterruptedException with the specified message and original cause.
+     *
+     * @param message the message providing about the exception.
+     * @param cause the original cause of the exception.
+     */
+    public StreamInterruptedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,56 @@
+package com.mindex.challenge.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.mindex.challenge.data.Compensation;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Writes a {@link Compensation} without reflection, producing the same JSON as the default serialization.
+ * The effective date is written as an ISO date, unless dates are configured to be written as timestamps, in which case
+ * it is left to the configured date serializer.
+ *
+ * @author Robert Heinbokel
+ */
+@JsonComponent
+public class CompensationSerializer extends JsonSerializer<Compensation> {
+
+    private static final SerializedString COMPENSATION_ID = new SerializedString("compensationId");
+    private static final SerializedString EMPLOYEE_ID = new SerializedString("employeeId");
+    private static final SerializedString EFFECTIVE_DATE = new SerializedString("effectiveDate");
+    private static final SerializedString SALARY = new SerializedString("salary");
+
+    @Override
+    public void serialize(Compensation compensation, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(compensation);
+        // Same order as the default serialization, which puts the @JsonCreator's properties first.
+        writeString(generator, EMPLOYEE_ID, compensation.getEmployeeId());
+        generator.writeFieldName(SALARY);
+        generator.writeNumber(compensation.getSalary());
+
+        final LocalDate effectiveDate = compensation.getEffectiveDate();
+        if (effectiveDate != null && provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            provider.defaultSerializeField(EFFECTIVE_DATE.getValue(), effectiveDate, generator);
+        } else {
+            writeString(generator, EFFECTIVE_DATE, effectiveDate == null ? null : effectiveDate.toString());
+        }
+
+        writeString(generator, COMPENSATION_ID, compensation.getCompensationId());
+        generator.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator generator, SerializedString name, String value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+}
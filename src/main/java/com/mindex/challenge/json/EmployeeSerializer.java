@@ -0,0 +1,63 @@
+package com.mindex.challenge.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.mindex.challenge.data.Employee;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes an {@link Employee} and its expanded direct reports without reflection, recursing into the reports directly
+ * rather than looking up a serializer for each one.
+ * Produces the same JSON as the default serialization, except that null direct reports are omitted.
+ *
+ * @author Robert Heinbokel
+ */
+@JsonComponent
+public class EmployeeSerializer extends JsonSerializer<Employee> {
+
+    private static final SerializedString EMPLOYEE_ID = new SerializedString("employeeId");
+    private static final SerializedString FIRST_NAME = new SerializedString("firstName");
+    private static final SerializedString LAST_NAME = new SerializedString("lastName");
+    private static final SerializedString POSITION = new SerializedString("position");
+    private static final SerializedString DEPARTMENT = new SerializedString("department");
+    private static final SerializedString DIRECT_REPORTS = new SerializedString("directReports");
+
+    @Override
+    public void serialize(Employee employee, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(employee);
+        writeString(generator, EMPLOYEE_ID, employee.getEmployeeId());
+        writeString(generator, FIRST_NAME, employee.getFirstName());
+        writeString(generator, LAST_NAME, employee.getLastName());
+        writeString(generator, POSITION, employee.getPosition());
+        writeString(generator, DEPARTMENT, employee.getDepartment());
+
+        final List<Employee> directReports = employee.getDirectReports();
+        if (directReports != null) {
+            generator.writeFieldName(DIRECT_REPORTS);
+            generator.writeStartArray(directReports, directReports.size());
+            for (Employee directReport : directReports) {
+                if (directReport == null) {
+                    generator.writeNull();
+                } else {
+                    serialize(directReport, generator, provider);
+                }
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator generator, SerializedString name, String value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+}
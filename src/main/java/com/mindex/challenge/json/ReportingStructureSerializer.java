@@ -0,0 +1,38 @@
+package com.mindex.challenge.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.mindex.challenge.data.ReportingStructure;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link ReportingStructure} without reflection, handing its employee tree to the {@link EmployeeSerializer}.
+ *
+ * @author Robert Heinbokel
+ */
+@JsonComponent
+public class ReportingStructureSerializer extends JsonSerializer<ReportingStructure> {
+
+    private static final SerializedString EMPLOYEE = new SerializedString("employee");
+    private static final SerializedString NUMBER_OF_REPORTS = new SerializedString("numberOfReports");
+
+    private final EmployeeSerializer employeeSerializer = new EmployeeSerializer();
+
+    @Override
+    public void serialize(ReportingStructure reportingStructure, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(reportingStructure);
+        generator.writeFieldName(EMPLOYEE);
+        if (reportingStructure.getEmployee() == null) {
+            generator.writeNull();
+        } else {
+            employeeSerializer.serialize(reportingStructure.getEmployee(), generator, provider);
+        }
+        generator.writeFieldName(NUMBER_OF_REPORTS);
+        generator.writeNumber(reportingStructure.getNumberOfReports());
+        generator.writeEndObject();
+    }
+}
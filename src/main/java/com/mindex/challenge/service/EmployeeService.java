@@ -1,13 +1,52 @@
 package com.mindex.challenge.service;
 
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeeBatchReadResult;
 import com.mindex.challenge.data.ReportingStructure;
 
+import java.util.List;
+import java.util.Set;
+
 public interface EmployeeService {
     Employee create(Employee employee);
     Employee read(String id);
     Employee update(Employee employee);
 
+    /**
+     * Retrieves several employees with a single database query.
+     * Employees are returned in the order requested, duplicates are ignored, and any IDs which could not be found
+     * are reported as missing rather than failing the whole batch.
+     * @param employeeIds the employeeIds of the employees to retrieve.
+     * @return The {@link EmployeeBatchReadResult} holding the found employees and missing IDs.
+     */
+    EmployeeBatchReadResult readMany(List<String> employeeIds);
+
+    /**
+     * Adds an employee as a direct report of a manager with a single atomic update.
+     * Adding a report that is already present has no effect.
+     * @param managerId the employeeId of the manager.
+     * @param reportId the employeeId of the employee to add as a direct report.
+     * @return The updated manager {@link Employee}.
+     */
+    Employee addDirectReport(String managerId, String reportId);
+
+    /**
+     * Removes an employee from a manager's direct reports with a single atomic update.
+     * Fails as not found if the manager doesn't exist or the employee isn't one of their direct reports.
+     * @param managerId the employeeId of the manager.
+     * @param reportId the employeeId of the employee to remove as a direct report.
+     * @return The updated manager {@link Employee}.
+     */
+    Employee removeDirectReport(String managerId, String reportId);
+
+    /**
+     * Retrieves the IDs of an employee and all of their direct and indirect reports.
+     * The hierarchy is walked one level at a time with a single batched query per level.
+     * @param employeeId the employeeId at the top of the reporting subtree.
+     * @return the {@link Set<String>} of employeeIds in the subtree, starting with the given employee, level by level.
+     */
+    Set<String> readReportingSubtreeIds(String employeeId);
+
     /**
      * Generates the reporting structure for a given employee, optionally generating the entire employee hierarchy as well.
      * @param employeeId the employeeId of the employee.
@@ -0,0 +1,56 @@
+package com.mindex.challenge.service;
+
+import com.mindex.challenge.data.ChangeEvent;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interface defining the contract for the employee change feed.
+ * The change feed is an append-only log of mutations which downstream consumers can follow incrementally.
+ *
+ * @author Robert Heinbokel
+ */
+public interface IChangeFeedService {
+    /**
+     * Appends a change to the change log and notifies all live subscribers.
+     * @param entityType the {@link ChangeEvent.EntityType} of the changed entity.
+     * @param operation the {@link ChangeEvent.Operation} applied to the entity.
+     * @param entityId the ID of the changed entity.
+     * @param employeeId the ID of the employee the changed entity belongs to.
+     * @return the recorded {@link ChangeEvent}.
+     */
+    ChangeEvent record(ChangeEvent.EntityType entityType, ChangeEvent.Operation operation, String entityId, String employeeId);
+
+    /**
+     * Appends a change for each of the given entities as one batch, persisting them with a single write.
+     * @param entityType the {@link ChangeEvent.EntityType} of the changed entities.
+     * @param operation the {@link ChangeEvent.Operation} applied to the entities.
+     * @param employeeIdsByEntityId the employee ID each changed entity belongs to, keyed by entity ID, in change order.
+     * @return the recorded {@link List<ChangeEvent>}.
+     */
+    List<ChangeEvent> recordAll(ChangeEvent.EntityType entityType, ChangeEvent.Operation operation, Map<String, String> employeeIdsByEntityId);
+
+    /**
+     * Retrieves the change events recorded after the given sequence, oldest first.
+     * @param sequence the exclusive sequence to start reading after, 0 to read from the beginning.
+     * @param limit the maximum number of change events to return.
+     * @return the {@link List<ChangeEvent>} to return.
+     */
+    List<ChangeEvent> readSince(long sequence, int limit);
+
+    /**
+     * Retrieves the sequence of the most recently recorded change event.
+     * @return the latest sequence, or 0 if nothing has been recorded yet.
+     */
+    long latestSequence();
+
+    /**
+     * Subscribes to the change feed as a Server-Sent Events stream.
+     * Any change events recorded after the given sequence are replayed before live events are streamed.
+     * @param sequence the exclusive sequence to start streaming after.
+     * @return the {@link SseEmitter} streaming change events.
+     */
+    SseEmitter subscribe(long sequence);
+}
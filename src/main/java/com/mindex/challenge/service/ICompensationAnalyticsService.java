@@ -0,0 +1,49 @@
+package com.mindex.challenge.service;
+
+import com.mindex.challenge.data.PayrollRollup;
+import com.mindex.challenge.data.SalaryDistribution;
+import com.mindex.challenge.data.TopEarner;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Interface defining the contract for compensation analytics across a manager's organization.
+ *
+ * @author Robert Heinbokel
+ */
+public interface ICompensationAnalyticsService {
+    /**
+     * Totals the salaries in effect on a given date across a manager and all of their direct and indirect reports.
+     * @param employeeId the employeeId of the manager at the top of the organization.
+     * @param asOf the date the salaries must be in effect on.
+     * @return the {@link PayrollRollup} of the organization.
+     */
+    PayrollRollup getPayrollRollup(String employeeId, LocalDate asOf);
+
+    /**
+     * Retrieves the distribution of current salaries within a department.
+     * @param department the department.
+     * @param bins the number of histogram bins.
+     * @return the {@link SalaryDistribution} of the department.
+     */
+    SalaryDistribution getDepartmentSalaryDistribution(String department, int bins);
+
+    /**
+     * Retrieves the distribution of current salaries across a manager and all of their direct and indirect reports.
+     * @param employeeId the employeeId of the manager at the top of the organization.
+     * @param bins the number of histogram bins.
+     * @return the {@link SalaryDistribution} of the organization.
+     */
+    SalaryDistribution getSubtreeSalaryDistribution(String employeeId, int bins);
+
+    /**
+     * Retrieves the highest salaries in effect on a given date among a manager's direct and indirect reports.
+     * The manager themselves is not included.
+     * @param employeeId the employeeId of the manager at the top of the organization.
+     * @param n the maximum number of earners to return.
+     * @param asOf the date the salaries must be in effect on.
+     * @return the {@link TopEarner}s, highest salary first.
+     */
+    List<TopEarner> getTopEarners(String employeeId, int n, LocalDate asOf);
+}
@@ -0,0 +1,33 @@
+package com.mindex.challenge.service;
+
+import com.mindex.challenge.data.CompensationBulkRowResult;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+/**
+ * Interface defining the contract for bulk compensation ingestion.
+ *
+ * @author Robert Heinbokel
+ */
+public interface ICompensationBulkService {
+
+    /**
+     * The supported upload formats.
+     */
+    enum Format {
+        CSV,    // A header row naming the employeeId, effectiveDate and salary columns, followed by one row per line.
+        NDJSON  // One JSON object per line with employeeId, effectiveDate and salary fields.
+    }
+
+    /**
+     * Reads, validates and stores compensation rows, reporting the outcome of each row as soon as it is known.
+     * Rows are read one line at a time and written in chunks, so the upload is never held in memory as a whole.
+     * @param reader the {@link Reader} of the uploaded rows.
+     * @param format the {@link Format} of the uploaded rows.
+     * @param results receives a {@link CompensationBulkRowResult} for every row.
+     * @throws IOException if the upload can't be read.
+     */
+    void ingest(Reader reader, Format format, Consumer<CompensationBulkRowResult> results) throws IOException;
+}
@@ -2,9 +2,11 @@ package com.mindex.challenge.service;
 
 import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.requests.CompensationCreateRequest;
+import com.mindex.challenge.data.requests.CompensationHistoryQuery;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Interface defining the contract for compensation services.
@@ -27,6 +29,15 @@ public interface ICompensationService {
      */
     List<Compensation> readAll(String employeeId);
 
+    /**
+     * Retrieves an employee's compensations matching the given filters, ordered by effective date.
+     * The stream holds an open database cursor, so it must be closed once consumed.
+     * @param employeeId the ID of the employee linked to the compensations.
+     * @param query the {@link CompensationHistoryQuery} holding the filters, order and page.
+     * @return the {@link Stream<Compensation>} to return.
+     */
+    Stream<Compensation> readHistory(String employeeId, CompensationHistoryQuery query);
+
     /**
      * Retrieves a specific compensation entry based on the criteria.
      * @param employeeId The employee ID linked to the compensation.
@@ -34,4 +45,12 @@ public interface ICompensationService {
      * @return the {@link Compensation} to return.
      */
     Compensation readByEffectiveDate(String employeeId, LocalDate effectiveDate);
+
+    /**
+     * Retrieves the compensation in effect on a given date, being the one with the latest effective date on or before it.
+     * @param employeeId The employee ID linked to the compensation.
+     * @param date The date as a {@link LocalDate}.
+     * @return the {@link Compensation} to return.
+     */
+    Compensation readAsOf(String employeeId, LocalDate date);
 }
@@ -0,0 +1,24 @@
+package com.mindex.challenge.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Interface defining the contract for idempotent request handling.
+ *
+ * @author Robert Heinbokel
+ */
+public interface IIdempotencyService {
+    /**
+     * Executes the operation at most once per idempotency key, replaying the original result for repeated requests.
+     * Concurrent requests with the same key wait for and share the result of a single execution.
+     * Failed executions are not remembered, so the request may be retried with the same key.
+     * @param idempotencyKey the client provided idempotency key, or null to always execute the operation.
+     * @param scope the operation the key applies to, so the same key can't collide between operations.
+     * @param request the request payload, used to detect a key being reused for a different request.
+     * @param responseType the type of the operation's result.
+     * @param operation the operation to execute.
+     * @param <T> the type of the operation's result.
+     * @return the result of the operation, or the replayed result of the original request.
+     */
+    <T> T execute(String idempotencyKey, String scope, Object request, Class<T> responseType, Supplier<T> operation);
+}
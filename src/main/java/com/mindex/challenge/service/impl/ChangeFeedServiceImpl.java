@@ -0,0 +1,299 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.IChangeEventRepository;
+import com.mindex.challenge.data.ChangeEvent;
+import com.mindex.challenge.exceptions.UnexpectedDatabaseException;
+import com.mindex.challenge.service.IChangeFeedService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Service implementation for the employee change feed.
+ * Implements the {@link IChangeFeedService} interface.
+ * Recent change events are held in a bounded ring buffer so incremental readers never touch the database,
+ * while every event is also persisted so readers that fall behind the buffer (or a restart) can still resume.
+ * <p>
+ * Sequences are assigned under a lock but persisted outside it, so concurrent writers may finish out of order. An event
+ * is only published, to readers and subscribers alike, once every event before it has finished persisting. Consumers
+ * tracking the last sequence they saw therefore never skip one that was still being written.
+ *
+ * @author Robert Heinbokel
+ */
+@Service
+public class ChangeFeedServiceImpl implements IChangeFeedService {
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeFeedServiceImpl.class);
+
+    private static final int REPLAY_PAGE_SIZE = 500;
+
+    private final IChangeEventRepository changeEventRepository;
+
+    private final long sseTimeoutMillis;
+
+    // Ring buffer of the most recent change events, indexed by sequence modulo capacity. Guarded by this.
+    private final ChangeEvent[] buffer;
+
+    // The first sequence recorded by this instance, anything older only lives in the repository.
+    private final long firstBufferedSequence;
+
+    // The sequence of the most recently recorded change event. Guarded by this.
+    private long lastSequence;
+
+    // The sequence up to which every change event has finished persisting, and is visible to consumers. Guarded by this.
+    private long publishedSequence;
+
+    // Sequences after publishedSequence that finished persisting, waiting on an earlier one. Guarded by this.
+    private final Set<Long> persistedAhead = new HashSet<>();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // A single thread keeps delivery to each subscriber in sequence order and off the request threads.
+    private final ExecutorService broadcaster = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "change-feed-broadcaster");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor for dependency injection.
+     * @param changeEventRepository the {@link IChangeEventRepository} to use.
+     * @param bufferCapacity the number of recent change events to keep in memory.
+     * @param sseTimeoutMillis the time in milliseconds before an idle SSE subscription times out.
+     */
+    public ChangeFeedServiceImpl(
+            IChangeEventRepository changeEventRepository,
+            @Value("${changefeed.buffer-capacity:1024}") int bufferCapacity,
+            @Value("${changefeed.sse-timeout-ms:1800000}") long sseTimeoutMillis) {
+        this.changeEventRepository = changeEventRepository;
+        this.sseTimeoutMillis = sseTimeoutMillis;
+        this.buffer = new ChangeEvent[bufferCapacity];
+
+        // Continue the sequence from the persisted log so offsets held by consumers stay valid.
+        final ChangeEvent latest = changeEventRepository.findFirstByOrderBySequenceDesc();
+        this.lastSequence = latest == null ? 0 : latest.getSequence();
+        this.publishedSequence = lastSequence;
+        this.firstBufferedSequence = lastSequence + 1;
+    }
+
+    @Override
+    public ChangeEvent record(ChangeEvent.EntityType entityType, ChangeEvent.Operation operation, String entityId, String employeeId) {
+        final ChangeEvent event;
+
+        synchronized (this) {
+            event = new ChangeEvent(++lastSequence, entityType, operation, entityId, employeeId, Instant.now());
+            buffer[bufferIndex(event.getSequence())] = event;
+        }
+
+        LOG.debug("Recorded change event [{}] {} {} [{}]", event.getSequence(), entityType, operation, entityId);
+
+        try {
+            changeEventRepository.insert(event);
+        } catch (DataAccessException ex) {
+            // The change itself already happened, so this only narrows how far back consumers can resume.
+            LOG.error("Unable to persist change event [{}]: {}", event.getSequence(), ex.getMessage());
+        } finally {
+            // Even if it failed, later events must not wait on this one forever.
+            persisted(event.getSequence(), event.getSequence());
+        }
+
+        return event;
+    }
+
+    @Override
+    public List<ChangeEvent> recordAll(ChangeEvent.EntityType entityType, ChangeEvent.Operation operation, Map<String, String> employeeIdsByEntityId) {
+        if (employeeIdsByEntityId.isEmpty()) {
+            return List.of();
+        }
+
+        final List<ChangeEvent> events = new ArrayList<>(employeeIdsByEntityId.size());
+
+        synchronized (this) {
+            final Instant timestamp = Instant.now();
+            employeeIdsByEntityId.forEach((entityId, employeeId) -> {
+                final ChangeEvent event = new ChangeEvent(++lastSequence, entityType, operation, entityId, employeeId, timestamp);
+                buffer[bufferIndex(event.getSequence())] = event;
+                events.add(event);
+            });
+        }
+
+        LOG.debug("Recorded change events [{}..{}] {} {}", events.get(0).getSequence(), events.get(events.size() - 1).getSequence(), entityType, operation);
+
+        try {
+            changeEventRepository.insert(events);
+        } catch (DataAccessException ex) {
+            LOG.error("Unable to persist change events [{}..{}]: {}", events.get(0).getSequence(), events.get(events.size() - 1).getSequence(), ex.getMessage());
+        } finally {
+            persisted(events.get(0).getSequence(), events.get(events.size() - 1).getSequence());
+        }
+
+        return events;
+    }
+
+    @Override
+    public List<ChangeEvent> readSince(long sequence, int limit) {
+        LOG.debug("Reading up to [{}] change events after sequence [{}]", limit, sequence);
+
+        final long published;
+        synchronized (this) {
+            final long oldestBufferedSequence = Math.max(firstBufferedSequence, lastSequence - buffer.length + 1);
+
+            if (sequence + 1 >= oldestBufferedSequence) {
+                final List<ChangeEvent> events = new ArrayList<>();
+                for (long next = sequence + 1; next <= publishedSequence && events.size() < limit; next++) {
+                    events.add(buffer[bufferIndex(next)]);
+                }
+                return events;
+            }
+            published = publishedSequence;
+        }
+
+        // The caller has fallen behind the buffer, so resume from the persisted log instead. Events after the published
+        // sequence may be stored while an earlier one isn't yet, so they are left for the next read.
+        try {
+            return changeEventRepository.findBySequenceGreaterThanOrderBySequenceAsc(sequence, Limit.of(limit)).stream()
+                    .filter(event -> event.getSequence() <= published)
+                    .toList();
+        } catch (DataAccessException ex) {
+            throw new UnexpectedDatabaseException("Unable to retrieve change events after sequence: " + sequence, ex);
+        }
+    }
+
+    @Override
+    public synchronized long latestSequence() {
+        return publishedSequence;
+    }
+
+    @Override
+    public SseEmitter subscribe(long sequence) {
+        return subscribe(sequence, new SseEmitter(sseTimeoutMillis));
+    }
+
+    /**
+     * Subscribes an emitter to change events.
+     * @param sequence the sequence to send change events after.
+     * @param emitter the {@link SseEmitter} to send change events to.
+     * @return the emitter.
+     */
+    SseEmitter subscribe(long sequence, SseEmitter emitter) {
+        LOG.debug("Subscribing to change events after sequence [{}]", sequence);
+
+        final Subscriber subscriber = new Subscriber(emitter, sequence);
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(ex -> subscribers.remove(subscriber));
+
+        subscribers.add(subscriber);
+
+        // Replay on the broadcaster thread so the backlog is always delivered before any live events.
+        broadcaster.execute(() -> catchUp(subscriber));
+
+        return emitter;
+    }
+
+    /**
+     * Completes all open subscriptions and stops the broadcaster on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        broadcaster.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    /**
+     * Marks a range of change events as persisted, or given up on, and publishes every event no longer waiting on an
+     * earlier one.
+     * @param first the sequence of the first change event in the range.
+     * @param last the sequence of the last change event in the range.
+     */
+    private synchronized void persisted(long first, long last) {
+        for (long sequence = first; sequence <= last; sequence++) {
+            persistedAhead.add(sequence);
+        }
+
+        final long previouslyPublished = publishedSequence;
+        while (persistedAhead.remove(publishedSequence + 1)) {
+            publishedSequence++;
+        }
+
+        if (publishedSequence > previouslyPublished) {
+            broadcaster.execute(this::broadcast);
+        }
+    }
+
+    /**
+     * Sends every published change event the subscriber hasn't been sent yet.
+     * @param subscriber the {@link Subscriber} to catch up.
+     */
+    private void catchUp(Subscriber subscriber) {
+        try {
+            List<ChangeEvent> backlog = readSince(subscriber.lastSequence, REPLAY_PAGE_SIZE);
+
+            while (!backlog.isEmpty()) {
+                for (ChangeEvent event : backlog) {
+                    send(subscriber, event);
+                }
+                backlog = readSince(subscriber.lastSequence, REPLAY_PAGE_SIZE);
+            }
+        } catch (IOException | RuntimeException ex) {
+            drop(subscriber, ex);
+        }
+    }
+
+    /**
+     * Catches every subscriber up with the newly published change events. Reading them from the feed rather than
+     * passing them along means a subscriber is sent each event exactly once, in order, however writers interleave.
+     */
+    private void broadcast() {
+        subscribers.forEach(this::catchUp);
+    }
+
+    private void send(Subscriber subscriber, ChangeEvent event) throws IOException {
+        subscriber.emitter.send(SseEmitter.event()
+                .id(String.valueOf(event.getSequence()))
+                .name("change")
+                .data(event, MediaType.APPLICATION_JSON));
+        subscriber.lastSequence = event.getSequence();
+    }
+
+    private void drop(Subscriber subscriber, Exception ex) {
+        LOG.debug("Dropping change feed subscriber after sequence [{}]: {}", subscriber.lastSequence, ex.getMessage());
+        subscribers.remove(subscriber);
+        subscriber.emitter.completeWithError(ex);
+    }
+
+    private int bufferIndex(long sequence) {
+        return (int) (sequence % buffer.length);
+    }
+
+    /**
+     * Tracks the delivery position of a single SSE subscriber. Only accessed from the broadcaster thread.
+     */
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private long lastSequence;
+
+        private Subscriber(SseEmitter emitter, long lastSequence) {
+            this.emitter = emitter;
+            this.lastSequence = lastSequence;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.CompensationAnalyticsRepository.SalaryInEffect;
+import com.mindex.challenge.dao.ICompensationRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.PayrollRollup;
+import com.mindex.challenge.data.SalaryDistribution;
+import com.mindex.challenge.data.SalaryUnits;
+import com.mindex.challenge.data.TopEarner;
+import com.mindex.challenge.exceptions.UnexpectedDatabaseException;
+import com.mindex.challenge.service.EmployeeService;
+import com.mindex.challenge.service.ICompensationAnalyticsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service implementation for compensation analytics.
+ * Implements the {@link ICompensationAnalyticsService} interface.
+ * The reporting subtree is resolved with one batched query per level, and joined with the salaries in effect
+ * using batched queries as well, so the cost grows with the depth of the organization rather than its size.
+ * Salary distributions are answered from the {@link SalaryDistributionIndex} without reading compensations at all.
+ * Top earners are kept in a min-heap bounded to the number requested while the salaries are streamed in batches.
+ *
+ * @author Robert Heinbokel
+ */
+@Service
+public class CompensationAnalyticsServiceImpl implements ICompensationAnalyticsService {
+    private static final Logger LOG = LoggerFactory.getLogger(CompensationAnalyticsServiceImpl.class);
+
+    private static final int AVERAGE_SCALE = 2;
+
+    // Lowest salary first, so the head of a bounded heap is the earner to evict. Ties keep the lower employeeId.
+    private static final Comparator<SalaryInEffect> LOWEST_SALARY_FIRST = Comparator
+            .comparingLong(SalaryInEffect::salaryMinorUnits)
+            .thenComparing(SalaryInEffect::employeeId, Comparator.reverseOrder());
+
+    // Percentiles reported by salary distributions, by name.
+    private static final Map<String, Double> PERCENTILES = percentiles(10, 25, 50, 75, 90, 99);
+
+    private final EmployeeService employeeService;
+
+    private final ICompensationRepository compensationRepository;
+
+    private final SalaryDistributionIndex salaryDistributionIndex;
+
+    /**
+     * Constructor for dependency injection.
+     * @param employeeService the {@link EmployeeService} to resolve reporting structures with.
+     * @param compensationRepository the {@link ICompensationRepository} to use.
+     * @param salaryDistributionIndex the {@link SalaryDistributionIndex} to answer salary distributions from.
+     */
+    public CompensationAnalyticsServiceImpl(EmployeeService employeeService, ICompensationRepository compensationRepository,
+                                            SalaryDistributionIndex salaryDistributionIndex) {
+        this.employeeService = employeeService;
+        this.compensationRepository = compensationRepository;
+        this.salaryDistributionIndex = salaryDistributionIndex;
+    }
+
+    @Override
+    public PayrollRollup getPayrollRollup(String employeeId, LocalDate asOf) {
+        LOG.debug("Rolling up payroll for employeeId [{}] as of [{}]", employeeId, asOf);
+
+        final Set<String> employeeIds = employeeService.readReportingSubtreeIds(employeeId);
+
+        final long[] salaries;
+        try {
+            salaries = compensationRepository.findSalariesAsOf(employeeIds, asOf);
+        } catch (DataAccessException ex) {
+            throw new UnexpectedDatabaseException(String.format("Unable to retrieve salaries for the organization of employeeId: %s as of: %s", employeeId, asOf), ex);
+        }
+
+        // Summed in minor units, only the results are turned back into BigDecimals.
+        long totalMinorUnits = 0;
+        for (long salary : salaries) {
+            totalMinorUnits = Math.addExact(totalMinorUnits, salary);
+        }
+
+        final BigDecimal totalSalary = SalaryUnits.toSalary(totalMinorUnits);
+        final BigDecimal averageSalary = salaries.length == 0
+                ? null
+                : BigDecimal.valueOf(totalMinorUnits, SalaryUnits.SCALE).divide(BigDecimal.valueOf(salaries.length), AVERAGE_SCALE, RoundingMode.HALF_EVEN);
+
+        return new PayrollRollup(employeeId, asOf, employeeIds.size(), salaries.length, totalSalary, averageSalary);
+    }
+
+    @Override
+    public SalaryDistribution getDepartmentSalaryDistribution(String department, int bins) {
+        LOG.debug("Reading salary distribution for department [{}]", department);
+
+        try {
+            return toDistribution(salaryDistributionIndex.departmentSketch(department), bins);
+        } catch (DataAccessException ex) {
+            throw new UnexpectedDatabaseException("Unable to build salary distributions for department: " + department, ex);
+        }
+    }
+
+    @Override
+    public SalaryDistribution getSubtreeSalaryDistribution(String employeeId, int bins) {
+        LOG.debug("Reading salary distribution for the organization of employeeId [{}]", employeeId);
+
+        final Set<String> employeeIds = employeeService.readReportingSubtreeIds(employeeId);
+
+        try {
+            return toDistribution(salaryDistributionIndex.sketchOf(employeeIds), bins);
+        } catch (DataAccessException ex) {
+            throw new UnexpectedDatabaseException("Unable to build salary distributions for the organization of employeeId: " + employeeId, ex);
+        }
+    }
+
+    @Override
+    public List<TopEarner> getTopEarners(String employeeId, int n, LocalDate asOf) {
+        LOG.debug("Reading top [{}] earners under employeeId [{}] as of [{}]", n, employeeId, asOf);
+
+        final Set<String> employeeIds = employeeService.readReportingSubtreeIds(employeeId);
+
+        final PriorityQueue<SalaryInEffect> topEarners = new PriorityQueue<>(n + 1, LOWEST_SALARY_FIRST);
+        try {
+            compensationRepository.forEachSalaryAsOf(employeeIds, asOf, salary -> {
+                if (salary.employeeId().equals(employeeId)) {
+                    return; // The manager is not under themselves
+                }
+                if (topEarners.size() < n) {
+                    topEarners.add(salary);
+                } else if (LOWEST_SALARY_FIRST.compare(salary, topEarners.peek()) > 0) {
+                    topEarners.poll();
+                    topEarners.add(salary);
+                }
+            });
+        } catch (DataAccessException ex) {
+            throw new UnexpectedDatabaseException(String.format("Unable to retrieve salaries for the organization of employeeId: %s as of: %s", employeeId, asOf), ex);
+        }
+
+        final List<SalaryInEffect> salaries = new ArrayList<>(topEarners);
+        salaries.sort(LOWEST_SALARY_FIRST.reversed());
+
+        final Map<String, Employee> employeesById = employeeService
+                .readMany(salaries.stream().map(SalaryInEffect::employeeId).toList())
+                .getEmployees().stream()
+                .collect(Collectors.toMap(Employee::getEmployeeId, Function.identity()));
+
+        final List<TopEarner> earners = new ArrayList<>(salaries.size());
+        for (SalaryInEffect salary : salaries) {
+            final Employee employee = employeesById.get(salary.employeeId());
+            if (employee != null) {
+                earners.add(new TopEarner(employee.getEmployeeId(), employee.getFirstName(), employee.getLastName(), employee.getPosition(),
+                        employee.getDepartment(), SalaryUnits.toSalary(salary.salaryMinorUnits()), salary.effectiveDate()));
+            }
+        }
+        return earners;
+    }
+
+    private static SalaryDistribution toDistribution(QuantileSketch sketch, int bins) {
+        final Map<String, BigDecimal> percentiles = new LinkedHashMap<>();
+        final List<SalaryDistribution.HistogramBin> histogram = new ArrayList<>();
+
+        if (sketch.getCount() > 0) {
+            PERCENTILES.forEach((name, quantile) -> percentiles.put(name, SalaryUnits.toSalary(sketch.quantile(quantile))));
+
+            final QuantileSketch.Histogram bucketed = sketch.histogram(bins);
+            for (int i = 0; i < bucketed.counts().length; i++) {
+                histogram.add(new SalaryDistribution.HistogramBin(SalaryUnits.toSalary(bucketed.boundaries()[i]),
+                        SalaryUnits.toSalary(bucketed.boundaries()[i + 1]), bucketed.counts()[i]));
+            }
+        }
+
+        return new SalaryDistribution(sketch.getCount(), sketch.getRelativeAccuracy(), percentiles, histogram);
+    }
+
+    private static Map<String, Double> percentiles(int... percentiles) {
+        final Map<String, Double> quantiles = new LinkedHashMap<>();
+        for (int percentile : percentiles) {
+            quantiles.put("p" + percentile, percentile / 100.0);
+        }
+        return quantiles;
+    }
+}
@@ -0,0 +1,360 @@
+package com.mindex.challenge.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.dao.CompensationBulkRepository.BulkInsertFailure;
+import com.mindex.challenge.dao.ICompensationRepository;
+import com.mindex.challenge.data.ChangeEvent;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationBulkRowResult;
+import com.mindex.challenge.data.CompensationBulkRowResult.Status;
+import com.mindex.challenge.data.requests.CompensationBulkRow;
+import com.mindex.challenge.service.IChangeFeedService;
+import com.mindex.challenge.service.ICompensationBulkService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Service implementation for bulk compensation ingestion.
+ * Implements the {@link ICompensationBulkService} interface.
+ * Valid rows are collected into chunks which are written with a single unordered bulk insert each, relying on the
+ * unique (employeeId, effectiveDate) index to reject compensations that already exist instead of looking them up.
+ * <p>
+ * CSV rows follow RFC 4180 quoting: values may be wrapped in double quotes to hold commas, with a quote inside them
+ * doubled. As the upload is read line by line, a quoted value can't span lines and such rows are reported as invalid.
+ *
+ * @author Robert Heinbokel
+ */
+@Service
+public class CompensationBulkServiceImpl implements ICompensationBulkService {
+    private static final Logger LOG = LoggerFactory.getLogger(CompensationBulkServiceImpl.class);
+
+    private static final List<String> CSV_COLUMNS = List.of("employeeId", "effectiveDate", "salary");
+
+    private final ICompensationRepository compensationRepository;
+
+    private final IChangeFeedService changeFeedService;
+
+    private final CompensationTimelineCache timelineCache;
+
+    private final SalaryDistributionIndex salaryDistributionIndex;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
+    private final int chunkSize;
+
+    /**
+     * Constructor for dependency injection.
+     * @param compensationRepository the {@link ICompensationRepository} to use.
+     * @param changeFeedService the {@link IChangeFeedService} to record changes with.
+     * @param timelineCache the {@link CompensationTimelineCache} to keep up to date with created compensations.
+     * @param salaryDistributionIndex the {@link SalaryDistributionIndex} to keep up to date with created compensations.
+     * @param validator the {@link Validator} to validate rows with.
+     * @param objectMapper the {@link ObjectMapper} to parse NDJSON rows with.
+     * @param chunkSize the number of rows written per bulk insert.
+     */
+    public CompensationBulkServiceImpl(
+            ICompensationRepository compensationRepository,
+            IChangeFeedService changeFeedService,
+            CompensationTimelineCache timelineCache,
+            SalaryDistributionIndex salaryDistributionIndex,
+            Validator validator,
+            ObjectMapper objectMapper,
+            @Value("${compensation.bulk.chunk-size:1000}") int chunkSize) {
+        this.compensationRepository = compensationRepository;
+        this.changeFeedService = changeFeedService;
+        this.timelineCache = timelineCache;
+        this.salaryDistributionIndex = salaryDistributionIndex;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void ingest(Reader reader, Format format, Consumer<CompensationBulkRowResult> results) throws IOException {
+        LOG.debug("Ingesting compensations from {} upload", format);
+
+        final BufferedReader lines = new BufferedReader(reader);
+        final List<Compensation> chunk = new ArrayList<>(chunkSize);
+        final List<Long> chunkRows = new ArrayList<>(chunkSize);
+
+        // Only the keys are kept for the whole upload, the rows themselves are let go once their chunk is written.
+        final Set<String> seenKeys = new HashSet<>();
+
+        int[] csvColumns = null;
+        if (format == Format.CSV) {
+            csvColumns = readCsvHeader(lines);
+            if (csvColumns == null) {
+                results.accept(new CompensationBulkRowResult(0, Status.INVALID, null, null, null,
+                        "CSV header must name the columns: " + String.join(", ", CSV_COLUMNS)));
+                return;
+            }
+        }
+
+        long rowNumber = 0;
+        long created = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            rowNumber++;
+
+            final CompensationBulkRow row;
+            try {
+                row = format == Format.CSV ? parseCsvRow(line, csvColumns) : objectMapper.readValue(line, CompensationBulkRow.class);
+            } catch (IOException | IllegalArgumentException ex) {
+                results.accept(new CompensationBulkRowResult(rowNumber, Status.INVALID, null, null, null, "Unable to parse row: " + ex.getMessage()));
+                continue;
+            }
+
+            final Set<ConstraintViolation<CompensationBulkRow>> violations = validator.validate(row);
+            if (!violations.isEmpty()) {
+                final String message = violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", "));
+                results.accept(new CompensationBulkRowResult(rowNumber, Status.INVALID, row.getEmployeeId(), row.getEffectiveDate(), null, message));
+                continue;
+            }
+
+            final LocalDate effectiveDate;
+            try {
+                effectiveDate = LocalDate.parse(row.getEffectiveDate());
+            } catch (DateTimeParseException ex) {
+                // The validator resolves out of range days such as 02-30, the strict ISO parse does not.
+                results.accept(new CompensationBulkRowResult(rowNumber, Status.INVALID, row.getEmployeeId(), row.getEffectiveDate(), null,
+                        "Effective date must be a valid local date in yyyy-MM-dd format"));
+                continue;
+            }
+
+            if (!seenKeys.add(row.getEmployeeId() + '|' + effectiveDate)) {
+                results.accept(new CompensationBulkRowResult(rowNumber, Status.DUPLICATE, row.getEmployeeId(), row.getEffectiveDate(), null,
+                        "Duplicate of an earlier row in this upload"));
+                continue;
+            }
+
+            // IDs are assigned up front so they can be reported without reading the documents back.
+            final Compensation compensation = new Compensation(row.getEmployeeId(), row.getSalary(), effectiveDate);
+            compensation.setCompensationId(new ObjectId().toHexString());
+            chunk.add(compensation);
+            chunkRows.add(rowNumber);
+
+            if (chunk.size() >= chunkSize) {
+                created += writeChunk(chunk, chunkRows, results);
+                chunk.clear();
+                chunkRows.clear();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            created += writeChunk(chunk, chunkRows, results);
+        }
+
+        LOG.debug("Ingested [{}] of [{}] compensation rows", created, rowNumber);
+    }
+
+    /**
+     * Writes a chunk of valid compensations and reports the outcome of each one.
+     * @param chunk the compensations to write.
+     * @param chunkRows the row number of each compensation in the chunk.
+     * @param results receives a {@link CompensationBulkRowResult} for every compensation in the chunk.
+     * @return the number of compensations created.
+     */
+    private int writeChunk(List<Compensation> chunk, List<Long> chunkRows, Consumer<CompensationBulkRowResult> results) {
+        Map<Integer, BulkInsertFailure> failures;
+        try {
+            failures = compensationRepository.insertUnordered(chunk);
+        } catch (DataAccessException ex) {
+            // Part of the chunk may have been written before the error, so find out which rather than failing it all.
+            // Either way carry on, later chunks may still succeed.
+            LOG.error("Unable to write chunk of [{}] compensations, checking which were stored: {}", chunk.size(), ex.getMessage());
+            failures = failuresNotStored(chunk);
+        }
+
+        final Map<String, String> createdEmployeeIds = new LinkedHashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            final Compensation compensation = chunk.get(i);
+            final String effectiveDate = compensation.getEffectiveDate().toString();
+            final BulkInsertFailure failure = failures.get(i);
+
+            if (failure == null) {
+                timelineCache.add(compensation);
+                salaryDistributionIndex.add(compensation);
+                createdEmployeeIds.put(compensation.getCompensationId(), compensation.getEmployeeId());
+                results.accept(new CompensationBulkRowResult(chunkRows.get(i), Status.CREATED, compensation.getEmployeeId(), effectiveDate,
+                        compensation.getCompensationId(), null));
+            } else if (failure.duplicate()) {
+                results.accept(new CompensationBulkRowResult(chunkRows.get(i), Status.DUPLICATE, compensation.getEmployeeId(), effectiveDate, null,
+                        "Compensation already exists for this employeeId and effectiveDate"));
+            } else {
+                results.accept(new CompensationBulkRowResult(chunkRows.get(i), Status.FAILED, compensation.getEmployeeId(), effectiveDate, null,
+                        failure.message()));
+            }
+        }
+
+        changeFeedService.recordAll(ChangeEvent.EntityType.COMPENSATION, ChangeEvent.Operation.CREATED, createdEmployeeIds);
+
+        return createdEmployeeIds.size();
+    }
+
+    /**
+     * Works out which compensations of a chunk were not stored by a bulk insert that failed part way, by reading back
+     * the IDs they were assigned up front.
+     * @param chunk the compensations that were being written.
+     * @return a failure for each compensation not stored, keyed by its index in the chunk. Every one of them if the
+     *         stored compensations can't be read back either.
+     */
+    private Map<Integer, BulkInsertFailure> failuresNotStored(List<Compensation> chunk) {
+        final Set<String> storedIds = new HashSet<>();
+        try {
+            compensationRepository.findAllById(chunk.stream().map(Compensation::getCompensationId).toList())
+                    .forEach(stored -> storedIds.add(stored.getCompensationId()));
+        } catch (DataAccessException ex) {
+            LOG.error("Unable to check which of [{}] compensations were stored: {}", chunk.size(), ex.getMessage());
+        }
+
+        final Map<Integer, BulkInsertFailure> failures = new HashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (!storedIds.contains(chunk.get(i).getCompensationId())) {
+                failures.put(i, new BulkInsertFailure(false, "Unable to store compensation"));
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Reads the CSV header and resolves the position of each expected column, in the order of {@link #CSV_COLUMNS}.
+     * @param lines the {@link BufferedReader} positioned at the start of the upload.
+     * @return the index of each expected column, or null if the header is missing any of them.
+     */
+    private static int[] readCsvHeader(BufferedReader lines) throws IOException {
+        String header;
+        do {
+            header = lines.readLine();
+        } while (header != null && header.isBlank());
+
+        if (header == null) {
+            return null;
+        }
+
+        final List<String> names = new ArrayList<>();
+        try {
+            for (String name : splitCsvLine(header)) {
+                names.add(name.toLowerCase(Locale.ROOT));
+            }
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+
+        final int[] columns = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = names.indexOf(CSV_COLUMNS.get(i).toLowerCase(Locale.ROOT));
+            if (columns[i] < 0) {
+                return null;
+            }
+        }
+        return columns;
+    }
+
+    private static CompensationBulkRow parseCsvRow(String line, int[] columns) {
+        final List<String> values = splitCsvLine(line);
+
+        final CompensationBulkRow row = new CompensationBulkRow();
+        row.setEmployeeId(csvValue(values, columns[0]));
+        row.setEffectiveDate(csvValue(values, columns[1]));
+
+        final String salary = csvValue(values, columns[2]);
+        // Left null when missing so the row fails validation like a create request would.
+        row.setSalary(salary == null ? null : new BigDecimal(salary));
+
+        return row;
+    }
+
+    private static String csvValue(List<String> values, int column) {
+        if (column >= values.size()) {
+            return null;
+        }
+        final String value = values.get(column);
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Splits a CSV line into its values. Unquoted values are trimmed, quoted ones are kept as written, with doubled
+     * quotes unescaped, and whitespace around their quotes is ignored.
+     * @param line the line to split.
+     * @return the values of the line, in order.
+     * @throws IllegalArgumentException if a quoted value is not terminated on this line, is followed by anything
+     *                                  other than a comma, or a quote appears inside an unquoted value.
+     */
+    private static List<String> splitCsvLine(String line) {
+        final List<String> values = new ArrayList<>();
+        int position = 0;
+
+        while (true) {
+            while (position < line.length() && line.charAt(position) == ' ') {
+                position++;
+            }
+
+            if (position < line.length() && line.charAt(position) == '"') {
+                final StringBuilder value = new StringBuilder();
+                position++;
+                while (true) {
+                    if (position >= line.length()) {
+                        throw new IllegalArgumentException("Quoted value is not terminated, values can't span lines");
+                    }
+                    final char c = line.charAt(position++);
+                    if (c != '"') {
+                        value.append(c);
+                    } else if (position < line.length() && line.charAt(position) == '"') {
+                        value.append('"');
+                        position++;
+                    } else {
+                        break;
+                    }
+                }
+                while (position < line.length() && line.charAt(position) == ' ') {
+                    position++;
+                }
+                if (position < line.length() && line.charAt(position) != ',') {
+                    throw new IllegalArgumentException("Unexpected character after quoted value at position " + position);
+                }
+                values.add(value.toString());
+            } else {
+                final int end = line.indexOf(',', position);
+                final String unquoted = line.substring(position, end < 0 ? line.length() : end);
+                if (unquoted.indexOf('"') >= 0) {
+                    throw new IllegalArgumentException("Quote inside an unquoted value, quote the whole value instead");
+                }
+                values.add(unquoted.trim());
+                position = end < 0 ? line.length() : end;
+            }
+
+            if (position >= line.length()) {
+                return values;
+            }
+            position++; // Past the comma
+        }
+    }
+}
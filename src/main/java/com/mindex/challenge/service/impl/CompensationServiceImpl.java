@@ -1,19 +1,24 @@
 package com.mindex.challenge.service.impl;
 
 import com.mindex.challenge.dao.ICompensationRepository;
+import com.mindex.challenge.data.ChangeEvent;
 import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.requests.CompensationCreateRequest;
+import com.mindex.challenge.data.requests.CompensationHistoryQuery;
 import com.mindex.challenge.exceptions.DuplicateEntityException;
 import com.mindex.challenge.exceptions.ResourceNotFoundException;
 import com.mindex.challenge.exceptions.UnexpectedDatabaseException;
+import com.mindex.challenge.service.IChangeFeedService;
 import com.mindex.challenge.service.ICompensationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Service implementation for managing employee compensation data.
@@ -27,12 +32,25 @@ public class CompensationServiceImpl implements ICompensationService {
 
     private final ICompensationRepository compensationRepository;
 
+    private final IChangeFeedService changeFeedService;
+
+    private final CompensationTimelineCache timelineCache;
+
+    private final SalaryDistributionIndex salaryDistributionIndex;
+
     /**
      * Constructor for dependency injection.
      * @param compensationRepository the {@link ICompensationRepository} to use.
+     * @param changeFeedService the {@link IChangeFeedService} to record changes with.
+     * @param timelineCache the {@link CompensationTimelineCache} to use for as-of lookups when enabled.
+     * @param salaryDistributionIndex the {@link SalaryDistributionIndex} to keep up to date with created compensations.
      */
-    public CompensationServiceImpl(ICompensationRepository compensationRepository) {
+    public CompensationServiceImpl(ICompensationRepository compensationRepository, IChangeFeedService changeFeedService,
+                                   CompensationTimelineCache timelineCache, SalaryDistributionIndex salaryDistributionIndex) {
         this.compensationRepository = compensationRepository;
+        this.changeFeedService = changeFeedService;
+        this.timelineCache = timelineCache;
+        this.salaryDistributionIndex = salaryDistributionIndex;
     }
 
     @Override
@@ -42,21 +60,25 @@ public class CompensationServiceImpl implements ICompensationService {
         // Could probably do this when deserializing but Strings can be nice to work with until you actually need a date.
         final LocalDate effectiveDate = LocalDate.parse(request.getEffectiveDate());
 
-        // Ensure no duplicate compensation exists for the same employee and effective date.
-        // For reviewers: Alternatively the _id in mongoDB would be a composite key of these values and error automatically.
-        if (compensationRepository.findByEmployeeIdAndEffectiveDate(employeeId, effectiveDate) != null) {
-            throw new DuplicateEntityException(String.format("Duplicate compensation found for employeeId: %s and effectiveDate: %s", employeeId, effectiveDate));
-        }
-
         // Generate compensation to save
         final Compensation compensation = new Compensation(employeeId, request.getSalary(), effectiveDate);
 
-        // Attempt to save the compensation.
+        // Attempt to save the compensation. Duplicates for the same employee and effective date are rejected by the
+        // unique (employeeId, effectiveDate) index, so there's no separate lookup to race against concurrent creates.
+        final Compensation createdCompensation;
         try {
-            return compensationRepository.insert(compensation);
+            createdCompensation = compensationRepository.insert(compensation);
+        } catch (DuplicateKeyException ex) {
+            throw new DuplicateEntityException(String.format("Duplicate compensation found for employeeId: %s and effectiveDate: %s", employeeId, effectiveDate));
         } catch (DataAccessException ex) {
             throw new UnexpectedDatabaseException("Unable to create compensation for employeeId: " + employeeId, ex);
         }
+
+        timelineCache.add(createdCompensation);
+        salaryDistributionIndex.add(createdCompensation);
+        changeFeedService.record(ChangeEvent.EntityType.COMPENSATION, ChangeEvent.Operation.CREATED, createdCompensation.getCompensationId(), employeeId);
+
+        return createdCompensation;
     }
 
     @Override
@@ -71,6 +93,18 @@ public class CompensationServiceImpl implements ICompensationService {
         }
     }
 
+    @Override
+    public Stream<Compensation> readHistory(String employeeId, CompensationHistoryQuery query) {
+        LOG.debug("Reading compensation history for employeeId [{}] from [{}] to [{}] after [{}] {} limit [{}]",
+                employeeId, query.getFrom(), query.getTo(), query.getAfter(), query.getDirection(), query.getLimit());
+
+        try {
+            return compensationRepository.streamHistory(employeeId, query);
+        } catch (DataAccessException ex) {
+            throw new UnexpectedDatabaseException("Unable to retrieve compensation history for employeeId: " + employeeId, ex);
+        }
+    }
+
     @Override
     public Compensation readByEffectiveDate(String employeeId, LocalDate effectiveDate) {
         LOG.debug("Reading compensation for employeeId [{}] and effectiveDate [{}]", employeeId, effectiveDate);
@@ -88,4 +122,23 @@ public class CompensationServiceImpl implements ICompensationService {
             throw new UnexpectedDatabaseException(String.format("Unable to retrieve compensation for employeeId: %s and effectiveDate: %s", employeeId, effectiveDate), ex);
         }
     }
+
+    @Override
+    public Compensation readAsOf(String employeeId, LocalDate date) {
+        LOG.debug("Reading compensation for employeeId [{}] in effect as of [{}]", employeeId, date);
+
+        try {
+            final Compensation compensation = timelineCache.isEnabled()
+                    ? timelineCache.floor(employeeId, date, compensationRepository::findByEmployeeId)
+                    : compensationRepository.findFirstByEmployeeIdAndEffectiveDateLessThanEqualOrderByEffectiveDateDesc(employeeId, date);
+
+            if (compensation == null) {
+                throw new ResourceNotFoundException(String.format("No compensation in effect for employeeId: %s as of: %s", employeeId, date));
+            }
+
+            return compensation;
+        } catch (DataAccessException ex) {
+            throw new UnexpectedDatabaseException(String.format("Unable to retrieve compensation for employeeId: %s as of: %s", employeeId, date), ex);
+        }
+    }
 }
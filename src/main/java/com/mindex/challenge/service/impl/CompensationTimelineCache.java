@@ -0,0 +1,91 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Compensation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * Optional in-process cache of each employee's compensation history, ordered by effective date.
+ * Once an employee's history is loaded, "compensation in effect as of" lookups are a floor lookup in a
+ * {@link NavigableMap} rather than a database query. Compensations created through this instance are added to
+ * already loaded histories, but writes made by other instances are not seen, so only enable this where this
+ * instance is the only writer.
+ *
+ * @author Robert Heinbokel
+ */
+@Component
+public class CompensationTimelineCache {
+
+    private final boolean enabled;
+
+    private final int maxEmployees;
+
+    private final Map<String, NavigableMap<LocalDate, Compensation>> timelines = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for dependency injection.
+     * @param enabled whether the cache is used at all.
+     * @param maxEmployees the maximum number of employee histories to keep, histories beyond this aren't cached.
+     */
+    public CompensationTimelineCache(
+            @Value("${compensation.timeline-cache.enabled:false}") boolean enabled,
+            @Value("${compensation.timeline-cache.max-employees:100000}") int maxEmployees) {
+        this.enabled = enabled;
+        this.maxEmployees = maxEmployees;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Finds the compensation with the latest effective date on or before the given date.
+     * @param employeeId the employee ID linked to the compensations.
+     * @param date the date the compensation must be in effect on.
+     * @param loader loads the full compensation history of an employee not cached yet.
+     * @return the {@link Compensation} in effect, or null if there is none.
+     */
+    public Compensation floor(String employeeId, LocalDate date, Function<String, List<Compensation>> loader) {
+        NavigableMap<LocalDate, Compensation> timeline = timelines.get(employeeId);
+
+        if (timeline == null) {
+            if (timelines.size() >= maxEmployees) {
+                // Full, answer from a throwaway timeline rather than growing without bound.
+                timeline = toTimeline(loader.apply(employeeId));
+            } else {
+                // Loading while holding the entry means a concurrent add() waits for the load and is never lost.
+                timeline = timelines.computeIfAbsent(employeeId, id -> toTimeline(loader.apply(id)));
+            }
+        }
+
+        final Map.Entry<LocalDate, Compensation> entry = timeline.floorEntry(date);
+        return entry == null ? null : entry.getValue();
+    }
+
+    /**
+     * Adds a newly created compensation to the employee's history, if that history is currently cached.
+     * @param compensation the created {@link Compensation}.
+     */
+    public void add(Compensation compensation) {
+        timelines.computeIfPresent(compensation.getEmployeeId(), (employeeId, timeline) -> {
+            timeline.put(compensation.getEffectiveDate(), compensation);
+            return timeline;
+        });
+    }
+
+    private static NavigableMap<LocalDate, Compensation> toTimeline(List<Compensation> compensations) {
+        final NavigableMap<LocalDate, Compensation> timeline = new ConcurrentSkipListMap<>();
+        for (Compensation compensation : compensations) {
+            timeline.put(compensation.getEffectiveDate(), compensation);
+        }
+        return timeline;
+    }
+}
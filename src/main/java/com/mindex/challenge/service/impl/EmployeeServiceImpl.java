@@ -1,19 +1,29 @@
 package com.mindex.challenge.service.impl;
 
 import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.ChangeEvent;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeeBatchReadResult;
 import com.mindex.challenge.data.ReportingStructure;
 import com.mindex.challenge.exceptions.CircularReferenceException;
+import com.mindex.challenge.exceptions.InvalidReportingRelationshipException;
 import com.mindex.challenge.exceptions.ResourceNotFoundException;
 import com.mindex.challenge.service.EmployeeService;
+import com.mindex.challenge.service.IChangeFeedService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Service
@@ -23,12 +33,31 @@ public class EmployeeServiceImpl implements EmployeeService {
 
     private final EmployeeRepository employeeRepository;
 
+    private final IChangeFeedService changeFeedService;
+
+    private final SalaryDistributionIndex salaryDistributionIndex;
+
+    private final OrgSizeIndex orgSizeIndex;
+
+    private final Map<ReportingStructureKey, CompletableFuture<ReportingStructure>> reportingStructuresInFlight = new ConcurrentHashMap<>();
+
+    // Held from the cycle check of a direct report addition until it is written, so concurrent additions can't each
+    // pass the check against a hierarchy the other is about to change.
+    private final Object hierarchyLock = new Object();
+
     /**
      * Constructor for dependency injection.
      * @param employeeRepository the {@link EmployeeRepository} to use.
+     * @param changeFeedService the {@link IChangeFeedService} to record changes with.
+     * @param salaryDistributionIndex the {@link SalaryDistributionIndex} to keep up to date with employee departments.
+     * @param orgSizeIndex the {@link OrgSizeIndex} to record computed report counts in.
      */
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, IChangeFeedService changeFeedService,
+                               SalaryDistributionIndex salaryDistributionIndex, OrgSizeIndex orgSizeIndex) {
         this.employeeRepository = employeeRepository;
+        this.changeFeedService = changeFeedService;
+        this.salaryDistributionIndex = salaryDistributionIndex;
+        this.orgSizeIndex = orgSizeIndex;
     }
 
     @Override
@@ -42,6 +71,9 @@ public class EmployeeServiceImpl implements EmployeeService {
 
         employeeRepository.insert(employee);
 
+        salaryDistributionIndex.updateDepartment(employee.getEmployeeId(), employee.getDepartment());
+        changeFeedService.record(ChangeEvent.EntityType.EMPLOYEE, ChangeEvent.Operation.CREATED, employee.getEmployeeId(), employee.getEmployeeId());
+
         return employee;
     }
 
@@ -62,11 +94,148 @@ public class EmployeeServiceImpl implements EmployeeService {
     public Employee update(Employee employee) {
         LOG.debug("Updating employee [{}]", employee);
 
-        return employeeRepository.save(employee);
+        final Employee updatedEmployee = employeeRepository.save(employee);
+        orgSizeIndex.invalidate();
+
+        salaryDistributionIndex.updateDepartment(updatedEmployee.getEmployeeId(), updatedEmployee.getDepartment());
+        changeFeedService.record(ChangeEvent.EntityType.EMPLOYEE, ChangeEvent.Operation.UPDATED, updatedEmployee.getEmployeeId(), updatedEmployee.getEmployeeId());
+
+        return updatedEmployee;
+    }
+
+    @Override
+    public EmployeeBatchReadResult readMany(List<String> employeeIds) {
+        LOG.debug("Reading employees with ids [{}]", employeeIds);
+
+        // Drop duplicate IDs while keeping the order the caller asked for.
+        final Set<String> requestedIds = new LinkedHashSet<>(employeeIds);
+
+        // One $in query for the whole batch, indexed by ID so the request order can be restored.
+        final Map<String, Employee> foundEmployees = new HashMap<>();
+        for (Employee employee : employeeRepository.findByEmployeeIdIn(requestedIds)) {
+            foundEmployees.put(employee.getEmployeeId(), employee);
+        }
+
+        final List<Employee> employees = new ArrayList<>(foundEmployees.size());
+        final List<String> missingEmployeeIds = new ArrayList<>();
+
+        for (String employeeId : requestedIds) {
+            final Employee employee = foundEmployees.get(employeeId);
+
+            if (employee == null) {
+                missingEmployeeIds.add(employeeId);
+            } else {
+                employees.add(employee);
+            }
+        }
+
+        return new EmployeeBatchReadResult(employees, missingEmployeeIds);
+    }
+
+    @Override
+    public Employee addDirectReport(String managerId, String reportId) {
+        LOG.debug("Adding direct report [{}] to manager [{}]", reportId, managerId);
+
+        if (managerId.equals(reportId)) {
+            throw new InvalidReportingRelationshipException("An employee cannot report to themselves: " + managerId);
+        }
+
+        final Employee manager;
+        synchronized (hierarchyLock) {
+            // The manager must not already sit somewhere beneath the new report, otherwise this would create a cycle.
+            if (walkReportingSubtree(reportId, managerId).contains(managerId)) {
+                throw circularReportingStructure(managerId, reportId);
+            }
+
+            manager = employeeRepository.addDirectReport(managerId, reportId);
+            orgSizeIndex.invalidate();
+
+            if (manager == null) {
+                throw new ResourceNotFoundException(String.format("Employee not found for employeeId: %s", managerId));
+            }
+
+            // Another instance sharing the database may have added the opposite relationship since the check, the lock
+            // only covers this one. Check again now both are written, and undo this addition if they formed a cycle.
+            if (walkReportingSubtree(reportId, managerId).contains(managerId)) {
+                LOG.warn("Undoing direct report [{}] of manager [{}] which raced into a circular reporting structure", reportId, managerId);
+                employeeRepository.removeDirectReport(managerId, reportId);
+                orgSizeIndex.invalidate();
+                throw circularReportingStructure(managerId, reportId);
+            }
+        }
+
+        changeFeedService.record(ChangeEvent.EntityType.EMPLOYEE, ChangeEvent.Operation.UPDATED, managerId, managerId);
+
+        return manager;
+    }
+
+    @Override
+    public Employee removeDirectReport(String managerId, String reportId) {
+        LOG.debug("Removing direct report [{}] from manager [{}]", reportId, managerId);
+
+        final Employee manager = employeeRepository.removeDirectReport(managerId, reportId);
+
+        if (manager == null) {
+            if (employeeRepository.findByEmployeeId(managerId) == null) {
+                throw new ResourceNotFoundException(String.format("Employee not found for employeeId: %s", managerId));
+            }
+            throw new ResourceNotFoundException(
+                    String.format("Direct report not found for employeeId: %s under employeeId: %s", reportId, managerId));
+        }
+        orgSizeIndex.invalidate();
+
+        changeFeedService.record(ChangeEvent.EntityType.EMPLOYEE, ChangeEvent.Operation.UPDATED, managerId, managerId);
+
+        return manager;
+    }
+
+    @Override
+    public Set<String> readReportingSubtreeIds(String employeeId) {
+        LOG.debug("Reading reporting subtree ids for employeeId [{}]", employeeId);
+
+        final long generation = orgSizeIndex.generation();
+        final Set<String> subtreeIds = walkReportingSubtree(employeeId, null);
+        orgSizeIndex.record(employeeId, subtreeIds.size() - 1, generation);
+        return subtreeIds;
     }
 
     @Override
     public ReportingStructure getReportingStructure(String employeeId, boolean includeDirectReportDetails) {
+        // Concurrent identical requests share a single traversal. The hierarchy generation is part of the key, so a
+        // request arriving after a change never joins a traversal that may have started before it.
+        final long generation = orgSizeIndex.generation();
+        final ReportingStructureKey key = new ReportingStructureKey(employeeId, includeDirectReportDetails, generation);
+
+        final CompletableFuture<ReportingStructure> traversal = new CompletableFuture<>();
+        final CompletableFuture<ReportingStructure> running = reportingStructuresInFlight.putIfAbsent(key, traversal);
+
+        // Another request is already building this reporting structure, wait for it and share its result.
+        if (running != null) {
+            LOG.debug("Waiting on in-flight reporting structure for employeeId [{}]", employeeId);
+            return await(running);
+        }
+
+        try {
+            final ReportingStructure reportingStructure = buildReportingStructure(employeeId, includeDirectReportDetails, generation);
+            traversal.complete(reportingStructure);
+            return reportingStructure;
+        } catch (Throwable ex) {
+            // Errors too, such as a StackOverflowError on a deep hierarchy, or waiting callers would never wake up.
+            traversal.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            reportingStructuresInFlight.remove(key, traversal);
+        }
+    }
+
+    /**
+     * Builds the reporting structure for a given employee, optionally building the entire employee hierarchy as well.
+     * @param employeeId the employeeId of the employee.
+     * @param includeDirectReportDetails indicates whether to build the entire hierarchy for the employee and all reports.
+     * @param generation the {@link OrgSizeIndex#generation()} read before starting.
+     * @return The {@link ReportingStructure} of the employee.
+     */
+    private ReportingStructure buildReportingStructure(String employeeId, boolean includeDirectReportDetails, long generation) {
         LOG.debug("Building reporting structure for employeeId [{}]", employeeId);
 
         // Step 1: Retrieve the root employee from the provided ID.
@@ -86,7 +255,10 @@ public class EmployeeServiceImpl implements EmployeeService {
         // Step 3: Calculate total count of direct and indirect reports.
         final int numberOfReports = countReports(rootEmployee, memoizedEmployees, inProgress);
 
-        // Step 4: Return reporting structure.
+        // Step 4: Remember the size of the structure, for admission control of later requests.
+        orgSizeIndex.record(employeeId, numberOfReports, generation);
+
+        // Step 5: Return reporting structure.
         return new ReportingStructure(rootEmployee, numberOfReports);
     }
 
@@ -106,21 +278,18 @@ public class EmployeeServiceImpl implements EmployeeService {
         inProgress.add(employee.getEmployeeId());
 
         // If the employee has no direct reports, break out.
-        if (employee.getDirectReports() == null || employee.getDirectReports().isEmpty()) {
+        if (employee.getDirectReportIds() == null || employee.getDirectReportIds().isEmpty()) {
             inProgress.remove(employee.getEmployeeId());
             return;
         }
 
-        // Stream through the list of direct report stubs, fetch their full details, and recursively build their own hierarchy.
+        // Stream through the list of direct report IDs, fetch their full details, and recursively build their own hierarchy.
+        // Only the IDs are ever stored, so saving an expanded employee later cannot persist the subtree.
         employee.setDirectReports(
-                employee.getDirectReports()
+                employee.getDirectReportIds()
                         .stream()
-                        .map(reportStub -> {
-                            String reportId = reportStub.getEmployeeId();
-
-                            // Retrieve/return fully populated Employee for this direct report.
-                            return memoizedEmployees.computeIfAbsent(reportId, this::read);
-                        })
+                        // Retrieve/return fully populated Employee for this direct report.
+                        .map(reportId -> memoizedEmployees.computeIfAbsent(reportId, this::read))
                         // Recursively build out every direct report of this report.
                         .peek(report -> buildEntireEmployeeReportingHierarchy(report, memoizedEmployees, inProgress))
                         .toList()
@@ -141,17 +310,15 @@ public class EmployeeServiceImpl implements EmployeeService {
         LOG.debug("Counting reports for employeeId [{}]", employee.getEmployeeId());
 
         // If there are no direct reports just return 0.
-        if (employee.getDirectReports() == null || employee.getDirectReports().isEmpty()) {
+        if (employee.getDirectReportIds() == null || employee.getDirectReportIds().isEmpty()) {
             return 0;
         }
 
         // Initialize counter.
         int count = 0;
 
-        // Loop through each direct report stub and calculate their reports recursively.
-        for (Employee reportStub : employee.getDirectReports()) {
-            final String reportId = reportStub.getEmployeeId();
-
+        // Loop through each direct report ID and calculate their reports recursively.
+        for (String reportId : employee.getDirectReportIds()) {
             // Detect circular references to prevent infinite recursion.
             checkForCircularReferences(inProgress, reportId);
 
@@ -171,6 +338,59 @@ public class EmployeeServiceImpl implements EmployeeService {
         return count;
     }
 
+    /**
+     * Collects the IDs of an employee and all of their direct and indirect reports, level by level.
+     * The subtree is walked one level at a time with a single batched query per level.
+     * @param rootId the employeeId at the top of the subtree, which must exist.
+     * @param stopAtId an employeeId to stop walking at as soon as it is reached, or null to walk the whole subtree.
+     * @return the {@link Set<String>} of employeeIds visited, including stopAtId if it was reached.
+     */
+    private Set<String> walkReportingSubtree(String rootId, String stopAtId) {
+        final Set<String> visited = new LinkedHashSet<>();
+        Set<String> level = Set.of(rootId);
+
+        while (!level.isEmpty()) {
+            visited.addAll(level);
+
+            if (stopAtId != null && level.contains(stopAtId)) {
+                return visited;
+            }
+
+            final List<Employee> employees = employeeRepository.findByEmployeeIdIn(level);
+
+            if (visited.size() == 1 && employees.isEmpty()) {
+                throw new ResourceNotFoundException(String.format("Employee not found for employeeId: %s", rootId));
+            }
+
+            // Gather the next level, skipping anything already seen in case the stored hierarchy already has a cycle.
+            final Set<String> nextLevel = new HashSet<>();
+            for (Employee employee : employees) {
+                if (employee.getDirectReportIds() == null) {
+                    continue;
+                }
+                for (String reportId : employee.getDirectReportIds()) {
+                    if (!visited.contains(reportId)) {
+                        nextLevel.add(reportId);
+                    }
+                }
+            }
+            level = nextLevel;
+        }
+
+        return visited;
+    }
+
+    /**
+     * Creates the exception rejecting a direct report addition that would create a circular reporting structure.
+     * @param managerId the employeeId of the manager.
+     * @param reportId the employeeId of the report being added.
+     * @return the {@link InvalidReportingRelationshipException} to throw.
+     */
+    private static InvalidReportingRelationshipException circularReportingStructure(String managerId, String reportId) {
+        return new InvalidReportingRelationshipException(
+                String.format("Adding employeeId: %s as a report of employeeId: %s would create a circular reporting structure", reportId, managerId));
+    }
+
     /**
      * Checks for circular references in a set of in progress employee IDs from direct reports.
      * If a circular reference is detected for the provided employeeId, an error is logged, and an exception is thrown.
@@ -183,4 +403,29 @@ public class EmployeeServiceImpl implements EmployeeService {
             throw new CircularReferenceException("Circular reference detected for employeeId: " + reportId);
         }
     }
+
+    /**
+     * Waits for an in-flight reporting structure, rethrowing its failure if it failed.
+     * @param traversal the in-flight traversal to wait for.
+     * @return the {@link ReportingStructure} built by the traversal.
+     */
+    private static ReportingStructure await(CompletableFuture<ReportingStructure> traversal) {
+        try {
+            return traversal.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Identifies a reporting structure request, for coalescing concurrent identical requests.
+     */
+    private record ReportingStructureKey(String employeeId, boolean includeDirectReportDetails, long generation) {
+    }
 }
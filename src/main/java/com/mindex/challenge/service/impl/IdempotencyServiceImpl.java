@@ -0,0 +1,148 @@
+package com.mindex.challenge.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.dao.IIdempotencyStore;
+import com.mindex.challenge.data.IdempotencyRecord;
+import com.mindex.challenge.exceptions.IdempotencyKeyReuseException;
+import com.mindex.challenge.service.IIdempotencyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Service implementation for idempotent request handling.
+ * Implements the {@link IIdempotencyService} interface.
+ * Concurrent duplicates are coalesced per key through a map of in-flight executions, so requests with different
+ * keys never wait on each other.
+ *
+ * @author Robert Heinbokel
+ */
+@Service
+public class IdempotencyServiceImpl implements IIdempotencyService {
+    private static final Logger LOG = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+
+    private final IIdempotencyStore idempotencyStore;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for dependency injection.
+     * @param idempotencyStore the {@link IIdempotencyStore} to use.
+     * @param objectMapper the {@link ObjectMapper} used to store and replay results.
+     */
+    public IdempotencyServiceImpl(IIdempotencyStore idempotencyStore, ObjectMapper objectMapper) {
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public <T> T execute(String idempotencyKey, String scope, Object request, Class<T> responseType, Supplier<T> operation) {
+        if (idempotencyKey == null) {
+            return operation.get();
+        }
+
+        final String key = scope + ":" + idempotencyKey;
+        final String fingerprint = fingerprint(request);
+
+        IdempotencyRecord record = idempotencyStore.find(key);
+        if (record != null) {
+            LOG.debug("Replaying stored result for idempotency key [{}]", key);
+            return replay(record, fingerprint, responseType);
+        }
+
+        final CompletableFuture<IdempotencyRecord> execution = new CompletableFuture<>();
+        final CompletableFuture<IdempotencyRecord> running = inFlight.putIfAbsent(key, execution);
+
+        // Another request with this key is already executing, wait for it and share its result.
+        if (running != null) {
+            LOG.debug("Waiting on in-flight execution for idempotency key [{}]", key);
+            return replay(await(running), fingerprint, responseType);
+        }
+
+        try {
+            // The previous execution may have completed between the lookup and claiming the key.
+            record = idempotencyStore.find(key);
+            if (record != null) {
+                execution.complete(record);
+                return replay(record, fingerprint, responseType);
+            }
+
+            final T result = operation.get();
+
+            record = new IdempotencyRecord(key, fingerprint, serialize(result), Instant.now());
+            idempotencyStore.save(record);
+            execution.complete(record);
+
+            return result;
+        } catch (Throwable ex) {
+            // Errors too, or duplicates waiting on this execution would never wake up.
+            execution.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, execution);
+        }
+    }
+
+    /**
+     * Waits for an in-flight execution, rethrowing its failure if it failed.
+     * @param execution the in-flight execution to wait for.
+     * @return the {@link IdempotencyRecord} of the completed execution.
+     */
+    private static IdempotencyRecord await(CompletableFuture<IdempotencyRecord> execution) {
+        try {
+            return execution.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private <T> T replay(IdempotencyRecord record, String fingerprint, Class<T> responseType) {
+        if (!record.getRequestFingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReuseException("Idempotency key was already used for a different request");
+        }
+
+        try {
+            return objectMapper.readValue(record.getResponseBody(), responseType);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to replay stored result for idempotency key: " + record.getKey(), ex);
+        }
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to serialize result for idempotent request", ex);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(serialize(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.mindex.challenge.service.impl;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process index of the number of direct and indirect reports of employees, used to estimate the cost of walking
+ * their reporting structure before doing so.
+ * Sizes are recorded whenever a reporting structure or subtree is computed, and the whole index is cleared whenever
+ * the hierarchy may have changed, as one change affects the size of every manager above it. A size computed while
+ * the hierarchy changed is discarded rather than recorded, see {@link #generation()}.
+ *
+ * @author Robert Heinbokel
+ */
+@Component
+public class OrgSizeIndex {
+
+    private final Map<String, Integer> reportCounts = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Returns the current generation of the hierarchy, to be read before computing a size to record.
+     * @return the generation, which changes whenever the index is invalidated.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Records the number of reports of an employee, unless the hierarchy changed since it was computed.
+     * @param employeeId the employeeId.
+     * @param numberOfReports the number of direct and indirect reports of the employee.
+     * @param generation the {@link #generation()} read before computing the number of reports.
+     */
+    public void record(String employeeId, int numberOfReports, long generation) {
+        reportCounts.put(employeeId, numberOfReports);
+        // A concurrent invalidation may have cleared the index before the put, so undo it if one happened since.
+        if (this.generation.get() != generation) {
+            reportCounts.remove(employeeId, numberOfReports);
+        }
+    }
+
+    /**
+     * Estimates the number of reports of an employee.
+     * @param employeeId the employeeId.
+     * @return the last recorded number of direct and indirect reports, or -1 if none is known.
+     */
+    public int estimate(String employeeId) {
+        return reportCounts.getOrDefault(employeeId, -1);
+    }
+
+    /**
+     * Clears the index after the hierarchy changed.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        reportCounts.clear();
+    }
+}
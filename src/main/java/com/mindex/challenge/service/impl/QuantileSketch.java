@@ -0,0 +1,197 @@
+package com.mindex.challenge.service.impl;
+
+/**
+ * A mergeable quantile sketch over non-negative long values, e.g. salaries in minor units.
+ * Values are counted in logarithmically sized buckets (as in DDSketch) so that any quantile is estimated within a
+ * relative error of {@code relativeAccuracy} of the exact value at that rank, regardless of how values are distributed.
+ * Sketches with the same accuracy can be merged exactly, and values can be removed again, which lets a sketch follow
+ * a population whose members change.
+ * Memory is a fixed array of a little under 2000 counters at 1% accuracy, independent of the number of values.
+ * Not thread safe.
+ *
+ * @author Robert Heinbokel
+ */
+public final class QuantileSketch {
+
+    private final double relativeAccuracy;
+
+    private final double logGamma;
+
+    // counts[i] holds the number of values v >= 1 with ceil(log(v) / logGamma) == i.
+    private final long[] counts;
+
+    private long zeroCount;
+
+    private long count;
+
+    /**
+     * Constructs an empty QuantileSketch.
+     *
+     * @param relativeAccuracy the maximum relative error of estimated quantiles, between 0 and 1 exclusive.
+     */
+    public QuantileSketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1: " + relativeAccuracy);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.logGamma = Math.log((1 + relativeAccuracy) / (1 - relativeAccuracy));
+        this.counts = new long[bucketIndex(Long.MAX_VALUE) + 1];
+    }
+
+    /**
+     * Copies another sketch.
+     *
+     * @param other the {@link QuantileSketch} to copy.
+     */
+    public QuantileSketch(QuantileSketch other) {
+        this.relativeAccuracy = other.relativeAccuracy;
+        this.logGamma = other.logGamma;
+        this.counts = other.counts.clone();
+        this.zeroCount = other.zeroCount;
+        this.count = other.count;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Adds a value.
+     * @param value the non-negative value to add.
+     */
+    public void add(long value) {
+        if (value == 0) {
+            zeroCount++;
+        } else {
+            counts[bucketIndex(value)]++;
+        }
+        count++;
+    }
+
+    /**
+     * Removes a value that was previously added.
+     * @param value the value to remove.
+     * @throws IllegalStateException if no value was added to the bucket the value belongs to.
+     */
+    public void remove(long value) {
+        if (value == 0) {
+            if (zeroCount == 0) {
+                throw new IllegalStateException("Value was never added: " + value);
+            }
+            zeroCount--;
+        } else {
+            final int index = bucketIndex(value);
+            if (counts[index] == 0) {
+                throw new IllegalStateException("Value was never added: " + value);
+            }
+            counts[index]--;
+        }
+        count--;
+    }
+
+    /**
+     * Adds all values of another sketch to this one.
+     * @param other the {@link QuantileSketch} to merge, which must have the same relative accuracy.
+     */
+    public void merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches with different relative accuracies");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+    }
+
+    /**
+     * Estimates the value at the given quantile, using the lower of the two ranks when the quantile falls between values.
+     * The estimate is within {@code relativeAccuracy} of the exact value at rank {@code floor(quantile * (count - 1))}.
+     * @param quantile the quantile, between 0 and 1 inclusive.
+     * @return the estimated value, or -1 if the sketch is empty.
+     */
+    public long quantile(double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+        }
+        if (count == 0) {
+            return -1;
+        }
+
+        final long rank = (long) (quantile * (count - 1));
+        long seen = zeroCount;
+        if (rank < seen) {
+            return 0;
+        }
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (rank < seen) {
+                return bucketValue(i);
+            }
+        }
+
+        throw new IllegalStateException("Counts are inconsistent with the total count");
+    }
+
+    /**
+     * Counts the values falling into each of a number of equal width bins spanning the smallest to the largest value.
+     * Values are placed by their bucket's estimated value, so bin edges are subject to the same relative accuracy.
+     * Bins are at least one unit wide, so values spanning fewer units than bins get fewer bins, down to a single bin
+     * of zero width when all values are estimated the same.
+     * @param maxBins the maximum number of bins.
+     * @return the bin boundaries (one more than there are bins, ascending) and counts, or null if the sketch is empty.
+     */
+    public Histogram histogram(int maxBins) {
+        if (count == 0) {
+            return null;
+        }
+
+        final long min = quantile(0);
+        final long max = quantile(1);
+        final int bins = (int) Math.min(maxBins, Math.max(1, max - min));
+        final double width = Math.max(1, (double) (max - min) / bins);
+
+        final long[] boundaries = new long[bins + 1];
+        for (int i = 0; i <= bins; i++) {
+            boundaries[i] = i == bins ? max : min + Math.round(i * width);
+        }
+
+        final long[] binCounts = new long[bins];
+        if (zeroCount > 0) {
+            binCounts[0] += zeroCount;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                final int bin = (int) Math.min(bins - 1, (bucketValue(i) - min) / width);
+                binCounts[bin] += counts[i];
+            }
+        }
+
+        return new Histogram(boundaries, binCounts);
+    }
+
+    private int bucketIndex(long value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    /**
+     * The value reported for a bucket, the point with equal relative distance to both bucket bounds.
+     */
+    private long bucketValue(int index) {
+        return Math.round(2 * Math.exp(index * logGamma) / (1 + Math.exp(logGamma)));
+    }
+
+    /**
+     * Equal width bins over the values of a sketch.
+     *
+     * @param boundaries the ascending bin boundaries, one more than there are bins.
+     * @param counts the number of values in each bin.
+     */
+    public record Histogram(long[] boundaries, long[] counts) {
+    }
+}
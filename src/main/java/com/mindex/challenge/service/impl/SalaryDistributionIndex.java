@@ -0,0 +1,270 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.CompensationAnalyticsRepository.SalaryInEffect;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.dao.ICompensationRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * In-process index of the current salary of every employee, with a {@link QuantileSketch} per department.
+ * Department distributions are answered straight from their sketch, and subtree distributions are built from the
+ * indexed salaries, so neither reads any compensation documents.
+ * The index is loaded on first use and kept up to date by the compensation and employee services. It is rebuilt
+ * when the date changes so future dated compensations take effect. Rebuilds read into a fresh index without holding
+ * the lock writes need, replay the writes recorded meanwhile and then replace the current index, so writes never
+ * wait on a rebuild and a failed rebuild leaves the current index as it was. Writes made by other instances are not
+ * seen until the next rebuild.
+ *
+ * @author Robert Heinbokel
+ */
+@Component
+public class SalaryDistributionIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(SalaryDistributionIndex.class);
+
+    private final EmployeeRepository employeeRepository;
+
+    private final ICompensationRepository compensationRepository;
+
+    private final double relativeAccuracy;
+
+    // Held while rebuilding, so only one rebuild runs at a time.
+    private final Object rebuildLock = new Object();
+
+    // Everything below is guarded by this.
+
+    // The current index, null until first used.
+    private Index index;
+
+    // The writes made while a rebuild is running, to replay onto the rebuilt index. Null while none is running.
+    private List<Consumer<Index>> writesDuringRebuild;
+
+    /**
+     * Constructor for dependency injection.
+     * @param employeeRepository the {@link EmployeeRepository} to load departments from.
+     * @param compensationRepository the {@link ICompensationRepository} to load current salaries from.
+     * @param relativeAccuracy the maximum relative error of estimated percentiles.
+     */
+    public SalaryDistributionIndex(
+            EmployeeRepository employeeRepository,
+            ICompensationRepository compensationRepository,
+            @Value("${compensation.distribution.relative-accuracy:0.01}") double relativeAccuracy) {
+        this.employeeRepository = employeeRepository;
+        this.compensationRepository = compensationRepository;
+        this.relativeAccuracy = relativeAccuracy;
+    }
+
+    /**
+     * Records a newly created compensation, replacing the employee's current salary if it is now the one in effect.
+     * @param compensation the created {@link Compensation}.
+     */
+    public void add(Compensation compensation) {
+        write(index -> index.add(compensation));
+    }
+
+    /**
+     * Records the department of a created or updated employee, moving their salary to that department's sketch.
+     * @param employeeId the employeeId of the employee.
+     * @param department the department of the employee, or null.
+     */
+    public void updateDepartment(String employeeId, String department) {
+        write(index -> index.updateDepartment(employeeId, department));
+    }
+
+    /**
+     * Retrieves the distribution of current salaries within a department.
+     * @param department the department.
+     * @return a copy of the department's {@link QuantileSketch}, empty if nobody in the department has a current salary.
+     */
+    public QuantileSketch departmentSketch(String department) {
+        ensureCurrent();
+
+        synchronized (this) {
+            final QuantileSketch sketch = index.sketchesByDepartment.get(department);
+            return sketch == null ? new QuantileSketch(relativeAccuracy) : new QuantileSketch(sketch);
+        }
+    }
+
+    /**
+     * Retrieves the distribution of current salaries among the given employees.
+     * @param employeeIds the employeeIds to include, employees without a current salary are skipped.
+     * @return the {@link QuantileSketch} of their salaries.
+     */
+    public QuantileSketch sketchOf(Collection<String> employeeIds) {
+        ensureCurrent();
+
+        final QuantileSketch sketch = new QuantileSketch(relativeAccuracy);
+        synchronized (this) {
+            for (String employeeId : employeeIds) {
+                final CurrentSalary current = index.currentSalaries.get(employeeId);
+                if (current != null) {
+                    sketch.add(current.salaryMinorUnits);
+                }
+            }
+        }
+        return sketch;
+    }
+
+    /**
+     * Applies a write to the current index, and records it for the rebuilt index if a rebuild is running.
+     * Until loaded there is nothing to keep up to date, the load reads the write from the database.
+     * @param write the write to apply.
+     */
+    private synchronized void write(Consumer<Index> write) {
+        if (index != null) {
+            write.accept(index);
+        }
+        if (writesDuringRebuild != null) {
+            writesDuringRebuild.add(write);
+        }
+    }
+
+    private void ensureCurrent() {
+        final LocalDate today = LocalDate.now();
+        if (isLoadedOn(today)) {
+            return;
+        }
+
+        synchronized (rebuildLock) {
+            // Another thread may have rebuilt the index while this one waited.
+            if (isLoadedOn(today)) {
+                return;
+            }
+
+            // Writes are recorded from before reading, so any write the reads miss is replayed. Replaying a write the
+            // reads did see is harmless, as applying a write twice has the same effect as once.
+            synchronized (this) {
+                writesDuringRebuild = new ArrayList<>();
+            }
+
+            final Index rebuilt;
+            try {
+                rebuilt = load(today);
+            } catch (Throwable ex) {
+                // The current index is left in place, and the next use retries the rebuild.
+                synchronized (this) {
+                    writesDuringRebuild = null;
+                }
+                throw ex;
+            }
+
+            synchronized (this) {
+                writesDuringRebuild.forEach(write -> write.accept(rebuilt));
+                writesDuringRebuild = null;
+                index = rebuilt;
+            }
+        }
+    }
+
+    private synchronized boolean isLoadedOn(LocalDate date) {
+        return index != null && date.equals(index.loadedOn);
+    }
+
+    private Index load(LocalDate today) {
+        LOG.debug("Building salary distribution index as of [{}]", today);
+
+        final Index loaded = new Index(today);
+
+        for (Employee employee : employeeRepository.findAll()) {
+            loaded.departmentsByEmployeeId.put(employee.getEmployeeId(), employee.getDepartment());
+        }
+
+        try (Stream<SalaryInEffect> salaries = compensationRepository.streamSalariesAsOf(today)) {
+            salaries.forEach(salary -> {
+                final CurrentSalary current = new CurrentSalary(loaded.departmentsByEmployeeId.get(salary.employeeId()),
+                        salary.effectiveDate(), salary.salaryMinorUnits());
+                loaded.currentSalaries.put(salary.employeeId(), current);
+                loaded.addToDepartment(current);
+            });
+        }
+
+        return loaded;
+    }
+
+    /**
+     * The salaries in effect on a date, along with the departments they are counted in.
+     */
+    private final class Index {
+        private final LocalDate loadedOn;
+        private final Map<String, String> departmentsByEmployeeId = new HashMap<>();
+        private final Map<String, CurrentSalary> currentSalaries = new HashMap<>();
+        private final Map<String, QuantileSketch> sketchesByDepartment = new HashMap<>();
+
+        private Index(LocalDate loadedOn) {
+            this.loadedOn = loadedOn;
+        }
+
+        private void add(Compensation compensation) {
+            if (compensation.getEffectiveDate().isAfter(loadedOn)) {
+                return;
+            }
+
+            final CurrentSalary current = currentSalaries.get(compensation.getEmployeeId());
+
+            if (current == null) {
+                final CurrentSalary added = new CurrentSalary(departmentsByEmployeeId.get(compensation.getEmployeeId()),
+                        compensation.getEffectiveDate(), compensation.getSalaryMinorUnits());
+                currentSalaries.put(compensation.getEmployeeId(), added);
+                addToDepartment(added);
+            } else if (compensation.getEffectiveDate().isAfter(current.effectiveDate)) {
+                removeFromDepartment(current);
+                current.effectiveDate = compensation.getEffectiveDate();
+                current.salaryMinorUnits = compensation.getSalaryMinorUnits();
+                addToDepartment(current);
+            }
+        }
+
+        private void updateDepartment(String employeeId, String department) {
+            departmentsByEmployeeId.put(employeeId, department);
+
+            final CurrentSalary current = currentSalaries.get(employeeId);
+            if (current != null && !Objects.equals(current.department, department)) {
+                removeFromDepartment(current);
+                current.department = department;
+                addToDepartment(current);
+            }
+        }
+
+        private void addToDepartment(CurrentSalary current) {
+            if (current.department != null) {
+                sketchesByDepartment.computeIfAbsent(current.department, department -> new QuantileSketch(relativeAccuracy))
+                        .add(current.salaryMinorUnits);
+            }
+        }
+
+        private void removeFromDepartment(CurrentSalary current) {
+            if (current.department != null) {
+                sketchesByDepartment.get(current.department).remove(current.salaryMinorUnits);
+            }
+        }
+    }
+
+    /**
+     * The salary currently in effect for an employee, along with the department it is counted in.
+     */
+    private static final class CurrentSalary {
+        private String department;
+        private LocalDate effectiveDate;
+        private long salaryMinorUnits;
+
+        private CurrentSalary(String department, LocalDate effectiveDate, long salaryMinorUnits) {
+            this.department = department;
+            this.effectiveDate = effectiveDate;
+            this.salaryMinorUnits = salaryMinorUnits;
+        }
+    }
+}
@@ -5,7 +5,7 @@ import jakarta.validation.ConstraintValidatorContext;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
 
 /**
  * Validates whether a given string conforms to the yyyy-MM-dd format and can be parsed to a local date.
@@ -14,12 +14,16 @@ import java.time.format.DateTimeParseException;
  * The validation ensures that the input string is not null or blank and can
  * be parsed into a valid {@link LocalDate}. If the string cannot be parsed or does not
  * adhere to the date format, the validation fails.
+ * The check is a single pass over the string which neither throws nor allocates, so junk dates cost no more than valid
+ * ones. It accepts exactly what {@link LocalDate#parse(CharSequence, DateTimeFormatter)} accepts with the
+ * {@code yyyy-MM-dd} pattern: a four digit year, or more digits after a plus sign, and a day of month up to 31 in any
+ * month, as the {@link ResolverStyle#SMART smart} resolver moves the 29th to 31st to the last day of shorter months.
  *
  * @author Robert Heinbokel
  */
 public class LocalDateValidator implements ConstraintValidator<ValidLocalDate, String> {
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final int MAX_YEAR = 999_999_999;
 
     @Override
     public boolean isValid(String value, ConstraintValidatorContext context) {
@@ -27,11 +31,49 @@ public class LocalDateValidator implements ConstraintValidator<ValidLocalDate, S
             return false;
         }
 
-        try {
-            LocalDate.parse(value, DATE_FORMATTER);
-            return true;
-        } catch (DateTimeParseException e) {
+        return isLocalDate(value);
+    }
+
+    /**
+     * Checks whether a string would be parsed with the {@code yyyy-MM-dd} pattern and the smart resolver.
+     * @param value the string to check.
+     * @return true if the string is a local date.
+     */
+    static boolean isLocalDate(CharSequence value) {
+        final int length = value.length();
+        int position = 0;
+        final boolean signed = length > 0 && value.charAt(0) == '+';
+        if (signed) {
+            position++;
+        }
+
+        // The year is read greedily, up to 19 digits, and must exceed the 4 digits of the pattern exactly when signed.
+        final int yearStart = position;
+        long year = 0;
+        while (position < length && position - yearStart < 19 && isDigit(value.charAt(position))) {
+            year = Math.min(year * 10 + (value.charAt(position) - '0'), MAX_YEAR + 1L);
+            position++;
+        }
+        final int yearDigits = position - yearStart;
+        if (yearDigits < 4 || signed != yearDigits > 4 || year < 1 || year > MAX_YEAR) {
+            return false;
+        }
+
+        if (length - position != 6 || value.charAt(position) != '-' || value.charAt(position + 3) != '-') {
             return false;
         }
+        final int month = twoDigits(value, position + 1);
+        final int day = twoDigits(value, position + 4);
+        return month >= 1 && month <= 12 && day >= 1 && day <= 31;
+    }
+
+    private static int twoDigits(CharSequence value, int position) {
+        final char tens = value.charAt(position);
+        final char units = value.charAt(position + 1);
+        return isDigit(tens) && isDigit(units) ? (tens - '0') * 10 + (units - '0') : -1;
+    }
+
+    private static boolean isDigit(char ch) {
+        return ch >= '0' && ch <= '9';
     }
 }
@@ -12,6 +12,9 @@ import java.util.UUID;
  * The validation ensures that the input string is not null or blank and can
  * be parsed into a valid {@link UUID}. If the string cannot be parsed or does not
  * adhere to the UUID format, the validation fails.
+ * The check is a single pass over the string which neither throws nor allocates, so junk IDs cost no more than valid
+ * ones. It accepts exactly what {@link UUID#fromString(String)} accepts, which besides the canonical 8-4-4-4-12 form
+ * includes shorter components and a leading plus sign, as long as the string is at most 36 characters long.
  *
  * @author Robert Heinbokel
  */
@@ -23,11 +26,57 @@ public class UUIDValidator implements ConstraintValidator<ValidUUID, String> {
             return false;
         }
 
-        try {
-            UUID.fromString(value);
-            return true;
-        } catch (IllegalArgumentException ex) {
+        return isUUID(value);
+    }
+
+    /**
+     * Checks whether a string would be parsed by {@link UUID#fromString(String)}: at most 36 characters making up five
+     * dash separated components, each a hexadecimal {@code long} as parsed by {@link Long#parseLong(String, int)}.
+     * @param value the string to check.
+     * @return true if the string is a UUID.
+     */
+    static boolean isUUID(CharSequence value) {
+        final int length = value.length();
+        if (length > 36) {
             return false;
         }
+
+        int components = 0;
+        int start = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || value.charAt(i) == '-') {
+                if (++components > 5 || !isHexLong(value, start, i)) {
+                    return false;
+                }
+                start = i + 1;
+            }
+        }
+        return components == 5;
+    }
+
+    private static boolean isHexLong(CharSequence value, int start, int end) {
+        if (start < end && value.charAt(start) == '+') {
+            start++;
+        }
+        if (start == end) {
+            return false;
+        }
+
+        // Leading zeros don't count towards the 16 hex digits of a long, of which the first must be at most 7.
+        int significant = 0;
+        int first = 0;
+        for (int i = start; i < end; i++) {
+            final int digit = Character.digit(value.charAt(i), 16);
+            if (digit < 0) {
+                return false;
+            }
+            if (significant == 0) {
+                first = digit;
+            }
+            if (significant > 0 || digit > 0) {
+                significant++;
+            }
+        }
+        return significant < 16 || (significant == 16 && first <= 7);
     }
 }
\ No newline at end of file
@@ -15,7 +15,7 @@ import java.lang.annotation.Target;
  * @author Robert Heinbokel
  */
 @Constraint(validatedBy = UUIDValidator.class) // Link to the validator class
-@Target({ ElementType.FIELD, ElementType.PARAMETER }) // Applicable to fields and method parameters
+@Target({ ElementType.FIELD, ElementType.PARAMETER, ElementType.TYPE_USE }) // Applicable to fields, method parameters and collection elements
 @Retention(RetentionPolicy.RUNTIME)
 public @interface ValidUUID {
 
@@ -0,0 +1,94 @@
+package com.mindex.challenge;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.EmployeeService;
+import org.bson.Document;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link DirectReportsMigration} and the ID-only storage of direct reports.
+ *
+ * @author Robert Heinbokel
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class DirectReportsMigrationTest {
+
+    @Autowired
+    private DirectReportsMigration directReportsMigration;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    public void testMigrate_ReplacesNestedDirectReportsWithIds() {
+        // given - a manager stored in the legacy format, with an expanded subtree under the first report
+        final String managerId = UUID.randomUUID().toString();
+        final String firstReportId = UUID.randomUUID().toString();
+        final String secondReportId = UUID.randomUUID().toString();
+        mongoTemplate.insert(new Document("_id", managerId)
+                .append("firstName", "Legacy")
+                .append("directReports", List.of(
+                        new Document("_id", firstReportId).append("firstName", "Expanded")
+                                .append("directReports", List.of(new Document("_id", UUID.randomUUID().toString()))),
+                        new Document("_id", secondReportId))), "employee");
+
+        // when
+        final int migrated = directReportsMigration.migrate();
+
+        // then
+        assertEquals(1, migrated);
+        final Document stored = rawEmployee(managerId);
+        assertFalse(stored.containsKey("directReports"));
+        assertEquals(List.of(firstReportId, secondReportId), stored.getList("directReportIds", String.class));
+        final Employee manager = employeeRepository.findByEmployeeId(managerId);
+        assertEquals("Legacy", manager.getFirstName());
+        assertEquals(List.of(firstReportId, secondReportId), manager.getDirectReports().stream().map(Employee::getEmployeeId).toList());
+        assertEquals(0, directReportsMigration.migrate());
+    }
+
+    @Test
+    public void testUpdate_AfterExpandingHierarchy_StoresOnlyIds() {
+        // given
+        final String managerId = employeeService.create(new Employee()).getEmployeeId();
+        final String reportId = employeeService.create(new Employee()).getEmployeeId();
+        final String indirectReportId = employeeService.create(new Employee()).getEmployeeId();
+        employeeService.addDirectReport(managerId, reportId);
+        employeeService.addDirectReport(reportId, indirectReportId);
+        final ReportingStructure structure = employeeService.getReportingStructure(managerId, true);
+        assertEquals(indirectReportId, structure.getEmployee().getDirectReports().get(0).getDirectReports().get(0).getEmployeeId());
+
+        // when
+        employeeService.update(structure.getEmployee());
+
+        // then - the expanded subtree was not persisted
+        final Document stored = rawEmployee(managerId);
+        assertFalse(stored.containsKey("directReports"));
+        assertEquals(List.of(reportId), stored.getList("directReportIds", String.class));
+        assertTrue(stored.toJson().length() < 200);
+    }
+
+    private Document rawEmployee(String employeeId) {
+        return mongoTemplate.getCollection("employee").find(new Document("_id", employeeId)).first();
+    }
+}
@@ -0,0 +1,160 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.service.EmployeeService;
+import com.mindex.challenge.service.impl.OrgSizeIndex;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Integration tests for {@link AdmissionControlInterceptor}, admitting concurrent identical reporting structure
+ * requests which share a single traversal, and limiting a flood of them.
+ *
+ * @author Robert Heinbokel
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "admission.traversal.max-concurrent-per-endpoint=" + AdmissionControlInterceptorIntegrationTest.PERMITS,
+        "admission.traversal.max-reports-in-flight=1"
+})
+public class AdmissionControlInterceptorIntegrationTest {
+
+    private static final String JOHN_LENNON_ID = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+
+    private static final int CALLERS = 20;
+
+    static final int PERMITS = 25;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private final AtomicInteger arrivals = new AtomicInteger();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private volatile boolean blocking;
+
+    @SpyBean
+    private OrgSizeIndex orgSizeIndex;
+
+    @SpyBean
+    private EmployeeService employeeService;
+
+    @LocalServerPort
+    private int port;
+
+    @Before
+    public void setUp() {
+        // Count requests reaching the service, all of which were admitted.
+        doAnswer(invocation -> {
+            arrivals.incrementAndGet();
+            return invocation.callRealMethod();
+        }).when(employeeService).getReportingStructure(anyString(), anyBoolean());
+
+        // Hold up the traversal at its end while blocking, so every request arrives while it is in flight.
+        doAnswer(invocation -> {
+            if (blocking) {
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            }
+            return invocation.callRealMethod();
+        }).when(orgSizeIndex).record(eq(JOHN_LENNON_ID), anyInt(), anyLong());
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+    }
+
+    @Test
+    public void testConcurrentIdenticalReportingStructureRequests_AreAllAdmitted() throws Exception {
+        // given the size of the reporting structure is known, reserving more than max-reports-in-flight
+        assertEquals(200, get("?includeDirectReportDetails=false").join().statusCode());
+        arrivals.set(0);
+        blocking = true;
+
+        // when
+        final List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            responses.add(get("?includeDirectReportDetails=false"));
+        }
+        awaitArrivals(CALLERS);
+
+        // then a different traversal is still over the limits while the identical ones are in flight
+        assertEquals(503, get("?includeDirectReportDetails=true").join().statusCode());
+
+        release.countDown();
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            final HttpResponse<String> completed = response.get(10, TimeUnit.SECONDS);
+            assertEquals(200, completed.statusCode());
+            assertTrue(completed.body().contains("\"numberOfReports\":4"));
+        }
+    }
+
+    @Test
+    public void testFloodOfIdenticalReportingStructureRequests_IsLimitedByPermits() throws Exception {
+        // given
+        assertEquals(200, get("?includeDirectReportDetails=false").join().statusCode());
+        arrivals.set(0);
+        blocking = true;
+
+        // when
+        final List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < PERMITS + CALLERS; i++) {
+            responses.add(get("?includeDirectReportDetails=false"));
+        }
+        awaitArrivals(PERMITS);
+
+        // then every request beyond the permits is rejected, although they would all share the traversal
+        release.countDown();
+        int admitted = 0;
+        int rejected = 0;
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            final int status = response.get(10, TimeUnit.SECONDS).statusCode();
+            if (status == 200) {
+                admitted++;
+            } else if (status == 503) {
+                rejected++;
+            }
+        }
+        assertEquals(PERMITS, admitted);
+        assertEquals(CALLERS, rejected);
+    }
+
+    private CompletableFuture<HttpResponse<String>> get(String query) {
+        final HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/employee/" + JOHN_LENNON_ID + "/reporting-structure" + query)).build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void awaitArrivals(int expected) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (arrivals.get() < expected) {
+            assertTrue("Requests were not admitted in time", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
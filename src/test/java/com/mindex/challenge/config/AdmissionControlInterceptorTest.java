@@ -0,0 +1,258 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.exceptions.RateLimitExceededException;
+import com.mindex.challenge.exceptions.ServerOverloadedException;
+import com.mindex.challenge.service.impl.OrgSizeIndex;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link AdmissionControlInterceptor}.
+ *
+ * @author Robert Heinbokel
+ */
+public class AdmissionControlInterceptorTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-03-01T12:00:00Z"), ZoneOffset.UTC);
+
+    private OrgSizeIndex orgSizeIndex;
+
+    private HandlerMethod plainHandler;
+
+    private HandlerMethod traversalHandler;
+
+    private HandlerMethod coalescedHandler;
+
+    @Before
+    public void setUp() throws NoSuchMethodException {
+        orgSizeIndex = new OrgSizeIndex();
+        final Handlers handlers = new Handlers();
+        plainHandler = new HandlerMethod(handlers, Handlers.class.getMethod("plain"));
+        traversalHandler = new HandlerMethod(handlers, Handlers.class.getMethod("traversal", String.class));
+        coalescedHandler = new HandlerMethod(handlers, Handlers.class.getMethod("coalesced", String.class));
+    }
+
+    @Test
+    public void testPreHandle_RejectsBeyondConcurrencyLimitUntilCompleted() {
+        // given
+        final AdmissionControlInterceptor interceptor = interceptor(1, 1, 100, 1000, 1000);
+        final MockHttpServletRequest first = request("/employee", "/employee", null);
+        interceptor.preHandle(first, new MockHttpServletResponse(), plainHandler);
+
+        // when / then
+        assertThrows(ServerOverloadedException.class, () ->
+                interceptor.preHandle(request("/employee", "/employee", null), new MockHttpServletResponse(), plainHandler));
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), plainHandler, null);
+        assertTrue(interceptor.preHandle(request("/employee", "/employee", null), new MockHttpServletResponse(), plainHandler));
+    }
+
+    @Test
+    public void testPreHandle_LimitsEachEndpointSeparately() {
+        // given
+        final AdmissionControlInterceptor interceptor = interceptor(1, 1, 100, 1000, 1000);
+        interceptor.preHandle(request("/employee", "/employee", null), new MockHttpServletResponse(), plainHandler);
+
+        // when
+        final boolean otherEndpoint = interceptor.preHandle(request("/compensation", "/compensation", null),
+                new MockHttpServletResponse(), plainHandler);
+
+        // then
+        assertTrue(otherEndpoint);
+    }
+
+    @Test
+    public void testPreHandle_RejectsTraversalsBeyondReportsInFlight() {
+        // given
+        final AdmissionControlInterceptor interceptor = interceptor(10, 10, 100, 1000, 1000);
+        recordSize("large", 80);
+        recordSize("medium", 30);
+        recordSize("small", 10);
+        interceptor.preHandle(traversal("large"), new MockHttpServletResponse(), traversalHandler);
+
+        // when / then
+        assertThrows(ServerOverloadedException.class, () ->
+                interceptor.preHandle(traversal("medium"), new MockHttpServletResponse(), traversalHandler));
+        assertTrue(interceptor.preHandle(traversal("small"), new MockHttpServletResponse(), traversalHandler));
+    }
+
+    @Test
+    public void testPreHandle_AdmitsTraversalLargerThanReportsInFlightWhenIdle() {
+        // given
+        final AdmissionControlInterceptor interceptor = interceptor(10, 10, 100, 1000, 1000);
+        recordSize("huge", 500);
+
+        // when
+        final boolean admitted = interceptor.preHandle(traversal("huge"), new MockHttpServletResponse(), traversalHandler);
+
+        // then
+        assertTrue(admitted);
+    }
+
+    @Test
+    public void testPreHandle_ChargesClientsByEstimatedReports() {
+        // given
+        final AdmissionControlInterceptor interceptor = interceptor(10, 10, 100_000, 10, 3);
+        recordSize("large", 20);
+        interceptor.preHandle(traversal("large"), new MockHttpServletResponse(), traversalHandler);
+
+        // when / then the traversal cost 1 + 20 / 10 tokens, exhausting the bucket
+        assertThrows(RateLimitExceededException.class, () ->
+                interceptor.preHandle(request("/employee", "/employee", null), new MockHttpServletResponse(), plainHandler));
+    }
+
+    @Test
+    public void testPreHandle_IdenticalCoalescedTraversals_ShareOneReservation() {
+        // given
+        final AdmissionControlInterceptor interceptor = interceptor(10, 60, 100, 1000, 1000);
+        recordSize("large", 80);
+        recordSize("medium", 30);
+        final MockHttpServletRequest first = traversal("large");
+        interceptor.preHandle(first, new MockHttpServletResponse(), coalescedHandler);
+
+        // when
+        final List<MockHttpServletRequest> joined = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            final MockHttpServletRequest request = traversal("large");
+            assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), coalescedHandler));
+            joined.add(request);
+        }
+
+        // then a different traversal is still limited, until every request sharing the reservation completed
+        assertThrows(ServerOverloadedException.class, () ->
+                interceptor.preHandle(traversal("medium"), new MockHttpServletResponse(), coalescedHandler));
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), coalescedHandler, null);
+        for (MockHttpServletRequest request : joined.subList(1, joined.size())) {
+            interceptor.afterCompletion(request, new MockHttpServletResponse(), coalescedHandler, null);
+        }
+        assertThrows(ServerOverloadedException.class, () ->
+                interceptor.preHandle(traversal("medium"), new MockHttpServletResponse(), coalescedHandler));
+        interceptor.afterCompletion(joined.get(0), new MockHttpServletResponse(), coalescedHandler, null);
+        assertTrue(interceptor.preHandle(traversal("medium"), new MockHttpServletResponse(), coalescedHandler));
+    }
+
+    @Test
+    public void testPreHandle_FloodOfIdenticalCoalescedTraversals_IsLimitedByPermits() {
+        // given
+        final AdmissionControlInterceptor interceptor = interceptor(10, 2, 100_000, 1000, 1000);
+        recordSize("large", 80);
+        final MockHttpServletRequest first = traversal("large");
+        interceptor.preHandle(first, new MockHttpServletResponse(), coalescedHandler);
+        interceptor.preHandle(traversal("large"), new MockHttpServletResponse(), coalescedHandler);
+
+        // when / then each identical request still takes a permit of its own
+        for (int i = 0; i < 50; i++) {
+            assertThrows(ServerOverloadedException.class, () ->
+                    interceptor.preHandle(traversal("large"), new MockHttpServletResponse(), coalescedHandler));
+        }
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), coalescedHandler, null);
+        assertTrue(interceptor.preHandle(traversal("large"), new MockHttpServletResponse(), coalescedHandler));
+    }
+
+    @Test
+    public void testPreHandle_JoiningCoalescedTraversal_CostsAsMuchAsTheFirst() {
+        // given
+        final AdmissionControlInterceptor interceptor = interceptor(10, 10, 100_000, 10, 5);
+        recordSize("large", 20);
+        interceptor.preHandle(traversal("large"), new MockHttpServletResponse(), coalescedHandler);
+
+        // when / then the first request cost 1 + 20 / 10 tokens, so joining it doesn't fit in the remaining tokens
+        assertThrows(RateLimitExceededException.class, () ->
+                interceptor.preHandle(traversal("large"), new MockHttpServletResponse(), coalescedHandler));
+    }
+
+    @Test
+    public void testPreHandle_IdenticalTraversalAfterHierarchyChange_IsNotShared() {
+        // given
+        final AdmissionControlInterceptor interceptor = interceptor(10, 10, 81, 1000, 1000);
+        recordSize("large", 80);
+        interceptor.preHandle(traversal("large"), new MockHttpServletResponse(), coalescedHandler);
+        assertTrue(interceptor.preHandle(traversal("large"), new MockHttpServletResponse(), coalescedHandler));
+
+        // when
+        orgSizeIndex.invalidate();
+
+        // then the request starts a traversal of its own, so it needs a reservation of its own
+        assertThrows(ServerOverloadedException.class, () ->
+                interceptor.preHandle(traversal("large"), new MockHttpServletResponse(), coalescedHandler));
+    }
+
+    @Test
+    public void testPreHandle_TraversalsWithDifferentQueries_AreNotShared() {
+        // given
+        final AdmissionControlInterceptor interceptor = interceptor(10, 10, 100, 1000, 1000);
+        recordSize("large", 80);
+        final MockHttpServletRequest withDetails = traversal("large");
+        withDetails.setQueryString("includeDirectReportDetails=true");
+        interceptor.preHandle(withDetails, new MockHttpServletResponse(), coalescedHandler);
+
+        // when / then
+        assertThrows(ServerOverloadedException.class, () ->
+                interceptor.preHandle(traversal("large"), new MockHttpServletResponse(), coalescedHandler));
+    }
+
+    @Test
+    public void testAfterConcurrentHandlingStarted_ReleasesAdmissionOnce() {
+        // given
+        final AdmissionControlInterceptor interceptor = interceptor(1, 1, 100, 1000, 1000);
+        final MockHttpServletRequest first = request("/employee", "/employee", null);
+        interceptor.preHandle(first, new MockHttpServletResponse(), plainHandler);
+
+        // when
+        interceptor.afterConcurrentHandlingStarted(first, new MockHttpServletResponse(), plainHandler);
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), plainHandler, null);
+
+        // then only a single permit was released
+        assertTrue(interceptor.preHandle(request("/employee", "/employee", null), new MockHttpServletResponse(), plainHandler));
+        assertThrows(ServerOverloadedException.class, () ->
+                interceptor.preHandle(request("/employee", "/employee", null), new MockHttpServletResponse(), plainHandler));
+    }
+
+    private AdmissionControlInterceptor interceptor(int maxConcurrent, int maxConcurrentTraversals, long maxReportsInFlight,
+                                                    int reportsPerToken, long clientBurst) {
+        return new AdmissionControlInterceptor(maxConcurrent, maxConcurrentTraversals, maxReportsInFlight, reportsPerToken,
+                new ClientRateLimiter(clientBurst, 1, 100, CLOCK), orgSizeIndex);
+    }
+
+    private void recordSize(String employeeId, int numberOfReports) {
+        orgSizeIndex.record(employeeId, numberOfReports, orgSizeIndex.generation());
+    }
+
+    private static MockHttpServletRequest traversal(String employeeId) {
+        return request("/employee/" + employeeId + "/reporting-structure", "/employee/{id}/reporting-structure",
+                Map.of("id", employeeId));
+    }
+
+    private static MockHttpServletRequest request(String uri, String pattern, Map<String, String> pathVariables) {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, pathVariables);
+        return request;
+    }
+
+    public static class Handlers {
+        public void plain() {
+        }
+
+        @TraversesReportingStructure("id")
+        public void traversal(String id) {
+        }
+
+        @TraversesReportingStructure(value = "id", coalesced = true)
+        public void coalesced(String id) {
+        }
+    }
+}
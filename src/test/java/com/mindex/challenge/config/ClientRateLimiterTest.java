@@ -0,0 +1,111 @@
+package com.mindex.challenge.config;
+
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link ClientRateLimiter}.
+ *
+ * @author Robert Heinbokel
+ */
+public class ClientRateLimiterTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-01T12:00:00Z");
+
+    @Test
+    public void testTryAcquire_AllowsBurstThenRefillsAtRate() {
+        // given
+        final MutableClock clock = new MutableClock(NOW);
+        final ClientRateLimiter limiter = new ClientRateLimiter(3, 2, 100, clock);
+
+        // when
+        final boolean withinBurst = limiter.tryAcquire("client", 3);
+        final boolean overBurst = limiter.tryAcquire("client", 1);
+        clock.instant = NOW.plusMillis(499);
+        final boolean beforeRefill = limiter.tryAcquire("client", 1);
+        clock.instant = NOW.plusMillis(500);
+        final boolean afterRefill = limiter.tryAcquire("client", 1);
+
+        // then
+        assertTrue(withinBurst);
+        assertFalse(overBurst);
+        assertFalse(beforeRefill);
+        assertTrue(afterRefill);
+    }
+
+    @Test
+    public void testTryAcquire_LimitsEachClientSeparately() {
+        // given
+        final ClientRateLimiter limiter = new ClientRateLimiter(1, 1, 100, Clock.fixed(NOW, ZoneOffset.UTC));
+        limiter.tryAcquire("client", 1);
+
+        // when
+        final boolean otherClient = limiter.tryAcquire("other", 1);
+
+        // then
+        assertTrue(otherClient);
+        assertFalse(limiter.tryAcquire("client", 1));
+    }
+
+    @Test
+    public void testTryAcquire_CapsCostAtBurst() {
+        // given
+        final ClientRateLimiter limiter = new ClientRateLimiter(5, 1, 100, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        // when
+        final boolean expensive = limiter.tryAcquire("client", 50);
+
+        // then
+        assertTrue(expensive);
+        assertFalse(limiter.tryAcquire("client", 1));
+    }
+
+    @Test
+    public void testTryAcquire_DropsIdleClientsBeyondMaxClients() {
+        // given
+        final MutableClock clock = new MutableClock(NOW);
+        final ClientRateLimiter limiter = new ClientRateLimiter(1, 1, 1, clock);
+        limiter.tryAcquire("idle", 1);
+        limiter.tryAcquire("busy", 1);
+        clock.instant = NOW.plusSeconds(1);
+        limiter.tryAcquire("busy", 1);
+
+        // when
+        clock.instant = NOW.plusSeconds(2);
+        limiter.tryAcquire("new", 1);
+
+        // then the idle client's bucket was dropped and starts out full again, as it would have been anyway
+        assertTrue(limiter.tryAcquire("idle", 1));
+        assertFalse(limiter.tryAcquire("idle", 1));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
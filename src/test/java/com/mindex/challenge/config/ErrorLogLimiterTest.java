@@ -0,0 +1,104 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.data.ErrorLogStats;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link ErrorLogLimiter}.
+ *
+ * @author Robert Heinbokel
+ */
+public class ErrorLogLimiterTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-01T12:00:00Z");
+
+    @Test
+    public void testAcquire_SuppressesBeyondMaxPerWindowAndReportsOnNextWindow() {
+        // given
+        final MutableClock clock = new MutableClock(NOW);
+        final ErrorLogLimiter limiter = new ErrorLogLimiter(2, Duration.ofSeconds(1), clock);
+
+        // when
+        final long first = limiter.acquire("ResourceNotFoundException");
+        final long second = limiter.acquire("ResourceNotFoundException");
+        final long third = limiter.acquire("ResourceNotFoundException");
+        final long fourth = limiter.acquire("ResourceNotFoundException");
+        clock.instant = NOW.plusSeconds(1);
+        final long nextWindow = limiter.acquire("ResourceNotFoundException");
+
+        // then
+        assertEquals(0, first);
+        assertEquals(0, second);
+        assertEquals(-1, third);
+        assertEquals(-1, fourth);
+        assertEquals(2, nextWindow);
+    }
+
+    @Test
+    public void testAcquire_LimitsEachTypeSeparately() {
+        // given
+        final ErrorLogLimiter limiter = new ErrorLogLimiter(1, Duration.ofSeconds(1), Clock.fixed(NOW, ZoneOffset.UTC));
+        limiter.acquire("ResourceNotFoundException");
+
+        // when
+        final long otherType = limiter.acquire("DuplicateEntityException");
+
+        // then
+        assertEquals(0, otherType);
+        assertEquals(-1, limiter.acquire("ResourceNotFoundException"));
+    }
+
+    @Test
+    public void testSnapshot_CountsEveryOccurrence() {
+        // given
+        final ErrorLogLimiter limiter = new ErrorLogLimiter(3, Duration.ofSeconds(1), Clock.fixed(NOW, ZoneOffset.UTC));
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire("ResourceNotFoundException");
+        }
+        limiter.acquire("DuplicateEntityException");
+
+        // when
+        final List<ErrorLogStats> stats = limiter.snapshot();
+
+        // then
+        assertEquals(2, stats.size());
+        assertEquals("DuplicateEntityException", stats.get(0).getType());
+        assertEquals(1, stats.get(0).getTotal());
+        assertEquals(0, stats.get(0).getSuppressed());
+        assertEquals("ResourceNotFoundException", stats.get(1).getType());
+        assertEquals(10, stats.get(1).getTotal());
+        assertEquals(7, stats.get(1).getSuppressed());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
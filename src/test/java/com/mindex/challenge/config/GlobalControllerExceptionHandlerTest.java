@@ -3,18 +3,26 @@ package com.mindex.challenge.config;
 import com.mindex.challenge.exceptions.CircularReferenceException;
 import com.mindex.challenge.exceptions.DuplicateEntityException;
 import com.mindex.challenge.exceptions.ErrorDetails;
+import com.mindex.challenge.exceptions.IdempotencyKeyReuseException;
+import com.mindex.challenge.exceptions.InvalidReportingRelationshipException;
+import com.mindex.challenge.exceptions.RateLimitExceededException;
 import com.mindex.challenge.exceptions.ResourceNotFoundException;
+import com.mindex.challenge.exceptions.ServerOverloadedException;
 import com.mindex.challenge.exceptions.UnexpectedDatabaseException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
@@ -32,7 +40,7 @@ public class GlobalControllerExceptionHandlerTest {
 
     @Before
     public void setUp() {
-        exceptionHandler = new GlobalControllerExceptionHandler();
+        exceptionHandler = new GlobalControllerExceptionHandler(new ErrorLogLimiter(10, Duration.ofSeconds(1)));
         request = mock(HttpServletRequest.class);
         Mockito.when(request.getRequestURI()).thenReturn("/test-uri"); // Can't just stub the value so need to mock the response from this method
     }
@@ -50,6 +58,27 @@ public class GlobalControllerExceptionHandlerTest {
         assertEquals("/test-uri", response.getBody().getPath());
     }
 
+    @Test
+    public void testHandleMethodArgumentTypeMismatchException() {
+        MethodArgumentTypeMismatchException exception = new MethodArgumentTypeMismatchException("2024-02-30", LocalDate.class, "from", null, null);
+
+        ResponseEntity<ErrorDetails> response = exceptionHandler.handleMethodArgumentTypeMismatchException(exception, request);
+
+        assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatusCode().value());
+        assertEquals("Validation error", response.getBody().getMessage());
+        assertEquals("from: Invalid value '2024-02-30'", response.getBody().getError());
+    }
+
+    @Test
+    public void testExpectedOutcomeExceptions_DoNotCaptureStackTraces() {
+        ResourceNotFoundException notFound = new ResourceNotFoundException("Employee not found");
+        DuplicateEntityException duplicate = new DuplicateEntityException("Duplicate entity found");
+
+        assertEquals(0, notFound.getStackTrace().length);
+        assertEquals(0, duplicate.getStackTrace().length);
+        assertEquals("Employee not found", notFound.getMessage());
+    }
+
     @Test
     public void testHandleDuplicateEntityException() {
         DuplicateEntityException exception = new DuplicateEntityException("Duplicate entity found");
@@ -62,6 +91,28 @@ public class GlobalControllerExceptionHandlerTest {
         assertEquals("/test-uri", response.getBody().getPath());
     }
 
+    @Test
+    public void testHandleIdempotencyKeyReuseException() {
+        IdempotencyKeyReuseException exception = new IdempotencyKeyReuseException("Key reused");
+
+        ResponseEntity<ErrorDetails> response = exceptionHandler.handleIdempotencyKeyReuseException(exception, request);
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY.value(), response.getStatusCode().value());
+        assertEquals("Idempotency key reuse", response.getBody().getMessage());
+        assertEquals("Key reused", response.getBody().getError());
+    }
+
+    @Test
+    public void testHandleInvalidReportingRelationshipException() {
+        InvalidReportingRelationshipException exception = new InvalidReportingRelationshipException("Would create a cycle");
+
+        ResponseEntity<ErrorDetails> response = exceptionHandler.handleInvalidReportingRelationshipException(exception, request);
+
+        assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatusCode().value());
+        assertEquals("Invalid reporting relationship", response.getBody().getMessage());
+        assertEquals("Would create a cycle", response.getBody().getError());
+    }
+
     @Test
     public void testHandleResourceNotFoundException() {
         ResourceNotFoundException exception = new ResourceNotFoundException("Employee not found");
@@ -84,6 +135,30 @@ public class GlobalControllerExceptionHandlerTest {
         assertEquals("Database error", response.getBody().getError());
     }
 
+    @Test
+    public void testHandleRateLimitExceededException() {
+        RateLimitExceededException exception = new RateLimitExceededException("Rate limit exceeded for client: 127.0.0.1");
+
+        ResponseEntity<ErrorDetails> response = exceptionHandler.handleRateLimitExceededException(exception, request);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatusCode().value());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("Rate limit exceeded", response.getBody().getMessage());
+        assertEquals("Rate limit exceeded for client: 127.0.0.1", response.getBody().getError());
+    }
+
+    @Test
+    public void testHandleServerOverloadedException() {
+        ServerOverloadedException exception = new ServerOverloadedException("Too many concurrent requests to: GET /employee");
+
+        ResponseEntity<ErrorDetails> response = exceptionHandler.handleServerOverloadedException(exception, request);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), response.getStatusCode().value());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("Server overloaded", response.getBody().getMessage());
+        assertEquals("Too many concurrent requests to: GET /employee", response.getBody().getError());
+    }
+
     @Test
     public void testHandleCircularReferenceException() {
         CircularReferenceException exception = new CircularReferenceException("Circular reference detected");
@@ -0,0 +1,94 @@
+package com.mindex.challenge.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Integration tests for the response formats and compression configured in {@link JacksonConfig} and
+ * application.properties.
+ *
+ * @author Robert Heinbokel
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class JacksonConfigTest {
+
+    private static final String JOHN_LENNON_ID = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    private String reportingStructureUrl;
+
+    @Before
+    public void setup() {
+        reportingStructureUrl = "http://localhost:" + port + "/employee/" + JOHN_LENNON_ID + "/reporting-structure?includeDirectReportDetails=true";
+    }
+
+    @Test
+    public void testReportingStructure_NegotiatesCborAndSmile() throws Exception {
+        // given
+        final JsonNode json = new ObjectMapper().readTree(get("application/json", false).body());
+
+        // when
+        final HttpResponse<byte[]> cbor = get("application/cbor", false);
+        final HttpResponse<byte[]> smile = get("application/x-jackson-smile", false);
+
+        // then
+        assertEquals("application/cbor", cbor.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals(json, new CBORMapper().readTree(cbor.body()));
+        assertEquals("application/x-jackson-smile", smile.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals(json, new SmileMapper().readTree(smile.body()));
+        assertTrue(cbor.body().length < json.toString().length());
+    }
+
+    @Test
+    public void testReportingStructure_CompressedWhenAccepted() throws Exception {
+        // when
+        final HttpResponse<byte[]> compressed = get("application/json", true);
+        final HttpResponse<byte[]> uncompressed = get("application/json", false);
+
+        // then
+        assertEquals("gzip", compressed.headers().firstValue("Content-Encoding").orElseThrow());
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(compressed.body()))) {
+            assertEquals(new ObjectMapper().readTree(uncompressed.body()), new ObjectMapper().readTree(body));
+        }
+        assertFalse(uncompressed.headers().firstValue("Content-Encoding").isPresent());
+    }
+
+    private HttpResponse<byte[]> get(String accept, boolean gzip) throws IOException, InterruptedException {
+        final HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(reportingStructureUrl)).header("Accept", accept);
+        if (gzip) {
+            request.header("Accept-Encoding", "gzip");
+        }
+        return send(request.build());
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request) throws IOException, InterruptedException {
+        final HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, response.statusCode());
+        return response;
+    }
+}
@@ -0,0 +1,113 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.ChallengeApplication;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.EmployeeService;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the storage backends of the embedded Mongo server, restarting the application against the same data.
+ *
+ * @author Robert Heinbokel
+ */
+public class MongoConfigTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testH2Backend_KeepsWritesAcrossRestartsAndSkipsBootstrap() {
+        // given
+        final File file = new File(temporaryFolder.getRoot(), "nested/challenge.mv");
+        final String employeeId;
+        final long bootstrappedEmployees;
+        try (ConfigurableApplicationContext context = start("h2", file)) {
+            bootstrappedEmployees = context.getBean(EmployeeRepository.class).count();
+            final Employee employee = new Employee();
+            employee.setFirstName("Durable");
+            employee.setLastName("Tester");
+            employeeId = context.getBean(EmployeeService.class).create(employee).getEmployeeId();
+        }
+
+        // when
+        try (ConfigurableApplicationContext context = start("h2", file)) {
+            final EmployeeRepository employeeRepository = context.getBean(EmployeeRepository.class);
+
+            // then - the created employee survived and the import did not run again
+            assertTrue(file.isFile());
+            assertNotNull(employeeRepository.findByEmployeeId(employeeId));
+            assertEquals(bootstrappedEmployees + 1, employeeRepository.count());
+        }
+    }
+
+    @Test
+    public void testMemoryBackend_StartsEmptyAndBootstraps() {
+        // given
+        final File file = new File(temporaryFolder.getRoot(), "unused.mv");
+        final long bootstrappedEmployees;
+        try (ConfigurableApplicationContext context = start("memory", file)) {
+            bootstrappedEmployees = context.getBean(EmployeeRepository.class).count();
+            final Employee employee = new Employee();
+            employee.setFirstName("Transient");
+            context.getBean(EmployeeService.class).create(employee);
+        }
+
+        // when
+        try (ConfigurableApplicationContext context = start("memory", file)) {
+            // then
+            assertTrue(bootstrappedEmployees > 0);
+            assertEquals(bootstrappedEmployees, context.getBean(EmployeeRepository.class).count());
+            assertFalse(file.exists());
+        }
+    }
+
+    @Test
+    public void testConfiguredUri_UsesExternalServerInsteadOfEmbedded() {
+        // given - a stand-in for a standalone mongod
+        final MongoServer external = new MongoServer(new MemoryBackend());
+        final String connectionString = external.bindAndGetConnectionString();
+        try {
+            // when
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ChallengeApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--mongo.uri=" + connectionString, "--mongo.database=external", "--mongo.pool.max-size=7")) {
+
+                // then - no embedded server was started, and the employees were imported into the external database
+                assertTrue(context.getBeansOfType(MongoServer.class).isEmpty());
+                final long employees = context.getBean(EmployeeRepository.class).count();
+                assertTrue(employees > 0);
+                assertEquals(7, context.getBean(MongoConnectionPoolMetrics.class).snapshot().getMaxSize());
+                try (MongoClient client = MongoClients.create(connectionString)) {
+                    assertEquals(employees, client.getDatabase("external").getCollection("employee").countDocuments());
+                    assertTrue(StreamSupport.stream(client.listDatabaseNames().spliterator(), false).noneMatch("test"::equals));
+                }
+            }
+        } finally {
+            external.shutdownNow();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String backend, File file) {
+        return new SpringApplicationBuilder(ChallengeApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--mongo.backend=" + backend, "--mongo.h2.file=" + file.getAbsolutePath());
+    }
+}
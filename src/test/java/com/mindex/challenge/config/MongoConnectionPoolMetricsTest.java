@@ -0,0 +1,89 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.data.ConnectionPoolStats;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ConnectionPoolSettings;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link MongoConnectionPoolMetrics}.
+ *
+ * @author Robert Heinbokel
+ */
+public class MongoConnectionPoolMetricsTest {
+
+    private static final ServerId SERVER_ID = new ServerId(new ClusterId(), new ServerAddress("localhost", 27017));
+
+    private MongoConnectionPoolMetrics metrics;
+
+    @Before
+    public void setUp() {
+        metrics = new MongoConnectionPoolMetrics();
+        metrics.connectionPoolCreated(new ConnectionPoolCreatedEvent(SERVER_ID, ConnectionPoolSettings.builder().maxSize(5).build()));
+    }
+
+    @Test
+    public void testSnapshot_TracksConnectionsCheckoutsAndWaits() {
+        // given - two connections, one checked out and one returned, plus a check out still waiting
+        final ConnectionId first = new ConnectionId(SERVER_ID, 1, null);
+        final ConnectionId second = new ConnectionId(SERVER_ID, 2, null);
+        metrics.connectionCreated(new ConnectionCreatedEvent(first));
+        metrics.connectionCreated(new ConnectionCreatedEvent(second));
+        metrics.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(SERVER_ID, 1));
+        metrics.connectionCheckedOut(new ConnectionCheckedOutEvent(first, 1, TimeUnit.MILLISECONDS.toNanos(2)));
+        metrics.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(SERVER_ID, 2));
+        metrics.connectionCheckedOut(new ConnectionCheckedOutEvent(second, 2, TimeUnit.MILLISECONDS.toNanos(6)));
+        metrics.connectionCheckedIn(new ConnectionCheckedInEvent(second, 2));
+        metrics.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(SERVER_ID, 3));
+
+        // when
+        ConnectionPoolStats stats = metrics.snapshot();
+
+        // then
+        assertEquals(5, stats.getMaxSize());
+        assertEquals(2, stats.getSize());
+        assertEquals(1, stats.getCheckedOut());
+        assertEquals(1, stats.getWaitQueueSize());
+        assertEquals(2, stats.getTotalCheckouts());
+        assertEquals(4.0, stats.getAverageCheckoutWaitMillis(), 0.001);
+        assertEquals(6.0, stats.getMaxCheckoutWaitMillis(), 0.001);
+    }
+
+    @Test
+    public void testSnapshot_CountsFailuresAndTimeouts() {
+        // given
+        final ConnectionId connection = new ConnectionId(SERVER_ID, 1, null);
+        metrics.connectionCreated(new ConnectionCreatedEvent(connection));
+        metrics.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(SERVER_ID, 1));
+        metrics.connectionCheckOutFailed(new ConnectionCheckOutFailedEvent(SERVER_ID, 1, ConnectionCheckOutFailedEvent.Reason.TIMEOUT, 0));
+        metrics.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(SERVER_ID, 2));
+        metrics.connectionCheckOutFailed(new ConnectionCheckOutFailedEvent(SERVER_ID, 2, ConnectionCheckOutFailedEvent.Reason.CONNECTION_ERROR, 0));
+        metrics.connectionClosed(new ConnectionClosedEvent(connection, ConnectionClosedEvent.Reason.ERROR));
+
+        // when
+        ConnectionPoolStats stats = metrics.snapshot();
+
+        // then
+        assertEquals(0, stats.getSize());
+        assertEquals(0, stats.getWaitQueueSize());
+        assertEquals(0, stats.getTotalCheckouts());
+        assertEquals(2, stats.getTotalCheckoutFailures());
+        assertEquals(1, stats.getTotalCheckoutTimeouts());
+        assertEquals(0.0, stats.getAverageCheckoutWaitMillis(), 0.001);
+    }
+}
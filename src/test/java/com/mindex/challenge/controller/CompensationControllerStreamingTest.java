@@ -0,0 +1,116 @@
+package com.mindex.challenge.controller;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.requests.CompensationHistoryQuery;
+import com.mindex.challenge.service.ICompensationService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+/**
+ * Integration tests for the compensation history streamed by {@link CompensationController}, over a real connection.
+ *
+ * @author Robert Heinbokel
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class CompensationControllerStreamingTest {
+
+    private static final String EMPLOYEE_ID = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @MockBean
+    private ICompensationService compensationService;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    public void testReadAll_NegotiatesJsonCborAndSmile() throws Exception {
+        // given
+        Mockito.when(compensationService.readHistory(anyString(), any(CompensationHistoryQuery.class)))
+                .thenAnswer(invocation -> compensations(3));
+
+        // when
+        final HttpResponse<byte[]> json = get("*/*");
+        final HttpResponse<byte[]> cbor = get("application/cbor");
+        final HttpResponse<byte[]> smile = get("application/x-jackson-smile");
+
+        // then
+        assertEquals("application/json", json.headers().firstValue("Content-Type").orElseThrow());
+        final JsonNode history = new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS).readTree(json.body());
+        assertEquals(3, history.size());
+        assertEquals("application/cbor", cbor.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals(history, new CBORMapper().readTree(cbor.body()));
+        assertEquals("application/x-jackson-smile", smile.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals(history, new SmileMapper().readTree(smile.body()));
+    }
+
+    @Test
+    public void testReadAll_FailureBeforeAnythingWasSent_RespondsWithError() throws Exception {
+        // given
+        Mockito.when(compensationService.readHistory(anyString(), any(CompensationHistoryQuery.class)))
+                .thenAnswer(invocation -> Stream.concat(compensations(3), failure()));
+
+        // when
+        final HttpResponse<byte[]> response = get("application/json");
+
+        // then
+        assertEquals(500, response.statusCode());
+        assertEquals("application/json", response.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals("Cursor failed", new ObjectMapper().readTree(response.body()).get("error").asText());
+    }
+
+    @Test
+    public void testReadAll_FailureAfterPartOfHistoryWasSent_AbortsConnection() {
+        // given a history long enough to commit the response before reading fails
+        Mockito.when(compensationService.readHistory(anyString(), any(CompensationHistoryQuery.class)))
+                .thenAnswer(invocation -> Stream.concat(compensations(2000), failure()));
+
+        // when / then the client sees the response was cut short, rather than a complete looking history
+        assertThrows(IOException.class, () -> get("application/json"));
+    }
+
+    private HttpResponse<byte[]> get(String accept) throws IOException, InterruptedException {
+        final HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/employee/" + EMPLOYEE_ID + "/compensation")).header("Accept", accept).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static Stream<Compensation> compensations(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(day -> new Compensation(EMPLOYEE_ID, new BigDecimal("50000.55"), LocalDate.of(2000, 1, 1).plusDays(day)));
+    }
+
+    private static Stream<Compensation> failure() {
+        return Stream.<Compensation>generate(() -> {
+            throw new DataAccessResourceFailureException("Cursor failed");
+        }).limit(1);
+    }
+}
@@ -1,25 +1,38 @@
 package com.mindex.challenge.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.config.ErrorLogLimiter;
 import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.requests.CompensationCreateRequest;
+import com.mindex.challenge.data.requests.CompensationHistoryQuery;
 import com.mindex.challenge.service.ICompensationService;
+import com.mindex.challenge.service.IIdempotencyService;
+import com.mindex.challenge.service.impl.OrgSizeIndex;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Collections;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
@@ -33,6 +46,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  */
 @RunWith(SpringRunner.class)
 @WebMvcTest(CompensationController.class)
+@Import({ErrorLogLimiter.class, OrgSizeIndex.class}) // Used by the exception handler and interceptor the slice includes
 public class CompensationControllerTest {
 
     @Autowired
@@ -41,6 +55,9 @@ public class CompensationControllerTest {
     @MockBean
     private ICompensationService compensationService;
 
+    @MockBean
+    private IIdempotencyService idempotencyService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -48,11 +65,18 @@ public class CompensationControllerTest {
     private static final String EFFECTIVE_DATE_STRING = "2023-01-01";
     private static final BigDecimal SALARY = new BigDecimal("75000");
 
+    @Before
+    public void setUp() {
+        // Pass straight through to the wrapped operation, idempotency itself is covered by its own tests.
+        Mockito.when(idempotencyService.execute(any(), anyString(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
+    }
+
     @Test
     public void testReadAll_ValidEmployeeId_ReturnsOkAndValidBody() throws Exception {
         // given
         Compensation compensation = new Compensation(EMPLOYEE_ID, SALARY, LocalDate.parse(EFFECTIVE_DATE_STRING));
-        Mockito.when(compensationService.readAll(anyString())).thenReturn(Collections.singletonList(compensation));
+        Mockito.when(compensationService.readHistory(anyString(), any(CompensationHistoryQuery.class))).thenReturn(Stream.of(compensation));
 
         // when/then
         mockMvc.perform(get("/employee/{employeeId}/compensation", EMPLOYEE_ID))
@@ -60,7 +84,7 @@ public class CompensationControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].employeeId").value(EMPLOYEE_ID))
-                .andExpect(jsonPath("$[0].salary").value(SALARY.toString()))
+                .andExpect(content().string(containsString("\"salary\":75000.00"))) // Always two decimal places
                 .andExpect(jsonPath("$[0].effectiveDate").value(EFFECTIVE_DATE_STRING));
     }
 
@@ -75,10 +99,31 @@ public class CompensationControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON)) // Ensure JSON response
                 .andExpect(jsonPath("$.employeeId").value(EMPLOYEE_ID))
-                .andExpect(jsonPath("$.salary").value(SALARY.toString()))
+                .andExpect(content().string(containsString("\"salary\":75000.00"))) // Always two decimal places
                 .andExpect(jsonPath("$.effectiveDate").value(EFFECTIVE_DATE_STRING));
     }
 
+    @Test
+    public void testReadAsOf_ValidRequest_ReturnsOkAndValidBody() throws Exception {
+        // given
+        Compensation compensation = new Compensation(EMPLOYEE_ID, SALARY, LocalDate.parse(EFFECTIVE_DATE_STRING));
+        Mockito.when(compensationService.readAsOf(EMPLOYEE_ID, LocalDate.parse("2023-06-15"))).thenReturn(compensation);
+
+        // when/then
+        mockMvc.perform(get("/employee/{employeeId}/compensation/as-of/{date}", EMPLOYEE_ID, "2023-06-15"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.employeeId").value(EMPLOYEE_ID))
+                .andExpect(jsonPath("$.effectiveDate").value(EFFECTIVE_DATE_STRING));
+    }
+
+    @Test
+    public void testReadAsOf_InvalidDate_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/employee/{employeeId}/compensation/as-of/{date}", EMPLOYEE_ID, "15-06-2023"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Validation error"));
+    }
+
     @Test
     public void testCreate_ValidRequest_ReturnsCreatedAndValidBody() throws Exception {
         // given
@@ -96,10 +141,97 @@ public class CompensationControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.employeeId").value(EMPLOYEE_ID))
-                .andExpect(jsonPath("$.salary").value(SALARY.toString()))
+                .andExpect(content().string(containsString("\"salary\":75000.00"))) // Always two decimal places
                 .andExpect(jsonPath("$.effectiveDate").value(EFFECTIVE_DATE_STRING));
     }
 
+    @Test
+    public void testCreate_WithIdempotencyKey_ScopesKeyToEmployee() throws Exception {
+        // given
+        CompensationCreateRequest request = new CompensationCreateRequest();
+        request.setEffectiveDate(EFFECTIVE_DATE_STRING);
+        request.setSalary(SALARY);
+
+        Compensation expectedCompensation = new Compensation(EMPLOYEE_ID, SALARY, LocalDate.parse(EFFECTIVE_DATE_STRING));
+        Mockito.when(compensationService.create(any(CompensationCreateRequest.class), anyString())).thenReturn(expectedCompensation);
+
+        // when/then
+        mockMvc.perform(post("/employee/{employeeId}/compensation", EMPLOYEE_ID)
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employeeId").value(EMPLOYEE_ID));
+
+        Mockito.verify(idempotencyService).execute(eq("retry-1"), eq("compensation.create:" + EMPLOYEE_ID), any(), eq(Compensation.class), any());
+    }
+
+    @Test
+    public void testCreate_WithoutIdempotencyKey_PassesNullKey() throws Exception {
+        // given
+        CompensationCreateRequest request = new CompensationCreateRequest();
+        request.setEffectiveDate(EFFECTIVE_DATE_STRING);
+        request.setSalary(SALARY);
+
+        Mockito.when(compensationService.create(any(CompensationCreateRequest.class), anyString()))
+                .thenReturn(new Compensation(EMPLOYEE_ID, SALARY, LocalDate.parse(EFFECTIVE_DATE_STRING)));
+
+        // when/then
+        mockMvc.perform(post("/employee/{employeeId}/compensation", EMPLOYEE_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        Mockito.verify(idempotencyService).execute(isNull(), anyString(), any(), eq(Compensation.class), any());
+    }
+
+    @Test
+    public void testReadAll_WithFiltersAndPage_PassesQueryToService() throws Exception {
+        // given
+        Compensation first = new Compensation(EMPLOYEE_ID, SALARY, LocalDate.parse("2024-01-01"));
+        Compensation second = new Compensation(EMPLOYEE_ID, SALARY, LocalDate.parse("2023-01-01"));
+        Mockito.when(compensationService.readHistory(anyString(), any(CompensationHistoryQuery.class))).thenReturn(Stream.of(first, second));
+        ArgumentCaptor<CompensationHistoryQuery> query = ArgumentCaptor.forClass(CompensationHistoryQuery.class);
+
+        // when/then
+        mockMvc.perform(get("/employee/{employeeId}/compensation", EMPLOYEE_ID)
+                        .param("from", "2020-01-01")
+                        .param("to", "2024-12-31")
+                        .param("after", "2024-06-01")
+                        .param("order", "DESC")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].effectiveDate").value("2024-01-01"))
+                .andExpect(jsonPath("$[1].effectiveDate").value("2023-01-01"));
+
+        Mockito.verify(compensationService).readHistory(eq(EMPLOYEE_ID), query.capture());
+        assertEquals(LocalDate.parse("2020-01-01"), query.getValue().getFrom());
+        assertEquals(LocalDate.parse("2024-12-31"), query.getValue().getTo());
+        assertEquals(LocalDate.parse("2024-06-01"), query.getValue().getAfter());
+        assertEquals(Sort.Direction.DESC, query.getValue().getDirection());
+        assertEquals(Integer.valueOf(2), query.getValue().getLimit());
+    }
+
+    @Test
+    public void testReadAll_InvalidFromDate_ReturnsBadRequestAndErrorMessage() throws Exception {
+        mockMvc.perform(get("/employee/{employeeId}/compensation", EMPLOYEE_ID).param("from", "2024-02-30"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("from: Invalid value '2024-02-30'"))
+                .andExpect(jsonPath("$.message").value("Validation error"));
+    }
+
+    @Test
+    public void testReadAll_InvalidOrderAndLimit_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/employee/{employeeId}/compensation", EMPLOYEE_ID).param("order", "sideways"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("readAll.order: Order must be asc or desc"));
+
+        mockMvc.perform(get("/employee/{employeeId}/compensation", EMPLOYEE_ID).param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("readAll.limit: Limit must be at least 1"));
+    }
+
     @Test
     public void testReadAll_InvalidEmployeeId_ReturnsBadRequestAndErrorMessage() throws Exception {
         mockMvc.perform(get("/employee/{employeeId}/compensation", "invalid-uuid"))
@@ -109,6 +241,21 @@ public class CompensationControllerTest {
                 .andExpect(jsonPath("$.message").value("Validation error"));
     }
 
+    @Test
+    public void testCreate_SalaryWithTooManyDecimalPlaces_ReturnsBadRequest() throws Exception {
+        // given
+        CompensationCreateRequest request = new CompensationCreateRequest();
+        request.setEffectiveDate(EFFECTIVE_DATE_STRING);
+        request.setSalary(new BigDecimal("75000.125"));
+
+        // when/then
+        mockMvc.perform(post("/employee/{employeeId}/compensation", EMPLOYEE_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Salary must have at most 15 integer digits and 2 decimal places."));
+    }
+
     @Test
     public void testCreate_InvalidRequest_ReturnsBadRequestAndErrorMessage() throws Exception {
         // given
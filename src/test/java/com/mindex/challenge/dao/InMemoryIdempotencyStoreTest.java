@@ -0,0 +1,66 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.IdempotencyRecord;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit tests for {@link InMemoryIdempotencyStore}.
+ *
+ * @author Robert Heinbokel
+ */
+public class InMemoryIdempotencyStoreTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Test
+    public void testFind_ReturnsSavedRecord() {
+        // given
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(10, Duration.ofMinutes(5), Clock.fixed(NOW, ZoneOffset.UTC));
+        IdempotencyRecord record = new IdempotencyRecord("key", "fingerprint", "{}", NOW);
+
+        // when
+        store.save(record);
+
+        // then
+        assertSame(record, store.find("key"));
+        assertNull(store.find("other-key"));
+    }
+
+    @Test
+    public void testFind_ExpiredRecordIsNotReturned() {
+        // given
+        Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(10, Duration.ofMinutes(5), clock);
+
+        // when
+        store.save(new IdempotencyRecord("key", "fingerprint", "{}", NOW.minus(Duration.ofMinutes(6))));
+
+        // then
+        assertNull(store.find("key"));
+    }
+
+    @Test
+    public void testSave_EvictsOldestRecordsBeyondCapacity() {
+        // given
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(2, Duration.ofMinutes(5), Clock.fixed(NOW, ZoneOffset.UTC));
+
+        // when
+        store.save(new IdempotencyRecord("first", "fingerprint", "{}", NOW));
+        store.save(new IdempotencyRecord("second", "fingerprint", "{}", NOW));
+        store.save(new IdempotencyRecord("third", "fingerprint", "{}", NOW));
+
+        // then
+        assertNull(store.find("first"));
+        assertNotNull(store.find("second"));
+        assertNotNull(store.find("third"));
+    }
+}
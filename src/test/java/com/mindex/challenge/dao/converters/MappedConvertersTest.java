@@ -0,0 +1,127 @@
+package com.mindex.challenge.dao.converters;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests the hand-written Employee and Compensation converters against the default reflective mapping they replace.
+ *
+ * @author Robert Heinbokel
+ */
+public class MappedConvertersTest {
+
+    private MappingMongoConverter defaultConverter;
+
+    @Before
+    public void setUp() {
+        final MongoCustomConversions conversions = MongoCustomConversions.create(adapter -> {
+        });
+        final MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+
+        defaultConverter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        defaultConverter.setCustomConversions(conversions);
+        defaultConverter.afterPropertiesSet();
+    }
+
+    @Test
+    public void testEmployee_WritesSameDocumentAsDefaultMapping() {
+        // given
+        final Employee full = employee("16a596ae-edd3-4847-99fe-c4518e82c86f", "John", "Engineering",
+                List.of("b7839309-3348-463b-a7e3-5de1c168beb3", "03aa1462-ffa9-4978-901b-7c001562cf6f"));
+        final Employee sparse = employee("c0c2293d-16bd-4603-8e08-638a9d18b22c", null, null, null);
+        final Employee noReports = employee(new ObjectId().toHexString(), "Ringo", "Engineering", List.of());
+
+        for (Employee employee : List.of(full, sparse, noReports)) {
+            // when
+            final Document written = new EmployeeWriteConverter().convert(employee);
+
+            // then
+            assertEquals(defaultWrite(employee), written);
+        }
+    }
+
+    @Test
+    public void testEmployee_ReadsSameEmployeeAsDefaultMapping() {
+        // given
+        final Employee original = employee("16a596ae-edd3-4847-99fe-c4518e82c86f", "John", "Engineering", List.of("report-1"));
+        final Document stored = defaultWrite(original);
+
+        // when
+        final Employee read = new EmployeeReadConverter().convert(stored);
+
+        // then
+        final Employee expected = defaultConverter.read(Employee.class, stored);
+        assertEquals(expected.getEmployeeId(), read.getEmployeeId());
+        assertEquals(expected.getFirstName(), read.getFirstName());
+        assertNull(read.getLastName());
+        assertEquals(expected.getDepartment(), read.getDepartment());
+        assertEquals(expected.getDirectReportIds(), read.getDirectReportIds());
+        assertEquals(List.of("report-1"), read.getDirectReports().stream().map(Employee::getEmployeeId).toList());
+    }
+
+    @Test
+    public void testCompensation_WritesSameDocumentAsDefaultMapping() {
+        // given - generated, assigned ObjectId and assigned plain IDs
+        final Compensation generated = new Compensation("employee-1", new BigDecimal("123456.78"), LocalDate.of(2025, 2, 28));
+        final Compensation objectId = new Compensation(new ObjectId().toHexString(), "employee-1", 100, LocalDate.of(1999, 12, 31));
+        final Compensation plainId = new Compensation("compensation-1", "employee-2", Long.MAX_VALUE, null);
+
+        for (Compensation compensation : List.of(generated, objectId, plainId)) {
+            // when
+            final Document written = new CompensationWriteConverter().convert(compensation);
+
+            // then
+            assertEquals(defaultWrite(compensation), written);
+        }
+    }
+
+    @Test
+    public void testCompensation_ReadsSameCompensationAsDefaultMapping() {
+        // given
+        final Compensation original = new Compensation(new ObjectId().toHexString(), "employee-1", 12_345_678, LocalDate.of(2024, 3, 31));
+        final Document stored = defaultWrite(original);
+
+        // when
+        final Compensation read = new CompensationReadConverter().convert(stored);
+
+        // then
+        final Compensation expected = defaultConverter.read(Compensation.class, stored);
+        assertEquals(expected.getCompensationId(), read.getCompensationId());
+        assertEquals(original.getCompensationId(), read.getCompensationId());
+        assertEquals(expected.getEmployeeId(), read.getEmployeeId());
+        assertEquals(expected.getSalaryMinorUnits(), read.getSalaryMinorUnits());
+        assertEquals(expected.getEffectiveDate(), read.getEffectiveDate());
+    }
+
+    private Document defaultWrite(Object entity) {
+        final Document document = new Document();
+        defaultConverter.write(entity, document);
+        return document;
+    }
+
+    private static Employee employee(String employeeId, String firstName, String department, List<String> directReportIds) {
+        final Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        employee.setFirstName(firstName);
+        employee.setDepartment(department);
+        employee.setDirectReportIds(directReportIds);
+        return employee;
+    }
+}
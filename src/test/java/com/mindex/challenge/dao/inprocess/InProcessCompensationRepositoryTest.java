@@ -0,0 +1,178 @@
+package com.mindex.challenge.dao.inprocess;
+
+import com.mindex.challenge.dao.CompensationAnalyticsRepository.SalaryInEffect;
+import com.mindex.challenge.dao.CompensationBulkRepository.BulkInsertFailure;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.requests.CompensationHistoryQuery;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link InProcessCompensationRepository}.
+ *
+ * @author Robert Heinbokel
+ */
+public class InProcessCompensationRepositoryTest {
+
+    private static final String EMPLOYEE_ID = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+
+    private InProcessCompensationRepository repository;
+
+    @Before
+    public void setUp() {
+        repository = new InProcessCompensationRepository();
+        for (int month = 1; month <= 6; month++) {
+            repository.insert(compensation(EMPLOYEE_ID, LocalDate.of(2024, month, 1), 1000 * month));
+        }
+    }
+
+    @Test
+    public void testInsert_GeneratesIdAndRejectsDuplicateEffectiveDate() {
+        // given
+        final Compensation compensation = compensation("other", LocalDate.of(2024, 1, 1), 500);
+
+        // when
+        repository.insert(compensation);
+
+        // then
+        assertNotNull(compensation.getCompensationId());
+        try {
+            repository.insert(compensation("other", LocalDate.of(2024, 1, 1), 600));
+        } catch (DuplicateKeyException ex) {
+            assertEquals(1, repository.findByEmployeeId("other").size());
+            return;
+        }
+        throw new AssertionError("Expected a DuplicateKeyException");
+    }
+
+    @Test
+    public void testFindFirstInEffect_UsesFloorOfEffectiveDate() {
+        // when
+        final Compensation inEffect = repository.findFirstByEmployeeIdAndEffectiveDateLessThanEqualOrderByEffectiveDateDesc(
+                EMPLOYEE_ID, LocalDate.of(2024, 3, 15));
+
+        // then
+        assertEquals(LocalDate.of(2024, 3, 1), inEffect.getEffectiveDate());
+        assertNull(repository.findFirstByEmployeeIdAndEffectiveDateLessThanEqualOrderByEffectiveDateDesc(EMPLOYEE_ID, LocalDate.of(2023, 12, 31)));
+    }
+
+    @Test
+    public void testReturnedCompensations_AreCopies() {
+        // given
+        final Compensation read = repository.findByEmployeeIdAndEffectiveDate(EMPLOYEE_ID, LocalDate.of(2024, 1, 1));
+
+        // when
+        read.setSalary(new BigDecimal("1"));
+
+        // then
+        assertEquals(0, new BigDecimal("1000").compareTo(
+                repository.findByEmployeeIdAndEffectiveDate(EMPLOYEE_ID, LocalDate.of(2024, 1, 1)).getSalary()));
+    }
+
+    @Test
+    public void testSave_MovingEffectiveDateReindexes() {
+        // given
+        final Compensation compensation = repository.findByEmployeeIdAndEffectiveDate(EMPLOYEE_ID, LocalDate.of(2024, 6, 1));
+        compensation.setEffectiveDate(LocalDate.of(2024, 7, 1));
+
+        // when
+        repository.save(compensation);
+
+        // then
+        assertNull(repository.findByEmployeeIdAndEffectiveDate(EMPLOYEE_ID, LocalDate.of(2024, 6, 1)));
+        assertEquals(compensation.getCompensationId(),
+                repository.findByEmployeeIdAndEffectiveDate(EMPLOYEE_ID, LocalDate.of(2024, 7, 1)).getCompensationId());
+        assertEquals(6, repository.count());
+    }
+
+    @Test
+    public void testStreamHistory_AppliesRangeKeysetAndLimit() {
+        // given
+        final CompensationHistoryQuery query = new CompensationHistoryQuery(
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 1), Sort.Direction.DESC, 2);
+
+        // when
+        final List<LocalDate> dates = repository.streamHistory(EMPLOYEE_ID, query).map(Compensation::getEffectiveDate).toList();
+
+        // then
+        assertEquals(List.of(LocalDate.of(2024, 4, 1), LocalDate.of(2024, 3, 1)), dates);
+    }
+
+    @Test
+    public void testSalariesAsOf_ReturnsSalaryInEffectPerEmployee() {
+        // given
+        repository.insert(compensation("other", LocalDate.of(2024, 2, 1), 700));
+        repository.insert(compensation("future", LocalDate.of(2999, 1, 1), 900));
+
+        // when
+        final long[] salaries = repository.findSalariesAsOf(List.of(EMPLOYEE_ID, "other", "future", "missing"), LocalDate.of(2024, 2, 15));
+        final Map<String, Long> streamed = repository.streamSalariesAsOf(LocalDate.of(2024, 2, 15))
+                .collect(Collectors.toMap(SalaryInEffect::employeeId, SalaryInEffect::salaryMinorUnits));
+
+        // then
+        assertArrayEquals(new long[]{200_000, 70_000}, salaries);
+        assertEquals(Map.of(EMPLOYEE_ID, 200_000L, "other", 70_000L), streamed);
+    }
+
+    @Test
+    public void testInsertUnordered_ReportsDuplicatesAndWritesTheRest() {
+        // when
+        final Map<Integer, BulkInsertFailure> failures = repository.insertUnordered(List.of(
+                compensation(EMPLOYEE_ID, LocalDate.of(2024, 1, 1), 1),
+                compensation(EMPLOYEE_ID, LocalDate.of(2025, 1, 1), 2)));
+
+        // then
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0).duplicate());
+        assertNotNull(repository.findByEmployeeIdAndEffectiveDate(EMPLOYEE_ID, LocalDate.of(2025, 1, 1)));
+    }
+
+    @Test
+    public void testFindAllSorted_OrdersByEachPropertyInTurn() {
+        // given
+        repository.insert(compensation("0-first", LocalDate.of(2024, 3, 1), 3000));
+
+        // when
+        final List<Compensation> sorted = repository.findAll(Sort.by(Sort.Order.asc("employeeId"), Sort.Order.desc("salary")));
+
+        // then
+        assertEquals(7, sorted.size());
+        assertEquals("0-first", sorted.get(0).getEmployeeId());
+        assertEquals(List.of(6000L, 5000L, 4000L, 3000L, 2000L, 1000L),
+                sorted.subList(1, 7).stream().map(compensation -> compensation.getSalary().longValue()).toList());
+    }
+
+    @Test
+    public void testFindAllPaged_ReturnsCopiedSliceAndTotal() {
+        // when
+        final Page<Compensation> page = repository.findAll(PageRequest.of(1, 4, Sort.by("effectiveDate")));
+
+        // then
+        assertEquals(6, page.getTotalElements());
+        assertEquals(2, page.getTotalPages());
+        assertEquals(List.of(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 6, 1)),
+                page.getContent().stream().map(Compensation::getEffectiveDate).toList());
+        page.getContent().get(0).setSalary(BigDecimal.ZERO);
+        assertEquals(0, BigDecimal.valueOf(5000).compareTo(repository.findByEmployeeIdAndEffectiveDate(EMPLOYEE_ID, LocalDate.of(2024, 5, 1)).getSalary()));
+    }
+
+    private static Compensation compensation(String employeeId, LocalDate effectiveDate, long salary) {
+        return new Compensation(employeeId, BigDecimal.valueOf(salary), effectiveDate);
+    }
+}
@@ -0,0 +1,173 @@
+package com.mindex.challenge.dao.inprocess;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import org.bson.Document;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link InProcessJournal} and restarting the in-process repositories from it.
+ *
+ * @author Robert Heinbokel
+ */
+public class InProcessJournalTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testReplay_AppliesPutsDeletesAndClearsInOrder() {
+        // given
+        final Path directory = temporaryFolder.getRoot().toPath();
+        try (InProcessJournal journal = new InProcessJournal(directory, "test", 1000)) {
+            journal.awaitDurable(journal.logPut(new Document("_id", "a").append("value", 1)));
+            journal.logPut(new Document("_id", "b").append("value", 2));
+            journal.logClear();
+            journal.logPut(new Document("_id", "c").append("value", 3));
+            journal.logPut(new Document("_id", "d").append("value", 4));
+            journal.awaitDurable(journal.logDelete("c"));
+        }
+
+        // when
+        final Map<String, Object> replayed = replay(directory, "test");
+
+        // then
+        assertEquals(Map.of("d", 4), replayed);
+    }
+
+    @Test
+    public void testOpen_DropsTornRecordAtEndOfLog() throws IOException {
+        // given - a crash cut the last record short
+        final Path directory = temporaryFolder.getRoot().toPath();
+        try (InProcessJournal journal = new InProcessJournal(directory, "test", 1000)) {
+            journal.awaitDurable(journal.logPut(new Document("_id", "a").append("value", 1)));
+        }
+        Files.writeString(directory.resolve("test.wal"), "{\"op\": \"put\", \"doc\": {\"_id\": \"b\"", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        // when
+        final Map<String, Object> replayed = replay(directory, "test");
+
+        // then
+        assertEquals(Map.of("a", 1), replayed);
+        assertTrue(Files.readString(directory.resolve("test.wal")).endsWith("\n"));
+    }
+
+    @Test
+    public void testSnapshot_CompactsLogWithoutLosingRecords() throws IOException {
+        // given
+        final Path directory = temporaryFolder.getRoot().toPath();
+        try (InProcessJournal journal = new InProcessJournal(directory, "test", 1000)) {
+            for (int i = 0; i < 10; i++) {
+                journal.logPut(new Document("_id", "a").append("value", i));
+            }
+
+            // when
+            journal.snapshot(List.of(new Document("_id", "a").append("value", 9)));
+            journal.awaitDurable(journal.logPut(new Document("_id", "b").append("value", 10)));
+        }
+
+        // then
+        assertEquals(1, Files.readAllLines(directory.resolve("test.wal")).size());
+        assertEquals(Map.of("a", 9, "b", 10), replay(directory, "test"));
+    }
+
+    @Test
+    public void testRepositories_FailedSnapshotKeepsWritesAndIsRetriedLater() throws IOException {
+        // given - the snapshot's temporary file can't be created
+        final Path directory = temporaryFolder.getRoot().toPath();
+        final Path blocked = Files.createDirectory(directory.resolve("employee.snapshot.tmp"));
+        final InProcessEmployeeRepository employees = new InProcessEmployeeRepository(new InProcessJournal(directory, "employee", 5));
+
+        // when
+        for (int i = 0; i < 9; i++) {
+            employees.insert(new Employee());
+        }
+
+        // then the writes succeed, and the snapshot is retried once as many records are logged again
+        assertFalse(Files.exists(directory.resolve("employee.snapshot")));
+        Files.delete(blocked);
+        employees.insert(new Employee());
+        assertTrue(Files.exists(directory.resolve("employee.snapshot")));
+        assertEquals(0, Files.size(directory.resolve("employee.wal")));
+        assertEquals(10, new InProcessEmployeeRepository(new InProcessJournal(directory, "employee", 5)).count());
+    }
+
+    @Test
+    public void testRepositories_RestartWithoutLosingConcurrentWrites() throws Exception {
+        // given - a snapshot is taken part way through the writes
+        final Path directory = temporaryFolder.getRoot().toPath();
+        final InProcessCompensationRepository compensations = new InProcessCompensationRepository(new InProcessJournal(directory, "compensation", 500));
+        final InProcessEmployeeRepository employees = new InProcessEmployeeRepository(new InProcessJournal(directory, "employee", 500));
+        final Employee manager = new Employee();
+        manager.setFirstName("Journaled");
+        final String managerId = employees.insert(manager).getEmployeeId();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final List<Future<?>> writes = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            final String employeeId = "employee-" + thread;
+            writes.add(executor.submit(() -> {
+                for (int day = 0; day < 200; day++) {
+                    compensations.insert(new Compensation(employeeId, BigDecimal.valueOf(day), LocalDate.of(2024, 1, 1).plusDays(day)));
+                }
+                employees.addDirectReport(managerId, employeeId);
+            }));
+        }
+        for (Future<?> write : writes) {
+            write.get();
+        }
+        executor.shutdown();
+
+        // when - restarted without a clean shutdown
+        final InProcessCompensationRepository restartedCompensations = new InProcessCompensationRepository(new InProcessJournal(directory, "compensation", 500));
+        final InProcessEmployeeRepository restartedEmployees = new InProcessEmployeeRepository(new InProcessJournal(directory, "employee", 500));
+
+        // then
+        assertTrue(Files.exists(directory.resolve("compensation.snapshot")));
+        assertEquals(1600, restartedCompensations.count());
+        assertEquals(0, new BigDecimal("150").compareTo(restartedCompensations
+                .findFirstByEmployeeIdAndEffectiveDateLessThanEqualOrderByEffectiveDateDesc("employee-3", LocalDate.of(2024, 1, 1).plusDays(150))
+                .getSalary()));
+        assertEquals(8, restartedEmployees.findByEmployeeId(managerId).getDirectReportIds().size());
+        assertEquals("Journaled", restartedEmployees.findByEmployeeId(managerId).getFirstName());
+        try {
+            restartedCompensations.insert(new Compensation("employee-0", BigDecimal.ONE, LocalDate.of(2024, 1, 1)));
+            throw new AssertionError("Expected a DuplicateKeyException");
+        } catch (DuplicateKeyException ex) {
+            assertNotNull(ex.getMessage());
+        }
+    }
+
+    private static Map<String, Object> replay(Path directory, String name) {
+        final Map<String, Object> replayed = new LinkedHashMap<>();
+        try (InProcessJournal journal = new InProcessJournal(directory, name, 1000)) {
+            journal.replay(document -> replayed.put(document.getString("_id"), document.get("value")),
+                    (document, sequence) -> replayed.put(document.getString("_id"), document.get("value")),
+                    replayed::remove, replayed::clear);
+        }
+        return replayed;
+    }
+}
@@ -0,0 +1,257 @@
+package com.mindex.challenge.dao.inprocess;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the in-process repositories split into several partitions.
+ *
+ * @author Robert Heinbokel
+ */
+public class InProcessPartitioningTest {
+
+    private static final int PARTITIONS = 4;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testEmployees_HierarchyGathersAcrossPartitions() {
+        // given
+        final InProcessEmployeeRepository repository = new InProcessEmployeeRepository(PARTITIONS);
+        final String managerId = repository.insert(new Employee()).getEmployeeId();
+        final List<String> reportIds = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            reportIds.add(repository.insert(new Employee()).getEmployeeId());
+        }
+
+        // when
+        reportIds.forEach(reportId -> repository.addDirectReport(managerId, reportId));
+
+        // then
+        assertEquals(51, repository.count());
+        assertEquals(reportIds, repository.findByEmployeeId(managerId).getDirectReportIds());
+        assertEquals(50, repository.findByEmployeeIdIn(repository.findByEmployeeId(managerId).getDirectReportIds()).size());
+    }
+
+    @Test
+    public void testCompensations_ConcurrentWritersToDifferentPartitions() throws Exception {
+        // given
+        final InProcessCompensationRepository repository = new InProcessCompensationRepository(PARTITIONS);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final List<Future<?>> writes = new ArrayList<>();
+
+        // when
+        for (int thread = 0; thread < 8; thread++) {
+            final String employeeId = "employee-" + thread;
+            writes.add(executor.submit(() -> {
+                for (int day = 0; day < 500; day++) {
+                    repository.insert(new Compensation(employeeId, BigDecimal.valueOf(day), LocalDate.of(2024, 1, 1).plusDays(day)));
+                }
+            }));
+        }
+        for (Future<?> write : writes) {
+            write.get();
+        }
+        executor.shutdown();
+
+        // then
+        assertEquals(4000, repository.count());
+        assertEquals(4000, repository.findAll().size());
+        for (int thread = 0; thread < 8; thread++) {
+            assertEquals(500, repository.findByEmployeeId("employee-" + thread).size());
+        }
+    }
+
+    @Test
+    public void testEmployees_PagesCoverEveryPartitionOnce() {
+        // given
+        final InProcessEmployeeRepository repository = new InProcessEmployeeRepository(PARTITIONS);
+        for (int i = 0; i < 25; i++) {
+            final Employee employee = new Employee();
+            employee.setFirstName(i == 0 ? null : "Employee " + (char) ('A' + i));
+            repository.insert(employee);
+        }
+
+        // when
+        final List<String> paged = new ArrayList<>();
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<Employee> page;
+        do {
+            page = repository.findAll(pageable);
+            page.forEach(employee -> paged.add(employee.getEmployeeId()));
+            pageable = page.nextPageable();
+        } while (page.hasNext());
+
+        // then
+        assertEquals(3, page.getTotalPages());
+        assertEquals(repository.findAll().stream().map(Employee::getEmployeeId).sorted().toList(), paged);
+        final List<Employee> byName = repository.findAll(Sort.by("firstName"));
+        assertNull(byName.get(0).getFirstName());
+        assertEquals("Employee B", byName.get(1).getFirstName());
+        assertNull(repository.findAll(Sort.by(Sort.Direction.DESC, "firstName")).get(24).getFirstName());
+    }
+
+    @Test
+    public void testCompensations_SaveWithAnotherEmployeeMovesPartition() {
+        // given
+        final InProcessCompensationRepository repository = new InProcessCompensationRepository(PARTITIONS);
+        final Compensation compensation = repository.insert(new Compensation("before", BigDecimal.TEN, LocalDate.of(2024, 1, 1)));
+
+        // when
+        compensation.setEmployeeId("after");
+        repository.save(compensation);
+
+        // then
+        assertEquals(1, repository.count());
+        assertEquals("after", repository.findById(compensation.getCompensationId()).orElseThrow().getEmployeeId());
+        assertTrue(repository.findByEmployeeId("before").isEmpty());
+        assertEquals(1, repository.findByEmployeeId("after").size());
+
+        // when
+        repository.deleteById(compensation.getCompensationId());
+
+        // then
+        assertFalse(repository.existsById(compensation.getCompensationId()));
+        assertTrue(repository.findByEmployeeId("after").isEmpty());
+    }
+
+    @Test
+    public void testCompensations_ConcurrentInsertsOfOneIdIntoDifferentPartitions() throws Exception {
+        // given
+        final InProcessCompensationRepository repository = new InProcessCompensationRepository(PARTITIONS);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final List<Future<?>> inserts = new ArrayList<>();
+
+        // when
+        for (int thread = 0; thread < 8; thread++) {
+            final Compensation compensation = new Compensation("shared-id", "employee-" + thread, 100, LocalDate.of(2024, 1, 1));
+            inserts.add(executor.submit(() -> repository.insert(compensation)));
+        }
+        int inserted = 0;
+        for (Future<?> insert : inserts) {
+            try {
+                insert.get();
+                inserted++;
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof DuplicateKeyException);
+            }
+        }
+        executor.shutdown();
+
+        // then
+        assertEquals(1, inserted);
+        assertEquals(1, repository.count());
+        assertEquals(1, repository.findAll().size());
+    }
+
+    @Test
+    public void testCompensations_ReadersNeverSeeAMovedCompensationTwice() throws Exception {
+        // given
+        final InProcessCompensationRepository repository = new InProcessCompensationRepository(PARTITIONS);
+        final Compensation compensation = repository.insert(new Compensation("before", BigDecimal.TEN, LocalDate.of(2024, 1, 1)));
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // when
+        final Future<?> moves = executor.submit(() -> {
+            for (int i = 0; i < 2000; i++) {
+                compensation.setEmployeeId(i % 2 == 0 ? "after" : "before");
+                repository.save(compensation);
+            }
+        });
+
+        // then
+        while (!moves.isDone()) {
+            assertEquals(1, repository.findAll().size());
+            assertTrue(repository.existsById(compensation.getCompensationId()));
+        }
+        moves.get();
+        executor.shutdown();
+        assertEquals("before", repository.findById(compensation.getCompensationId()).orElseThrow().getEmployeeId());
+    }
+
+    @Test
+    public void testJournals_ReplayKeepsTheMovedCopyAfterACrashMidMove() throws Exception {
+        // given
+        final Path directory = temporaryFolder.getRoot().toPath();
+        final InProcessJournals journals = new InProcessJournals(directory.toString(), 1000);
+        final InProcessCompensationRepository repository = new InProcessCompensationRepository(journals, PARTITIONS);
+        final Compensation compensation = repository.insert(new Compensation("before", BigDecimal.TEN, LocalDate.of(2024, 1, 1)));
+        final Map<Path, byte[]> beforeMove = new HashMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(file -> file.toString().endsWith(".wal")).toList()) {
+                beforeMove.put(file, Files.readAllBytes(file));
+            }
+        }
+
+        // when
+        compensation.setEmployeeId("after");
+        repository.save(compensation);
+        // Crash before the deletion from the source partition reached its journal
+        for (Map.Entry<Path, byte[]> journal : beforeMove.entrySet()) {
+            if (new String(journal.getValue()).contains(compensation.getCompensationId())) {
+                Files.write(journal.getKey(), journal.getValue());
+            }
+        }
+        final InProcessCompensationRepository restarted = new InProcessCompensationRepository(journals, PARTITIONS);
+
+        // then
+        assertEquals(1, restarted.count());
+        assertEquals("after", restarted.findById(compensation.getCompensationId()).orElseThrow().getEmployeeId());
+        assertTrue(restarted.findByEmployeeId("before").isEmpty());
+        assertEquals(1, restarted.findByEmployeeId("after").size());
+    }
+
+    @Test
+    public void testJournals_ReplayEachPartitionAndRejectAnotherLayout() {
+        // given
+        final Path directory = temporaryFolder.getRoot().toPath();
+        final InProcessJournals journals = new InProcessJournals(directory.toString(), 1000);
+        final InProcessEmployeeRepository repository = new InProcessEmployeeRepository(journals, PARTITIONS);
+        for (int i = 0; i < 20; i++) {
+            repository.insert(new Employee());
+        }
+        repository.close();
+
+        // when
+        final InProcessEmployeeRepository restarted = new InProcessEmployeeRepository(journals, PARTITIONS);
+
+        // then
+        assertEquals(20, restarted.count());
+        assertTrue(Files.exists(directory.resolve("employee-0-of-4.snapshot")));
+        try {
+            new InProcessEmployeeRepository(journals, 2);
+        } catch (IllegalStateException ex) {
+            assertTrue(ex.getMessage().contains("employee-"));
+            return;
+        }
+        throw new AssertionError("Expected an IllegalStateException");
+    }
+}
@@ -0,0 +1,74 @@
+package com.mindex.challenge.dao.inprocess;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.dao.ICompensationRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.data.requests.CompensationCreateRequest;
+import com.mindex.challenge.service.EmployeeService;
+import com.mindex.challenge.service.ICompensationService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Integration tests running the services against the in-process repositories.
+ *
+ * @author Robert Heinbokel
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles(InProcessProfile.NAME)
+public class InProcessRepositoriesIntegrationTest {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ICompensationRepository compensationRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ICompensationService compensationService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    public void testServices_UseInProcessRepositories() {
+        // given
+        final String managerId = employeeService.create(new Employee()).getEmployeeId();
+        final String reportId = employeeService.create(new Employee()).getEmployeeId();
+        employeeService.addDirectReport(managerId, reportId);
+        final CompensationCreateRequest request = new CompensationCreateRequest();
+        request.setSalary(new BigDecimal("12345.67"));
+        request.setEffectiveDate("2024-01-01");
+
+        // when
+        compensationService.create(request, reportId);
+        final ReportingStructure structure = employeeService.getReportingStructure(managerId, true);
+        final Compensation inEffect = compensationService.readAsOf(reportId, LocalDate.of(2024, 6, 1));
+
+        // then - nothing went through the Mongo server
+        assertTrue(employeeRepository instanceof InProcessEmployeeRepository);
+        assertTrue(compensationRepository instanceof InProcessCompensationRepository);
+        assertEquals(1, structure.getNumberOfReports());
+        assertEquals(0, new BigDecimal("12345.67").compareTo(inEffect.getSalary()));
+        assertEquals(0, mongoTemplate.getCollection("employee").countDocuments());
+        assertEquals(0, mongoTemplate.getCollection("compensation").countDocuments());
+        assertTrue(employeeRepository.count() > 2);
+    }
+}
@@ -0,0 +1,84 @@
+package com.mindex.challenge.data;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link SalaryUnits}.
+ *
+ * @author Robert Heinbokel
+ */
+public class SalaryUnitsTest {
+
+    @Test
+    public void testRoundTrip_IsExact() {
+        for (String salary : new String[]{"0", "0.01", "75000", "75000.5", "123456789012345.99"}) {
+            BigDecimal value = new BigDecimal(salary);
+            assertEquals(value.setScale(SalaryUnits.SCALE), SalaryUnits.toSalary(SalaryUnits.toMinorUnits(value)));
+        }
+    }
+
+    @Test
+    public void testToMinorUnits_ScalesToCents() {
+        assertEquals(7_500_050, SalaryUnits.toMinorUnits(new BigDecimal("75000.50")));
+        assertEquals(7_500_000, SalaryUnits.toMinorUnits(new BigDecimal("7.5E+4")));
+    }
+
+    @Test
+    public void testToSalary_AlwaysHasTwoDecimalPlaces() {
+        assertEquals(new BigDecimal("75000.00"), SalaryUnits.toSalary(7_500_000));
+        assertEquals(new BigDecimal("75000.10"), SalaryUnits.toSalary(7_500_010));
+        assertEquals(new BigDecimal("0.01"), SalaryUnits.toSalary(1));
+    }
+
+    @Test
+    public void testCompensationJson_WholeAndSingleDecimalSalaries_KeepTwoDecimalPlaces() throws Exception {
+        // given
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        // when
+        String whole = objectMapper.writeValueAsString(new Compensation("employee", new BigDecimal("50000.00"), LocalDate.of(2025, 1, 1)));
+        String singleDecimal = objectMapper.writeValueAsString(new Compensation("employee", new BigDecimal("100.5"), LocalDate.of(2025, 1, 1)));
+
+        // then
+        assertTrue(whole.contains("\"salary\":50000.00,"));
+        assertTrue(singleDecimal.contains("\"salary\":100.50,"));
+    }
+
+    @Test
+    public void testToMinorUnits_TooManyDecimalPlaces_ThrowsException() {
+        assertThrows(ArithmeticException.class, () -> SalaryUnits.toMinorUnits(new BigDecimal("75000.001")));
+    }
+
+    @Test
+    public void testToMinorUnits_TooLarge_ThrowsException() {
+        assertThrows(ArithmeticException.class, () -> SalaryUnits.toMinorUnits(new BigDecimal("1E+17")));
+    }
+
+    @Test
+    public void testCompensationJson_ExposesSalaryOnly() throws Exception {
+        // given
+        // Configured like the application's mapper.
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Compensation compensation = new Compensation("employee", new BigDecimal("75000.50"), LocalDate.of(2025, 1, 1));
+
+        // when
+        String json = objectMapper.writeValueAsString(compensation);
+        Compensation result = objectMapper.readValue(json, Compensation.class);
+
+        // then
+        assertFalse(json.contains("salaryMinorUnits"));
+        assertTrue(json.contains("\"salary\":75000.50,"));
+        assertEquals(new BigDecimal("75000.50"), result.getSalary());
+        assertEquals(7_500_050, result.getSalaryMinorUnits());
+    }
+}
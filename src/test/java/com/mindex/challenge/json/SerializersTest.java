@@ -0,0 +1,119 @@
+package com.mindex.challenge.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Compares the hand-written serializers against Jackson's default, reflective serialization.
+ *
+ * @author Robert Heinbokel
+ */
+public class SerializersTest {
+
+    private final ObjectMapper defaultMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .serializerByType(Employee.class, new EmployeeSerializer())
+            .serializerByType(ReportingStructure.class, new ReportingStructureSerializer())
+            .serializerByType(Compensation.class, new CompensationSerializer())
+            .build();
+
+    @Test
+    public void testReportingStructure_MatchesDefaultSerialization() throws Exception {
+        // given
+        final Employee leaf = employee("3", "Pete", null);
+        leaf.setDirectReports(List.of());
+        final Employee middle = employee("2", "Ringo", "Developer V");
+        middle.setDirectReports(List.of(leaf));
+        final Employee root = employee("1", "John", "Development Manager");
+        root.setDirectReports(List.of(middle, employee("4", "Paul", "Developer V")));
+        root.getDirectReports().get(1).setDirectReports(List.of());
+
+        // when
+        final String json = mapper.writeValueAsString(new ReportingStructure(root, 3));
+
+        // then
+        assertEquals(defaultMapper.writeValueAsString(new ReportingStructure(root, 3)), json);
+    }
+
+    @Test
+    public void testEmployee_OmitsNullDirectReports() throws Exception {
+        // given
+        final Employee employee = employee("1", "John", null);
+
+        // when
+        final String json = mapper.writeValueAsString(employee);
+
+        // then
+        assertFalse(json.contains("directReports"));
+        assertEquals(((ObjectNode) defaultMapper.valueToTree(employee)).without("directReports"), mapper.readTree(json));
+    }
+
+    @Test
+    public void testEmployee_WritesStoredDirectReportsAsStubs() throws Exception {
+        // given
+        final Employee employee = employee("1", "John", "Development Manager");
+        employee.setDirectReportIds(List.of("2", "3"));
+
+        // when
+        final String json = mapper.writeValueAsString(employee);
+
+        // then
+        assertEquals("{\"employeeId\":\"1\",\"firstName\":\"John\",\"lastName\":\"Lennon\",\"position\":\"Development Manager\","
+                + "\"department\":\"Engineering\",\"directReports\":[{\"employeeId\":\"2\",\"firstName\":null,\"lastName\":null,"
+                + "\"position\":null,\"department\":null},{\"employeeId\":\"3\",\"firstName\":null,\"lastName\":null,"
+                + "\"position\":null,\"department\":null}]}", json);
+    }
+
+    @Test
+    public void testCompensation_MatchesDefaultSerialization() throws Exception {
+        // given
+        final Compensation compensation = new Compensation("1", new BigDecimal("123456.70"), LocalDate.of(2024, 2, 29));
+        compensation.setCompensationId("abc");
+        final Compensation empty = new Compensation(null, null, 0, null);
+
+        // when
+        final String json = mapper.writeValueAsString(List.of(compensation, empty));
+
+        // then
+        assertEquals(defaultMapper.writeValueAsString(List.of(compensation, empty)), json);
+    }
+
+    @Test
+    public void testCompensation_DefersToDateSerializerForTimestamps() throws Exception {
+        // given
+        final Compensation compensation = new Compensation("1", BigDecimal.TEN, LocalDate.of(2024, 2, 29));
+
+        // when
+        final String json = mapper.copy().enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).writeValueAsString(compensation);
+
+        // then
+        assertEquals(defaultMapper.copy().enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).writeValueAsString(compensation), json);
+    }
+
+    private static Employee employee(String employeeId, String firstName, String position) {
+        final Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        employee.setFirstName(firstName);
+        employee.setLastName("Lennon");
+        employee.setPosition(position);
+        employee.setDepartment("Engineering");
+        return employee;
+    }
+}
@@ -0,0 +1,184 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.IChangeEventRepository;
+import com.mindex.challenge.data.ChangeEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link ChangeFeedServiceImpl}.
+ *
+ * @author Robert Heinbokel
+ */
+public class ChangeFeedServiceImplTest {
+
+    private static final String EMPLOYEE_ID = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+    private static final int BUFFER_CAPACITY = 4;
+
+    @Mock
+    private IChangeEventRepository changeEventRepository;
+
+    private ChangeFeedServiceImpl changeFeedService;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        changeFeedService = new ChangeFeedServiceImpl(changeEventRepository, BUFFER_CAPACITY, 1000);
+    }
+
+    @After
+    public void tearDown() {
+        changeFeedService.shutdown();
+    }
+
+    @Test
+    public void testRecord_AssignsIncreasingSequencesAndPersists() {
+        // when
+        ChangeEvent first = changeFeedService.record(ChangeEvent.EntityType.EMPLOYEE, ChangeEvent.Operation.CREATED, EMPLOYEE_ID, EMPLOYEE_ID);
+        ChangeEvent second = changeFeedService.record(ChangeEvent.EntityType.EMPLOYEE, ChangeEvent.Operation.UPDATED, EMPLOYEE_ID, EMPLOYEE_ID);
+
+        // then
+        assertEquals(1, first.getSequence());
+        assertEquals(2, second.getSequence());
+        assertEquals(2, changeFeedService.latestSequence());
+        verify(changeEventRepository).insert(first);
+        verify(changeEventRepository).insert(second);
+    }
+
+    @Test
+    public void testRecord_ContinuesFromPersistedSequence() {
+        // given
+        when(changeEventRepository.findFirstByOrderBySequenceDesc())
+                .thenReturn(new ChangeEvent(41, ChangeEvent.EntityType.EMPLOYEE, ChangeEvent.Operation.CREATED, EMPLOYEE_ID, EMPLOYEE_ID, Instant.now()));
+        changeFeedService = new ChangeFeedServiceImpl(changeEventRepository, BUFFER_CAPACITY, 1000);
+
+        // when
+        ChangeEvent event = changeFeedService.record(ChangeEvent.EntityType.EMPLOYEE, ChangeEvent.Operation.UPDATED, EMPLOYEE_ID, EMPLOYEE_ID);
+
+        // then
+        assertEquals(42, event.getSequence());
+    }
+
+    @Test
+    public void testRecord_PersistenceFailureDoesNotFailTheWrite() {
+        // given
+        when(changeEventRepository.insert(any(ChangeEvent.class))).thenThrow(new DataAccessException("Insert failed") {});
+
+        // when
+        changeFeedService.record(ChangeEvent.EntityType.EMPLOYEE, ChangeEvent.Operation.CREATED, EMPLOYEE_ID, EMPLOYEE_ID);
+
+        // then
+        assertEquals(1, changeFeedService.readSince(0, 10).size());
+    }
+
+    @Test
+    public void testReadSince_ServedFromBuffer() {
+        // given
+        for (int i = 0; i < 3; i++) {
+            changeFeedService.record(ChangeEvent.EntityType.EMPLOYEE, ChangeEvent.Operation.UPDATED, EMPLOYEE_ID, EMPLOYEE_ID);
+        }
+
+        // when
+        List<ChangeEvent> events = changeFeedService.readSince(1, 10);
+        List<ChangeEvent> limited = changeFeedService.readSince(0, 2);
+
+        // then
+        assertEquals(2, events.size());
+        assertEquals(2, events.get(0).getSequence());
+        assertEquals(3, events.get(1).getSequence());
+        assertEquals(2, limited.size());
+        assertEquals(1, limited.get(0).getSequence());
+        verify(changeEventRepository, never()).findBySequenceGreaterThanOrderBySequenceAsc(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    public void testReadSince_FallsBackToRepositoryWhenBehindBuffer() {
+        // given
+        for (int i = 0; i < BUFFER_CAPACITY + 2; i++) {
+            changeFeedService.record(ChangeEvent.EntityType.EMPLOYEE, ChangeEvent.Operation.UPDATED, EMPLOYEE_ID, EMPLOYEE_ID);
+        }
+        List<ChangeEvent> persisted = List.of(
+                new ChangeEvent(1, ChangeEvent.EntityType.EMPLOYEE, ChangeEvent.Operation.UPDATED, EMPLOYEE_ID, EMPLOYEE_ID, Instant.now()));
+        when(changeEventRepository.findBySequenceGreaterThanOrderBySequenceAsc(0, Limit.of(10))).thenReturn(persisted);
+
+        // when
+        List<ChangeEvent> events = changeFeedService.readSince(0, 10);
+
+        // then
+        assertEquals(persisted, events);
+        verify(changeEventRepository).findBySequenceGreaterThanOrderBySequenceAsc(0, Limit.of(10));
+    }
+
+    @Test
+    public void testRecord_ConcurrentWriters_SubscriberReceivesEveryEventInOrder() throws Exception {
+        // given
+        final CountDownLatch firstInsertStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFirstInsert = new CountDownLatch(1);
+        when(changeEventRepository.insert(any(ChangeEvent.class))).thenAnswer(invocation -> {
+            ChangeEvent event = invocation.getArgument(0);
+            if (event.getSequence() == 1) {
+                firstInsertStarted.countDown();
+                releaseFirstInsert.await(10, TimeUnit.SECONDS);
+            }
+            return event;
+        });
+        final List<String> sentIds = new CopyOnWriteArrayList<>();
+        changeFeedService.subscribe(0, new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                builder.build().stream()
+                        .map(data -> data.getData().toString())
+                        .filter(line -> line.startsWith("id:"))
+                        .forEach(line -> sentIds.add(line.substring(3, line.indexOf('\n')).trim()));
+            }
+        });
+        final ExecutorService writers = Executors.newSingleThreadExecutor();
+
+        // when
+        final Future<?> first = writers.submit(() ->
+                changeFeedService.record(ChangeEvent.EntityType.EMPLOYEE, ChangeEvent.Operation.CREATED, EMPLOYEE_ID, EMPLOYEE_ID));
+        assertTrue(firstInsertStarted.await(10, TimeUnit.SECONDS));
+        changeFeedService.record(ChangeEvent.EntityType.EMPLOYEE, ChangeEvent.Operation.UPDATED, EMPLOYEE_ID, EMPLOYEE_ID);
+
+        // then
+        // The second event is persisted but waits on the first, so nothing is visible yet.
+        assertTrue(changeFeedService.readSince(0, 10).isEmpty());
+        assertEquals(0, changeFeedService.latestSequence());
+
+        // when
+        releaseFirstInsert.countDown();
+        first.get();
+        writers.shutdown();
+
+        // then
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (sentIds.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of("1", "2"), sentIds);
+        assertEquals(2, changeFeedService.readSince(0, 10).size());
+    }
+}
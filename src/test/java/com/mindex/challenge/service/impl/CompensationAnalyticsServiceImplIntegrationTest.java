@@ -0,0 +1,178 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.PayrollRollup;
+import com.mindex.challenge.data.SalaryDistribution;
+import com.mindex.challenge.data.TopEarner;
+import com.mindex.challenge.data.requests.CompensationCreateRequest;
+import com.mindex.challenge.service.EmployeeService;
+import com.mindex.challenge.service.ICompensationService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Integration tests for payroll rollups against the embedded Mongo server.
+ *
+ * @author Robert Heinbokel
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class CompensationAnalyticsServiceImplIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ICompensationService compensationService;
+
+    @Test
+    public void testPayrollRollup_UsesSalaryInEffectAcrossWholeOrganization() {
+        // given - a manager with one direct report, who has a report of their own, plus an unrelated employee
+        final String managerId = createEmployee();
+        final String reportId = createEmployee();
+        final String indirectReportId = createEmployee();
+        final String outsiderId = createEmployee();
+        employeeService.addDirectReport(managerId, reportId);
+        employeeService.addDirectReport(reportId, indirectReportId);
+
+        createCompensation(managerId, "2024-01-01", "100000");
+        createCompensation(managerId, "2025-01-01", "120000");
+        createCompensation(reportId, "2024-06-01", "80000");
+        createCompensation(indirectReportId, "2025-06-01", "60000");
+        createCompensation(outsiderId, "2024-01-01", "1000000");
+
+        // when
+        final ResponseEntity<PayrollRollup> response = restTemplate.getForEntity(
+                "http://localhost:" + port + "/employee/{id}/payroll-rollup/as-of/{date}", PayrollRollup.class, managerId, "2025-03-01");
+
+        // then - the indirect report has no compensation in effect yet
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        final PayrollRollup rollup = response.getBody();
+        assertEquals(3, rollup.getNumberOfEmployees());
+        assertEquals(2, rollup.getNumberOfCompensatedEmployees());
+        assertEquals(0, new BigDecimal("200000").compareTo(rollup.getTotalSalary()));
+        assertEquals(0, new BigDecimal("100000").compareTo(rollup.getAverageSalary()));
+        assertEquals(Set.of(managerId, reportId, indirectReportId), employeeService.readReportingSubtreeIds(managerId));
+    }
+
+    @Test
+    public void testSalaryDistribution_FollowsCreatesAndDepartmentChanges() {
+        // given
+        final String department = "Payroll-" + UUID.randomUUID();
+        final String managerId = createEmployee(department);
+        final String reportId = createEmployee(department);
+        employeeService.addDirectReport(managerId, reportId);
+        createCompensation(managerId, "2024-01-01", "100000");
+        createCompensation(reportId, "2024-01-01", "50000");
+        final String url = "http://localhost:" + port + "/department/{department}/salary-distribution?bins=2";
+
+        // when
+        final SalaryDistribution before = restTemplate.getForObject(url, SalaryDistribution.class, department);
+        createCompensation(reportId, "2024-06-01", "60000");
+        final Employee report = employeeService.read(reportId);
+        report.setDepartment(department + "-moved");
+        employeeService.update(report);
+        final SalaryDistribution after = restTemplate.getForObject(url, SalaryDistribution.class, department);
+        final SalaryDistribution subtree = restTemplate.getForObject(
+                "http://localhost:" + port + "/employee/{id}/salary-distribution", SalaryDistribution.class, managerId);
+
+        // then
+        assertEquals(2, before.getCount());
+        assertEquals(0, new BigDecimal("50000").compareTo(before.getPercentiles().get("p50").setScale(-3, RoundingMode.HALF_EVEN)));
+        assertEquals(2, before.getHistogram().size());
+        assertEquals(1, after.getCount());
+        assertEquals(2, subtree.getCount());
+        assertEquals(0, new BigDecimal("60000").compareTo(subtree.getPercentiles().get("p50").setScale(-3, RoundingMode.HALF_EVEN)));
+    }
+
+    @Test
+    public void testTopEarners_ReturnsHighestCurrentSalariesUnderManager() {
+        // given - the indirect report's raise is not in effect yet
+        final String managerId = createEmployee();
+        final String reportId = createEmployee();
+        final String otherReportId = createEmployee();
+        final String indirectReportId = createEmployee();
+        employeeService.addDirectReport(managerId, reportId);
+        employeeService.addDirectReport(managerId, otherReportId);
+        employeeService.addDirectReport(reportId, indirectReportId);
+
+        createCompensation(managerId, "2024-01-01", "500000");
+        createCompensation(reportId, "2024-01-01", "80000");
+        createCompensation(otherReportId, "2024-01-01", "70000");
+        createCompensation(indirectReportId, "2024-01-01", "90000");
+        createCompensation(indirectReportId, "2999-01-01", "10000");
+
+        // when
+        final ResponseEntity<TopEarner[]> response = restTemplate.getForEntity(
+                "http://localhost:" + port + "/employee/{id}/reporting-structure/top-earners?n=2", TopEarner[].class, managerId);
+
+        // then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        final TopEarner[] earners = response.getBody();
+        assertEquals(2, earners.length);
+        assertEquals(indirectReportId, earners[0].getEmployeeId());
+        assertEquals(0, new BigDecimal("90000").compareTo(earners[0].getSalary()));
+        assertEquals("Payroll", earners[0].getFirstName());
+        assertEquals(reportId, earners[1].getEmployeeId());
+        assertEquals(0, new BigDecimal("80000").compareTo(earners[1].getSalary()));
+    }
+
+    @Test
+    public void testTopEarners_InvalidN_ReturnsBadRequest() {
+        // when
+        final ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://localhost:" + port + "/employee/{id}/reporting-structure/top-earners?n=0", String.class, UUID.randomUUID().toString());
+
+        // then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    public void testPayrollRollup_UnknownEmployee_ReturnsNotFound() {
+        // when
+        final ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://localhost:" + port + "/employee/{id}/payroll-rollup", String.class, UUID.randomUUID().toString());
+
+        // then
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    private String createEmployee() {
+        return createEmployee(null);
+    }
+
+    private String createEmployee(String department) {
+        final Employee employee = new Employee();
+        employee.setFirstName("Payroll");
+        employee.setLastName("Tester");
+        employee.setDepartment(department);
+        return employeeService.create(employee).getEmployeeId();
+    }
+
+    private void createCompensation(String employeeId, String effectiveDate, String salary) {
+        final CompensationCreateRequest request = new CompensationCreateRequest();
+        request.setEffectiveDate(effectiveDate);
+        request.setSalary(new BigDecimal(salary));
+        compensationService.create(request, employeeId);
+    }
+}
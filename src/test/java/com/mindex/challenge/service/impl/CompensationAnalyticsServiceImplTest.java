@@ -0,0 +1,229 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.CompensationAnalyticsRepository.SalaryInEffect;
+import com.mindex.challenge.dao.ICompensationRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeeBatchReadResult;
+import com.mindex.challenge.data.PayrollRollup;
+import com.mindex.challenge.data.SalaryDistribution;
+import com.mindex.challenge.data.TopEarner;
+import com.mindex.challenge.exceptions.ResourceNotFoundException;
+import com.mindex.challenge.exceptions.UnexpectedDatabaseException;
+import com.mindex.challenge.service.EmployeeService;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link CompensationAnalyticsServiceImpl}.
+ *
+ * @author Robert Heinbokel
+ */
+public class CompensationAnalyticsServiceImplTest {
+
+    private static final String MANAGER_ID = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+    private static final LocalDate AS_OF = LocalDate.of(2025, 1, 1);
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @Mock
+    private ICompensationRepository compensationRepository;
+
+    @Mock
+    private SalaryDistributionIndex salaryDistributionIndex;
+
+    private CompensationAnalyticsServiceImpl compensationAnalyticsService;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        compensationAnalyticsService = new CompensationAnalyticsServiceImpl(employeeService, compensationRepository, salaryDistributionIndex);
+    }
+
+    @Test
+    public void testGetPayrollRollup_Success() {
+        // given
+        Set<String> organization = new LinkedHashSet<>(List.of(MANAGER_ID, "report-1", "report-2", "report-3"));
+        when(employeeService.readReportingSubtreeIds(MANAGER_ID)).thenReturn(organization);
+        when(compensationRepository.findSalariesAsOf(organization, AS_OF)).thenReturn(new long[]{10_000_000, 5_000_050, 5_000_000});
+
+        // when
+        PayrollRollup result = compensationAnalyticsService.getPayrollRollup(MANAGER_ID, AS_OF);
+
+        // then
+        assertEquals(MANAGER_ID, result.getEmployeeId());
+        assertEquals(AS_OF, result.getAsOf());
+        assertEquals(4, result.getNumberOfEmployees());
+        assertEquals(3, result.getNumberOfCompensatedEmployees());
+        assertEquals(new BigDecimal("200000.50"), result.getTotalSalary());
+        assertEquals(new BigDecimal("66666.83"), result.getAverageSalary());
+    }
+
+    @Test
+    public void testGetPayrollRollup_NoCompensations_AverageIsNull() {
+        // given
+        when(employeeService.readReportingSubtreeIds(MANAGER_ID)).thenReturn(Set.of(MANAGER_ID));
+        when(compensationRepository.findSalariesAsOf(anyCollection(), any(LocalDate.class))).thenReturn(new long[0]);
+
+        // when
+        PayrollRollup result = compensationAnalyticsService.getPayrollRollup(MANAGER_ID, AS_OF);
+
+        // then
+        assertEquals(1, result.getNumberOfEmployees());
+        assertEquals(0, result.getNumberOfCompensatedEmployees());
+        assertEquals(new BigDecimal("0.00"), result.getTotalSalary());
+        assertNull(result.getAverageSalary());
+    }
+
+    @Test(expected = ResourceNotFoundException.class)
+    public void testGetPayrollRollup_ManagerNotFound_ThrowsException() {
+        // given
+        when(employeeService.readReportingSubtreeIds(MANAGER_ID)).thenThrow(new ResourceNotFoundException("Employee not found"));
+
+        // when
+        compensationAnalyticsService.getPayrollRollup(MANAGER_ID, AS_OF);
+    }
+
+    @Test(expected = UnexpectedDatabaseException.class)
+    public void testGetPayrollRollup_DatabaseError_ThrowsException() {
+        // given
+        when(employeeService.readReportingSubtreeIds(MANAGER_ID)).thenReturn(Set.of(MANAGER_ID));
+        when(compensationRepository.findSalariesAsOf(anyCollection(), any(LocalDate.class)))
+                .thenThrow(new DataAccessResourceFailureException("Database error"));
+
+        // when
+        compensationAnalyticsService.getPayrollRollup(MANAGER_ID, AS_OF);
+    }
+
+    @Test
+    public void testGetSubtreeSalaryDistribution_Success() {
+        // given
+        Set<String> organization = Set.of(MANAGER_ID, "report-1");
+        QuantileSketch sketch = new QuantileSketch(0.01);
+        for (int salary = 1; salary <= 100; salary++) {
+            sketch.add(salary * 100_000L);
+        }
+        when(employeeService.readReportingSubtreeIds(MANAGER_ID)).thenReturn(organization);
+        when(salaryDistributionIndex.sketchOf(organization)).thenReturn(sketch);
+
+        // when
+        SalaryDistribution result = compensationAnalyticsService.getSubtreeSalaryDistribution(MANAGER_ID, 4);
+
+        // then
+        assertEquals(100, result.getCount());
+        assertEquals(List.of("p10", "p25", "p50", "p75", "p90", "p99"), List.copyOf(result.getPercentiles().keySet()));
+        assertWithinAccuracy(new BigDecimal("50000"), result.getPercentiles().get("p50"));
+        assertWithinAccuracy(new BigDecimal("90000"), result.getPercentiles().get("p90"));
+        assertEquals(4, result.getHistogram().size());
+        assertEquals(100, result.getHistogram().stream().mapToLong(SalaryDistribution.HistogramBin::getCount).sum());
+    }
+
+    @Test
+    public void testGetDepartmentSalaryDistribution_Empty() {
+        // given
+        when(salaryDistributionIndex.departmentSketch("Nowhere")).thenReturn(new QuantileSketch(0.01));
+
+        // when
+        SalaryDistribution result = compensationAnalyticsService.getDepartmentSalaryDistribution("Nowhere", 10);
+
+        // then
+        assertEquals(0, result.getCount());
+        assertTrue(result.getPercentiles().isEmpty());
+        assertTrue(result.getHistogram().isEmpty());
+    }
+
+    @Test
+    public void testGetTopEarners_KeepsHighestSalariesExcludingManager() {
+        // given - a large organization whose manager out-earns everyone
+        final Random random = new Random(37);
+        final Set<String> organization = new LinkedHashSet<>(List.of(MANAGER_ID));
+        final List<SalaryInEffect> salaries = new ArrayList<>(List.of(new SalaryInEffect(MANAGER_ID, AS_OF, Long.MAX_VALUE)));
+        for (int i = 0; i < 5_000; i++) {
+            organization.add("report-" + i);
+            salaries.add(new SalaryInEffect("report-" + i, AS_OF, random.nextInt(20_000_000)));
+        }
+        when(employeeService.readReportingSubtreeIds(MANAGER_ID)).thenReturn(organization);
+        doAnswer(invocation -> {
+            final Consumer<SalaryInEffect> consumer = invocation.getArgument(2);
+            salaries.forEach(consumer);
+            return null;
+        }).when(compensationRepository).forEachSalaryAsOf(eq(organization), eq(AS_OF), any());
+        when(employeeService.readMany(anyList())).thenAnswer(invocation -> {
+            final List<String> ids = invocation.getArgument(0);
+            return new EmployeeBatchReadResult(ids.stream().map(id -> {
+                final Employee employee = new Employee();
+                employee.setEmployeeId(id);
+                return employee;
+            }).toList(), List.of());
+        });
+
+        // when
+        List<TopEarner> result = compensationAnalyticsService.getTopEarners(MANAGER_ID, 7, AS_OF);
+
+        // then
+        final List<BigDecimal> expected = salaries.stream()
+                .filter(salary -> !salary.employeeId().equals(MANAGER_ID))
+                .map(salary -> BigDecimal.valueOf(salary.salaryMinorUnits(), 2))
+                .sorted(Comparator.reverseOrder())
+                .limit(7)
+                .toList();
+        assertEquals(7, result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(0, expected.get(i).compareTo(result.get(i).getSalary()));
+            assertTrue(result.get(i).getEmployeeId().startsWith("report-"));
+        }
+    }
+
+    @Test
+    public void testGetTopEarners_NoCompensations_ReturnsEmpty() {
+        // given
+        when(employeeService.readReportingSubtreeIds(MANAGER_ID)).thenReturn(Set.of(MANAGER_ID, "report-1"));
+        when(employeeService.readMany(anyList())).thenReturn(new EmployeeBatchReadResult(List.of(), List.of()));
+
+        // when
+        List<TopEarner> result = compensationAnalyticsService.getTopEarners(MANAGER_ID, 10, AS_OF);
+
+        // then
+        assertTrue(result.isEmpty());
+    }
+
+    @Test(expected = UnexpectedDatabaseException.class)
+    public void testGetTopEarners_DatabaseError_ThrowsException() {
+        // given
+        when(employeeService.readReportingSubtreeIds(MANAGER_ID)).thenReturn(Set.of(MANAGER_ID));
+        doThrow(new DataAccessResourceFailureException("Database error"))
+                .when(compensationRepository).forEachSalaryAsOf(anyCollection(), any(LocalDate.class), any());
+
+        // when
+        compensationAnalyticsService.getTopEarners(MANAGER_ID, 10, AS_OF);
+    }
+
+    private static void assertWithinAccuracy(BigDecimal expected, BigDecimal actual) {
+        assertTrue(actual + " not within 1% of " + expected,
+                expected.subtract(actual).abs().compareTo(expected.multiply(new BigDecimal("0.01"))) <= 0);
+    }
+}
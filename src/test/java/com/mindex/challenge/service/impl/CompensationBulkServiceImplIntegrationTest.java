@@ -0,0 +1,96 @@
+package com.mindex.challenge.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationBulkRowResult;
+import com.mindex.challenge.data.CompensationBulkRowResult.Status;
+import com.mindex.challenge.service.ICompensationService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Integration tests for bulk compensation ingestion against the embedded Mongo server.
+ *
+ * @author Robert Heinbokel
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class CompensationBulkServiceImplIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ICompensationService compensationService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testIngest_Csv_ExistingCompensationsReportedAsDuplicates() throws Exception {
+        // given
+        final String employeeId = UUID.randomUUID().toString();
+        final StringBuilder csv = new StringBuilder("employeeId,effectiveDate,salary\n");
+        for (int month = 1; month <= 12; month++) {
+            csv.append(employeeId).append(String.format(",2025-%02d-01,", month)).append(50000 + month).append('\n');
+        }
+        post(csv.toString(), "text/csv");
+
+        // when - the second upload overlaps the first by one row and contains one invalid row
+        final String overlap = "employeeId,effectiveDate,salary\n"
+                + employeeId + ",2025-12-01,90000\n"
+                + employeeId + ",2026-01-01,90000\n"
+                + employeeId + ",2026-02-30,90000\n";
+        final List<CompensationBulkRowResult> results = post(overlap, "text/csv");
+
+        // then
+        assertEquals(3, results.size());
+        assertEquals(Status.DUPLICATE, resultFor(results, 1).getStatus());
+        assertEquals(Status.CREATED, resultFor(results, 2).getStatus());
+        assertEquals(Status.INVALID, resultFor(results, 3).getStatus());
+
+        final List<Compensation> compensations = compensationService.readAll(employeeId);
+        assertEquals(13, compensations.size());
+        assertEquals(resultFor(results, 2).getCompensationId(),
+                compensationService.readAsOf(employeeId, LocalDate.of(2026, 1, 15)).getCompensationId());
+    }
+
+    private List<CompensationBulkRowResult> post(String body, String contentType) throws Exception {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(contentType));
+
+        final ResponseEntity<String> response = restTemplate.postForEntity("http://localhost:" + port + "/compensation/bulk",
+                new HttpEntity<>(body, headers), String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        final List<CompensationBulkRowResult> results = new ArrayList<>();
+        for (String line : response.getBody().split("\n")) {
+            results.add(objectMapper.readValue(line, CompensationBulkRowResult.class));
+        }
+        return results;
+    }
+
+    private static CompensationBulkRowResult resultFor(List<CompensationBulkRowResult> results, long row) {
+        return results.stream().filter(result -> result.getRow() == row).findFirst().orElseThrow();
+    }
+}
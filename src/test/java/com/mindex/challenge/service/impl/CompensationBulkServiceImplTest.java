@@ -0,0 +1,233 @@
+package com.mindex.challenge.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.dao.CompensationBulkRepository.BulkInsertFailure;
+import com.mindex.challenge.dao.ICompensationRepository;
+import com.mindex.challenge.data.ChangeEvent;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationBulkRowResult;
+import com.mindex.challenge.data.CompensationBulkRowResult.Status;
+import com.mindex.challenge.service.IChangeFeedService;
+import com.mindex.challenge.service.ICompensationBulkService.Format;
+import jakarta.validation.Validation;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link CompensationBulkServiceImpl}.
+ *
+ * @author Robert Heinbokel
+ */
+public class CompensationBulkServiceImplTest {
+
+    private static final String EMPLOYEE_ID = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+    private static final String OTHER_EMPLOYEE_ID = "b7839309-3348-463b-a7e3-5de1c168beb3";
+
+    @Mock
+    private ICompensationRepository compensationRepository;
+
+    @Mock
+    private IChangeFeedService changeFeedService;
+
+    private CompensationBulkServiceImpl compensationBulkService;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        compensationBulkService = new CompensationBulkServiceImpl(compensationRepository, changeFeedService, new CompensationTimelineCache(false, 0),
+                mock(SalaryDistributionIndex.class), Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), 2);
+        when(compensationRepository.insertUnordered(anyList())).thenReturn(Map.of());
+    }
+
+    @Test
+    public void testIngest_Csv_WritesInChunks() throws IOException {
+        // given
+        String csv = "salary,employeeId,effectiveDate\n"
+                + "50000," + EMPLOYEE_ID + ",2025-01-01\n"
+                + "\n"
+                + "60000.50," + EMPLOYEE_ID + ",2025-02-01\n"
+                + "\"70000\",\"" + OTHER_EMPLOYEE_ID + "\",\"2025-01-01\"\n";
+
+        // when
+        List<CompensationBulkRowResult> results = ingest(csv, Format.CSV);
+
+        // then
+        assertEquals(3, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i + 1, results.get(i).getRow());
+            assertEquals(Status.CREATED, results.get(i).getStatus());
+            assertNotNull(results.get(i).getCompensationId());
+        }
+        assertEquals(OTHER_EMPLOYEE_ID, results.get(2).getEmployeeId());
+        verify(compensationRepository, times(2)).insertUnordered(anyList());
+        verify(changeFeedService, times(2)).recordAll(eq(ChangeEvent.EntityType.COMPENSATION), eq(ChangeEvent.Operation.CREATED), anyMap());
+    }
+
+    @Test
+    public void testIngest_Ndjson_InvalidRowsReported() throws IOException {
+        // given
+        String ndjson = "{\"employeeId\":\"" + EMPLOYEE_ID + "\",\"effectiveDate\":\"2025-01-01\",\"salary\":50000}\n"
+                + "{\"employeeId\":\"not-a-uuid\",\"effectiveDate\":\"2025-13-01\",\"salary\":-1}\n"
+                + "{\"employeeId\":\"" + EMPLOYEE_ID + "\",\"effectiveDate\":\"2025-02-01\"}\n"
+                + "{not json\n";
+
+        // when
+        List<CompensationBulkRowResult> results = ingest(ndjson, Format.NDJSON);
+
+        // then
+        assertEquals(4, results.size());
+        assertEquals(Status.INVALID, resultFor(results, 2).getStatus());
+        assertEquals("Effective date must be a valid local date in yyyy-MM-dd format, Employee ID must be a valid UUID, "
+                + "Salary must be zero or a positive value.", resultFor(results, 2).getMessage());
+        assertEquals("Salary must not be null.", resultFor(results, 3).getMessage());
+        assertEquals(Status.INVALID, resultFor(results, 4).getStatus());
+        assertNull(resultFor(results, 4).getEmployeeId());
+        assertEquals(Status.CREATED, resultFor(results, 1).getStatus());
+    }
+
+    @Test
+    public void testIngest_DuplicatesWithinUpload_OnlyFirstWritten() throws IOException {
+        // given
+        String csv = "employeeId,effectiveDate,salary\n"
+                + EMPLOYEE_ID + ",2025-01-01,50000\n"
+                + EMPLOYEE_ID + ",2025-01-01,60000\n";
+
+        // when
+        List<CompensationBulkRowResult> results = ingest(csv, Format.CSV);
+
+        // then
+        assertEquals(Status.DUPLICATE, resultFor(results, 2).getStatus());
+        assertEquals(Status.CREATED, resultFor(results, 1).getStatus());
+    }
+
+    @Test
+    public void testIngest_ExistingAndFailedInserts_Reported() throws IOException {
+        // given
+        when(compensationRepository.insertUnordered(anyList())).thenReturn(Map.of(
+                0, new BulkInsertFailure(true, "E11000 duplicate key"),
+                1, new BulkInsertFailure(false, "Document too large")));
+        String csv = "employeeId,effectiveDate,salary\n"
+                + EMPLOYEE_ID + ",2025-01-01,50000\n"
+                + EMPLOYEE_ID + ",2025-02-01,60000\n";
+
+        // when
+        List<CompensationBulkRowResult> results = ingest(csv, Format.CSV);
+
+        // then
+        assertEquals(Status.DUPLICATE, resultFor(results, 1).getStatus());
+        assertEquals(Status.FAILED, resultFor(results, 2).getStatus());
+        assertEquals("Document too large", resultFor(results, 2).getMessage());
+        verify(changeFeedService).recordAll(eq(ChangeEvent.EntityType.COMPENSATION), eq(ChangeEvent.Operation.CREATED), eq(Map.of()));
+    }
+
+    @Test
+    public void testIngest_DatabaseError_ChunkFailedAndLaterChunksWritten() throws IOException {
+        // given
+        when(compensationRepository.insertUnordered(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("Database error"))
+                .thenReturn(Map.of());
+        String csv = "employeeId,effectiveDate,salary\n"
+                + EMPLOYEE_ID + ",2025-01-01,50000\n"
+                + EMPLOYEE_ID + ",2025-02-01,60000\n"
+                + EMPLOYEE_ID + ",2025-03-01,70000\n";
+
+        // when
+        List<CompensationBulkRowResult> results = ingest(csv, Format.CSV);
+
+        // then
+        assertEquals(Status.FAILED, resultFor(results, 1).getStatus());
+        assertEquals(Status.FAILED, resultFor(results, 2).getStatus());
+        assertEquals(Status.CREATED, resultFor(results, 3).getStatus());
+    }
+
+    @Test
+    public void testIngest_DatabaseErrorPartWay_StoredRowsCreated() throws IOException {
+        // given
+        when(compensationRepository.insertUnordered(anyList())).thenThrow(new DataAccessResourceFailureException("Connection reset"));
+        when(compensationRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<String> ids = invocation.getArgument(0);
+            return List.of(new Compensation(ids.iterator().next(), EMPLOYEE_ID, 5000000, LocalDate.of(2025, 1, 1)));
+        });
+        String csv = "employeeId,effectiveDate,salary\n"
+                + EMPLOYEE_ID + ",2025-01-01,50000\n"
+                + EMPLOYEE_ID + ",2025-02-01,60000\n";
+
+        // when
+        List<CompensationBulkRowResult> results = ingest(csv, Format.CSV);
+
+        // then
+        assertEquals(Status.CREATED, resultFor(results, 1).getStatus());
+        assertEquals(Status.FAILED, resultFor(results, 2).getStatus());
+        verify(changeFeedService).recordAll(eq(ChangeEvent.EntityType.COMPENSATION), eq(ChangeEvent.Operation.CREATED),
+                eq(Map.of(resultFor(results, 1).getCompensationId(), EMPLOYEE_ID)));
+    }
+
+    @Test
+    public void testIngest_CsvQuotedValues_ParsedOrRejected() throws IOException {
+        // given
+        String csv = "employeeId,\"effectiveDate\",salary,note\n"
+                + "\"" + EMPLOYEE_ID + "\",2025-01-01,50000,\"Raise, \"\"merit\"\"\"\n"
+                + EMPLOYEE_ID + ",2025-02-01,60000,\"Spans\n"
+                + "lines\"\n"
+                + EMPLOYEE_ID + ",2025-03-01,7\"0000\n";
+
+        // when
+        List<CompensationBulkRowResult> results = ingest(csv, Format.CSV);
+
+        // then
+        assertEquals(Status.CREATED, resultFor(results, 1).getStatus());
+        assertEquals(EMPLOYEE_ID, resultFor(results, 1).getEmployeeId());
+        assertEquals(Status.INVALID, resultFor(results, 2).getStatus());
+        assertEquals(Status.INVALID, resultFor(results, 3).getStatus());
+        assertEquals(Status.INVALID, resultFor(results, 4).getStatus());
+    }
+
+    @Test
+    public void testIngest_CsvMissingColumn_NothingWritten() throws IOException {
+        // given
+        String csv = "employeeId,effectiveDate\n"
+                + EMPLOYEE_ID + ",2025-01-01\n";
+
+        // when
+        List<CompensationBulkRowResult> results = ingest(csv, Format.CSV);
+
+        // then
+        assertEquals(1, results.size());
+        assertEquals(0, results.get(0).getRow());
+        assertEquals(Status.INVALID, results.get(0).getStatus());
+        verify(compensationRepository, never()).insertUnordered(anyList());
+    }
+
+    private List<CompensationBulkRowResult> ingest(String upload, Format format) throws IOException {
+        List<CompensationBulkRowResult> results = new ArrayList<>();
+        compensationBulkService.ingest(new StringReader(upload), format, results::add);
+        return results;
+    }
+
+    private static CompensationBulkRowResult resultFor(List<CompensationBulkRowResult> results, long row) {
+        return results.stream().filter(result -> result.getRow() == row).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,164 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.ICompensationRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.requests.CompensationCreateRequest;
+import com.mindex.challenge.data.requests.CompensationHistoryQuery;
+import com.mindex.challenge.exceptions.DuplicateEntityException;
+import com.mindex.challenge.exceptions.ResourceNotFoundException;
+import com.mindex.challenge.service.ICompensationService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Integration tests for {@link CompensationServiceImpl} against the embedded Mongo server.
+ *
+ * @author Robert Heinbokel
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class CompensationServiceImplIntegrationTest {
+
+    private static final String EFFECTIVE_DATE = "2025-01-01";
+
+    @Autowired
+    private ICompensationService compensationService;
+
+    @Autowired
+    private ICompensationRepository compensationRepository;
+
+    @Test
+    public void testCreate_ConcurrentDuplicates_OnlyOneSucceeds() throws Exception {
+        // given
+        final int callers = 16;
+        final String employeeId = UUID.randomUUID().toString();
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                final BigDecimal salary = BigDecimal.valueOf(50000 + i);
+                results.add(executor.submit((Callable<Object>) () -> {
+                    start.await();
+                    return compensationService.create(createRequest(salary), employeeId);
+                }));
+            }
+
+            // when
+            start.countDown();
+
+            // then
+            int created = 0;
+            int duplicates = 0;
+            for (Future<?> result : results) {
+                try {
+                    result.get(10, TimeUnit.SECONDS);
+                    created++;
+                } catch (ExecutionException ex) {
+                    assertTrue("Unexpected failure: " + ex.getCause(), ex.getCause() instanceof DuplicateEntityException);
+                    duplicates++;
+                }
+            }
+
+            assertEquals(1, created);
+            assertEquals(callers - 1, duplicates);
+            assertEquals(1, compensationRepository.findByEmployeeId(employeeId).size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCreate_SameDateForDifferentEmployees_BothSucceed() {
+        // when
+        compensationService.create(createRequest(BigDecimal.valueOf(50000)), UUID.randomUUID().toString());
+        compensationService.create(createRequest(BigDecimal.valueOf(60000)), UUID.randomUUID().toString());
+    }
+
+    @Test
+    public void testReadAsOf_ReturnsLatestCompensationOnOrBeforeDate() {
+        // given
+        final String employeeId = UUID.randomUUID().toString();
+        compensationService.create(createRequest(BigDecimal.valueOf(50000), "2023-01-01"), employeeId);
+        compensationService.create(createRequest(BigDecimal.valueOf(60000), "2024-01-01"), employeeId);
+        compensationService.create(createRequest(BigDecimal.valueOf(70000), "2025-01-01"), employeeId);
+
+        // when
+        Compensation midYear = compensationService.readAsOf(employeeId, LocalDate.parse("2024-06-30"));
+        Compensation onEffectiveDate = compensationService.readAsOf(employeeId, LocalDate.parse("2025-01-01"));
+
+        // then
+        assertEquals(0, BigDecimal.valueOf(60000).compareTo(midYear.getSalary()));
+        assertEquals(0, BigDecimal.valueOf(70000).compareTo(onEffectiveDate.getSalary()));
+    }
+
+    @Test(expected = ResourceNotFoundException.class)
+    public void testReadAsOf_BeforeFirstCompensation_ThrowsException() {
+        // given
+        final String employeeId = UUID.randomUUID().toString();
+        compensationService.create(createRequest(BigDecimal.valueOf(50000), "2023-01-01"), employeeId);
+
+        // when
+        compensationService.readAsOf(employeeId, LocalDate.parse("2022-12-31"));
+    }
+
+    @Test
+    public void testReadHistory_FiltersOrdersAndPagesByEffectiveDate() {
+        // given
+        final String employeeId = UUID.randomUUID().toString();
+        for (int year = 2018; year <= 2025; year++) {
+            compensationService.create(createRequest(BigDecimal.valueOf(50000 + year), year + "-01-01"), employeeId);
+        }
+        final LocalDate from = LocalDate.parse("2019-06-01");
+        final LocalDate to = LocalDate.parse("2024-01-01");
+
+        // when - page through 2024, 2023, 2022, 2021, 2020 three at a time
+        final List<LocalDate> firstPage = readHistory(employeeId, new CompensationHistoryQuery(from, to, null, Sort.Direction.DESC, 3));
+        final List<LocalDate> secondPage = readHistory(employeeId, new CompensationHistoryQuery(from, to, firstPage.get(2), Sort.Direction.DESC, 3));
+        final List<LocalDate> ascending = readHistory(employeeId, new CompensationHistoryQuery(null, null, LocalDate.parse("2023-01-01"), Sort.Direction.ASC, null));
+
+        // then
+        assertEquals(List.of(LocalDate.parse("2024-01-01"), LocalDate.parse("2023-01-01"), LocalDate.parse("2022-01-01")), firstPage);
+        assertEquals(List.of(LocalDate.parse("2021-01-01"), LocalDate.parse("2020-01-01")), secondPage);
+        assertEquals(List.of(LocalDate.parse("2024-01-01"), LocalDate.parse("2025-01-01")), ascending);
+    }
+
+    private List<LocalDate> readHistory(String employeeId, CompensationHistoryQuery query) {
+        try (Stream<Compensation> compensations = compensationService.readHistory(employeeId, query)) {
+            return compensations.map(Compensation::getEffectiveDate).toList();
+        }
+    }
+
+    private static CompensationCreateRequest createRequest(BigDecimal salary) {
+        return createRequest(salary, EFFECTIVE_DATE);
+    }
+
+    private static CompensationCreateRequest createRequest(BigDecimal salary, String effectiveDate) {
+        CompensationCreateRequest request = new CompensationCreateRequest();
+        request.setEffectiveDate(effectiveDate);
+        request.setSalary(salary);
+        return request;
+    }
+}
@@ -1,24 +1,31 @@
 package com.mindex.challenge.service.impl;
 
 import com.mindex.challenge.dao.ICompensationRepository;
+import com.mindex.challenge.data.ChangeEvent;
 import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.requests.CompensationCreateRequest;
+import com.mindex.challenge.data.requests.CompensationHistoryQuery;
 import com.mindex.challenge.exceptions.DuplicateEntityException;
 import com.mindex.challenge.exceptions.ResourceNotFoundException;
 import com.mindex.challenge.exceptions.UnexpectedDatabaseException;
+import com.mindex.challenge.service.IChangeFeedService;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -39,12 +46,16 @@ public class CompensationServiceImplTest {
     @Mock
     private ICompensationRepository compensationRepository;
 
+    @Mock
+    private IChangeFeedService changeFeedService;
+
     private CompensationServiceImpl compensationService;
 
     @Before
     public void setUp() {
         MockitoAnnotations.openMocks(this);
-        compensationService = new CompensationServiceImpl(compensationRepository);
+        compensationService = new CompensationServiceImpl(compensationRepository, changeFeedService, new CompensationTimelineCache(false, 0),
+                mock(SalaryDistributionIndex.class));
     }
 
     @Test
@@ -56,7 +67,6 @@ public class CompensationServiceImplTest {
 
         Compensation expectedCompensation = new Compensation(EMPLOYEE_ID, SALARY, EFFECTIVE_DATE);
 
-        when(compensationRepository.findByEmployeeIdAndEffectiveDate(EMPLOYEE_ID, EFFECTIVE_DATE)).thenReturn(null);
         when(compensationRepository.insert(any(Compensation.class))).thenReturn(expectedCompensation);
 
         // when
@@ -65,11 +75,12 @@ public class CompensationServiceImplTest {
         // then
         assertNotNull(result);
         assertEquals(EMPLOYEE_ID, result.getEmployeeId());
-        assertEquals(SALARY, result.getSalary());
+        assertEquals(SALARY.setScale(2), result.getSalary());
         assertEquals(EFFECTIVE_DATE, result.getEffectiveDate());
 
-        verify(compensationRepository).findByEmployeeIdAndEffectiveDate(EMPLOYEE_ID, EFFECTIVE_DATE);
+        verify(compensationRepository, never()).findByEmployeeIdAndEffectiveDate(EMPLOYEE_ID, EFFECTIVE_DATE);
         verify(compensationRepository).insert(any(Compensation.class));
+        verify(changeFeedService).record(ChangeEvent.EntityType.COMPENSATION, ChangeEvent.Operation.CREATED, result.getCompensationId(), EMPLOYEE_ID);
     }
 
     @Test
@@ -90,6 +101,31 @@ public class CompensationServiceImplTest {
         verify(compensationRepository).findByEmployeeId(EMPLOYEE_ID);
     }
 
+    @Test
+    public void testReadHistory_Success() {
+        // given
+        Compensation expectedCompensation = new Compensation(EMPLOYEE_ID, SALARY, EFFECTIVE_DATE);
+        CompensationHistoryQuery query = new CompensationHistoryQuery(null, null, null, Sort.Direction.ASC, 10);
+
+        when(compensationRepository.streamHistory(EMPLOYEE_ID, query)).thenReturn(Stream.of(expectedCompensation));
+
+        // when
+        List<Compensation> result = compensationService.readHistory(EMPLOYEE_ID, query).toList();
+
+        // then
+        assertEquals(List.of(expectedCompensation), result);
+    }
+
+    @Test(expected = UnexpectedDatabaseException.class)
+    public void testReadHistory_DataAccessException_ThrowsException() {
+        // given
+        CompensationHistoryQuery query = new CompensationHistoryQuery(null, null, null, Sort.Direction.ASC, null);
+        when(compensationRepository.streamHistory(EMPLOYEE_ID, query)).thenThrow(new DataAccessException("Database error") {});
+
+        // when
+        compensationService.readHistory(EMPLOYEE_ID, query);
+    }
+
     @Test
     public void testReadByEffectiveDate_Success() {
         // given
@@ -114,16 +150,62 @@ public class CompensationServiceImplTest {
         request.setEffectiveDate(EFFECTIVE_DATE.toString());
         request.setSalary(SALARY);
 
-        when(compensationRepository.findByEmployeeIdAndEffectiveDate(EMPLOYEE_ID, EFFECTIVE_DATE))
-                .thenReturn(new com.mindex.challenge.data.Compensation(EMPLOYEE_ID, SALARY, EFFECTIVE_DATE));
+        when(compensationRepository.insert(any(Compensation.class))).thenThrow(new DuplicateKeyException("E11000 duplicate key error"));
 
         // when/then
         assertThrows(DuplicateEntityException.class, () -> {
             compensationService.create(request, EMPLOYEE_ID);
         });
 
-        verify(compensationRepository).findByEmployeeIdAndEffectiveDate(EMPLOYEE_ID, EFFECTIVE_DATE);
-        verify(compensationRepository, never()).insert((any(Compensation.class)));
+        verify(compensationRepository).insert((any(Compensation.class)));
+        verify(changeFeedService, never()).record(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testReadAsOf_Success() {
+        // given
+        Compensation expectedCompensation = new Compensation(EMPLOYEE_ID, SALARY, EFFECTIVE_DATE);
+        LocalDate asOf = EFFECTIVE_DATE.plusMonths(3);
+
+        when(compensationRepository.findFirstByEmployeeIdAndEffectiveDateLessThanEqualOrderByEffectiveDateDesc(EMPLOYEE_ID, asOf))
+                .thenReturn(expectedCompensation);
+
+        // when
+        Compensation result = compensationService.readAsOf(EMPLOYEE_ID, asOf);
+
+        // then
+        assertEquals(expectedCompensation, result);
+        verify(compensationRepository, never()).findByEmployeeId(EMPLOYEE_ID);
+    }
+
+    @Test(expected = ResourceNotFoundException.class)
+    public void testReadAsOf_NothingInEffect_ThrowsException() {
+        // given
+        when(compensationRepository.findFirstByEmployeeIdAndEffectiveDateLessThanEqualOrderByEffectiveDateDesc(EMPLOYEE_ID, EFFECTIVE_DATE))
+                .thenReturn(null);
+
+        // when
+        compensationService.readAsOf(EMPLOYEE_ID, EFFECTIVE_DATE);
+    }
+
+    @Test
+    public void testReadAsOf_TimelineCacheEnabled_LoadsHistoryOnce() {
+        // given
+        compensationService = new CompensationServiceImpl(compensationRepository, changeFeedService, new CompensationTimelineCache(true, 10),
+                mock(SalaryDistributionIndex.class));
+        Compensation first = new Compensation(EMPLOYEE_ID, SALARY, EFFECTIVE_DATE);
+        Compensation raise = new Compensation(EMPLOYEE_ID, SALARY.add(BigDecimal.TEN), EFFECTIVE_DATE.plusYears(1));
+
+        when(compensationRepository.findByEmployeeId(EMPLOYEE_ID)).thenReturn(List.of(raise, first));
+
+        // when
+        Compensation beforeRaise = compensationService.readAsOf(EMPLOYEE_ID, EFFECTIVE_DATE.plusMonths(6));
+        Compensation afterRaise = compensationService.readAsOf(EMPLOYEE_ID, EFFECTIVE_DATE.plusYears(2));
+
+        // then
+        assertEquals(first, beforeRaise);
+        assertEquals(raise, afterRaise);
+        verify(compensationRepository).findByEmployeeId(EMPLOYEE_ID);
     }
 
     @Test(expected = ResourceNotFoundException.class)
@@ -157,14 +239,12 @@ public class CompensationServiceImplTest {
         request.setEffectiveDate(EFFECTIVE_DATE.toString());
         request.setSalary(SALARY);
 
-        when(compensationRepository.findByEmployeeIdAndEffectiveDate(EMPLOYEE_ID, EFFECTIVE_DATE)).thenReturn(null);
         when(compensationRepository.insert(any(Compensation.class))).thenThrow(new DataAccessException("Insert failed") {});
 
         // when
         compensationService.create(request, EMPLOYEE_ID);
 
         // then
-        verify(compensationRepository).findByEmployeeIdAndEffectiveDate(EMPLOYEE_ID, EFFECTIVE_DATE);
         verify(compensationRepository).insert(any(Compensation.class));
     }
 }
@@ -0,0 +1,80 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Compensation;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for {@link CompensationTimelineCache}.
+ *
+ * @author Robert Heinbokel
+ */
+public class CompensationTimelineCacheTest {
+
+    private static final String EMPLOYEE_ID = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+    private static final LocalDate EFFECTIVE_DATE = LocalDate.of(2025, 1, 1);
+
+    @Test
+    public void testFloor_ReturnsLatestOnOrBeforeDate() {
+        // given
+        CompensationTimelineCache cache = new CompensationTimelineCache(true, 10);
+        Compensation first = new Compensation(EMPLOYEE_ID, BigDecimal.valueOf(50000), EFFECTIVE_DATE);
+        Compensation second = new Compensation(EMPLOYEE_ID, BigDecimal.valueOf(60000), EFFECTIVE_DATE.plusMonths(6));
+
+        // when/then
+        assertNull(cache.floor(EMPLOYEE_ID, EFFECTIVE_DATE.minusDays(1), id -> List.of(first, second)));
+        assertEquals(first, cache.floor(EMPLOYEE_ID, EFFECTIVE_DATE, id -> List.of(first, second)));
+        assertEquals(second, cache.floor(EMPLOYEE_ID, EFFECTIVE_DATE.plusYears(1), id -> List.of(first, second)));
+    }
+
+    @Test
+    public void testAdd_UpdatesLoadedTimelineWithoutReloading() {
+        // given
+        CompensationTimelineCache cache = new CompensationTimelineCache(true, 10);
+        AtomicInteger loads = new AtomicInteger();
+        List<Compensation> history = new ArrayList<>(List.of(new Compensation(EMPLOYEE_ID, BigDecimal.valueOf(50000), EFFECTIVE_DATE)));
+        Compensation raise = new Compensation(EMPLOYEE_ID, BigDecimal.valueOf(60000), EFFECTIVE_DATE.plusMonths(6));
+
+        cache.floor(EMPLOYEE_ID, EFFECTIVE_DATE, id -> {
+            loads.incrementAndGet();
+            return history;
+        });
+
+        // when
+        cache.add(raise);
+
+        // then
+        assertEquals(raise, cache.floor(EMPLOYEE_ID, EFFECTIVE_DATE.plusYears(1), id -> {
+            loads.incrementAndGet();
+            return history;
+        }));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testFloor_BeyondCapacity_DoesNotCache() {
+        // given
+        CompensationTimelineCache cache = new CompensationTimelineCache(true, 0);
+        AtomicInteger loads = new AtomicInteger();
+        Compensation compensation = new Compensation(EMPLOYEE_ID, BigDecimal.valueOf(50000), EFFECTIVE_DATE);
+
+        // when
+        for (int i = 0; i < 2; i++) {
+            cache.floor(EMPLOYEE_ID, EFFECTIVE_DATE, id -> {
+                loads.incrementAndGet();
+                return List.of(compensation);
+            });
+        }
+
+        // then
+        assertEquals(2, loads.get());
+    }
+}
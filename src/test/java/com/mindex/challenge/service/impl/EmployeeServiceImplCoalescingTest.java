@@ -0,0 +1,228 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.exceptions.ResourceNotFoundException;
+import com.mindex.challenge.service.IChangeFeedService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the coalescing of concurrent identical reporting structure requests in {@link EmployeeServiceImpl}.
+ *
+ * @author Robert Heinbokel
+ */
+public class EmployeeServiceImplCoalescingTest {
+
+    private static final int CALLERS = 8;
+
+    private final List<Thread> callerThreads = new ArrayList<>();
+
+    private final AtomicInteger rootReads = new AtomicInteger();
+
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private volatile Employee manager = employee("manager", List.of("report"));
+
+    private volatile Error rootError;
+
+    private EmployeeRepository employeeRepository;
+
+    private OrgSizeIndex orgSizeIndex;
+
+    private EmployeeServiceImpl employeeService;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        employeeRepository = mock(EmployeeRepository.class);
+        orgSizeIndex = new OrgSizeIndex();
+        employeeService = new EmployeeServiceImpl(employeeRepository, mock(IChangeFeedService.class),
+                mock(SalaryDistributionIndex.class), orgSizeIndex);
+        executor = Executors.newFixedThreadPool(CALLERS, runnable -> {
+            final Thread thread = new Thread(runnable);
+            callerThreads.add(thread);
+            return thread;
+        });
+
+        // The root read blocks until released, so every caller arrives while the first traversal is in flight.
+        when(employeeRepository.findByEmployeeId("manager")).thenAnswer(invocation -> {
+            rootReads.incrementAndGet();
+            started.countDown();
+            await(release);
+            if (rootError != null) {
+                throw rootError;
+            }
+            return manager;
+        });
+        when(employeeRepository.findByEmployeeId("report")).thenAnswer(invocation -> employee("report", null));
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testGetReportingStructure_ConcurrentIdenticalRequests_ShareOneTraversal() throws Exception {
+        // given
+        final List<Future<ReportingStructure>> results = submitCallers(true);
+
+        // when
+        release.countDown();
+
+        // then
+        final ReportingStructure first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<ReportingStructure> result : results) {
+            assertSame(first, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, rootReads.get());
+        assertEquals(1, first.getNumberOfReports());
+        assertEquals("report", first.getEmployee().getDirectReports().get(0).getEmployeeId());
+    }
+
+    @Test
+    public void testGetReportingStructure_DifferentDetailFlags_AreNotShared() throws Exception {
+        // given
+        final Future<ReportingStructure> withDetails = executor.submit(() -> employeeService.getReportingStructure("manager", true));
+        await(started);
+
+        // when
+        final Future<ReportingStructure> withoutDetails = executor.submit(() -> employeeService.getReportingStructure("manager", false));
+        awaitBlocked(2);
+        release.countDown();
+
+        // then
+        assertTrue(withDetails.get(5, TimeUnit.SECONDS) != withoutDetails.get(5, TimeUnit.SECONDS));
+        assertEquals(2, rootReads.get());
+    }
+
+    @Test
+    public void testGetReportingStructure_AfterHierarchyChange_DoesNotJoinInFlightTraversal() throws Exception {
+        // given
+        final Future<ReportingStructure> beforeChange = executor.submit(() -> employeeService.getReportingStructure("manager", true));
+        await(started);
+
+        // when
+        orgSizeIndex.invalidate();
+        final Future<ReportingStructure> afterChange = executor.submit(() -> employeeService.getReportingStructure("manager", true));
+        awaitBlocked(2);
+        release.countDown();
+
+        // then
+        beforeChange.get(5, TimeUnit.SECONDS);
+        afterChange.get(5, TimeUnit.SECONDS);
+        assertEquals(2, rootReads.get());
+    }
+
+    @Test
+    public void testGetReportingStructure_FailedTraversal_IsRethrownToEveryCaller() throws Exception {
+        // given
+        manager = null;
+        final List<Future<ReportingStructure>> results = submitCallers(false);
+
+        // when
+        release.countDown();
+
+        // then
+        for (Future<ReportingStructure> result : results) {
+            final ExecutionException ex = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertTrue(ex.getCause() instanceof ResourceNotFoundException);
+        }
+        assertEquals(1, rootReads.get());
+    }
+
+    @Test
+    public void testGetReportingStructure_ErrorInTraversal_IsRethrownToEveryCaller() throws Exception {
+        // given
+        rootError = new StackOverflowError();
+        final List<Future<ReportingStructure>> results = submitCallers(true);
+
+        // when
+        release.countDown();
+
+        // then every caller wakes up with the error, rather than waiting forever on the shared traversal
+        for (Future<ReportingStructure> result : results) {
+            final ExecutionException ex = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertSame(rootError, ex.getCause());
+        }
+        assertEquals(1, rootReads.get());
+    }
+
+    @Test
+    public void testGetReportingStructure_SequentialRequests_AreNotShared() {
+        // given
+        release.countDown();
+
+        // when
+        final ReportingStructure first = employeeService.getReportingStructure("manager", true);
+        final ReportingStructure second = employeeService.getReportingStructure("manager", true);
+
+        // then
+        assertTrue(first != second);
+        assertEquals(2, rootReads.get());
+    }
+
+    private List<Future<ReportingStructure>> submitCallers(boolean includeDirectReportDetails) {
+        final List<Future<ReportingStructure>> results = new ArrayList<>();
+        results.add(executor.submit(() -> employeeService.getReportingStructure("manager", includeDirectReportDetails)));
+        await(started);
+
+        for (int i = 1; i < CALLERS; i++) {
+            results.add(executor.submit(() -> employeeService.getReportingStructure("manager", includeDirectReportDetails)));
+        }
+        awaitBlocked(CALLERS);
+        return results;
+    }
+
+    /**
+     * Waits until the given number of callers are parked, either in the blocked root read or waiting on its result.
+     */
+    private void awaitBlocked(int callers) {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (callerThreads.size() < callers
+                || callerThreads.stream().anyMatch(thread -> thread.getState() != Thread.State.WAITING
+                        && thread.getState() != Thread.State.TIMED_WAITING)) {
+            assertTrue("Callers did not block in time", System.nanoTime() < deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    private static Employee employee(String employeeId, List<String> directReportIds) {
+        final Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        employee.setDirectReportIds(directReportIds);
+        return employee;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
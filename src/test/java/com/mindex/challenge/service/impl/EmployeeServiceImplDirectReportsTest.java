@@ -0,0 +1,67 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.exceptions.InvalidReportingRelationshipException;
+import com.mindex.challenge.service.IChangeFeedService;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for direct report additions in {@link EmployeeServiceImpl} racing with another instance.
+ *
+ * @author Robert Heinbokel
+ */
+public class EmployeeServiceImplDirectReportsTest {
+
+    private volatile boolean added;
+
+    private EmployeeRepository employeeRepository;
+
+    private IChangeFeedService changeFeedService;
+
+    private EmployeeServiceImpl employeeService;
+
+    @Before
+    public void setUp() {
+        employeeRepository = mock(EmployeeRepository.class);
+        changeFeedService = mock(IChangeFeedService.class);
+        employeeService = new EmployeeServiceImpl(employeeRepository, changeFeedService,
+                mock(SalaryDistributionIndex.class), new OrgSizeIndex());
+    }
+
+    @Test
+    public void testAddDirectReport_UndoesAdditionRacingIntoACycle() {
+        // given
+        // Another instance makes the manager report to the report between this one's cycle check and its write.
+        when(employeeRepository.findByEmployeeIdIn(any())).thenAnswer(invocation ->
+                List.of(employee("report", added ? List.of("manager") : null)));
+        when(employeeRepository.addDirectReport("manager", "report")).thenAnswer(invocation -> {
+            added = true;
+            return employee("manager", List.of("report"));
+        });
+
+        // when
+        assertThrows(InvalidReportingRelationshipException.class, () -> employeeService.addDirectReport("manager", "report"));
+
+        // then
+        verify(employeeRepository).removeDirectReport("manager", "report");
+        verifyNoInteractions(changeFeedService);
+    }
+
+    private static Employee employee(String employeeId, List<String> directReportIds) {
+        final Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        employee.setDirectReportIds(directReportIds);
+        return employee;
+    }
+}
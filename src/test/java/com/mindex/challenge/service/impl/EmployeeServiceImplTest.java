@@ -1,9 +1,14 @@
 package com.mindex.challenge.service.impl;
 
+import com.mindex.challenge.data.ChangeEvent;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeeBatchReadResult;
 import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.data.requests.EmployeeBatchReadRequest;
 import com.mindex.challenge.exceptions.CircularReferenceException;
+import com.mindex.challenge.exceptions.InvalidReportingRelationshipException;
 import com.mindex.challenge.service.EmployeeService;
+import com.mindex.challenge.service.IChangeFeedService;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -14,13 +19,22 @@ import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -29,10 +43,15 @@ public class EmployeeServiceImplTest {
     private String employeeUrl;
     private String employeeIdUrl;
     private String reportingStructureUrl;
+    private String batchReadUrl;
+    private String directReportUrl;
 
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private IChangeFeedService changeFeedService;
+
     @LocalServerPort
     private int port;
 
@@ -44,6 +63,8 @@ public class EmployeeServiceImplTest {
         employeeUrl = "http://localhost:" + port + "/employee";
         employeeIdUrl = "http://localhost:" + port + "/employee/{id}";
         reportingStructureUrl = "http://localhost:" + port + "/employee/{id}/reporting-structure?includeDirectReportDetails={includeDetails}";
+        batchReadUrl = "http://localhost:" + port + "/employee/batch-read";
+        directReportUrl = "http://localhost:" + port + "/employee/{id}/direct-reports/{reportId}";
     }
 
     // Note for reviewers -> Would probably be best to split these tests into different responsibilities.
@@ -138,6 +159,186 @@ public class EmployeeServiceImplTest {
 
 
 
+    @Test
+    public void testReadManyPreservesRequestOrderAndReportsMissingIds() {
+        Employee first = createTestEmployee("Jane", "Doe", "Management", "Manager");
+        Employee second = createTestEmployee("John", "Smith", "Engineering", "Developer");
+        String missingId = "00000000-0000-0000-0000-000000000000";
+
+        EmployeeBatchReadResult result = restTemplate.getForEntity(
+                employeeUrl + "?ids={ids}",
+                EmployeeBatchReadResult.class,
+                String.join(",", second.getEmployeeId(), missingId, first.getEmployeeId(), second.getEmployeeId())
+        ).getBody();
+
+        assertNotNull(result);
+        assertEquals(2, result.getEmployees().size());
+        assertEquals(second.getEmployeeId(), result.getEmployees().get(0).getEmployeeId());
+        assertEquals(first.getEmployeeId(), result.getEmployees().get(1).getEmployeeId());
+        assertEmployeeEquivalence(second, result.getEmployees().get(0));
+        assertEquals(List.of(missingId), result.getMissingEmployeeIds());
+    }
+
+    @Test
+    public void testReadManyUsingRequestBody() {
+        Employee employee = createTestEmployee("Alice", "Brown", "Engineering", "Developer");
+
+        EmployeeBatchReadRequest request = new EmployeeBatchReadRequest();
+        request.setEmployeeIds(List.of(employee.getEmployeeId()));
+
+        EmployeeBatchReadResult result = restTemplate.postForEntity(batchReadUrl, request, EmployeeBatchReadResult.class).getBody();
+
+        assertNotNull(result);
+        assertEquals(1, result.getEmployees().size());
+        assertEquals(employee.getEmployeeId(), result.getEmployees().get(0).getEmployeeId());
+        assertEquals(0, result.getMissingEmployeeIds().size());
+    }
+
+    @Test
+    public void testReadManyWithInvalidIdReturnsBadRequest() {
+        ResponseEntity<String> response = restTemplate.getForEntity(employeeUrl + "?ids={ids}", String.class, "not-a-uuid");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    public void testCreateWithSameIdempotencyKeyReplaysOriginalEmployee() {
+        Employee testEmployee = new Employee();
+        testEmployee.setFirstName("John");
+        testEmployee.setLastName("Doe");
+        testEmployee.setDepartment("Engineering");
+        testEmployee.setPosition("Developer");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Idempotency-Key", UUID.randomUUID().toString());
+
+        Employee firstAttempt = restTemplate.postForEntity(employeeUrl, new HttpEntity<>(testEmployee, headers), Employee.class).getBody();
+        Employee retriedAttempt = restTemplate.postForEntity(employeeUrl, new HttpEntity<>(testEmployee, headers), Employee.class).getBody();
+
+        assertNotNull(firstAttempt.getEmployeeId());
+        assertEquals(firstAttempt.getEmployeeId(), retriedAttempt.getEmployeeId());
+        assertEmployeeEquivalence(firstAttempt, retriedAttempt);
+
+        testEmployee.setPosition("Development Manager");
+        ResponseEntity<String> reusedKey = restTemplate.postForEntity(employeeUrl, new HttpEntity<>(testEmployee, headers), String.class);
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reusedKey.getStatusCode());
+    }
+
+    @Test
+    public void testCreateAndUpdateAreRecordedInChangeFeed() {
+        long since = changeFeedService.latestSequence();
+
+        Employee employee = createTestEmployee("Jane", "Doe", "Management", "Manager");
+        updateEmployee(employee);
+
+        ChangeEvent[] events = restTemplate.getForEntity(
+                "http://localhost:" + port + "/changes?since={since}",
+                ChangeEvent[].class,
+                since
+        ).getBody();
+
+        assertNotNull(events);
+        assertEquals(2, events.length);
+        assertEquals(ChangeEvent.Operation.CREATED, events[0].getOperation());
+        assertEquals(ChangeEvent.Operation.UPDATED, events[1].getOperation());
+        assertEquals(employee.getEmployeeId(), events[1].getEntityId());
+        assertEquals(since + 2, events[1].getSequence());
+    }
+
+    @Test
+    public void testAddAndRemoveDirectReport() {
+        Employee manager = createTestEmployee("Jane", "Doe", "Management", "Manager");
+        Employee developer1 = createTestEmployee("John", "Smith", "Engineering", "Developer");
+        Employee developer2 = createTestEmployee("Alice", "Brown", "Engineering", "Developer");
+
+        // Existing reports are stored as full employees, the added one as a stub, both must be recognised.
+        manager.setDirectReports(List.of(developer1));
+        updateEmployee(manager);
+
+        Employee updated = restTemplate.postForEntity(directReportUrl, null, Employee.class, manager.getEmployeeId(), developer2.getEmployeeId()).getBody();
+        assertNotNull(updated);
+        assertEquals(List.of(developer1.getEmployeeId(), developer2.getEmployeeId()), directReportIds(updated));
+
+        // Adding the same report again has no effect.
+        updated = restTemplate.postForEntity(directReportUrl, null, Employee.class, manager.getEmployeeId(), developer1.getEmployeeId()).getBody();
+        assertEquals(List.of(developer1.getEmployeeId(), developer2.getEmployeeId()), directReportIds(updated));
+
+        updated = restTemplate.exchange(directReportUrl, HttpMethod.DELETE, null, Employee.class, manager.getEmployeeId(), developer1.getEmployeeId()).getBody();
+        assertEquals(List.of(developer2.getEmployeeId()), directReportIds(updated));
+
+        ReportingStructure reportingStructure = restTemplate.getForEntity(reportingStructureUrl, ReportingStructure.class, manager.getEmployeeId(), false).getBody();
+        assertEquals(1, reportingStructure.getNumberOfReports());
+    }
+
+    @Test
+    public void testAddDirectReportRejectsCycles() {
+        Employee director = createTestEmployee("Jane", "Doe", "Management", "Director");
+        Employee manager = createTestEmployee("John", "Smith", "Management", "Manager");
+        Employee developer = createTestEmployee("Alice", "Brown", "Engineering", "Developer");
+
+        restTemplate.postForEntity(directReportUrl, null, Employee.class, director.getEmployeeId(), manager.getEmployeeId());
+        restTemplate.postForEntity(directReportUrl, null, Employee.class, manager.getEmployeeId(), developer.getEmployeeId());
+
+        ResponseEntity<String> selfReport = restTemplate.postForEntity(directReportUrl, null, String.class, developer.getEmployeeId(), developer.getEmployeeId());
+        ResponseEntity<String> indirectCycle = restTemplate.postForEntity(directReportUrl, null, String.class, developer.getEmployeeId(), director.getEmployeeId());
+
+        assertEquals(HttpStatus.BAD_REQUEST, selfReport.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, indirectCycle.getStatusCode());
+        assertNull(restTemplate.getForEntity(employeeIdUrl, Employee.class, developer.getEmployeeId()).getBody().getDirectReports());
+    }
+
+    @Test
+    public void testAddDirectReportForMissingEmployeesReturnsNotFound() {
+        Employee manager = createTestEmployee("Jane", "Doe", "Management", "Manager");
+        String missingId = UUID.randomUUID().toString();
+
+        ResponseEntity<String> missingReport = restTemplate.postForEntity(directReportUrl, null, String.class, manager.getEmployeeId(), missingId);
+        ResponseEntity<String> missingManager = restTemplate.postForEntity(directReportUrl, null, String.class, missingId, manager.getEmployeeId());
+
+        assertEquals(HttpStatus.NOT_FOUND, missingReport.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, missingManager.getStatusCode());
+    }
+
+    @Test
+    public void testRemoveDirectReportThatIsNotAReportReturnsNotFound() {
+        Employee manager = createTestEmployee("Jane", "Doe", "Management", "Manager");
+        Employee developer = createTestEmployee("John", "Smith", "Engineering", "Developer");
+        String missingId = UUID.randomUUID().toString();
+
+        ResponseEntity<String> notAReport = restTemplate.exchange(directReportUrl, HttpMethod.DELETE, null, String.class, manager.getEmployeeId(), developer.getEmployeeId());
+        ResponseEntity<String> missingManager = restTemplate.exchange(directReportUrl, HttpMethod.DELETE, null, String.class, missingId, developer.getEmployeeId());
+
+        assertEquals(HttpStatus.NOT_FOUND, notAReport.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, missingManager.getStatusCode());
+    }
+
+    @Test
+    public void testConcurrentOppositeDirectReportsNeverFormACycle() throws Exception {
+        Employee employeeA = createTestEmployee("Employee", "A", "Engineering", "Developer");
+        Employee employeeB = createTestEmployee("Employee", "B", "Engineering", "Developer");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        for (int i = 0; i < 20; i++) {
+            CyclicBarrier barrier = new CyclicBarrier(2);
+            Future<?> aToB = executor.submit(() -> addDirectReportAfter(barrier, employeeA.getEmployeeId(), employeeB.getEmployeeId()));
+            Future<?> bToA = executor.submit(() -> addDirectReportAfter(barrier, employeeB.getEmployeeId(), employeeA.getEmployeeId()));
+            aToB.get();
+            bToA.get();
+
+            List<String> aReports = Objects.requireNonNullElse(employeeService.read(employeeA.getEmployeeId()).getDirectReportIds(), List.of());
+            List<String> bReports = Objects.requireNonNullElse(employeeService.read(employeeB.getEmployeeId()).getDirectReportIds(), List.of());
+            assertEquals(1, aReports.size() + bReports.size());
+
+            if (aReports.isEmpty()) {
+                employeeService.removeDirectReport(employeeB.getEmployeeId(), employeeA.getEmployeeId());
+            } else {
+                employeeService.removeDirectReport(employeeA.getEmployeeId(), employeeB.getEmployeeId());
+            }
+        }
+        executor.shutdown();
+    }
+
     @Test
     public void testCircularReferenceInReportingStructure() {
         // Create employees
@@ -206,6 +407,20 @@ public class EmployeeServiceImplTest {
         );
     }
 
+    private Void addDirectReportAfter(CyclicBarrier barrier, String managerId, String reportId) throws Exception {
+        barrier.await();
+        try {
+            employeeService.addDirectReport(managerId, reportId);
+        } catch (InvalidReportingRelationshipException ex) {
+            // The opposite addition won the race
+        }
+        return null;
+    }
+
+    private static List<String> directReportIds(Employee employee) {
+        return employee.getDirectReports().stream().map(Employee::getEmployeeId).toList();
+    }
+
     private static void assertEmployeeEquivalence(Employee expected, Employee actual) {
         assertEquals(expected.getFirstName(), actual.getFirstName());
         assertEquals(expected.getLastName(), actual.getLastName());
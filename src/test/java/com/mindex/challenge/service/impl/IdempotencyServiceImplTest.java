@@ -0,0 +1,200 @@
+package com.mindex.challenge.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.dao.InMemoryIdempotencyStore;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.exceptions.DuplicateEntityException;
+import com.mindex.challenge.exceptions.IdempotencyKeyReuseException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link IdempotencyServiceImpl}.
+ *
+ * @author Robert Heinbokel
+ */
+public class IdempotencyServiceImplTest {
+
+    private static final String SCOPE = "employee.create";
+
+    private IdempotencyServiceImpl idempotencyService;
+
+    @Before
+    public void setUp() {
+        idempotencyService = new IdempotencyServiceImpl(new InMemoryIdempotencyStore(100, Duration.ofMinutes(5)), new ObjectMapper());
+    }
+
+    @Test
+    public void testExecute_WithoutKey_AlwaysExecutes() {
+        // given
+        AtomicInteger executions = new AtomicInteger();
+
+        // when
+        idempotencyService.execute(null, SCOPE, "request", Employee.class, () -> createEmployee(executions));
+        idempotencyService.execute(null, SCOPE, "request", Employee.class, () -> createEmployee(executions));
+
+        // then
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    public void testExecute_RepeatedKey_ReplaysOriginalResult() {
+        // given
+        AtomicInteger executions = new AtomicInteger();
+
+        // when
+        Employee first = idempotencyService.execute("key", SCOPE, "request", Employee.class, () -> createEmployee(executions));
+        Employee second = idempotencyService.execute("key", SCOPE, "request", Employee.class, () -> createEmployee(executions));
+
+        // then
+        assertEquals(1, executions.get());
+        assertEquals(first.getEmployeeId(), second.getEmployeeId());
+        assertEquals(first.getFirstName(), second.getFirstName());
+    }
+
+    @Test
+    public void testExecute_SameKeyInDifferentScopes_ExecutesBoth() {
+        // given
+        AtomicInteger executions = new AtomicInteger();
+
+        // when
+        idempotencyService.execute("key", SCOPE, "request", Employee.class, () -> createEmployee(executions));
+        idempotencyService.execute("key", "other.scope", "request", Employee.class, () -> createEmployee(executions));
+
+        // then
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    public void testExecute_KeyReusedWithDifferentRequest_ThrowsException() {
+        // given
+        AtomicInteger executions = new AtomicInteger();
+        idempotencyService.execute("key", SCOPE, "request", Employee.class, () -> createEmployee(executions));
+
+        // when/then
+        assertThrows(IdempotencyKeyReuseException.class, () ->
+                idempotencyService.execute("key", SCOPE, "different request", Employee.class, () -> createEmployee(executions)));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void testExecute_FailedExecution_IsNotRemembered() {
+        // given
+        AtomicInteger executions = new AtomicInteger();
+
+        // when
+        assertThrows(DuplicateEntityException.class, () ->
+                idempotencyService.execute("key", SCOPE, "request", Employee.class, () -> {
+                    throw new DuplicateEntityException("Duplicate");
+                }));
+        Employee employee = idempotencyService.execute("key", SCOPE, "request", Employee.class, () -> createEmployee(executions));
+
+        // then
+        assertEquals(1, executions.get());
+        assertEquals("employee-1", employee.getEmployeeId());
+    }
+
+    @Test
+    public void testExecute_ConcurrentDuplicates_AreCoalescedToOneExecution() throws Exception {
+        // given
+        final int callers = 8;
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        try {
+            // when
+            List<Future<Employee>> results = new ArrayList<>();
+            results.add(executor.submit(() -> idempotencyService.execute("key", SCOPE, "request", Employee.class, () -> {
+                started.countDown();
+                await(release);
+                return createEmployee(executions);
+            })));
+            await(started);
+
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> idempotencyService.execute("key", SCOPE, "request", Employee.class, () -> createEmployee(executions))));
+            }
+            release.countDown();
+
+            // then
+            for (Future<Employee> result : results) {
+                assertEquals("employee-1", result.get(5, TimeUnit.SECONDS).getEmployeeId());
+            }
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExecute_ErrorInExecution_IsRethrownToConcurrentDuplicates() throws Exception {
+        // given
+        final int callers = 8;
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        StackOverflowError error = new StackOverflowError();
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        try {
+            // when
+            List<Future<Employee>> results = new ArrayList<>();
+            results.add(executor.submit(() -> idempotencyService.execute("key", SCOPE, "request", Employee.class, () -> {
+                started.countDown();
+                await(release);
+                executions.incrementAndGet();
+                throw error;
+            })));
+            await(started);
+
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> idempotencyService.execute("key", SCOPE, "request", Employee.class, () -> {
+                    executions.incrementAndGet();
+                    throw error;
+                })));
+            }
+            release.countDown();
+
+            // then every caller fails with the error, rather than waiting forever on the failed execution
+            for (Future<Employee> result : results) {
+                ExecutionException ex = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertSame(error, ex.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Employee createEmployee(AtomicInteger executions) {
+        Employee employee = new Employee();
+        employee.setEmployeeId("employee-" + executions.incrementAndGet());
+        employee.setFirstName("John");
+        return employee;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.mindex.challenge.service.impl;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link QuantileSketch}, checking estimates against exact quantiles of the same values.
+ *
+ * @author Robert Heinbokel
+ */
+public class QuantileSketchTest {
+
+    private static final double ACCURACY = 0.01;
+    private static final double[] QUANTILES = {0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 1};
+
+    @Test
+    public void testQuantile_LogNormalSalaries_WithinRelativeAccuracy() {
+        // given - salaries in cents around a 60k median with a long upper tail
+        Random random = new Random(42);
+        long[] values = new long[50_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.round(Math.exp(Math.log(6_000_000) + 0.5 * random.nextGaussian()));
+        }
+
+        // when
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        for (long value : values) {
+            sketch.add(value);
+        }
+
+        // then
+        assertAccurate(values, sketch);
+    }
+
+    @Test
+    public void testMerge_MatchesSingleSketchOverAllValues() {
+        // given
+        Random random = new Random(7);
+        long[] values = new long[20_000];
+        QuantileSketch[] departments = {new QuantileSketch(ACCURACY), new QuantileSketch(ACCURACY), new QuantileSketch(ACCURACY)};
+        for (int i = 0; i < values.length; i++) {
+            // Each department has its own salary band so the merged distribution is multi modal.
+            int department = i % departments.length;
+            values[i] = 3_000_000L * (department + 1) + random.nextInt(2_000_000);
+            departments[department].add(values[i]);
+        }
+
+        // when
+        QuantileSketch merged = new QuantileSketch(ACCURACY);
+        for (QuantileSketch department : departments) {
+            merged.merge(department);
+        }
+
+        // then
+        assertEquals(values.length, merged.getCount());
+        assertAccurate(values, merged);
+    }
+
+    @Test
+    public void testRemove_ForgetsRemovedValues() {
+        // given
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        long[] kept = {0, 5_000_000, 6_000_000, 7_000_000};
+        for (long value : kept) {
+            sketch.add(value);
+        }
+        sketch.add(100_000_000);
+
+        // when
+        sketch.remove(100_000_000);
+
+        // then
+        assertEquals(kept.length, sketch.getCount());
+        assertAccurate(kept, sketch);
+        assertThrows(IllegalStateException.class, () -> sketch.remove(100_000_000));
+    }
+
+    @Test
+    public void testHistogram_CountsEveryValue() {
+        // given
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        for (int i = 1; i <= 1000; i++) {
+            sketch.add(i * 10_000L);
+        }
+
+        // when
+        QuantileSketch.Histogram histogram = sketch.histogram(10);
+
+        // then
+        assertEquals(11, histogram.boundaries().length);
+        assertEquals(1000, Arrays.stream(histogram.counts()).sum());
+        for (long count : histogram.counts()) {
+            // Roughly uniform, allowing for values within the relative accuracy of either bin edge to land in the neighbouring bin.
+            assertTrue("Unexpected bin count " + count, Math.abs(count - 100) <= 2 * ACCURACY * 1000);
+        }
+    }
+
+    @Test
+    public void testHistogram_SingleValue_HasOneZeroWidthBin() {
+        // given
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        for (int i = 0; i < 5; i++) {
+            sketch.add(5_000_000);
+        }
+        long value = sketch.quantile(0.5);
+
+        // when
+        QuantileSketch.Histogram histogram = sketch.histogram(10);
+
+        // then
+        assertArrayEquals(new long[]{value, value}, histogram.boundaries());
+        assertArrayEquals(new long[]{5}, histogram.counts());
+    }
+
+    @Test
+    public void testHistogram_NarrowerRangeThanBins_HasAscendingBoundaries() {
+        // given
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        sketch.add(0);
+        sketch.add(1);
+        sketch.add(3);
+
+        // when
+        QuantileSketch.Histogram histogram = sketch.histogram(10);
+
+        // then - one bin per unit of the range, none past the largest value
+        assertArrayEquals(new long[]{0, 1, 2, 3}, histogram.boundaries());
+        assertArrayEquals(new long[]{1, 1, 1}, histogram.counts());
+    }
+
+    @Test
+    public void testQuantile_Empty() {
+        assertEquals(-1, new QuantileSketch(ACCURACY).quantile(0.5));
+    }
+
+    @Test
+    public void testMerge_DifferentAccuracy_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(0.01).merge(new QuantileSketch(0.02)));
+    }
+
+    private static void assertAccurate(long[] values, QuantileSketch sketch) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        for (double quantile : QUANTILES) {
+            long exact = sorted[(int) (quantile * (sorted.length - 1))];
+            long estimate = sketch.quantile(quantile);
+            // Half a unit of slack for rounding the estimate to a whole number of minor units.
+            assertTrue(String.format("q%s estimated %d for exact %d", quantile, estimate, exact),
+                    Math.abs(estimate - exact) <= ACCURACY * exact + 0.5);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.CompensationAnalyticsRepository.SalaryInEffect;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.dao.ICompensationRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link SalaryDistributionIndex}.
+ *
+ * @author Robert Heinbokel
+ */
+public class SalaryDistributionIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private ICompensationRepository compensationRepository;
+
+    private SalaryDistributionIndex salaryDistributionIndex;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        salaryDistributionIndex = new SalaryDistributionIndex(employeeRepository, compensationRepository, 0.01);
+
+        when(employeeRepository.findAll()).thenReturn(List.of(
+                employee("alice", "Engineering"), employee("bob", "Engineering"), employee("carol", "Sales")));
+        when(compensationRepository.streamSalariesAsOf(TODAY)).thenReturn(Stream.of(
+                new SalaryInEffect("alice", TODAY.minusYears(1), 10_000_000),
+                new SalaryInEffect("bob", TODAY.minusYears(1), 8_000_000),
+                new SalaryInEffect("carol", TODAY.minusYears(1), 6_000_000)));
+    }
+
+    @Test
+    public void testDepartmentSketch_LoadsOnFirstUseOnly() {
+        // when
+        long engineering = salaryDistributionIndex.departmentSketch("Engineering").getCount();
+        long sales = salaryDistributionIndex.departmentSketch("Sales").getCount();
+
+        // then
+        assertEquals(2, engineering);
+        assertEquals(1, sales);
+        assertEquals(0, salaryDistributionIndex.departmentSketch("Marketing").getCount());
+        verify(compensationRepository, times(1)).streamSalariesAsOf(any(LocalDate.class));
+    }
+
+    @Test
+    public void testAdd_NewerCompensationReplacesCurrentSalary() {
+        // given
+        salaryDistributionIndex.departmentSketch("Sales");
+
+        // when
+        salaryDistributionIndex.add(new Compensation("carol", new BigDecimal("90000"), TODAY));
+        salaryDistributionIndex.add(new Compensation("carol", new BigDecimal("1"), TODAY.minusYears(5)));
+        salaryDistributionIndex.add(new Compensation("carol", new BigDecimal("1"), TODAY.plusDays(1)));
+
+        // then - only the newest compensation in effect counts
+        assertEquals(1, salaryDistributionIndex.departmentSketch("Sales").getCount());
+        assertEquals(9_000_000, salaryDistributionIndex.departmentSketch("Sales").quantile(0.5), 90_000);
+    }
+
+    @Test
+    public void testUpdateDepartment_MovesSalary() {
+        // given
+        salaryDistributionIndex.departmentSketch("Sales");
+
+        // when
+        salaryDistributionIndex.updateDepartment("bob", "Sales");
+
+        // then
+        assertEquals(1, salaryDistributionIndex.departmentSketch("Engineering").getCount());
+        assertEquals(2, salaryDistributionIndex.departmentSketch("Sales").getCount());
+    }
+
+    @Test
+    public void testSketchOf_IncludesOnlyGivenEmployeesWithSalaries() {
+        // when
+        long count = salaryDistributionIndex.sketchOf(List.of("alice", "carol", "nobody")).getCount();
+
+        // then
+        assertEquals(2, count);
+    }
+
+    @Test
+    public void testAdd_BeforeFirstUse_LeftToLoad() {
+        // when
+        salaryDistributionIndex.add(new Compensation("dave", new BigDecimal("50000"), TODAY));
+        salaryDistributionIndex.updateDepartment("dave", "Sales");
+
+        // then
+        verify(employeeRepository, never()).findAll();
+        verify(compensationRepository, never()).streamSalariesAsOf(any(LocalDate.class));
+    }
+
+    @Test
+    public void testAdd_DuringRebuild_IsNotBlockedAndKept() {
+        // given - the compensation is created while the salaries are being read, after carol's was read
+        when(compensationRepository.streamSalariesAsOf(TODAY)).thenAnswer(invocation -> Stream.of(
+                new SalaryInEffect("alice", TODAY.minusYears(1), 10_000_000),
+                new SalaryInEffect("carol", TODAY.minusYears(1), 6_000_000)
+        ).peek(salary -> {
+            if (salary.employeeId().equals("carol")) {
+                CompletableFuture.runAsync(() -> {
+                    salaryDistributionIndex.add(new Compensation("carol", new BigDecimal("90000"), TODAY));
+                    salaryDistributionIndex.updateDepartment("bob", "Sales");
+                }).orTimeout(5, TimeUnit.SECONDS).join();
+            }
+        }));
+
+        // when
+        long sales = salaryDistributionIndex.departmentSketch("Sales").getCount();
+
+        // then - the writes were replayed onto the rebuilt index
+        assertEquals(1, sales);
+        assertEquals(9_000_000, salaryDistributionIndex.departmentSketch("Sales").quantile(0.5), 90_000);
+        assertEquals(1, salaryDistributionIndex.departmentSketch("Engineering").getCount());
+    }
+
+    @Test
+    public void testDepartmentSketch_FailedLoad_IsRetriedOnNextUse() {
+        // given
+        when(compensationRepository.streamSalariesAsOf(TODAY))
+                .thenThrow(new DataAccessResourceFailureException("Cursor failed"))
+                .thenReturn(Stream.of(new SalaryInEffect("carol", TODAY.minusYears(1), 6_000_000)));
+        assertThrows(DataAccessResourceFailureException.class, () -> salaryDistributionIndex.departmentSketch("Sales"));
+
+        // when
+        long sales = salaryDistributionIndex.departmentSketch("Sales").getCount();
+
+        // then
+        assertEquals(1, sales);
+        verify(compensationRepository, times(2)).streamSalariesAsOf(TODAY);
+    }
+
+    private static Employee employee(String employeeId, String department) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        employee.setDepartment(department);
+        return employee;
+    }
+}
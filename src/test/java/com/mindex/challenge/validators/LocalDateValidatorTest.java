@@ -3,6 +3,12 @@ package com.mindex.challenge.validators;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -104,4 +110,62 @@ public class LocalDateValidatorTest {
         assertTrue("A valid leap year date should return true", result);
     }
 
+    @Test
+    public void testValidDate_DayBeyondEndOfMonthAcceptedByFormatter() {
+        // given
+        String shortMonthDate = "2023-02-31"; // The formatter's smart resolver moves this to 2023-02-28
+
+        // when
+        boolean result = localDateValidator.isValid(shortMonthDate, null);
+
+        // then
+        assertTrue("A date accepted by the yyyy-MM-dd formatter should return true", result);
+    }
+
+    @Test
+    public void testIsValid_MatchesFormatterForRandomInputs() {
+        // given - random signs, digit counts and separators around the yyyy-MM-dd shape, seeded so failures are reproducible
+        final Random random = new Random(47);
+        final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        final String[] signs = {"", "", "", "+", "-"};
+        final String separators = "----/ x";
+
+        for (int i = 0; i < 200_000; i++) {
+            final StringBuilder value = new StringBuilder(signs[random.nextInt(signs.length)]);
+            appendDigits(value, random, random.nextInt(4) == 0 ? random.nextInt(21) : 4);
+            value.append(separators.charAt(random.nextInt(separators.length())));
+            appendDigits(value, random, random.nextInt(8) == 0 ? random.nextInt(4) : 2);
+            value.append(separators.charAt(random.nextInt(separators.length())));
+            appendDigits(value, random, random.nextInt(8) == 0 ? random.nextInt(4) : 2);
+            if (random.nextInt(16) == 0) {
+                value.append(separators.charAt(random.nextInt(separators.length())));
+            }
+
+            // when
+            final boolean result = localDateValidator.isValid(value.toString(), null);
+
+            // then
+            assertEquals(value.toString(), parsesAsLocalDate(value.toString(), formatter), result);
+        }
+    }
+
+    private static void appendDigits(StringBuilder value, Random random, int digits) {
+        // Mostly small digits, so months and days are regularly in range
+        for (int i = 0; i < digits; i++) {
+            value.append(random.nextInt(3) == 0 ? random.nextInt(10) : random.nextInt(4));
+        }
+    }
+
+    private static boolean parsesAsLocalDate(String value, DateTimeFormatter formatter) {
+        if (value.isBlank()) {
+            return false;
+        }
+        try {
+            LocalDate.parse(value, formatter);
+            return true;
+        } catch (DateTimeParseException ex) {
+            return false;
+        }
+    }
+
 }
@@ -3,6 +3,10 @@ package com.mindex.challenge.validators;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -68,4 +72,61 @@ public class UUIDValidatorTest {
         assertFalse("A blank UUID should return false", result);
     }
 
+    @Test
+    public void testValidUUID_NonCanonicalFormAcceptedByUUIDFromString() {
+        // given
+        String shortUUID = "+1-2-3-4-5";
+
+        // when
+        boolean result = uuidValidator.isValid(shortUUID, null);
+
+        // then
+        assertTrue("A UUID accepted by UUID.fromString should return true", result);
+    }
+
+    @Test
+    public void testIsValid_MatchesUUIDFromStringForRandomInputs() {
+        // given - mutated UUIDs and random dash separated components, seeded so failures are reproducible
+        final Random random = new Random(47);
+        final String alphabet = "0123456789abcdefABCDEFg+- \uFF21\u0663";
+
+        for (int i = 0; i < 200_000; i++) {
+            final StringBuilder value = new StringBuilder();
+            if (random.nextBoolean()) {
+                value.append(new UUID(random.nextLong(), random.nextLong()));
+                for (int mutations = random.nextInt(3); mutations > 0; mutations--) {
+                    value.setCharAt(random.nextInt(value.length()), alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+            } else {
+                final int components = random.nextInt(7);
+                for (int component = 0; component < components; component++) {
+                    if (component > 0) {
+                        value.append('-');
+                    }
+                    for (int digits = random.nextInt(18); digits > 0; digits--) {
+                        value.append(random.nextInt(4) == 0 ? '0' : alphabet.charAt(random.nextInt(alphabet.length())));
+                    }
+                }
+            }
+
+            // when
+            final boolean result = uuidValidator.isValid(value.toString(), null);
+
+            // then
+            assertEquals(value.toString(), parsesAsUUID(value.toString()), result);
+        }
+    }
+
+    private static boolean parsesAsUUID(String value) {
+        if (value.isBlank()) {
+            return false;
+        }
+        try {
+            UUID.fromString(value);
+            return true;
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
 }